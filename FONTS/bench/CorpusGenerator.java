@@ -0,0 +1,301 @@
+package bench;
+
+import Response.Answer;
+import Response.IntAnswer;
+import Response.MultipleChoiceAnswer;
+import Response.SingleChoiceAnswer;
+import Response.SurveyResponse;
+import Response.TextAnswer;
+import Survey.ChoiceOption;
+import Survey.MultipleChoiceQuestion;
+import Survey.OpenIntQuestion;
+import Survey.OpenStringQuestion;
+import Survey.Question;
+import Survey.SingleChoiceQuestion;
+import Survey.Survey;
+import importexport.TxtResponseSerializer;
+import importexport.TxtSurveySerializer;
+import java.io.BufferedWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import persistence.UserPersistence;
+import user.RegisteredUser;
+
+/**
+ * Generador de corpus sintètics d'enquestes i respostes per a proves d'escala.
+ *
+ * <p>Escriu un arbre {@code DATA/} compatible amb la persistència
+ * ({@code surveys/<id>.tbs}, {@code responses/<id>.tbs} i, opcionalment,
+ * {@code userdata.json}) amb {@link TxtSurveySerializer} i
+ * {@link TxtResponseSerializer}. Les respostes es generen i s'escriuen una a
+ * una, de manera que la memòria usada no depèn del nombre de respostes.</p>
+ *
+ * <p>Cada enquesta té {@code clusters} perfils plantats: cada resposta tria un
+ * perfil i en segueix les preferències (opció preferida, conjunt d'opcions,
+ * mitjana numèrica i paraules habituals) excepte amb probabilitat
+ * {@code noise}. El grup real de cada resposta es desa a
+ * {@code responses/<id>.labels} ({@code responseId,grup}) per poder validar
+ * el clustering.</p>
+ *
+ * <p>Ús: {@code java bench.CorpusGenerator --out DIR [opcions]}</p>
+ * <pre>
+ *   --out DIR          directori DATA de sortida (obligatori)
+ *   --surveys N        enquestes (1)
+ *   --responses N      respostes per enquesta (100000)
+ *   --questions N      preguntes per enquesta (20)
+ *   --mix s=w,m=w,i=w,t=w  pesos d'opció única, múltiple, enter i text (4,2,2,1)
+ *   --options N        opcions per pregunta d'opció (6)
+ *   --clusters N       perfils plantats per enquesta (4)
+ *   --noise P          probabilitat de respondre a l'atzar (0.15)
+ *   --missing P        probabilitat de deixar una pregunta sense resposta (0.05)
+ *   --vocab N          mida del vocabulari de text (500)
+ *   --words N          paraules per resposta de text (8)
+ *   --users N          usuaris registrats a userdata.json (0 = no s'escriu)
+ *   --seed N           llavor (42)
+ * </pre>
+ */
+public final class CorpusGenerator {
+
+    private Path out;
+    private int surveys = 1;
+    private int responses = 100_000;
+    private int questions = 20;
+    private int[] mix = {4, 2, 2, 1};
+    private int options = 6;
+    private int clusters = 4;
+    private double noise = 0.15;
+    private double missing = 0.05;
+    private int vocab = 500;
+    private int words = 8;
+    private int users;
+    private long seed = 42L;
+
+    private CorpusGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        CorpusGenerator gen = new CorpusGenerator();
+        gen.parseArgs(args);
+        if (gen.out == null) {
+            System.err.println("Ús: CorpusGenerator --out <DATA> [opcions] (vegeu la documentació de la classe)");
+            System.exit(1);
+        }
+        gen.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--out" -> out = Path.of(args[++i]);
+                case "--surveys" -> surveys = Integer.parseInt(args[++i]);
+                case "--responses" -> responses = Integer.parseInt(args[++i]);
+                case "--questions" -> questions = Integer.parseInt(args[++i]);
+                case "--mix" -> mix = parseMix(args[++i]);
+                case "--options" -> options = Integer.parseInt(args[++i]);
+                case "--clusters" -> clusters = Integer.parseInt(args[++i]);
+                case "--noise" -> noise = Double.parseDouble(args[++i]);
+                case "--missing" -> missing = Double.parseDouble(args[++i]);
+                case "--vocab" -> vocab = Integer.parseInt(args[++i]);
+                case "--words" -> words = Integer.parseInt(args[++i]);
+                case "--users" -> users = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Opció desconeguda: " + args[i]);
+            }
+        }
+        if (clusters < 1 || options < 2 || vocab < 1) {
+            throw new IllegalArgumentException("Cal clusters >= 1, options >= 2 i vocab >= 1");
+        }
+    }
+
+    private static int[] parseMix(String spec) {
+        int[] w = new int[4];
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            int weight = Integer.parseInt(kv[1].trim());
+            switch (kv[0].trim().toLowerCase().charAt(0)) {
+                case 's' -> w[0] = weight;
+                case 'm' -> w[1] = weight;
+                case 'i' -> w[2] = weight;
+                case 't' -> w[3] = weight;
+                default -> throw new IllegalArgumentException("Tipus de pregunta desconegut: " + kv[0]);
+            }
+        }
+        if (w[0] + w[1] + w[2] + w[3] <= 0) throw new IllegalArgumentException("Barreja buida: " + spec);
+        return w;
+    }
+
+    private void run() throws Exception {
+        Path surveysDir = out.resolve("surveys");
+        Path responsesDir = out.resolve("responses");
+        Files.createDirectories(surveysDir);
+        Files.createDirectories(responsesDir);
+        String[] lexicon = buildLexicon(vocab);
+
+        long start = System.nanoTime();
+        long written = 0;
+        for (int s = 0; s < surveys; s++) {
+            Random rnd = new Random(seed + s);
+            Survey survey = buildSurvey("corpus-" + s, rnd);
+            new TxtSurveySerializer().toFile(survey, surveysDir.resolve(survey.getId() + ".tbs").toString());
+            Profile[] profiles = buildProfiles(survey, rnd);
+            written += writeResponses(survey, profiles, lexicon, responsesDir, rnd);
+            System.out.printf("%s: %d preguntes, %d respostes%n", survey.getId(), survey.getQuestions().size(), responses);
+        }
+        if (users > 0) {
+            writeUsers(out.resolve("userdata.json"));
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d respostes escrites a %s en %.1f s (%.0f respostes/s)%n", written, out, secs, written / secs);
+    }
+
+    // ==================== ENQUESTA I PERFILS ====================
+
+    private Survey buildSurvey(String id, Random rnd) throws Exception {
+        Survey survey = new Survey(id, "Corpus " + id, "Enquesta sintètica", "corpus",
+                clusters < 2 ? 2 : clusters, "kmeans++", "euclidean", "", "");
+        int total = mix[0] + mix[1] + mix[2] + mix[3];
+        for (int q = 1; q <= questions; q++) {
+            int r = rnd.nextInt(total);
+            Question question;
+            if ((r -= mix[0]) < 0) {
+                SingleChoiceQuestion sq = new SingleChoiceQuestion(q, "Pregunta " + q, false, q, 1.0);
+                for (int o = 1; o <= options; o++) sq.addOption(new ChoiceOption(o, "Opció " + o));
+                question = sq;
+            } else if ((r -= mix[1]) < 0) {
+                MultipleChoiceQuestion mq = new MultipleChoiceQuestion(q, "Pregunta " + q, false, q, 1.0, 0, options);
+                for (int o = 1; o <= options; o++) mq.addOption(new ChoiceOption(o, "Opció " + o));
+                question = mq;
+            } else if ((r -= mix[2]) < 0) {
+                question = new OpenIntQuestion(q, "Pregunta " + q, false, q, 1.0, 0, 100);
+            } else {
+                question = new OpenStringQuestion(q, "Pregunta " + q, false, q, 1.0, 1000);
+            }
+            survey.addQuestion(question);
+        }
+        return survey;
+    }
+
+    /** Preferències d'un grup plantat, per pregunta (indexades per posició). */
+    private static final class Profile {
+        int[] preferred;       // opció única preferida
+        boolean[][] chosen;    // conjunt d'opcions múltiples preferit
+        double[] mean;         // mitjana de les preguntes enteres
+        int[] wordOffset;      // inici del tram de vocabulari preferit
+    }
+
+    private Profile[] buildProfiles(Survey survey, Random rnd) {
+        int nq = survey.getQuestions().size();
+        Profile[] profiles = new Profile[clusters];
+        for (int c = 0; c < clusters; c++) {
+            Profile p = new Profile();
+            p.preferred = new int[nq];
+            p.chosen = new boolean[nq][];
+            p.mean = new double[nq];
+            p.wordOffset = new int[nq];
+            for (int q = 0; q < nq; q++) {
+                p.preferred[q] = 1 + rnd.nextInt(options);
+                p.chosen[q] = new boolean[options + 1];
+                for (int o = 1; o <= options; o++) p.chosen[q][o] = rnd.nextDouble() < 0.35;
+                p.mean[q] = 10 + rnd.nextDouble() * 80;
+                p.wordOffset[q] = rnd.nextInt(vocab);
+            }
+            profiles[c] = p;
+        }
+        return profiles;
+    }
+
+    // ==================== RESPOSTES ====================
+
+    private long writeResponses(Survey survey, Profile[] profiles, String[] lexicon, Path dir, Random rnd)
+            throws Exception {
+        TxtResponseSerializer serializer = new TxtResponseSerializer();
+        List<Question> qs = survey.getQuestions();
+        Path target = dir.resolve(survey.getId() + ".tbs");
+        Path labels = dir.resolve(survey.getId() + ".labels");
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(
+                     Files.newBufferedWriter(target, StandardCharsets.UTF_8), 1 << 16));
+             BufferedWriter labelWriter = Files.newBufferedWriter(labels, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < responses; i++) {
+                int cluster = rnd.nextInt(clusters);
+                Profile p = profiles[cluster];
+                List<Answer> answers = new ArrayList<>(qs.size());
+                for (int q = 0; q < qs.size(); q++) {
+                    if (rnd.nextDouble() < missing) continue;
+                    answers.add(answer(qs.get(q), q, p, lexicon, rnd));
+                }
+                String id = survey.getId() + "-r" + i;
+                serializer.writeResponse(writer, new SurveyResponse(id, survey.getId(), "u" + (users > 0 ? i % users : i), "", answers));
+                labelWriter.write(id);
+                labelWriter.write(',');
+                labelWriter.write(Integer.toString(cluster));
+                labelWriter.newLine();
+            }
+            if (writer.checkError()) throw new java.io.IOException("Error escrivint " + target);
+        }
+        return responses;
+    }
+
+    private Answer answer(Question question, int q, Profile p, String[] lexicon, Random rnd) throws Exception {
+        boolean random = rnd.nextDouble() < noise;
+        int id = question.getId();
+        if (question instanceof SingleChoiceQuestion) {
+            return new SingleChoiceAnswer(id, random ? 1 + rnd.nextInt(options) : p.preferred[q]);
+        }
+        if (question instanceof MultipleChoiceQuestion) {
+            List<Integer> opts = new ArrayList<>();
+            for (int o = 1; o <= options; o++) {
+                if (random ? rnd.nextBoolean() : p.chosen[q][o]) opts.add(o);
+            }
+            if (opts.isEmpty()) opts.add(random ? 1 + rnd.nextInt(options) : p.preferred[q]);
+            return new MultipleChoiceAnswer(id, opts);
+        }
+        if (question instanceof OpenIntQuestion) {
+            double v = random ? rnd.nextDouble() * 100 : p.mean[q] + rnd.nextGaussian() * 5;
+            return new IntAnswer(id, (int) Math.max(0, Math.min(100, Math.round(v))));
+        }
+        StringBuilder sb = new StringBuilder();
+        // Vocabulari de cada grup: tram de 1/clusters del lèxic a partir del seu offset.
+        int span = Math.max(1, vocab / clusters);
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            int idx = random ? rnd.nextInt(vocab) : (p.wordOffset[q] + zipf(span, rnd)) % vocab;
+            sb.append(lexicon[idx]);
+        }
+        return new TextAnswer(id, sb.toString());
+    }
+
+    /** Rang aproximadament Zipf(1) a [0, n): les primeres paraules del tram surten molt més. */
+    private static int zipf(int n, Random rnd) {
+        return (int) Math.min(n - 1, Math.floor(Math.pow(n + 1, rnd.nextDouble()) - 1));
+    }
+
+    private static String[] buildLexicon(int size) {
+        String[] syllables = {"ba", "ce", "di", "fo", "gu", "la", "me", "ni", "po", "ru", "sa", "te", "vi", "xo", "zu", "ra"};
+        String[] lexicon = new String[size];
+        for (int i = 0; i < size; i++) {
+            StringBuilder sb = new StringBuilder();
+            int v = i;
+            do {
+                sb.append(syllables[v % syllables.length]);
+                v /= syllables.length;
+            } while (v > 0);
+            lexicon[i] = sb.toString();
+        }
+        return lexicon;
+    }
+
+    private void writeUsers(Path target) throws Exception {
+        // Mateix hash que AuthService.hashPassword: tots els usuaris tenen contrasenya "secret".
+        String hash = Integer.toHexString("secret".hashCode());
+        List<RegisteredUser> list = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            list.add(new RegisteredUser("u" + i, "User " + i, "", "user" + i, hash));
+        }
+        new UserPersistence(target).persistAllUsers(list);
+    }
+}
@@ -0,0 +1,64 @@
+package bench;
+
+import distance.Distance;
+import distance.Distances;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import kmeans.ClusterModel;
+import kmeans.KMeansParallel;
+import kmeans.KMeansPlusPlus;
+import matrix.FeatureMatrix;
+
+/**
+ * Compara la inicialització K-Means++ amb K-Means|| ({@link KMeansParallel}):
+ * temps de triar els k centroides, cost de la llavor (inèrcia abans de cap
+ * iteració de Lloyd) i inèrcia final.
+ *
+ * <p>Ús: {@code java bench.InitBenchmark [mida1,mida2,...] [d] [k]}</p>
+ */
+public final class InitBenchmark {
+
+    private static final long SEED = 42L;
+
+    private InitBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : new int[]{100_000, 1_000_000};
+        int d = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+        Distance dist = Distances.euclidean();
+        ExecutorService pool = ForkJoinPool.commonPool();
+
+        System.out.printf("%-10s %-10s %-10s %-14s %-14s%n", "n", "init", "ms", "seed cost", "final inertia");
+        for (int n : sizes) {
+            FeatureMatrix X = FeatureMatrix.of(SyntheticData.blobs(n, d, k, 0.0, SEED));
+            double[] norms = dist.norms(X);
+            KMeansPlusPlus kpp = new KMeansPlusPlus();
+            KMeansParallel parallel = new KMeansParallel(KMeansParallel.DEFAULT_OVERSAMPLING,
+                    KMeansParallel.DEFAULT_ROUNDS, pool);
+            kpp.initialCentroids(X, norms, k, dist, SEED); // escalfament
+            parallel.initialCentroids(X, norms, k, dist, SEED);
+
+            for (String name : new String[]{"kmeans++", "kmeans||"}) {
+                long start = System.nanoTime();
+                double[][] C = name.equals("kmeans++")
+                        ? kpp.initialCentroids(X, norms, k, dist, SEED)
+                        : parallel.initialCentroids(X, norms, k, dist, SEED);
+                double ms = (System.nanoTime() - start) / 1e6;
+                double seedCost = kpp.fitWithCustomInit(X, norms, C, dist, 1, 0.0).getInertia();
+                ClusterModel model = kpp.fitWithCustomInit(X, norms, C, dist, 100, 1e-4);
+                System.out.printf("%-10d %-10s %-10.1f %-14.4g %-14.4g%n", n, name, ms, seedCost, model.getInertia());
+            }
+        }
+    }
+
+    private static int[] parseSizes(String csv) {
+        String[] parts = csv.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
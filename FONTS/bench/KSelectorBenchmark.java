@@ -0,0 +1,72 @@
+package bench;
+
+import distance.Distance;
+import distance.Distances;
+import java.util.concurrent.ForkJoinPool;
+import kmeans.ClusterModel;
+import kmeans.KMeansPlusPlus;
+import kselector.ElbowMethod;
+import kselector.GapStatistic;
+import kselector.IKSelector;
+import kselector.SilhouetteMethod;
+import matrix.FeatureMatrix;
+import validation.Silhouette;
+
+/**
+ * Compara els selectors de k ({@link ElbowMethod}, {@link SilhouetteMethod},
+ * {@link GapStatistic}) sobre grups gaussians amb un k conegut: temps de paret
+ * i k escollit per a cada mida.
+ *
+ * <p>Com a referència, mesura també una sola silueta exacta (O(n²)), que és el
+ * que costaria cada k si el selector de silueta no mostregés.</p>
+ *
+ * <p>Ús: {@code java bench.KSelectorBenchmark [mida1,mida2,...] [d] [k] [kMax]}</p>
+ */
+public final class KSelectorBenchmark {
+
+    private static final long SEED = 42L;
+
+    private KSelectorBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : new int[]{2_000, 20_000, 100_000};
+        int d = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int k = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+        int kMax = args.length > 3 ? Integer.parseInt(args[3]) : 12;
+        Distance dist = Distances.euclidean();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+
+        System.out.printf("%-10s %-12s %-8s %-12s%n", "n", "selector", "k", "ms");
+        for (int n : sizes) {
+            FeatureMatrix X = FeatureMatrix.of(SyntheticData.blobs(n, d, k, 0.0, SEED));
+            IKSelector[] selectors = {
+                    new ElbowMethod(pool, false),
+                    new SilhouetteMethod(pool, SilhouetteMethod.DEFAULT_SAMPLE_SIZE),
+                    new GapStatistic(pool, GapStatistic.DEFAULT_REFERENCES, GapStatistic.DEFAULT_REFERENCE_SIZE)
+            };
+            String[] names = {"elbow", "silhouette", "gap"};
+            selectors[0].suggestK(X, 2, kMax, new KMeansPlusPlus(), dist, SEED); // escalfament
+            for (int s = 0; s < selectors.length; s++) {
+                long start = System.nanoTime();
+                int chosen = selectors[s].suggestK(X, 2, kMax, new KMeansPlusPlus(), dist, SEED);
+                System.out.printf("%-10d %-12s %-8d %-12.1f%n", n, names[s], chosen, (System.nanoTime() - start) / 1e6);
+            }
+            if (n <= 50_000) {
+                ClusterModel model = new KMeansPlusPlus().fit(X, k, dist, SEED, 200, 1e-4);
+                long start = System.nanoTime();
+                new Silhouette().average(X, model, dist);
+                System.out.printf("%-10d %-12s %-8d %-12.1f%n", n, "exact-sil", k, (System.nanoTime() - start) / 1e6);
+            }
+        }
+    }
+
+    private static int[] parseSizes(String csv) {
+        String[] parts = csv.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
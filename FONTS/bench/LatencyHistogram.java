@@ -0,0 +1,118 @@
+package bench;
+
+import java.io.PrintStream;
+
+/**
+ * Histograma de latències log-lineal (a l'estil d'HdrHistogram) amb
+ * precisió relativa d'~1,6% sobre tot el rang de {@code long}.
+ *
+ * <p>Els valors petits (&lt; 128) tenen cubeta pròpia; per sobre, cada
+ * potència de dos es divideix en 64 cubetes iguals. No és segur entre fils:
+ * cada fil en fa servir un de propi i al final es combinen amb {@link #add}.</p>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;        // 128
+    private static final int HALF_SUB = SUB_COUNT >> 1;         // 64
+    private static final int BUCKETS = (64 - SUB_BITS + 1) * HALF_SUB + HALF_SUB;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total;
+    private long min = Long.MAX_VALUE;
+    private long max;
+    private double sum;
+
+    /** Registra un valor (negatius es compten com 0). */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts[indexOf(v)]++;
+        total++;
+        sum += v;
+        if (v < min) min = v;
+        if (v > max) max = v;
+    }
+
+    /** Afegeix els comptatges d'un altre histograma a aquest. */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) counts[i] += other.counts[i];
+        total += other.total;
+        sum += other.sum;
+        if (other.total > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long min() {
+        return total == 0 ? 0 : min;
+    }
+
+    public long max() {
+        return max;
+    }
+
+    public double mean() {
+        return total == 0 ? 0.0 : sum / total;
+    }
+
+    /**
+     * Valor del percentil indicat (0..100): el límit superior de la cubeta
+     * on cau, acotat pel màxim observat.
+     */
+    public long percentile(double p) {
+        if (total == 0) return 0;
+        long rank = Math.max(1L, (long) Math.ceil(p / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(max, upperBound(i));
+        }
+        return max;
+    }
+
+    /**
+     * Escriu la distribució de percentils amb el format de
+     * {@code HdrHistogram.outputPercentileDistribution} (valors dividits per {@code scale}).
+     */
+    public void printPercentileDistribution(PrintStream out, double scale) {
+        out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+        if (total == 0) return;
+        double[] ps = {0, 10, 20, 30, 40, 50, 55, 60, 65, 70, 75, 77.5, 80, 82.5, 85, 87.5,
+                88.75, 90, 91.25, 92.5, 93.75, 95, 96.875, 98.4375, 99, 99.21875, 99.609375,
+                99.8046875, 99.9, 99.90234375, 99.951171875, 99.99, 100};
+        for (double p : ps) {
+            long value = p == 0 ? min() : percentile(p);
+            long below = countAtOrBelow(value);
+            double frac = p / 100.0;
+            String inv = frac >= 1.0 ? "" : String.format("%14.2f", 1.0 / (1.0 - frac));
+            out.printf("%12.3f %14.12f %10d %s%n", value / scale, frac, below, inv);
+        }
+        out.printf("#[Mean    = %12.3f, Max     = %12.3f]%n", mean() / scale, max / scale);
+        out.printf("#[Total count    = %12d]%n", total);
+    }
+
+    private long countAtOrBelow(long value) {
+        int idx = indexOf(value);
+        long c = 0;
+        for (int i = 0; i <= idx; i++) c += counts[i];
+        return c;
+    }
+
+    static int indexOf(long v) {
+        if (v < SUB_COUNT) return (int) v;
+        int shift = (63 - Long.numberOfLeadingZeros(v)) - (SUB_BITS - 1);
+        return shift * HALF_SUB + (int) (v >>> shift);
+    }
+
+    static long upperBound(int idx) {
+        if (idx < SUB_COUNT) return idx;
+        int shift = idx / HALF_SUB - 1;
+        long sub = idx - (long) shift * HALF_SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+}
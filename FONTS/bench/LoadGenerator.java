@@ -0,0 +1,298 @@
+package bench;
+
+import Response.SurveyResponse;
+import Survey.Survey;
+import app.DomainDriver;
+import app.controller.UserController;
+import importexport.TxtResponseSerializer;
+import importexport.TxtSurveySerializer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import persistence.PersistenceDriver;
+import persistence.ResponsePersistance;
+import persistence.SurveyPersistence;
+import persistence.UserPersistence;
+import user.AuthService;
+import user.RegisteredUser;
+
+/**
+ * Generador de càrrega d'extrem a extrem per al protocol de {@link DomainDriver}.
+ *
+ * <p>Crea un arbre {@code DATA/} sintètic (usuaris, enquestes i respostes),
+ * arrenca {@code clients} fils que comparteixen persistència i
+ * {@link AuthService} (com {@code DomainServer}) amb un {@link DomainDriver}
+ * propi cadascun, i hi reprodueix una barreja ponderada d'ordres. Al final
+ * mostra, per tipus d'ordre, el throughput, els errors i els percentils
+ * p50/p99/p999 de latència.</p>
+ *
+ * <p>Ús: {@code java bench.LoadGenerator [opcions]}</p>
+ * <pre>
+ *   --ops N          ordres per client (per defecte 2000)
+ *   --clients N      fils client concurrents (4)
+ *   --users N        usuaris registrats (1000)
+ *   --surveys N      enquestes (20)
+ *   --responses N    respostes inicials per enquesta (200)
+ *   --questions N    preguntes per enquesta (12)
+ *   --mix A=w,B=w    pesos per ordre (LOGIN=10,GET_SURVEYS=30,ANSWER_SURVEY=35,LIST_RESPONSES=20,PERFORM_ANALYSIS=5)
+ *   --data DIR       directori DATA a fer servir (per defecte, un de temporal que s'esborra)
+ *   --seed N         llavor (42)
+ *   --hgrm           imprimeix també la distribució completa de cada ordre
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final String PASSWORD = "secret";
+    private static final String DEFAULT_MIX =
+            "LOGIN=10,GET_SURVEYS=30,ANSWER_SURVEY=35,LIST_RESPONSES=20,PERFORM_ANALYSIS=5";
+
+    private int ops = 2000;
+    private int clients = 4;
+    private int users = 1000;
+    private int surveys = 20;
+    private int responses = 200;
+    private int questions = 12;
+    private String mix = DEFAULT_MIX;
+    private Path dataDir;
+    private long seed = 42L;
+    private boolean hgrm;
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGenerator gen = new LoadGenerator();
+        gen.parseArgs(args);
+        gen.run();
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--ops" -> ops = Integer.parseInt(args[++i]);
+                case "--clients" -> clients = Integer.parseInt(args[++i]);
+                case "--users" -> users = Integer.parseInt(args[++i]);
+                case "--surveys" -> surveys = Integer.parseInt(args[++i]);
+                case "--responses" -> responses = Integer.parseInt(args[++i]);
+                case "--questions" -> questions = Integer.parseInt(args[++i]);
+                case "--mix" -> mix = args[++i];
+                case "--data" -> dataDir = Path.of(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--hgrm" -> hgrm = true;
+                default -> throw new IllegalArgumentException("Opció desconeguda: " + args[i]);
+            }
+        }
+    }
+
+    private void run() throws Exception {
+        boolean temporary = dataDir == null;
+        Path data = temporary ? Files.createTempDirectory("tribus-load").resolve("DATA") : dataDir;
+        try {
+            long t0 = System.nanoTime();
+            List<String> surveyIds = populate(data);
+            System.out.printf("DATA sintètic a %s: %d usuaris, %d enquestes x %d respostes (%.1f s)%n",
+                    data, users, surveys, responses, (System.nanoTime() - t0) / 1e9);
+
+            PersistenceDriver persistence = persistenceFor(data);
+            AuthService auth = new AuthService();
+            auth.loadRegisteredUsers(persistence.loadAllUsers());
+
+            String[] commands = parseMix(mix);
+            Worker[] workers = new Worker[clients];
+            CountDownLatch start = new CountDownLatch(1);
+            Thread[] threads = new Thread[clients];
+            for (int c = 0; c < clients; c++) {
+                workers[c] = new Worker(persistence, auth, commands, surveyIds, seed + c, start);
+                threads[c] = new Thread(workers[c], "load-client-" + c);
+                threads[c].start();
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Thread t : threads) t.join();
+            long elapsed = System.nanoTime() - begin;
+
+            report(workers, elapsed);
+        } finally {
+            if (temporary) deleteTree(data.getParent());
+        }
+    }
+
+    // ==================== DADES ====================
+
+    private static PersistenceDriver persistenceFor(Path data) {
+        return new PersistenceDriver(
+                new UserPersistence(data.resolve("userdata.json")),
+                new SurveyPersistence(data.resolve("surveys"), new TxtSurveySerializer()),
+                new ResponsePersistance(data.resolve("responses"), new TxtResponseSerializer()));
+    }
+
+    private List<String> populate(Path data) throws Exception {
+        PersistenceDriver persistence = persistenceFor(data);
+        // Mateix hash que AuthService.hashPassword per poder fer login.
+        String hash = Integer.toHexString(PASSWORD.hashCode());
+        List<RegisteredUser> list = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            list.add(new RegisteredUser("id" + i, "User " + i, "", "user" + i, hash));
+        }
+        persistence.persistAllUsers(list);
+
+        List<String> ids = new ArrayList<>(surveys);
+        for (int s = 0; s < surveys; s++) {
+            Survey survey = SyntheticData.survey("load-" + s, questions);
+            persistence.saveSurvey(survey);
+            List<SurveyResponse> rs = SyntheticData.responses(survey, responses, 0.1, seed + s);
+            persistence.saveAllResponses(survey.getId(), rs);
+            ids.add(survey.getId());
+        }
+        return ids;
+    }
+
+    private static String[] parseMix(String spec) {
+        List<String> weighted = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] kv = part.trim().split("=");
+            int w = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            for (int i = 0; i < w; i++) weighted.add(kv[0].trim().toUpperCase());
+        }
+        if (weighted.isEmpty()) throw new IllegalArgumentException("Barreja buida: " + spec);
+        return weighted.toArray(new String[0]);
+    }
+
+    // ==================== CLIENTS ====================
+
+    private final class Worker implements Runnable {
+        private final String[] commands;
+        private final List<String> surveyIds;
+        private final Random rnd;
+        private final CountDownLatch start;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final DomainDriver driver;
+        private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+        private final Map<String, Long> errors = new LinkedHashMap<>();
+
+        Worker(PersistenceDriver persistence, AuthService auth, String[] commands,
+               List<String> surveyIds, long seed, CountDownLatch start) {
+            this.commands = commands;
+            this.surveyIds = surveyIds;
+            this.rnd = new Random(seed);
+            this.start = start;
+            this.driver = new DomainDriver(persistence, new UserController(auth),
+                    new PrintStream(buffer, true, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public void run() {
+            try {
+                start.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            send("LOGIN", login());
+            for (int i = 0; i < ops; i++) {
+                String command = commands[rnd.nextInt(commands.length)];
+                send(command, build(command));
+            }
+        }
+
+        private void send(String command, String line) {
+            buffer.reset();
+            long t = System.nanoTime();
+            driver.execute(line);
+            long latency = System.nanoTime() - t;
+            histograms.computeIfAbsent(command, k -> new LatencyHistogram()).record(latency);
+            if (buffer.size() == 0 || buffer.toString(StandardCharsets.UTF_8).startsWith("{\"error\"")) {
+                errors.merge(command, 1L, Long::sum);
+            }
+        }
+
+        private String login() {
+            return "LOGIN|user" + rnd.nextInt(users) + "|" + PASSWORD;
+        }
+
+        private String build(String command) {
+            String surveyId = surveyIds.get(rnd.nextInt(surveyIds.size()));
+            return switch (command) {
+                case "LOGIN" -> login();
+                case "GET_SURVEYS" -> "GET_SURVEYS";
+                case "GET_SURVEY" -> "GET_SURVEY|" + surveyId;
+                case "ANSWER_SURVEY" -> "ANSWER_SURVEY|" + surveyId + "|" + answers();
+                case "LIST_RESPONSES" -> "LIST_RESPONSES|" + surveyId;
+                case "PERFORM_ANALYSIS" -> "PERFORM_ANALYSIS|" + surveyId;
+                default -> command;
+            };
+        }
+
+        /** Respostes amb el format de {@code SurveyController.parseAnswers}: {@code id:valor;...}. */
+        private String answers() {
+            StringBuilder sb = new StringBuilder();
+            for (int q = 1; q <= questions; q++) {
+                if (q > 1) sb.append(';');
+                sb.append(q).append(':');
+                switch (q % 4) {
+                    case 1 -> sb.append(1 + rnd.nextInt(SyntheticData.OPTIONS_PER_QUESTION));
+                    case 2 -> sb.append(1 + rnd.nextInt(2)).append(',').append(3 + rnd.nextInt(3));
+                    case 3 -> sb.append(rnd.nextInt(101));
+                    default -> sb.append("bo rapid net");
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    // ==================== INFORME ====================
+
+    private void report(Worker[] workers, long elapsedNanos) {
+        Map<String, LatencyHistogram> merged = new LinkedHashMap<>();
+        Map<String, Long> errors = new LinkedHashMap<>();
+        LatencyHistogram all = new LatencyHistogram();
+        for (Worker w : workers) {
+            w.histograms.forEach((cmd, h) -> {
+                merged.computeIfAbsent(cmd, k -> new LatencyHistogram()).add(h);
+                all.add(h);
+            });
+            w.errors.forEach((cmd, n) -> errors.merge(cmd, n, Long::sum));
+        }
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%d clients, %d ordres en %.2f s (%.0f ordres/s)%n%n",
+                clients, all.count(), seconds, all.count() / seconds);
+        System.out.printf("%-18s %8s %7s %10s %10s %10s %10s %10s %10s%n",
+                "ordre", "n", "errors", "ops/s", "mitjana", "p50", "p99", "p999", "max");
+        merged.forEach((cmd, h) -> printRow(cmd, h, errors.getOrDefault(cmd, 0L), seconds));
+        printRow("TOTAL", all, errors.values().stream().mapToLong(Long::longValue).sum(), seconds);
+        System.out.println("(latències en ms)");
+
+        if (hgrm) {
+            merged.forEach((cmd, h) -> {
+                System.out.printf("%n== %s (ms) ==%n", cmd);
+                h.printPercentileDistribution(System.out, TimeUnit.MILLISECONDS.toNanos(1));
+            });
+        }
+    }
+
+    private static void printRow(String name, LatencyHistogram h, long errors, double seconds) {
+        double ms = TimeUnit.MILLISECONDS.toNanos(1);
+        System.out.printf("%-18s %8d %7d %10.0f %10.3f %10.3f %10.3f %10.3f %10.3f%n",
+                name, h.count(), errors, h.count() / seconds, h.mean() / ms,
+                h.percentile(50) / ms, h.percentile(99) / ms, h.percentile(99.9) / ms, h.max() / ms);
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (root == null || !Files.exists(root)) return;
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import user.AuthService;
+import user.RegisteredUser;
+
+/**
+ * Benchmark del camí de login d'{@link AuthService} amb bases d'usuaris creixents.
+ *
+ * <p>Carrega N usuaris (com fa {@code DomainDriver} en arrencar), escalfa la JIT
+ * i mesura el temps mitjà per login correcte. Amb l'índex per nom d'usuari el
+ * cost per login s'ha de mantenir pràcticament constant en augmentar N.</p>
+ *
+ * <p>Ús: {@code java bench.LoginBenchmark [mida1,mida2,...] [logins]}</p>
+ */
+public final class LoginBenchmark {
+
+    private static final String PASSWORD = "secret";
+
+    private LoginBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : new int[]{1_000, 10_000, 100_000, 200_000};
+        int logins = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        System.out.printf("%-12s %-12s %-12s%n", "usuaris", "logins", "ns/login");
+        for (int n : sizes) {
+            AuthService auth = new AuthService();
+            auth.loadRegisteredUsers(buildUsers(n));
+            Random rnd = new Random(42);
+
+            runLogins(auth, n, logins, rnd); // escalfament
+            long start = System.nanoTime();
+            int ok = runLogins(auth, n, logins, rnd);
+            long elapsed = System.nanoTime() - start;
+            if (ok != logins) {
+                throw new IllegalStateException("Logins fallits: " + (logins - ok));
+            }
+            System.out.printf("%-12d %-12d %-12.1f%n", n, logins, elapsed / (double) logins);
+        }
+    }
+
+    private static int runLogins(AuthService auth, int n, int logins, Random rnd) {
+        int ok = 0;
+        for (int i = 0; i < logins; i++) {
+            if (auth.login("user" + rnd.nextInt(n), PASSWORD) != null) ok++;
+        }
+        return ok;
+    }
+
+    private static List<RegisteredUser> buildUsers(int n) {
+        // Mateix hash que AuthService.hashPassword per poder fer login.
+        String hash = Integer.toHexString(PASSWORD.hashCode());
+        List<RegisteredUser> users = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            users.add(new RegisteredUser("id" + i, "User " + i, "", "user" + i, hash));
+        }
+        return users;
+    }
+
+    private static int[] parseSizes(String csv) {
+        String[] parts = csv.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) sizes[i] = Integer.parseInt(parts[i].trim());
+        return sizes;
+    }
+}
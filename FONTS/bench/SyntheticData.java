@@ -0,0 +1,151 @@
+package bench;
+
+import Response.Answer;
+import Response.IntAnswer;
+import Response.MultipleChoiceAnswer;
+import Response.SingleChoiceAnswer;
+import Response.SurveyResponse;
+import Response.TextAnswer;
+import Survey.ChoiceOption;
+import Survey.MultipleChoiceQuestion;
+import Survey.OpenIntQuestion;
+import Survey.OpenStringQuestion;
+import Survey.SingleChoiceQuestion;
+import Survey.Survey;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generadors de dades sintètiques deterministes per als benchmarks.
+ *
+ * <p>{@link #blobs} produeix matrius numèriques amb {@code k} grups gaussians
+ * (com les que surten de l'encoder), i {@link #survey}/{@link #responses}
+ * produeixen una enquesta amb els quatre tipus de pregunta i respostes
+ * coherents amb ella. El paràmetre {@code sparsity} (0..1) és la fracció de
+ * components a zero, o de preguntes sense resposta.</p>
+ */
+public final class SyntheticData {
+
+    /** Opcions per pregunta d'opció única/múltiple. */
+    public static final int OPTIONS_PER_QUESTION = 5;
+
+    private static final String[] WORDS = {
+            "bo", "dolent", "rapid", "lent", "car", "barat", "util", "facil",
+            "dificil", "clar", "confus", "net", "brut", "nou", "vell", "gran"
+    };
+
+    private SyntheticData() {
+    }
+
+    /**
+     * Matriu {@code n x d} amb {@code k} grups gaussians (desviació 1) al voltant
+     * de centres uniformes a [-10, 10]^d.
+     */
+    public static double[][] blobs(int n, int d, int k, double sparsity, long seed) {
+        Random rnd = new Random(seed);
+        double[][] centers = new double[k][d];
+        for (double[] c : centers) {
+            for (int j = 0; j < d; j++) c[j] = rnd.nextDouble() * 20 - 10;
+        }
+        double[][] X = new double[n][d];
+        for (int i = 0; i < n; i++) {
+            double[] c = centers[i % k];
+            for (int j = 0; j < d; j++) {
+                X[i][j] = rnd.nextDouble() < sparsity ? 0.0 : c[j] + rnd.nextGaussian();
+            }
+        }
+        return X;
+    }
+
+    /**
+     * Enquesta amb {@code questions} preguntes que roten entre opció única,
+     * opció múltiple, enter (0..100) i text lliure.
+     */
+    public static Survey survey(int questions) {
+        return survey("bench", questions);
+    }
+
+    /**
+     * Com {@link #survey(int)}, amb l'identificador indicat.
+     */
+    public static Survey survey(String id, int questions) {
+        try {
+            Survey s = new Survey(id, "Enquesta " + id, "", "bench", 3, "kmeans++", "euclidean", "", "");
+            for (int q = 1; q <= questions; q++) {
+                switch (q % 4) {
+                    case 1: {
+                        SingleChoiceQuestion sq = new SingleChoiceQuestion(q, "P" + q, false, q, 1.0);
+                        for (int o = 1; o <= OPTIONS_PER_QUESTION; o++) sq.addOption(new ChoiceOption(o, "O" + o));
+                        s.addQuestion(sq);
+                        break;
+                    }
+                    case 2: {
+                        MultipleChoiceQuestion mq = new MultipleChoiceQuestion(q, "P" + q, false, q, 1.0, 0, OPTIONS_PER_QUESTION);
+                        for (int o = 1; o <= OPTIONS_PER_QUESTION; o++) mq.addOption(new ChoiceOption(o, "O" + o));
+                        s.addQuestion(mq);
+                        break;
+                    }
+                    case 3:
+                        s.addQuestion(new OpenIntQuestion(q, "P" + q, false, q, 1.0, 0, 100));
+                        break;
+                    default:
+                        s.addQuestion(new OpenStringQuestion(q, "P" + q, false, q, 1.0, 200));
+                        break;
+                }
+            }
+            return s;
+        } catch (Exception e) {
+            throw new IllegalStateException("No s'ha pogut generar l'enquesta sintètica", e);
+        }
+    }
+
+    /**
+     * {@code n} respostes a una enquesta de {@link #survey(int)}; cada pregunta
+     * es deixa sense resposta amb probabilitat {@code sparsity}.
+     */
+    public static List<SurveyResponse> responses(Survey survey, int n, double sparsity, long seed) {
+        Random rnd = new Random(seed);
+        int questions = survey.getQuestions().size();
+        List<SurveyResponse> out = new ArrayList<>(n);
+        try {
+            for (int i = 0; i < n; i++) {
+                List<Answer> answers = new ArrayList<>(questions);
+                for (int q = 1; q <= questions; q++) {
+                    if (rnd.nextDouble() < sparsity) continue;
+                    answers.add(answer(q, rnd));
+                }
+                out.add(new SurveyResponse("r" + i, survey.getId(), "u" + i, "", answers));
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("No s'han pogut generar les respostes sintètiques", e);
+        }
+        return out;
+    }
+
+    private static Answer answer(int q, Random rnd) throws Exception {
+        switch (q % 4) {
+            case 1:
+                return new SingleChoiceAnswer(q, 1 + rnd.nextInt(OPTIONS_PER_QUESTION));
+            case 2: {
+                List<Integer> opts = new ArrayList<>();
+                for (int o = 1; o <= OPTIONS_PER_QUESTION; o++) {
+                    if (rnd.nextBoolean()) opts.add(o);
+                }
+                if (opts.isEmpty()) opts.add(1 + rnd.nextInt(OPTIONS_PER_QUESTION));
+                return new MultipleChoiceAnswer(q, opts);
+            }
+            case 3:
+                return new IntAnswer(q, rnd.nextInt(101));
+            default: {
+                StringBuilder sb = new StringBuilder();
+                int words = 3 + rnd.nextInt(6);
+                for (int w = 0; w < words; w++) {
+                    if (w > 0) sb.append(' ');
+                    sb.append(WORDS[rnd.nextInt(WORDS.length)]);
+                }
+                return new TextAnswer(q, sb.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import persistence.UserPersistence;
+import user.RegisteredUser;
+
+/**
+ * Benchmark de la càrrega d'usuaris en arrencar ({@link UserPersistence#loadAllUsers()}).
+ *
+ * <p>Escriu una instantània {@code userdata.json} amb N usuaris en un directori
+ * temporal, afegeix un registre de canvis petit i mesura el temps de càrrega
+ * (millor de diverses repeticions, després d'escalfar).</p>
+ *
+ * <p>Ús: {@code java bench.UserLoadBenchmark [mida1,mida2,...] [repeticions]}</p>
+ */
+public final class UserLoadBenchmark {
+
+    private UserLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] sizes = args.length > 0 ? parseSizes(args[0]) : new int[]{10_000, 100_000, 1_000_000};
+        int reps = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path dir = Files.createTempDirectory("tribus-userload");
+        try {
+            System.out.printf("%-12s %-12s %-12s%n", "usuaris", "MB", "ms/carrega");
+            for (int n : sizes) {
+                Path data = dir.resolve("userdata-" + n + ".json");
+                UserPersistence persistence = new UserPersistence(data);
+                persistence.persistAllUsers(buildUsers(n));
+                for (int i = 0; i < 100; i++) {
+                    persistence.persistUser(new RegisteredUser("id" + i, "Canviat " + i, "", "user" + i, "h"));
+                }
+
+                long best = Long.MAX_VALUE;
+                for (int r = 0; r < reps + 1; r++) {
+                    long start = System.nanoTime();
+                    List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+                    long elapsed = System.nanoTime() - start;
+                    if (loaded.size() != n) {
+                        throw new IllegalStateException("S'esperaven " + n + " usuaris i se n'han carregat " + loaded.size());
+                    }
+                    if (r > 0) best = Math.min(best, elapsed); // la primera és escalfament
+                }
+                double mb = (Files.size(data) + Files.size(data.resolveSibling("userdata-" + n + ".log"))) / 1e6;
+                System.out.printf("%-12d %-12.1f %-12.1f%n", n, mb, best / 1e6);
+            }
+        } finally {
+            try (var files = Files.walk(dir)) {
+                files.sorted(java.util.Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+
+    private static List<RegisteredUser> buildUsers(int n) {
+        List<RegisteredUser> users = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            users.add(new RegisteredUser("id" + i, "User " + i, "", "user" + i, Integer.toHexString(("pw" + i).hashCode())));
+        }
+        return users;
+    }
+
+    private static int[] parseSizes(String csv) {
+        String[] parts = csv.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].trim());
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,82 @@
+package bench.jmh;
+
+import bench.SyntheticData;
+import distance.Distance;
+import distance.Distances;
+import java.util.concurrent.TimeUnit;
+import kmeans.ClusterModel;
+import kmeans.KMeans;
+import kmeans.KMeansPlusPlus;
+import kselector.ElbowMethod;
+import matrix.FeatureMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks JMH dels algorismes de clustering: {@link KMeans#fit},
+ * {@link KMeansPlusPlus#fit} i {@link ElbowMethod#suggestK}.
+ *
+ * <p>Les dades són grups gaussians de {@link SyntheticData#blobs} en una
+ * {@link FeatureMatrix} contigua, i la distància és la de {@link Distances}
+ * (nuclis SIMD si hi ha la Vector API), com a l'anàlisi real. La llavor és
+ * fixa perquè totes les iteracions facin la mateixa feina.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ClusteringBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"1000", "10000"})
+    public int n;
+
+    @Param({"8", "64"})
+    public int d;
+
+    @Param({"3", "8"})
+    public int k;
+
+    @Param({"0.0", "0.7"})
+    public double sparsity;
+
+    @Param({"cosine", "euclidean"})
+    public String metric;
+
+    private FeatureMatrix X;
+    private Distance dist;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        X = FeatureMatrix.of(SyntheticData.blobs(n, d, k, sparsity, SEED));
+        dist = "cosine".equals(metric) ? Distances.cosine() : Distances.euclidean();
+    }
+
+    @Benchmark
+    public ClusterModel kMeansFit() {
+        return new KMeans().fit(X, k, dist, SEED, 100, 1e-4);
+    }
+
+    @Benchmark
+    public ClusterModel kMeansPlusPlusFit() {
+        return new KMeansPlusPlus().fit(X, k, dist, SEED, 100, 1e-4);
+    }
+
+    @Benchmark
+    public int elbowSuggestK() {
+        return new ElbowMethod().suggestK(X, 2, k + 3, new KMeansPlusPlus(), dist, SEED);
+    }
+}
@@ -0,0 +1,76 @@
+package bench.jmh;
+
+import bench.SyntheticData;
+import distance.CosineDistance;
+import distance.Distance;
+import distance.EuclideanDistance;
+import distance.VectorCosineDistance;
+import distance.VectorEuclideanDistance;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark JMH dels dos nuclis de {@link Distance}, en versió escalar i
+ * SIMD (Vector API). Cada invocació calcula {@value #PAIRS} distàncies entre
+ * files precalculades, de manera que el resultat es llegeix en ns per parell.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class DistanceBenchmark {
+
+    static final int PAIRS = 1024;
+
+    @Param({"euclidean", "cosine"})
+    public String kernel;
+
+    @Param({"scalar", "vector"})
+    public String impl;
+
+    @Param({"8", "64", "512"})
+    public int d;
+
+    @Param({"0.0", "0.9"})
+    public double sparsity;
+
+    private Distance dist;
+    private double[][] a;
+    private double[][] b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boolean vector = "vector".equals(impl);
+        if ("cosine".equals(kernel)) {
+            dist = vector ? new VectorCosineDistance() : new CosineDistance();
+        } else {
+            dist = vector ? new VectorEuclideanDistance() : new EuclideanDistance();
+        }
+        a = SyntheticData.blobs(PAIRS, d, 4, sparsity, 1L);
+        b = SyntheticData.blobs(PAIRS, d, 4, sparsity, 2L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAIRS)
+    public double between() {
+        double acc = 0.0;
+        for (int i = 0; i < PAIRS; i++) {
+            acc += dist.between(a[i], b[i]);
+        }
+        return acc;
+    }
+}
@@ -0,0 +1,57 @@
+package bench.jmh;
+
+import Encoder.OneHotEncoder;
+import Response.SurveyResponse;
+import Survey.Survey;
+import bench.SyntheticData;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark JMH de {@link OneHotEncoder#fitTransform} sobre una enquesta
+ * sintètica amb els quatre tipus de pregunta.
+ * {@code sparsity} és la fracció de preguntes que es deixen sense respondre.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EncoderBenchmark {
+
+    @Param({"1000", "10000"})
+    public int n;
+
+    @Param({"8", "32"})
+    public int questions;
+
+    @Param({"0.0", "0.7"})
+    public double sparsity;
+
+    private Survey survey;
+    private List<SurveyResponse> responses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        survey = SyntheticData.survey(questions);
+        responses = SyntheticData.responses(survey, n, sparsity, 42L);
+    }
+
+    @Benchmark
+    public double[][] fitTransform() {
+        return new OneHotEncoder().fitTransform(survey, responses);
+    }
+}
@@ -0,0 +1,70 @@
+package bench.jmh;
+
+import bench.SyntheticData;
+import distance.Distance;
+import distance.Distances;
+import java.util.concurrent.TimeUnit;
+import kmeans.ClusterModel;
+import kmeans.KMeansPlusPlus;
+import matrix.FeatureMatrix;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import validation.Silhouette;
+
+/**
+ * Benchmark JMH de {@link Silhouette#scorePerPoint}, que és O(n²·d).
+ * El model es calcula un cop al {@link Setup} i no entra a la mesura; les
+ * dades i la distància són les de producció ({@link FeatureMatrix} i
+ * {@link Distances}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SilhouetteBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param({"1000", "5000"})
+    public int n;
+
+    @Param({"8", "64"})
+    public int d;
+
+    @Param({"3", "8"})
+    public int k;
+
+    @Param({"0.0", "0.7"})
+    public double sparsity;
+
+    @Param({"cosine", "euclidean"})
+    public String metric;
+
+    private FeatureMatrix X;
+    private ClusterModel model;
+    private Distance dist;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        X = FeatureMatrix.of(SyntheticData.blobs(n, d, k, sparsity, SEED));
+        dist = "cosine".equals(metric) ? Distances.cosine() : Distances.euclidean();
+        model = new KMeansPlusPlus().fit(X, k, dist, SEED, 100, 1e-4);
+    }
+
+    @Benchmark
+    public double[] scorePerPoint() {
+        return new Silhouette().scorePerPoint(X, model, dist);
+    }
+}
@@ -0,0 +1,235 @@
+package Encoder;
+
+import Survey.*;
+import Response.*;
+import distance.GowerDistance;
+import matrix.FeatureMatrix;
+import matrix.FeatureMatrixFactory;
+import matrix.WritableFeatureMatrix;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Codificador compacte per a la distància de Gower ({@link GowerDistance}):
+ * en lloc d'una columna per opció o per paraula, cada pregunta ocupa una
+ * columna (o unes poques) i la distància entre dues respostes costa
+ * O(preguntes).
+ *
+ * <p>Estratègies de codificació:</p>
+ * <ul>
+ *   <li>SingleChoice: codi de l'opció (posició dins de la pregunta).</li>
+ *   <li>MultipleChoice: conjunt de bits de les opcions triades, en paraules
+ *       de {@value GowerDistance#BITS_PER_WORD} bits.</li>
+ *   <li>OpenInt: normalització min-max al rang observat, com
+ *       {@link OneHotEncoder}.</li>
+ *   <li>OpenString: conjunt de paraules resumit en {@value #TEXT_BITS} bits
+ *       (cada paraula va al bit del seu hash); Jaccard aproximat.</li>
+ * </ul>
+ *
+ * <p>Les preguntes sense resposta queden a {@code NaN} i no compten a la
+ * distància. El pes de cada pregunta ({@link Question#getWeight()}) passa a
+ * la {@link GowerDistance} que retorna {@link #distance()}. Els valors són
+ * enters petits o fraccions a [0, 1], així que la matriu també es pot guardar
+ * en {@code float}.</p>
+ */
+public class GowerEncoder implements IEncoder {
+
+    /** Bits del resum de paraules de cada pregunta de text. */
+    public static final int TEXT_BITS = 2 * GowerDistance.BITS_PER_WORD;
+
+    /** Preguntes codificades, ordenades per posició. */
+    private final List<Question> orderedQuestions = new ArrayList<>();
+
+    /** Noms de les columnes. */
+    private final List<String> featureNames = new ArrayList<>();
+
+    /** ID Pregunta -> (ID Opció -> codi). */
+    private final Map<Integer, Map<Integer, Integer>> optionCodes = new HashMap<>();
+
+    /** ID Pregunta -> [min, max] de les respostes numèriques. */
+    private final Map<Integer, double[]> numericDomains = new HashMap<>();
+
+    private int[] kinds = new int[0];
+    private int[] offsets = new int[0];
+    private int[] widths = new int[0];
+    private double[] weights = new double[0];
+    private int totalDims;
+    private boolean fitted;
+
+    /**
+     * Entrena el codificador: codis de les opcions, rangs numèrics i pesos.
+     *
+     * @param survey L'enquesta que defineix l'estructura.
+     * @param allResponses Respostes d'on s'aprenen els rangs numèrics.
+     */
+    @Override
+    public void fit(Survey survey, List<SurveyResponse> allResponses) {
+        orderedQuestions.clear();
+        featureNames.clear();
+        optionCodes.clear();
+        numericDomains.clear();
+        totalDims = 0;
+
+        List<Question> questions = survey.getQuestions().stream()
+                .sorted(Comparator.comparingInt(Question::getPosition))
+                .collect(Collectors.toList());
+        int q = 0;
+        int[] k = new int[questions.size()], o = new int[questions.size()], w = new int[questions.size()];
+        double[] weight = new double[questions.size()];
+        for (Question question : questions) {
+            int width;
+            if (question instanceof SingleChoiceQuestion sc) {
+                fitOptions(question, sc.getOptions());
+                k[q] = GowerDistance.CATEGORICAL;
+                width = 1;
+                featureNames.add("q" + question.getId() + "_cat");
+            } else if (question instanceof MultipleChoiceQuestion mc) {
+                fitOptions(question, mc.getOptions());
+                k[q] = GowerDistance.SET;
+                width = words(mc.getOptions().size());
+                for (int t = 0; t < width; t++) featureNames.add("q" + question.getId() + "_set" + t);
+            } else if (question instanceof OpenIntQuestion) {
+                fitNumeric(question, allResponses);
+                k[q] = GowerDistance.NUMERIC;
+                width = 1;
+                featureNames.add("q" + question.getId() + "_num");
+            } else if (question instanceof OpenStringQuestion) {
+                k[q] = GowerDistance.SET;
+                width = words(TEXT_BITS);
+                for (int t = 0; t < width; t++) featureNames.add("q" + question.getId() + "_words" + t);
+            } else {
+                continue;
+            }
+            o[q] = totalDims;
+            w[q] = width;
+            weight[q] = Math.max(0.0, question.getWeight());
+            totalDims += width;
+            orderedQuestions.add(question);
+            q++;
+        }
+        kinds = Arrays.copyOf(k, q);
+        offsets = Arrays.copyOf(o, q);
+        widths = Arrays.copyOf(w, q);
+        weights = Arrays.copyOf(weight, q);
+        fitted = true;
+    }
+
+    /**
+     * Distància de Gower per a les files que produeix aquest codificador.
+     *
+     * @return La distància, amb els pesos de les preguntes.
+     * @throws IllegalStateException si el codificador no ha estat entrenat.
+     */
+    public GowerDistance distance() {
+        requireFitted();
+        return new GowerDistance(kinds, offsets, widths, weights);
+    }
+
+    @Override
+    public double[][] transform(List<SurveyResponse> responsesToTransform) {
+        requireFitted();
+        double[][] X = new double[responsesToTransform.size()][totalDims];
+        for (int i = 0; i < X.length; i++) {
+            encodeResponse(responsesToTransform.get(i), X[i]);
+        }
+        return X;
+    }
+
+    @Override
+    public FeatureMatrix transformToMatrix(List<SurveyResponse> responsesToTransform) {
+        return transformToMatrix(responsesToTransform, FeatureMatrixFactory.DOUBLE);
+    }
+
+    @Override
+    public FeatureMatrix transformToMatrix(List<SurveyResponse> responsesToTransform, FeatureMatrixFactory factory) {
+        requireFitted();
+        WritableFeatureMatrix X = factory.create(responsesToTransform.size(), totalDims);
+        double[] row = new double[totalDims];
+        for (int i = 0; i < responsesToTransform.size(); i++) {
+            encodeResponse(responsesToTransform.get(i), row);
+            X.setRow(i, row);
+        }
+        return X;
+    }
+
+    @Override
+    public List<String> getFeatureNames() {
+        return Collections.unmodifiableList(featureNames);
+    }
+
+    private void requireFitted() {
+        if (!fitted) {
+            throw new IllegalStateException("Encoder has not been fitted. Call fit() first.");
+        }
+    }
+
+    private static int words(int bits) {
+        return Math.max(1, (bits + GowerDistance.BITS_PER_WORD - 1) / GowerDistance.BITS_PER_WORD);
+    }
+
+    private void fitOptions(Question q, List<ChoiceOption> options) {
+        Map<Integer, Integer> codes = new HashMap<>();
+        for (ChoiceOption opt : options) codes.putIfAbsent(opt.getId(), codes.size());
+        optionCodes.put(q.getId(), codes);
+    }
+
+    private void fitNumeric(Question q, List<SurveyResponse> responses) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (SurveyResponse res : responses) {
+            for (Answer a : res.getAnswers()) {
+                if (a.getQuestionId() == q.getId() && a instanceof IntAnswer ia) {
+                    min = Math.min(min, ia.getValue());
+                    max = Math.max(max, ia.getValue());
+                }
+            }
+        }
+        if (min == Double.POSITIVE_INFINITY) min = 0;
+        if (!(max > min)) max = min + 1.0;
+        numericDomains.put(q.getId(), new double[]{min, max});
+    }
+
+    /**
+     * Codifica una resposta: cada pregunta sense resposta (o amb una resposta
+     * d'un altre tipus) queda a {@code NaN}.
+     */
+    private void encodeResponse(SurveyResponse res, double[] row) {
+        Arrays.fill(row, 0.0);
+        Map<Integer, Answer> answers = new HashMap<>();
+        for (Answer a : res.getAnswers()) answers.putIfAbsent(a.getQuestionId(), a);
+
+        for (int q = 0; q < orderedQuestions.size(); q++) {
+            Question question = orderedQuestions.get(q);
+            Answer ans = answers.get(question.getId());
+            int o = offsets[q];
+            row[o] = Double.NaN;
+            if (ans == null || ans.isEmpty()) continue;
+
+            if (ans instanceof SingleChoiceAnswer sa && question instanceof SingleChoiceQuestion) {
+                Integer code = optionCodes.get(question.getId()).get(sa.getOptionId());
+                if (code != null) row[o] = code;
+            } else if (ans instanceof MultipleChoiceAnswer ma && question instanceof MultipleChoiceQuestion) {
+                Map<Integer, Integer> codes = optionCodes.get(question.getId());
+                row[o] = 0.0;
+                for (int optId : ma.getOptionIds()) {
+                    Integer code = codes.get(optId);
+                    if (code != null) setBit(row, o, code);
+                }
+            } else if (ans instanceof IntAnswer ia && question instanceof OpenIntQuestion) {
+                double[] range = numericDomains.get(question.getId());
+                double val = (ia.getValue() - range[0]) / (range[1] - range[0]);
+                row[o] = Math.max(0.0, Math.min(1.0, val));
+            } else if (ans instanceof TextAnswer ta && question instanceof OpenStringQuestion) {
+                row[o] = 0.0;
+                for (String word : OneHotEncoder.tokenize(ta.getValue())) {
+                    setBit(row, o, Math.floorMod(word.hashCode(), TEXT_BITS));
+                }
+            }
+        }
+    }
+
+    private static void setBit(double[] row, int offset, int bit) {
+        int t = offset + bit / GowerDistance.BITS_PER_WORD;
+        row[t] = (double) ((long) row[t] | (1L << (bit % GowerDistance.BITS_PER_WORD)));
+    }
+}
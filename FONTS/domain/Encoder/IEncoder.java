@@ -2,6 +2,9 @@ package Encoder;
 import java.util.List;
 import Survey.Survey;
 import Response.SurveyResponse;
+import matrix.FeatureMatrix;
+import matrix.FeatureMatrixFactory;
+import matrix.WritableFeatureMatrix;
 
 
 /**
@@ -35,6 +38,37 @@ public interface IEncoder {
      */
     double[][] transform(List<SurveyResponse> responsesToTransform);
 
+    /**
+     * Com {@link #transform(List)}, però retorna una {@link FeatureMatrix},
+     * l'entrada que fan servir els algorismes de clustering. Per defecte
+     * adapta el resultat de {@link #transform(List)}.
+     *
+     * @param responsesToTransform La llista de respostes a codificar.
+     * @return La matriu de característiques (una fila per resposta).
+     * @throws IllegalStateException Si es crida abans que el mètode fit()
+     * hagi estat executat.
+     */
+    default FeatureMatrix transformToMatrix(List<SurveyResponse> responsesToTransform) {
+        return FeatureMatrix.of(transform(responsesToTransform));
+    }
+
+    /**
+     * Com {@link #transformToMatrix(List)}, escrivint les files en una matriu
+     * creada amb {@code factory} (p. ex. en precisió simple).
+     *
+     * @param responsesToTransform La llista de respostes a codificar.
+     * @param factory              Emmagatzematge de la matriu resultant.
+     * @return La matriu de característiques (una fila per resposta).
+     * @throws IllegalStateException Si es crida abans que el mètode fit()
+     * hagi estat executat.
+     */
+    default FeatureMatrix transformToMatrix(List<SurveyResponse> responsesToTransform, FeatureMatrixFactory factory) {
+        double[][] X = transform(responsesToTransform);
+        WritableFeatureMatrix out = factory.create(X.length, X.length == 0 ? 0 : X[0].length);
+        for (int i = 0; i < X.length; i++) out.setRow(i, X[i]);
+        return out;
+    }
+
     /**
      * Mètode de conveniència que executa fit() i transform() en un sol pas.
      *
@@ -2,6 +2,9 @@ package Encoder;
 
 import Survey.*;
 import Response.*;
+import matrix.FeatureMatrix;
+import matrix.FeatureMatrixFactory;
+import matrix.WritableFeatureMatrix;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -103,29 +106,74 @@ public class OneHotEncoder implements IEncoder {
         }
 
         double[][] X = new double[responsesToTransform.size()][totalDims];
+        for (int i = 0; i < responsesToTransform.size(); i++) {
+            encodeResponse(responsesToTransform.get(i), X[i]);
+        }
+        return X;
+    }
 
+    /**
+     * Com {@link #transform(List)}, però escriu les files directament en una
+     * {@code DenseFeatureMatrix} (un sol array contigu) en lloc de crear un
+     * {@code double[]} per resposta.
+     *
+     * @param responsesToTransform Llista de respostes d'usuaris a transformar.
+     * @return Matriu (N x Dims) amb una fila per resposta.
+     * @throws IllegalStateException Si el codificador no ha estat entrenat prèviament.
+     */
+    @Override
+    public FeatureMatrix transformToMatrix(List<SurveyResponse> responsesToTransform) {
+        return transformToMatrix(responsesToTransform, FeatureMatrixFactory.DOUBLE);
+    }
+
+    /**
+     * Com {@link #transformToMatrix(List)}, amb l'emmagatzematge que crea
+     * {@code factory}. Cada resposta es codifica en un vector auxiliar i es
+     * copia a la seva fila.
+     *
+     * @param responsesToTransform Llista de respostes d'usuaris a transformar.
+     * @param factory Emmagatzematge de la matriu resultant.
+     * @return Matriu (N x Dims) amb una fila per resposta.
+     * @throws IllegalStateException Si el codificador no ha estat entrenat prèviament.
+     */
+    @Override
+    public FeatureMatrix transformToMatrix(List<SurveyResponse> responsesToTransform, FeatureMatrixFactory factory) {
+        if (totalDims == 0 && !orderedQuestions.isEmpty()) {
+            throw new IllegalStateException("Encoder has not been fitted. Call fit() first.");
+        }
+
+        WritableFeatureMatrix X = factory.create(responsesToTransform.size(), totalDims);
+        double[] row = new double[totalDims];
         for (int i = 0; i < responsesToTransform.size(); i++) {
-            SurveyResponse res = responsesToTransform.get(i);
-            Map<Integer, Answer> answerMap = mapAnswers(res);
-
-            for (Question q : this.orderedQuestions) {
-                Answer ans = answerMap.get(q.getId());
-                if (ans == null || ans.isEmpty()) continue;
-
-                if (q instanceof SingleChoiceQuestion) {
-                    encodeSingleChoice(X[i], (SingleChoiceQuestion) q, (SingleChoiceAnswer) ans);
-                } else if (q instanceof MultipleChoiceQuestion) {
-                    encodeMultiChoice(X[i], (MultipleChoiceQuestion) q, (MultipleChoiceAnswer) ans);
-                } else if (q instanceof OpenIntQuestion) {
-                    encodeNumeric(X[i], (OpenIntQuestion) q, (IntAnswer) ans);
-                } else if (q instanceof OpenStringQuestion) {
-                    encodeText(X[i], (OpenStringQuestion) q, (TextAnswer) ans);
-                }
-            }
+            Arrays.fill(row, 0.0);
+            encodeResponse(responsesToTransform.get(i), row);
+            X.setRow(i, row);
         }
         return X;
     }
 
+    /**
+     * Codifica una resposta sobre un vector inicialitzat a zero.
+     */
+    private void encodeResponse(SurveyResponse res, double[] row) {
+        Map<Integer, Answer> answerMap = mapAnswers(res);
+
+        for (Question q : this.orderedQuestions) {
+            Answer ans = answerMap.get(q.getId());
+            if (ans == null || ans.isEmpty()) continue;
+
+            if (q instanceof SingleChoiceQuestion) {
+                encodeSingleChoice(row, (SingleChoiceQuestion) q, (SingleChoiceAnswer) ans);
+            } else if (q instanceof MultipleChoiceQuestion) {
+                encodeMultiChoice(row, (MultipleChoiceQuestion) q, (MultipleChoiceAnswer) ans);
+            } else if (q instanceof OpenIntQuestion) {
+                encodeNumeric(row, (OpenIntQuestion) q, (IntAnswer) ans);
+            } else if (q instanceof OpenStringQuestion) {
+                encodeText(row, (OpenStringQuestion) q, (TextAnswer) ans);
+            }
+        }
+    }
+
     // ----------------------------------------------------------------
     // MÈTODES PRIVATS D'ENTRENAMENT (FIT)
     // ----------------------------------------------------------------
@@ -332,7 +380,7 @@ public class OneHotEncoder implements IEncoder {
      * * @param text El text cru a processar.
      * @return Array de tokens (paraules) netes.
      */
-    private String[] tokenize(String text) {
+    static String[] tokenize(String text) {
         if (text == null) return new String[0];
         // Normalització: minúscules i reemplaçar tot el que no sigui lletra/número per espai
         // Regex: manté a-z, 0-9 i accents comuns (à-ú, ñ, ç)
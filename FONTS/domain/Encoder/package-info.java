@@ -5,6 +5,8 @@
  *
  * <p>Inclou la interfície {@link Encoder.IEncoder} i la implementació
  * {@link Encoder.OneHotEncoder} responsable de convertir preguntes obertes,
- * single-choice i multi-choice en característiques normalitzades.</p>
+ * single-choice i multi-choice en característiques normalitzades, i
+ * {@link Encoder.GowerEncoder}, que codifica cada pregunta en poques columnes
+ * per a la distància de Gower.</p>
  */
 package Encoder;
@@ -0,0 +1,116 @@
+package Junit;
+
+import Response.IntAnswer;
+import Response.SingleChoiceAnswer;
+import Response.SurveyResponse;
+import Survey.ChoiceOption;
+import Survey.OpenIntQuestion;
+import Survey.SingleChoiceQuestion;
+import Survey.Survey;
+import app.controller.AnalysisProfile;
+import app.controller.AnalyticsController;
+import app.controller.AnalyticsResult;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves de l'anàlisi completa (encoder, clustering, silhouette i projecció 2D).
+ */
+public class TestAnalyticsController {
+
+    private Survey survey;
+    private List<SurveyResponse> responses;
+
+    @Before
+    public void setUp() throws Exception {
+        String now = LocalDateTime.now().toString();
+        survey = new Survey("s1", "Test", "", "user1", 2, "kmeans++", "euclidean", now, now);
+        SingleChoiceQuestion color = new SingleChoiceQuestion(1, "Color?", true, 1, 1.0);
+        color.addOption(new ChoiceOption(1, "Red"));
+        color.addOption(new ChoiceOption(2, "Green"));
+        survey.addQuestion(color);
+        survey.addQuestion(new OpenIntQuestion(2, "Age?", true, 2, 1.0, 0, 100));
+
+        responses = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            boolean young = i % 2 == 0;
+            responses.add(new SurveyResponse("r" + i, "s1", "u" + i, now, List.of(
+                    new SingleChoiceAnswer(1, young ? 1 : 2),
+                    new IntAnswer(2, young ? 10 + i % 3 : 80 + i % 3))));
+        }
+    }
+
+    @Test
+    public void ProfileIsOnlyAttachedWhenRequested() {
+        AnalyticsController controller = new AnalyticsController();
+        assertNull(controller.analyzeSurvey(survey, responses).getProfile());
+        assertNotNull(controller.analyzeSurvey(survey, responses, true).getProfile());
+    }
+
+    @Test
+    public void ProfileReportsPhasesAndCounts() {
+        AnalyticsResult result = new AnalyticsController().analyzeSurvey(survey, responses, true);
+        AnalysisProfile profile = result.getProfile();
+
+        assertEquals(20, profile.getSamples());
+        assertTrue(profile.getFeatures() > 0);
+        assertTrue(profile.getIterations() >= 1);
+        assertTrue(profile.getClusterDistanceEvaluations() > 0);
+        // silhouette: per cada punt, distància a tots els altres
+        assertTrue(profile.getSilhouetteDistanceEvaluations() >= 20L * 19L);
+        long phases = profile.getEncodeNanos() + profile.getClusterNanos()
+                + profile.getSilhouetteNanos() + profile.getProjectionNanos();
+        assertTrue(profile.getTotalNanos() >= phases);
+        assertTrue(profile.getAllocatedBytes() == -1L || profile.getAllocatedBytes() > 0);
+    }
+
+    @Test
+    public void AutoKReusesSearchModelAndReturnsCurve() {
+        survey.setK(Survey.AUTO_K);
+        AnalyticsResult result = new AnalyticsController().analyzeSurvey(survey, responses);
+
+        assertTrue(result.isAutoK());
+        int k = result.getClusters();
+        Map<Integer, Double> curve = result.getInertiaCurve();
+        assertEquals(Integer.valueOf(2), curve.keySet().iterator().next());
+        assertTrue(curve.containsKey(k));
+        // el model retornat és el de la cerca per a aquell k
+        assertEquals(curve.get(k), result.getInertia(), 0.0);
+        for (int label : result.getLabels()) assertTrue(label < k);
+        assertEquals(k, result.getCentroids2d().length);
+    }
+
+    @Test
+    public void FixedKHasNoCurve() {
+        AnalyticsResult result = new AnalyticsController().analyzeSurvey(survey, responses);
+        assertFalse(result.isAutoK());
+        assertEquals(2, result.getClusters());
+        assertTrue(result.getInertiaCurve().isEmpty());
+    }
+
+    @Test
+    public void KMedoidsReturnsPrototypeResponses() {
+        survey.setInitMethod("kmedoids");
+        AnalyticsResult result = new AnalyticsController().analyzeSurvey(survey, responses);
+
+        String[] medoids = result.getMedoidIds();
+        assertEquals(2, medoids.length);
+        List<String> ids = List.of(result.getResponseIds());
+        for (int c = 0; c < medoids.length; c++) {
+            int row = ids.indexOf(medoids[c]);
+            assertTrue(row >= 0);
+            assertEquals(c, result.getLabels()[row]);
+        }
+
+        // amb K-Means els centres són mitjanes
+        survey.setInitMethod("kmeans++");
+        assertNull(new AnalyticsController().analyzeSurvey(survey, responses).getMedoidIds());
+    }
+}
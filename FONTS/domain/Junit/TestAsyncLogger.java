@@ -0,0 +1,88 @@
+package Junit;
+
+import logging.AsyncLogWriter;
+import logging.Level;
+import logging.Logger;
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves del log asíncron: format, filtre per nivell i cua plena.
+ */
+public class TestAsyncLogger {
+
+    @Test
+    public void WritesLogfmtLineWithFields() {
+        StringWriter sink = new StringWriter();
+        try (AsyncLogWriter writer = new AsyncLogWriter(sink, Level.INFO, 64)) {
+            Logger log = writer.logger("app.Test");
+            log.info("login fallit", "username", "anna", "motiu", "clau \"errònia\"");
+            assertTrue(writer.flush(5_000));
+        }
+        String out = sink.toString();
+        assertTrue(out, out.startsWith("ts="));
+        assertTrue(out, out.contains(" level=INFO logger=app.Test "));
+        assertTrue(out, out.contains(" msg=\"login fallit\" username=anna motiu=\"clau \\\"errònia\\\"\"\n"));
+    }
+
+    @Test
+    public void LevelsBelowThresholdAreNotWritten() {
+        StringWriter sink = new StringWriter();
+        try (AsyncLogWriter writer = new AsyncLogWriter(sink, Level.WARN, 64)) {
+            Logger log = writer.logger("x");
+            assertFalse(log.isEnabled(Level.INFO));
+            log.debug("a");
+            log.info("b");
+            log.warn("c");
+            log.error("d", new IllegalStateException("boom"));
+            assertTrue(writer.flush(5_000));
+        }
+        String out = sink.toString();
+        assertFalse(out.contains("msg=a"));
+        assertFalse(out.contains("msg=b"));
+        assertTrue(out.contains("level=WARN logger=x thread="));
+        assertTrue(out.contains("msg=d error=\"java.lang.IllegalStateException: boom\""));
+        assertTrue(out.contains("\tat Junit.TestAsyncLogger"));
+    }
+
+    @Test
+    public void FullQueueDropsInsteadOfBlocking() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        StringWriter sink = new StringWriter();
+        Writer blocked = new Writer() {
+            @Override
+            public void write(char[] buf, int off, int len) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                sink.write(buf, off, len);
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        try (AsyncLogWriter writer = new AsyncLogWriter(blocked, Level.INFO, 16)) {
+            Logger log = writer.logger("x");
+            long started = System.nanoTime();
+            for (int i = 0; i < 1_000; i++) log.info("m", "i", i);
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+            assertTrue("registrar no ha de bloquejar (" + elapsedMs + " ms)", elapsedMs < 2_000);
+            assertTrue(writer.droppedCount() >= 1_000 - 17);
+            release.countDown();
+            assertTrue(writer.flush(5_000));
+        }
+        assertTrue(sink.toString().contains("dropped="));
+    }
+}
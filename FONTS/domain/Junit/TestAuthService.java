@@ -144,4 +144,103 @@ public class TestAuthService {
         assertEquals("No haurien de quedar usuaris registrats", 0, authService.listRegisteredUsers().size());
         assertNull("No s'hauria de poder fer login amb l'usuari eliminat", authService.login("user_del", "pass123"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Comprova que una sessió es pot recuperar pel seu identificador i que
+     * deixa de ser-ho després del logout.
+     */
+    @Test
+    public void FindSessionByIdTest() {
+        authService.register("u1", "User 1", "user_find", "pass123");
+        Sesion sesion = authService.login("user_find", "pass123");
+        assertSame(sesion, authService.findSession(sesion.getSessionId()));
+        authService.logout(sesion);
+        assertNull("Una sessió tancada no s'ha de poder recuperar", authService.findSession(sesion.getSessionId()));
+    }
+
+    /**
+     * Comprova que les sessions inactives caduquen i queden tancades.
+     */
+    @Test
+    public void ExpireIdleSessionsTest() throws InterruptedException {
+        authService.register("u1", "User 1", "user_idle", "pass123");
+        Sesion sesion = authService.login("user_idle", "pass123");
+        Thread.sleep(20);
+        assertEquals(1, authService.expireIdleSessions(java.time.Duration.ofMillis(5)));
+        assertFalse("La sessió caducada ha de quedar tancada", sesion.isActive());
+        assertNull(authService.findSession(sesion.getSessionId()));
+    }
+
+    /**
+     * Comprova que, amb registres concurrents del mateix nom d'usuari,
+     * només un d'ells té èxit.
+     */
+    @Test
+    public void ConcurrentRegisterSameUsernameTest() throws InterruptedException {
+        int threads = 8;
+        java.util.concurrent.atomic.AtomicInteger ok = new java.util.concurrent.atomic.AtomicInteger();
+        java.util.concurrent.CountDownLatch start = new java.util.concurrent.CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            final String id = "u" + t;
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (authService.register(id, "User", "same_name", "pass") != null) ok.incrementAndGet();
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread w : workers) w.join();
+        assertEquals("Només un registre ha de reservar el nom d'usuari", 1, ok.get());
+        assertEquals(1, authService.listRegisteredUsers().size());
+    }
+
+    /**
+     * Comprova que, després de canviar el nom d'usuari, el nom antic queda
+     * lliure per a un altre registre.
+     */
+    @Test
+    public void UpdateUserReleasesOldUsernameTest() {
+        authService.register("u1", "User 1", "old_name", "pass1");
+        assertNotNull(authService.updateUser("u1", "User 1", "new_name", "pass1"));
+        assertNotNull("El nom antic s'ha de poder reutilitzar", authService.register("u2", "User 2", "old_name", "pass2"));
+        assertNotNull(authService.login("new_name", "pass1"));
+        assertNotNull(authService.login("old_name", "pass2"));
+    }
+
+    /**
+     * Comprova que eliminar un usuari allibera el seu nom d'usuari.
+     */
+    @Test
+    public void DeleteUserReleasesUsernameTest() {
+        authService.register("u1", "User 1", "reused", "pass1");
+        assertTrue(authService.deleteUser("u1"));
+        assertNotNull(authService.register("u2", "User 2", "reused", "pass2"));
+    }
+
+    /**
+     * Comprova que la càrrega des de persistència reconstrueix l'índex per nom
+     * d'usuari i que, amb IDs duplicats, només el darrer és accessible.
+     */
+    @Test
+    public void LoadRegisteredUsersRebuildsIndexTest() {
+        authService.register("stale", "Stale", "stale_user", "pass");
+        String hash = authService.register("tmp", "Tmp", "tmp_user", "pass").getPasswordHash();
+
+        java.util.List<RegisteredUser> loaded = java.util.List.of(
+                new RegisteredUser("u1", "User 1", "", "first_name", hash),
+                new RegisteredUser("u1", "User 1", "", "second_name", hash),
+                new RegisteredUser("u2", "User 2", "", "other", hash));
+        authService.loadRegisteredUsers(loaded);
+
+        assertEquals(2, authService.listRegisteredUsers().size());
+        assertNull("Els usuaris anteriors a la càrrega no han de quedar indexats", authService.login("stale_user", "pass"));
+        assertNull("El duplicat substituït no ha de quedar indexat", authService.login("first_name", "pass"));
+        assertNotNull(authService.login("second_name", "pass"));
+        assertNotNull(authService.login("other", "pass"));
+    }
+}
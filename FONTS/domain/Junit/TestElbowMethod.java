@@ -1,9 +1,13 @@
 package Junit;
 
 import distance.Distance;
+import distance.Distances;
 import kmeans.ClusterModel;
 import kmeans.IClusteringAlgorithm;
+import kmeans.KMeansPlusPlus;
 import kselector.ElbowMethod;
+import kselector.KSearchResult;
+import matrix.FeatureMatrix;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -11,6 +15,9 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -55,6 +62,77 @@ public class TestElbowMethod {
         assertArrayEquals(new int[]{2, 3, 4}, algorithm.getCalls());
     }
 
+    /** Tres grups ben separats en 2D. */
+    private static FeatureMatrix threeBlobs() {
+        Random rnd = new Random(5);
+        double[][] centers = {{0, 0}, {10, 0}, {0, 10}};
+        double[][] X = new double[300][];
+        for (int i = 0; i < X.length; i++) {
+            double[] c = centers[i % 3];
+            X[i] = new double[]{c[0] + rnd.nextGaussian(), c[1] + rnd.nextGaussian()};
+        }
+        return FeatureMatrix.of(X);
+    }
+
+    /**
+     * Els ajustos concurrents han de donar els mateixos models que els
+     * seqüencials (mateixa seed i normes compartides).
+     */
+    @Test
+    public void ParallelFitsMatchSequential() {
+        FeatureMatrix X = threeBlobs();
+        Distance dist = Distances.euclidean();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ClusterModel[] seq = elbowMethod.fitRange(X, 2, 9, new KMeansPlusPlus(), dist, 7L);
+            ClusterModel[] par = new ElbowMethod(pool, false).fitRange(X, 2, 9, new KMeansPlusPlus(), dist, 7L);
+            for (int i = 0; i < seq.length; i++) {
+                assertEquals(i + 2, par[i].getCentroids().length);
+                assertEquals(seq[i].getInertia(), par[i].getInertia(), 0.0);
+                assertArrayEquals(seq[i].getLabels(), par[i].getLabels());
+            }
+            assertEquals(3, new ElbowMethod(pool, false).suggestK(X, 2, 9, new KMeansPlusPlus(), dist, 7L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Amb warm start cada k+1 parteix de la solució de k: la inèrcia no pot
+     * créixer d'un k al següent i el colze es manté.
+     */
+    @Test
+    public void WarmStartChainsFromPreviousK() {
+        FeatureMatrix X = threeBlobs();
+        Distance dist = Distances.euclidean();
+        ElbowMethod warm = new ElbowMethod(null, true);
+
+        ClusterModel[] models = warm.fitRange(X, 2, 9, new KMeansPlusPlus(), dist, 7L);
+        for (int i = 0; i < models.length; i++) {
+            assertEquals(i + 2, models[i].getCentroids().length);
+            if (i > 0) assertTrue(models[i].getInertia() <= models[i - 1].getInertia() * (1 + 1e-9));
+        }
+        assertEquals(3, warm.suggestK(X, 2, 9, new KMeansPlusPlus(), dist, 7L));
+    }
+
+    /**
+     * Amb el pressupost esgotat només s'ajusta kMin; el resultat ho reflecteix.
+     */
+    @Test
+    public void SearchStopsWhenBudgetIsSpent() {
+        FeatureMatrix X = threeBlobs();
+        KSearchResult all = elbowMethod.search(X, 2, 9, new KMeansPlusPlus(), Distances.euclidean(), 7L, 0L);
+        assertEquals(9, all.getKMax());
+        assertEquals(8, all.inertiaCurve().size());
+        assertEquals(3, all.getBestK());
+        assertSame(all.getModels()[1], all.getBestModel());
+
+        KSearchResult cut = elbowMethod.search(X, 2, 9, new KMeansPlusPlus(), Distances.euclidean(), 7L, 1L);
+        assertEquals(2, cut.getKMax());
+        assertEquals(2, cut.getBestK());
+        assertEquals(all.getModels()[0].getInertia(), cut.getBestModel().getInertia(), 0.0);
+    }
+
     /**
      * Implementació mínima d'IClusteringAlgorithm que retorna models amb inèrcia predefinida
      * i registra els valors de k utilitzats. D'aquesta manera evitem dependències externes
@@ -77,7 +155,7 @@ public class TestElbowMethod {
         }
 
         @Override
-        public ClusterModel fit(double[][] data, int k, Distance distance, long seed, int maxIter, double tol) {
+        public ClusterModel fit(FeatureMatrix data, int k, Distance distance, long seed, int maxIter, double tol) {
             calls.add(k);
             double inertia = inertiaByK.getOrDefault(k, Double.NaN);
             return new ClusterModel(new double[k][1], new int[0], inertia, 1);
@@ -0,0 +1,205 @@
+package Junit;
+
+import distance.CosineDistance;
+import distance.Distance;
+import distance.Distances;
+import distance.EuclideanDistance;
+import kmeans.ClusterModel;
+import kmeans.KMeansPlusPlus;
+import matrix.DenseFeatureMatrix;
+import matrix.FeatureMatrix;
+import matrix.FloatFeatureMatrix;
+import matrix.OffHeapFeatureMatrix;
+import Survey.AlgorithmConfiguration;
+import org.junit.Test;
+import validation.Silhouette;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves de {@link DenseFeatureMatrix} i dels punts d'entrada dels algorismes
+ * sobre {@link FeatureMatrix}, que han de donar el mateix que amb
+ * {@code double[][]}.
+ */
+public class TestFeatureMatrix {
+
+    private static double[][] randomRows(int n, int d, long seed) {
+        Random rnd = new Random(seed);
+        double[][] X = new double[n][d];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < d; j++) X[i][j] = rnd.nextGaussian();
+        }
+        return X;
+    }
+
+    @Test
+    public void RowsAreStoredContiguously() {
+        double[][] X = {{1, 2, 3}, {4, 5, 6}};
+        DenseFeatureMatrix M = DenseFeatureMatrix.fromRows(X);
+
+        assertEquals(2, M.rows());
+        assertEquals(3, M.cols());
+        assertArrayEquals(new double[]{1, 2, 3, 4, 5, 6}, M.data(), 0.0);
+        assertEquals(6.0, M.get(1, 2), 0.0);
+        assertArrayEquals(X, M.toArray());
+
+        assertEquals(32.0, M.dot(0, 1), 0.0);
+        assertEquals(Math.sqrt(14.0), M.norm(0), 1e-15);
+        double[] acc = {1, 1, 1};
+        M.addRowTo(1, acc);
+        assertArrayEquals(new double[]{5, 6, 7}, acc, 0.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void RaggedRowsAreRejected() {
+        FeatureMatrix.of(new double[][]{{1, 2}, {3}});
+    }
+
+    @Test
+    public void DotMatchesScalarForAllLengths() {
+        for (int d : new int[]{0, 1, 3, 7, 8, 9, 17, 64, 101}) {
+            double[][] X = randomRows(3, d, d);
+            FeatureMatrix M = FeatureMatrix.of(X);
+            double expected = 0.0;
+            for (int j = 0; j < d; j++) expected += X[1][j] * X[2][j];
+            assertEquals(expected, M.dot(1, 2), 1e-12);
+            assertEquals(expected, M.dot(1, X[2]), 1e-12);
+        }
+    }
+
+    @Test
+    public void BatchDistancesMatchBetween() {
+        double[][] X = randomRows(150, 13, 5);
+        FeatureMatrix M = FeatureMatrix.of(X);
+        // l'última és una mètrica sense producte escalar (camí per defecte)
+        Distance manhattan = (a, b) -> {
+            double s = 0.0;
+            for (int t = 0; t < a.length; t++) s += Math.abs(a[t] - b[t]);
+            return s;
+        };
+        for (Distance dist : new Distance[]{new EuclideanDistance(), new CosineDistance(),
+                Distances.euclidean(), Distances.cosine(), manhattan}) {
+            double[] norms = dist.norms(M);
+            double[][] out = new double[100][X.length];
+            dist.pairwise(M, 20, 120, norms, out);
+            double[] col = new double[X.length];
+            dist.toAll(X[7], norms[7], M, norms, col);
+            double[] row = new double[3];
+            double[][] C = {X[0], X[1], X[2]};
+            dist.toAll(M, 9, norms[9], C, new double[]{norms[0], norms[1], norms[2]}, row);
+            for (int j = 0; j < X.length; j++) {
+                assertEquals(dist.between(X[30], X[j]), out[10][j], 1e-9);
+                assertEquals(dist.between(X[7], X[j]), col[j], 1e-9);
+            }
+            for (int c = 0; c < 3; c++) {
+                assertEquals(dist.between(X[9], C[c]), row[c], 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void MatrixAndArrayEntryPointsAgree() {
+        double[][] X = randomRows(300, 8, 17);
+        FeatureMatrix M = FeatureMatrix.of(X);
+        Distance dist = new EuclideanDistance();
+
+        ClusterModel fromArray = new KMeansPlusPlus().fit(X, 4, dist, 3L, 100, 1e-6);
+        ClusterModel fromMatrix = new KMeansPlusPlus().fit(M, 4, dist, 3L, 100, 1e-6);
+        assertArrayEquals(fromArray.getLabels(), fromMatrix.getLabels());
+        assertEquals(fromArray.getInertia(), fromMatrix.getInertia(), 0.0);
+
+        Silhouette silhouette = new Silhouette();
+        assertArrayEquals(silhouette.scorePerPoint(X, fromMatrix, dist),
+                silhouette.scorePerPoint(M, fromMatrix, dist), 0.0);
+    }
+
+    @Test
+    public void FloatDotAccumulatesInDouble() {
+        for (int d : new int[]{0, 1, 3, 7, 8, 9, 17, 64, 101}) {
+            double[][] X = randomRows(3, d, 31 + d);
+            FloatFeatureMatrix F = FloatFeatureMatrix.copyOf(FeatureMatrix.of(X));
+            double expected = 0.0;
+            double expectedRows = 0.0;
+            for (int j = 0; j < d; j++) {
+                expected += (double) (float) X[1][j] * X[2][j];
+                expectedRows += (double) (float) X[1][j] * (float) X[2][j];
+            }
+            assertEquals(expected, F.dot(1, X[2]), 1e-12);
+            assertEquals(expectedRows, F.dot(1, 2), 1e-12);
+            if (d > 0) assertEquals((float) X[2][d - 1], F.get(2, d - 1), 0.0);
+        }
+    }
+
+    @Test
+    public void FloatStorageStaysWithinToleranceOfDouble() {
+        // característiques a [0, 1], com les del codificador
+        Random rnd = new Random(23);
+        double[][] X = new double[2000][24];
+        for (int i = 0; i < X.length; i++) {
+            int group = i % 4;
+            for (int j = 0; j < 24; j++) {
+                X[i][j] = j / 6 == group ? 0.6 + 0.4 * rnd.nextDouble() : 0.3 * rnd.nextDouble();
+            }
+        }
+        FeatureMatrix dense = new AlgorithmConfiguration("kmeans++", "euclidean", false, "double")
+                .buildMatrixFactory().create(X.length, 24);
+        FeatureMatrix single = new AlgorithmConfiguration("kmeans++", "euclidean", false, "float32")
+                .buildMatrixFactory().create(X.length, 24);
+        assertTrue(dense instanceof DenseFeatureMatrix);
+        assertTrue(single instanceof FloatFeatureMatrix);
+        for (int i = 0; i < X.length; i++) {
+            ((DenseFeatureMatrix) dense).setRow(i, X[i]);
+            ((FloatFeatureMatrix) single).setRow(i, X[i]);
+        }
+
+        for (Distance dist : new Distance[]{Distances.euclidean(), Distances.cosine()}) {
+            ClusterModel a = new KMeansPlusPlus().fit(dense, 4, dist, 9L, 100, 1e-9);
+            ClusterModel b = new KMeansPlusPlus().fit(single, 4, dist, 9L, 100, 1e-9);
+            assertArrayEquals(a.getLabels(), b.getLabels());
+            assertEquals(a.getInertia(), b.getInertia(), 1e-6 * a.getInertia());
+            Silhouette silhouette = new Silhouette();
+            assertEquals(silhouette.average(dense, a, dist), silhouette.average(single, b, dist), 1e-6);
+        }
+    }
+
+    @Test
+    public void OffHeapMatricesMatchDense() throws Exception {
+        double[][] X = randomRows(500, 11, 41);
+        FeatureMatrix dense = FeatureMatrix.of(X);
+        Path dir = Files.createTempDirectory("tribus-test");
+        // trossos de 7 files: moltes files cauen al límit d'un tros
+        OffHeapFeatureMatrix direct = OffHeapFeatureMatrix.allocateDirect(X.length, 11, 7 * 11 * Double.BYTES);
+        OffHeapFeatureMatrix mapped = OffHeapFeatureMatrix.mapTemp(X.length, 11, dir, 7 * 11 * Double.BYTES + 5);
+        try {
+            for (int i = 0; i < X.length; i++) {
+                direct.setRow(i, X[i]);
+                mapped.setRow(i, X[i]);
+            }
+            assertTrue(Files.exists(mapped.getFile()));
+            assertArrayEquals(X, direct.toArray());
+            assertArrayEquals(X, mapped.toArray());
+            assertEquals(dense.dot(6, 7), direct.dot(6, 7), 1e-12);
+            assertEquals(dense.dot(13, X[499]), mapped.dot(13, X[499]), 1e-12);
+
+            for (Distance dist : new Distance[]{Distances.euclidean(), Distances.cosine()}) {
+                ClusterModel expected = new KMeansPlusPlus().fit(dense, 5, dist, 4L, 100, 1e-9);
+                for (FeatureMatrix M : new FeatureMatrix[]{direct, mapped}) {
+                    ClusterModel actual = new KMeansPlusPlus().fit(M, 5, dist, 4L, 100, 1e-9);
+                    assertArrayEquals(expected.getLabels(), actual.getLabels());
+                    assertEquals(expected.getInertia(), actual.getInertia(), 1e-9 * expected.getInertia());
+                    assertArrayEquals(new Silhouette().scorePerPoint(dense, expected, dist),
+                            new Silhouette().scorePerPoint(M, expected, dist), 1e-12);
+                }
+            }
+        } finally {
+            direct.close();
+            mapped.close();
+        }
+        assertFalse(Files.exists(mapped.getFile()));
+        Files.delete(dir);
+    }
+}
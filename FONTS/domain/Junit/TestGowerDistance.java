@@ -0,0 +1,139 @@
+package Junit;
+
+import Encoder.GowerEncoder;
+import Encoder.OneHotEncoder;
+import Response.IntAnswer;
+import Response.MultipleChoiceAnswer;
+import Response.SingleChoiceAnswer;
+import Response.SurveyResponse;
+import Response.TextAnswer;
+import Survey.ChoiceOption;
+import Survey.MultipleChoiceQuestion;
+import Survey.OpenIntQuestion;
+import Survey.OpenStringQuestion;
+import Survey.SingleChoiceQuestion;
+import Survey.Survey;
+import app.controller.AnalyticsController;
+import app.controller.AnalyticsResult;
+import distance.GowerDistance;
+import matrix.FeatureMatrix;
+import matrix.FeatureMatrixFactory;
+import org.junit.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves de {@link GowerEncoder} i {@link GowerDistance}: codificació
+ * compacta per pregunta, pesos i respostes que falten.
+ */
+public class TestGowerDistance {
+
+    private static final String NOW = LocalDateTime.now().toString();
+
+    /** Color (opció única, pes 2), aficions (30 opcions, pes 1), edat (pes 1) i comentari (pes 0.5). */
+    private static Survey survey() throws Exception {
+        Survey survey = new Survey("g1", "Gower", "", "user1", 2, "kmedoids", "gower", NOW, NOW);
+        SingleChoiceQuestion color = new SingleChoiceQuestion(1, "Color?", true, 1, 2.0);
+        for (int o = 1; o <= 3; o++) color.addOption(new ChoiceOption(o, "c" + o));
+        survey.addQuestion(color);
+        MultipleChoiceQuestion hobbies = new MultipleChoiceQuestion(2, "Hobbies?", false, 2, 1.0, 0, 30);
+        for (int o = 1; o <= 30; o++) hobbies.addOption(new ChoiceOption(o, "h" + o));
+        survey.addQuestion(hobbies);
+        survey.addQuestion(new OpenIntQuestion(3, "Age?", false, 3, 1.0, 0, 100));
+        survey.addQuestion(new OpenStringQuestion(4, "Comment?", false, 4, 0.5, 200));
+        return survey;
+    }
+
+    @Test
+    public void MatchesHandComputedGower() throws Exception {
+        List<SurveyResponse> responses = List.of(
+                new SurveyResponse("a", "g1", "u1", NOW, List.of(
+                        new SingleChoiceAnswer(1, 1),
+                        new MultipleChoiceAnswer(2, List.of(1, 2, 28)),
+                        new IntAnswer(3, 20),
+                        new TextAnswer(4, "platja"))),
+                new SurveyResponse("b", "g1", "u2", NOW, List.of(
+                        new SingleChoiceAnswer(1, 2),
+                        new MultipleChoiceAnswer(2, List.of(2, 28, 29)),
+                        new IntAnswer(3, 60),
+                        new TextAnswer(4, "platja"))),
+                new SurveyResponse("c", "g1", "u3", NOW, List.of(
+                        new SingleChoiceAnswer(1, 1))));
+        GowerEncoder encoder = new GowerEncoder();
+        encoder.fit(survey(), responses);
+        FeatureMatrix X = encoder.transformToMatrix(responses);
+        GowerDistance dist = encoder.distance();
+
+        // color 1 vs 2 (pes 2): 1; aficions: Jaccard 1 - 2/4; edat: |0 - 1| amb rang [20, 60]; text igual
+        double expected = (2 * 1.0 + 1 * 0.5 + 1 * 1.0 + 0.5 * 0.0) / (2 + 1 + 1 + 0.5);
+        assertEquals(expected, dist.between(X.row(0), X.row(1)), 1e-12);
+        // c només ha contestat el color, igual que a
+        assertEquals(0.0, dist.between(X.row(0), X.row(2)), 0.0);
+        assertEquals(1.0, dist.between(X.row(1), X.row(2)), 0.0);
+        assertEquals(dist.between(X.row(0), X.row(1)), dist.between(X.row(1), X.row(0)), 0.0);
+    }
+
+    @Test
+    public void EncodingIsCompactAndFloatSafe() throws Exception {
+        List<SurveyResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            responses.add(new SurveyResponse("r" + i, "g1", "u" + i, NOW, List.of(
+                    new SingleChoiceAnswer(1, 1 + i % 3),
+                    new MultipleChoiceAnswer(2, List.of(1 + i, 20 + i % 10)),
+                    new IntAnswer(3, 10 * i),
+                    new TextAnswer(4, "resposta numero " + i))));
+        }
+        GowerEncoder encoder = new GowerEncoder();
+        encoder.fit(survey(), responses);
+        OneHotEncoder oneHot = new OneHotEncoder();
+        oneHot.fit(survey(), responses);
+
+        // 1 + 2 + 1 + 2 columnes en lloc d'una per opció i per paraula
+        assertEquals(6, encoder.getFeatureNames().size());
+        assertTrue(oneHot.getFeatureNames().size() > 30);
+
+        FeatureMatrix dense = encoder.transformToMatrix(responses);
+        FeatureMatrix single = encoder.transformToMatrix(responses, FeatureMatrixFactory.FLOAT);
+        GowerDistance dist = encoder.distance();
+        for (int i = 0; i < responses.size(); i++) {
+            for (int j = 0; j < responses.size(); j++) {
+                assertEquals(dist.between(dense.row(i), dense.row(j)), dist.between(single.row(i), single.row(j)), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    public void QuestionWeightsDriveTheAnalysis() throws Exception {
+        // el color (pes 2) parteix en parells/senars i l'edat (pes 1) en meitats: guanya el color
+        Survey survey = survey();
+        List<SurveyResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            responses.add(new SurveyResponse("r" + i, "g1", "u" + i, NOW, List.of(
+                    new SingleChoiceAnswer(1, i % 2 == 0 ? 1 : 2),
+                    new IntAnswer(3, i < 12 ? 10 : 90))));
+        }
+        AnalyticsResult result = new AnalyticsController().analyzeSurvey(survey, responses);
+
+        int[] labels = result.getLabels();
+        for (int i = 2; i < labels.length; i++) assertEquals(labels[i % 2], labels[i]);
+        assertNotEquals(labels[0], labels[1]);
+        assertEquals(2, result.getMedoidIds().length);
+        for (double[] p : result.getPoints2d()) {
+            assertTrue(Double.isFinite(p[0]) && Double.isFinite(p[1]));
+        }
+
+        survey.getQuestions().get(0).setWeight(0.1);
+        labels = new AnalyticsController().analyzeSurvey(survey, responses).getLabels();
+        for (int i = 1; i < labels.length; i++) assertEquals(labels[i / 12 * 12], labels[i]);
+        assertNotEquals(labels[0], labels[12]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void DistanceNeedsFittedEncoder() {
+        new GowerEncoder().distance();
+    }
+}
@@ -0,0 +1,70 @@
+package Junit;
+
+import Survey.AlgorithmConfiguration;
+import distance.CosineDistance;
+import distance.Distance;
+import distance.Distances;
+import distance.EuclideanDistance;
+import distance.InstrumentedDistance;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves del decorador {@link InstrumentedDistance}.
+ */
+public class TestInstrumentedDistance {
+
+    @Test
+    public void DelegatesAndCountsEvaluations() {
+        InstrumentedDistance d = new InstrumentedDistance(new EuclideanDistance());
+        double[] a = {0, 0};
+        double[] b = {3, 4};
+        assertEquals(5.0, d.between(a, b), 1e-12);
+        d.between(b, a);
+        assertEquals(2, d.snapshot().evaluations());
+        assertEquals(0, d.snapshot().sampledVectors());
+
+        assertEquals(2, d.reset().evaluations());
+        assertEquals(0, d.snapshot().evaluations());
+    }
+
+    @Test
+    public void SamplesDensityAndZeroNormVectors() {
+        InstrumentedDistance d = new InstrumentedDistance(new CosineDistance(), 1);
+        double[] zero = {0, 0, 0, 0};
+        double[] half = {1, 0, 2, 0};
+        assertEquals(1.0, d.between(zero, half), 0.0);
+
+        InstrumentedDistance.Stats stats = d.snapshot();
+        assertEquals(2, stats.sampledVectors());
+        assertEquals(1, stats.zeroNormVectors());
+        assertEquals(0.5, stats.zeroNormFraction(), 1e-12);
+        assertEquals(1.0, stats.meanNonZero(), 1e-12);
+        assertEquals(0.25, stats.density(), 1e-12);
+    }
+
+    @Test
+    public void BatchCallsCountEveryPair() {
+        InstrumentedDistance d = new InstrumentedDistance(new EuclideanDistance());
+        double[][] M = {{0, 0}, {3, 4}, {6, 8}};
+        double[] norms = {0, 5, 10};
+        double[] out = new double[3];
+        d.toAll(M[1], 5, M, norms, out);
+        assertArrayEquals(new double[]{5, 0, 5}, out, 1e-9);
+        assertEquals(3, d.snapshot().evaluations());
+
+        d.pairwise(M, norms, M, norms, new double[3][3]);
+        assertEquals(12, d.snapshot().evaluations());
+    }
+
+    @Test
+    public void ConfigurationWrapsOnlyWithDiagnostics() {
+        Distance plain = new AlgorithmConfiguration("kmeans", "euclidean", false).buildDistance();
+        assertSame(Distances.euclidean().getClass(), plain.getClass());
+
+        Distance wrapped = new AlgorithmConfiguration("kmeans", "euclidean", false).withDiagnostics(true).buildDistance();
+        assertTrue(wrapped instanceof InstrumentedDistance);
+        assertSame(Distances.euclidean().getClass(), ((InstrumentedDistance) wrapped).getDelegate().getClass());
+    }
+}
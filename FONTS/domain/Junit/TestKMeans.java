@@ -48,4 +48,36 @@ public class TestKMeans {
         assertEquals(clusterB, labels[4]);
         assertEquals(clusterB, labels[5]);
     }
+
+    /**
+     * Comprova que l'algorisme actualitza els centroides: després de
+     * convergir, cada centroide és la mitjana dels punts del seu clúster.
+     */
+    @Test
+    public void testCentroidsAreClusterMeansAfterConvergence() {
+        double[][] data = {
+            {0.0, 0.0}, {2.0, 0.0}, {0.0, 2.0}, {2.0, 2.0},
+            {10.0, 10.0}, {12.0, 10.0}, {10.0, 12.0}, {12.0, 12.0}
+        };
+        ClusterModel model = new KMeans().fit(data, 2, new EuclideanDistance(), 3L, 100, 1e-9);
+
+        assertTrue("Ha de fer més d'una iteració", model.getIterations() > 1);
+        int[] labels = model.getLabels();
+        double[][] centroids = model.getCentroids();
+        for (int c = 0; c < 2; c++) {
+            double sx = 0, sy = 0;
+            int count = 0;
+            for (int i = 0; i < data.length; i++) {
+                if (labels[i] != c) continue;
+                sx += data[i][0];
+                sy += data[i][1];
+                count++;
+            }
+            assertEquals(4, count);
+            assertEquals(sx / count, centroids[c][0], 1e-12);
+            assertEquals(sy / count, centroids[c][1], 1e-12);
+        }
+        // inèrcia = suma de distàncies al quadrat (8 punts a distància sqrt(2))
+        assertEquals(16.0, model.getInertia(), 1e-9);
+    }
 }
@@ -0,0 +1,79 @@
+package Junit;
+
+import distance.Distance;
+import distance.Distances;
+import kmeans.ClusterModel;
+import kmeans.KMeansParallel;
+import matrix.FeatureMatrix;
+import Survey.AlgorithmConfiguration;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves de {@link KMeansParallel}: inicialització K-Means|| reproduïble amb
+ * qualsevol pool i que troba grups ben separats.
+ */
+public class TestKMeansParallel {
+
+    private static FeatureMatrix blobs(int n, int groups, double spread, long seed) {
+        Random rnd = new Random(seed);
+        double[][] X = new double[n][];
+        for (int i = 0; i < n; i++) {
+            int g = i % groups;
+            X[i] = new double[]{(g % 4) * 20 + spread * rnd.nextGaussian(), (g / 4) * 20 + spread * rnd.nextGaussian()};
+        }
+        return FeatureMatrix.of(X);
+    }
+
+    @Test
+    public void SameCentroidsWithAnyPool() {
+        // més d'un tros per ronda
+        FeatureMatrix X = blobs(40_000, 8, 2.0, 3);
+        Distance dist = Distances.euclidean();
+        double[] norms = dist.norms(X);
+
+        double[][] sequential = new KMeansParallel(2.0, 5, null).initialCentroids(X, norms, 8, dist, 11L);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            double[][] parallel = new KMeansParallel(2.0, 5, pool).initialCentroids(X, norms, 8, dist, 11L);
+            assertArrayEquals(sequential, parallel);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void FindsWellSeparatedGroups() {
+        FeatureMatrix X = blobs(4_000, 8, 1.0, 5);
+        ClusterModel model = new KMeansParallel().fit(X, 8, Distances.euclidean(), 7L, 100, 1e-6);
+
+        int[] labels = model.getLabels();
+        Set<Integer> seen = new HashSet<>();
+        for (int g = 0; g < 8; g++) {
+            for (int i = g; i < labels.length; i += 8) assertEquals(labels[g], labels[i]);
+            seen.add(labels[g]);
+        }
+        assertEquals(8, seen.size());
+    }
+
+    @Test
+    public void FewerCandidatesThanK() {
+        FeatureMatrix X = FeatureMatrix.of(new double[][]{{0, 0}, {0, 0}, {5, 5}});
+        ClusterModel model = new KMeansParallel().fit(X, 3, Distances.euclidean(), 1L, 100, 1e-6);
+        assertEquals(3, model.getCentroids().length);
+        assertEquals(0.0, model.getInertia(), 1e-12);
+    }
+
+    @Test
+    public void SelectableFromConfiguration() {
+        assertTrue(AlgorithmConfiguration.supportedInitMethods().containsKey("kmeans||"));
+        assertTrue(new AlgorithmConfiguration("kmeans||", "euclidean").buildAlgorithm() instanceof KMeansParallel);
+    }
+}
@@ -45,4 +45,27 @@ public class TestKMeansPlusPlus {
         assertEquals(clusterB, labels[4]);
         assertEquals(clusterB, labels[5]);
     }
+
+    /**
+     * Comprova que després de la inicialització es fan iteracions de Lloyd:
+     * els centres dels dos quadrats no són cap punt de les dades, així que
+     * amb una sola passada (centroides = llavors) la prova fallaria.
+     */
+    @Test
+    public void testFitKPPRunsLloydIterations() {
+        double[][] data = {
+            {0.0, 0.0}, {2.0, 0.0}, {0.0, 2.0}, {2.0, 2.0},
+            {10.0, 10.0}, {12.0, 10.0}, {10.0, 12.0}, {12.0, 12.0}
+        };
+        for (long seed = 0; seed < 5; seed++) {
+            ClusterModel model = new KMeansPlusPlus().fit(data, 2, new EuclideanDistance(), seed, 100, 1e-9);
+
+            assertTrue("Ha de fer més d'una iteració", model.getIterations() > 1);
+            double[][] centroids = model.getCentroids();
+            int low = centroids[0][0] < centroids[1][0] ? 0 : 1;
+            assertArrayEquals(new double[]{1.0, 1.0}, centroids[low], 1e-12);
+            assertArrayEquals(new double[]{11.0, 11.0}, centroids[1 - low], 1e-12);
+            assertEquals(16.0, model.getInertia(), 1e-9);
+        }
+    }
 }
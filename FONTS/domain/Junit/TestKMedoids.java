@@ -0,0 +1,116 @@
+package Junit;
+
+import distance.Distance;
+import distance.Distances;
+import kmeans.ClusterModel;
+import kmeans.KMedoids;
+import matrix.FeatureMatrix;
+import Survey.AlgorithmConfiguration;
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves de {@link KMedoids}: medoides que són files de les dades, òptim
+ * local respecte als intercanvis i mostreig CLARA.
+ */
+public class TestKMedoids {
+
+    private static FeatureMatrix blobs(int n, int groups, double spread, long seed) {
+        Random rnd = new Random(seed);
+        double[][] X = new double[n][];
+        for (int i = 0; i < n; i++) {
+            int g = i % groups;
+            X[i] = new double[]{(g % 3) * 10 + spread * rnd.nextGaussian(), (g / 3) * 10 + spread * rnd.nextGaussian()};
+        }
+        return FeatureMatrix.of(X);
+    }
+
+    private static double totalDeviation(FeatureMatrix X, int[] medoids, Distance dist) {
+        double total = 0.0;
+        for (int i = 0; i < X.rows(); i++) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int m : medoids) best = Math.min(best, dist.between(X.row(i), X.row(m)));
+            total += best;
+        }
+        return total;
+    }
+
+    @Test
+    public void MedoidsAreDataRows() {
+        FeatureMatrix X = blobs(120, 4, 1.0, 1);
+        ClusterModel model = new KMedoids().fit(X, 4, Distances.cosine(), 3L, 100, 0.0);
+
+        int[] medoids = model.getMedoids();
+        assertEquals(4, medoids.length);
+        for (int c = 0; c < medoids.length; c++) {
+            assertArrayEquals(X.row(medoids[c]), model.getCentroids()[c], 0.0);
+            assertEquals(c, model.getLabels()[medoids[c]]);
+        }
+    }
+
+    @Test
+    public void NoSingleSwapImprovesTheSolution() {
+        FeatureMatrix X = blobs(90, 5, 2.5, 2);
+        Distance dist = Distances.euclidean();
+        int[] medoids = new KMedoids().fit(X, 5, dist, 8L, 100, 0.0).getMedoids();
+        double td = totalDeviation(X, medoids, dist);
+
+        Set<Integer> current = new HashSet<>();
+        for (int m : medoids) current.add(m);
+        for (int c = 0; c < medoids.length; c++) {
+            for (int x = 0; x < X.rows(); x++) {
+                if (current.contains(x)) continue;
+                int[] swapped = medoids.clone();
+                swapped[c] = x;
+                assertTrue(totalDeviation(X, swapped, dist) >= td - 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void SingleMedoidMinimisesTotalDistance() {
+        FeatureMatrix X = FeatureMatrix.of(new double[][]{{0}, {1}, {2}, {3}, {100}, {101}, {102}});
+        Distance dist = Distances.euclidean();
+        for (long seed = 0; seed < 10; seed++) {
+            int[] medoids = new KMedoids().fit(X, 1, dist, seed, 100, 0.0).getMedoids();
+            assertArrayEquals(new int[]{3}, medoids);
+            assertEquals(300.0, totalDeviation(X, medoids, dist), 1e-9);
+        }
+    }
+
+    @Test
+    public void ClaraSamplesLargeInputs() {
+        FeatureMatrix X = blobs(20_000, 6, 1.0, 4);
+        Distance dist = Distances.euclidean();
+        ClusterModel sequential = new KMedoids(300, 3, null).fit(X, 6, dist, 5L, 100, 1e-4);
+
+        int[] labels = sequential.getLabels();
+        Set<Integer> seen = new HashSet<>();
+        for (int g = 0; g < 6; g++) {
+            for (int i = g; i < labels.length; i += 6) assertEquals(labels[g], labels[i]);
+            seen.add(labels[g]);
+        }
+        assertEquals(6, seen.size());
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            ClusterModel parallel = new KMedoids(300, 3, pool).fit(X, 6, dist, 5L, 100, 1e-4);
+            assertArrayEquals(sequential.getMedoids(), parallel.getMedoids());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void SelectableFromConfiguration() {
+        assertTrue(AlgorithmConfiguration.supportedInitMethods().containsKey("kmedoids"));
+        assertTrue(new AlgorithmConfiguration("kmedoids", "cosine").buildAlgorithm() instanceof KMedoids);
+    }
+}
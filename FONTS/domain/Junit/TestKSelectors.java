@@ -0,0 +1,117 @@
+package Junit;
+
+import distance.Distance;
+import distance.Distances;
+import distance.GowerDistance;
+import kmeans.KMedoids;
+import kmeans.KMeansPlusPlus;
+import kselector.ElbowMethod;
+import kselector.GapStatistic;
+import kselector.KSearchResult;
+import kselector.SilhouetteMethod;
+import matrix.FeatureMatrix;
+import Survey.AlgorithmConfiguration;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves dels selectors de k per silueta i per gap statistic, i de la seva
+ * elecció des d'{@link AlgorithmConfiguration}.
+ */
+public class TestKSelectors {
+
+    /** Quatre grups ben separats en 3D. */
+    private static FeatureMatrix fourBlobs() {
+        Random rnd = new Random(11);
+        double[][] centers = {{0, 0, 0}, {12, 0, 0}, {0, 12, 0}, {0, 0, 12}};
+        double[][] X = new double[400][];
+        for (int i = 0; i < X.length; i++) {
+            double[] c = centers[i % 4];
+            X[i] = new double[]{c[0] + rnd.nextGaussian(), c[1] + rnd.nextGaussian(), c[2] + rnd.nextGaussian()};
+        }
+        return FeatureMatrix.of(X);
+    }
+
+    @Test
+    public void SilhouetteMethodFindsPlantedGroups() {
+        FeatureMatrix X = fourBlobs();
+        Distance dist = Distances.euclidean();
+        assertEquals(4, new SilhouetteMethod().suggestK(X, 2, 8, new KMeansPlusPlus(), dist, 3L));
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            KSearchResult r = new SilhouetteMethod(pool, 100).search(X, 1, 8, new KMeansPlusPlus(), dist, 3L, 0L);
+            // amb un sol clúster la silueta no està definida: comença a 2
+            assertEquals(2, r.getKMin());
+            assertEquals(4, r.getBestK());
+            assertEquals(4, r.getBestModel().getCentroids().length);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void GapStatisticFindsPlantedGroups() {
+        FeatureMatrix X = fourBlobs();
+        Distance dist = Distances.euclidean();
+        KSearchResult r = new GapStatistic().search(X, 1, 8, new KMeansPlusPlus(), dist, 3L, 0L);
+        assertEquals(4, r.getBestK());
+        assertEquals(8, r.getKMax());
+
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        try {
+            assertEquals(4, new GapStatistic(pool, 3, 200).suggestK(X, 1, 8, new KMeansPlusPlus(), dist, 3L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tres grups de respostes d'opció única (codis 0-8) amb un 10% de soroll,
+     * codificats com ho fa Gower: una columna amb el codi per pregunta.
+     */
+    private static FeatureMatrix categoricalGroups() {
+        Random rnd = new Random(5);
+        double[][] X = new double[150][6];
+        for (int i = 0; i < X.length; i++) {
+            int g = i % 3;
+            for (int q = 0; q < 6; q++) {
+                X[i][q] = rnd.nextDouble() < 0.1 ? rnd.nextInt(9) : 3 * g + q % 3;
+            }
+        }
+        return FeatureMatrix.of(X);
+    }
+
+    @Test
+    public void GapStatisticPermutesColumnsForGower() {
+        FeatureMatrix X = categoricalGroups();
+        int[] kinds = new int[6], offsets = new int[6], widths = new int[6];
+        double[] weights = new double[6];
+        for (int q = 0; q < 6; q++) {
+            kinds[q] = GowerDistance.CATEGORICAL;
+            offsets[q] = q;
+            widths[q] = 1;
+            weights[q] = 1.0;
+        }
+        Distance dist = new GowerDistance(kinds, offsets, widths, weights);
+        GapStatistic gap = new GapStatistic(null, GapStatistic.DEFAULT_REFERENCES,
+                GapStatistic.DEFAULT_REFERENCE_SIZE, true);
+        assertEquals(3, gap.suggestK(X, 1, 6, new KMedoids(), dist, 3L));
+    }
+
+    @Test
+    public void ConfigurationPicksSelector() {
+        AlgorithmConfiguration config = new AlgorithmConfiguration("kmeans++", "euclidean");
+        assertEquals("elbow", config.getKSelector());
+        assertTrue(config.buildKSelector(null) instanceof ElbowMethod);
+        assertTrue(config.withKSelector("Silhouette").buildKSelector(null) instanceof SilhouetteMethod);
+        assertTrue(config.withKSelector("gap").buildKSelector(null) instanceof GapStatistic);
+        assertEquals("elbow", config.withKSelector("unknown").getKSelector());
+        assertTrue(AlgorithmConfiguration.supportedKSelectors().containsKey("gap"));
+    }
+}
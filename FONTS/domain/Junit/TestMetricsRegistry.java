@@ -0,0 +1,80 @@
+package Junit;
+
+import metrics.Counter;
+import metrics.MetricsRegistry;
+import metrics.Timer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves del registre de mètriques: comptadors, temporitzadors i JSON.
+ */
+public class TestMetricsRegistry {
+
+    @Test
+    public void SameNameReturnsSameMetric() {
+        MetricsRegistry registry = new MetricsRegistry();
+        assertSame(registry.counter("a"), registry.counter("a"));
+        assertSame(registry.timer("t"), registry.timer("t"));
+    }
+
+    @Test
+    public void ConcurrentUpdatesAreNotLost() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("hits");
+        Timer timer = registry.timer("lat");
+        int threads = 8;
+        int perThread = 10_000;
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread th = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    counter.increment();
+                    timer.record(1_000L);
+                }
+            });
+            workers.add(th);
+            th.start();
+        }
+        for (Thread th : workers) th.join();
+
+        assertEquals(threads * perThread, counter.get());
+        Timer.Snapshot snap = timer.snapshot();
+        assertEquals(threads * perThread, snap.count());
+        assertEquals(1_000L * threads * perThread, snap.totalNanos());
+        assertEquals(1_000L, snap.max());
+    }
+
+    @Test
+    public void PercentilesAreWithinBucketPrecision() {
+        Timer timer = new MetricsRegistry().timer("lat");
+        for (long v = 1; v <= 100_000; v++) {
+            timer.record(v * 1_000L);
+        }
+        Timer.Snapshot snap = timer.snapshot();
+        assertEquals(50_000_000.0, snap.percentile(50), 50_000_000.0 * 0.04);
+        assertEquals(99_000_000.0, snap.percentile(99), 99_000_000.0 * 0.04);
+        assertEquals(100_000_000L, snap.percentile(100));
+        assertEquals(0L, new MetricsRegistry().timer("buit").snapshot().percentile(99));
+    }
+
+    @Test
+    public void ToJsonListsCountersAndTimers() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("command.errors").add(3);
+        registry.timer("command.LOGIN").record(2_000_000L);
+
+        String json = registry.toJson();
+        assertTrue(json.contains("\"command.errors\":3"));
+        assertTrue(json.contains("\"command.LOGIN\":{\"count\":1"));
+        assertTrue(json.contains("\"p99Us\":"));
+
+        registry.reset();
+        assertEquals(0, registry.counter("command.errors").get());
+        assertEquals(0, registry.timer("command.LOGIN").snapshot().count());
+    }
+}
@@ -0,0 +1,119 @@
+package Junit;
+
+import distance.Distance;
+import distance.Distances;
+import kmeans.ClusterModel;
+import kmeans.IClusteringAlgorithm;
+import kmeans.KMeans;
+import kmeans.MultiStartClustering;
+import matrix.FeatureMatrix;
+import Survey.AlgorithmConfiguration;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves de {@link MultiStartClustering}: millor model de diverses
+ * inicialitzacions, reproductibilitat i aturada anticipada.
+ */
+public class TestMultiStartClustering {
+
+    private static FeatureMatrix blobs(int groups, double spread, long seed) {
+        Random rnd = new Random(seed);
+        double[][] X = new double[60 * groups][];
+        for (int i = 0; i < X.length; i++) {
+            int g = i % groups;
+            X[i] = new double[]{g * 6 + spread * rnd.nextGaussian(), (g % 2) * 6 + spread * rnd.nextGaussian()};
+        }
+        return FeatureMatrix.of(X);
+    }
+
+    @Test
+    public void KeepsLowestInertiaOfAllRestarts() {
+        FeatureMatrix X = blobs(6, 1.5, 2);
+        Distance dist = Distances.euclidean();
+        KMeans kmeans = new KMeans();
+
+        ClusterModel best = new MultiStartClustering(kmeans, 8, null).fit(X, 6, dist, 5L, 100, 1e-6);
+        double single = kmeans.fit(X, 6, dist, 5L, 100, 1e-6).getInertia();
+        assertTrue(best.getInertia() <= single);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            ClusterModel parallel = new MultiStartClustering(kmeans, 8, pool).fit(X, 6, dist, 5L, 100, 1e-6);
+            for (int r = 0; r < 8; r++) {
+                long seed = MultiStartClustering.seedFor(5L, r);
+                assertTrue(parallel.getInertia() <= kmeans.fit(X, 6, dist, seed, 100, 1e-6).getInertia());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void SingleRestartMatchesDelegate() {
+        FeatureMatrix X = blobs(3, 1.0, 4);
+        Distance dist = Distances.euclidean();
+        ClusterModel a = new KMeans().fit(X, 3, dist, 9L, 100, 1e-6);
+        ClusterModel b = new MultiStartClustering(new KMeans(), 1, null).fit(X, 3, dist, 9L, 100, 1e-6);
+        assertArrayEquals(a.getLabels(), b.getLabels());
+        assertEquals(a.getInertia(), b.getInertia(), 0.0);
+    }
+
+    @Test
+    public void StopsWhenRestartsAgree() {
+        // grups molt separats: totes les inicialitzacions troben la mateixa partició
+        FeatureMatrix X = blobs(2, 0.2, 6);
+        AtomicInteger calls = new AtomicInteger();
+        IClusteringAlgorithm counting = new IClusteringAlgorithm() {
+            @Override
+            public ClusterModel fit(FeatureMatrix data, int k, Distance distance, long seed, int maxIter, double tol) {
+                calls.incrementAndGet();
+                return new KMeans().fit(data, k, distance, seed, maxIter, tol);
+            }
+        };
+        new MultiStartClustering(counting, 10, null).fit(X, 2, Distances.euclidean(), 1L, 100, 1e-6);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void StopDoesNotDependOnPoolSize() {
+        // les inicialitzacions 0 i 1 coincideixen (en seqüència s'atura aquí);
+        // la 2 trobaria un model millor si s'arribés a mirar
+        FeatureMatrix X = FeatureMatrix.of(new double[4][1]);
+        int[] first = {0, 0, 1, 1}, better = {0, 1, 0, 1};
+        IClusteringAlgorithm scripted = new IClusteringAlgorithm() {
+            @Override
+            public ClusterModel fit(FeatureMatrix data, int k, Distance distance, long seed, int maxIter, double tol) {
+                boolean third = seed == MultiStartClustering.seedFor(1L, 2);
+                return new ClusterModel(new double[k][1], third ? better : first, third ? 5.0 : 10.0, 1);
+            }
+        };
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ClusterModel seq = new MultiStartClustering(scripted, 4, null).fit(X, 2, null, 1L, 10, 1e-6);
+            ClusterModel par = new MultiStartClustering(scripted, 4, pool).fit(X, 2, null, 1L, 10, 1e-6);
+            assertEquals(10.0, seq.getInertia(), 0.0);
+            assertEquals(seq.getInertia(), par.getInertia(), 0.0);
+            assertArrayEquals(seq.getLabels(), par.getLabels());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void ConfigurationWrapsAlgorithm() {
+        AlgorithmConfiguration config = new AlgorithmConfiguration("kmeans++", "euclidean");
+        assertEquals(1, config.getNInit());
+        assertFalse(config.buildAlgorithm() instanceof MultiStartClustering);
+        IClusteringAlgorithm algo = config.withNInit(4).buildAlgorithm();
+        assertTrue(algo instanceof MultiStartClustering);
+        assertEquals(4, ((MultiStartClustering) algo).getRestarts());
+    }
+}
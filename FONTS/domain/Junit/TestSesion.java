@@ -32,6 +32,21 @@ public class TestSesion {
         assertNotNull("El tiempo de acceso no debe ser nulo", sesion.getLastAccessTime());
     }
 
+    /**
+     * Comprova que l'ID de sessió té 128 bits aleatoris en base64url i que
+     * no es repeteix entre sessions.
+     */
+    @Test
+    public void testSessionIdIsUrlSafeToken() {
+        String id = sesion.getSessionId();
+        assertTrue("El ID debe ser base64url sin relleno", id.matches("[A-Za-z0-9_-]{22}"));
+        assertEquals(16, java.util.Base64.getUrlDecoder().decode(id).length);
+        java.util.Set<String> ids = new java.util.HashSet<>();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(ids.add(new Sesion(testUser).getSessionId()));
+        }
+    }
+
     /**
      * Comprova que la sessió es tanca (es desactiva) correctament.
      */
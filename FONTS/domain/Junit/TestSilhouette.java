@@ -3,10 +3,13 @@ package Junit;
 import distance.Distance;
 import distance.EuclideanDistance;
 import kmeans.ClusterModel;
+import matrix.FeatureMatrix;
 import org.junit.Before;
 import org.junit.Test;
 import validation.Silhouette;
 
+import java.util.Random;
+
 import static org.junit.Assert.*;
 
 /**
@@ -74,4 +77,26 @@ public class TestSilhouette {
         
         assertEquals(expectedAverage, actualAverage, 1e-9);
     }
-}
\ No newline at end of file
+
+    /**
+     * La silueta mostrejada coincideix amb l'exacta si la mostra cobreix
+     * totes les files, i s'hi acosta amb una mostra parcial.
+     */
+    @Test
+    public void SampledAverageApproximatesExact() {
+        Random rnd = new Random(3);
+        double[][] X = new double[300][2];
+        int[] labels = new int[X.length];
+        for (int i = 0; i < X.length; i++) {
+            labels[i] = i % 3;
+            X[i][0] = labels[i] * 4 + rnd.nextGaussian();
+            X[i][1] = rnd.nextGaussian();
+        }
+        ClusterModel m = new ClusterModel(new double[3][2], labels, 0.0, 1);
+        FeatureMatrix M = FeatureMatrix.of(X);
+
+        double exact = silhouette.average(M, m, distance);
+        assertEquals(exact, silhouette.averageSampled(M, m, distance, X.length, 1L), 1e-12);
+        assertEquals(exact, silhouette.averageSampled(M, m, distance, 150, 1L), 0.05);
+    }
+}
@@ -0,0 +1,230 @@
+package Junit;
+
+import Exceptions.PersistenceException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import persistence.UserPersistence;
+import user.RegisteredUser;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Proves d'integració per a la persistència incremental d'usuaris
+ * (instantània + registre de canvis).
+ */
+public class TestUserPersistence {
+
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void PersistUserAppendsToLogOnly() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        UserPersistence persistence = new UserPersistence(data);
+
+        persistence.persistUser(user("u1", "anna"));
+        persistence.persistUser(user("u2", "biel"));
+
+        assertFalse(Files.exists(data));
+        assertEquals(2, Files.readAllLines(log(data)).size());
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(2, loaded.size());
+        assertEquals("anna", loaded.get(0).getUsername());
+    }
+
+    @Test
+    public void LoadReplaysLogOverSnapshot() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        UserPersistence persistence = new UserPersistence(data);
+        persistence.persistAllUsers(Arrays.asList(user("u1", "anna"), user("u2", "biel")));
+        assertFalse(Files.exists(log(data)));
+
+        persistence.persistUser(user("u1", "anna2"));
+        persistence.deleteUser("u2");
+        persistence.persistUser(user("u3", "carla"));
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(2, loaded.size());
+        assertEquals("anna2", findById(loaded, "u1").getUsername());
+        assertNull(findById(loaded, "u2"));
+        assertNotNull(findById(loaded, "u3"));
+    }
+
+    @Test
+    public void CompactsWhenThresholdReached() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        // executor directe: la compactació acaba abans que torni l'escriptura
+        UserPersistence persistence = new UserPersistence(data, 3, Runnable::run);
+
+        persistence.persistUser(user("u1", "anna"));
+        persistence.persistUser(user("u2", "biel"));
+        assertTrue(Files.exists(log(data)));
+        persistence.deleteUser("u1");
+
+        assertFalse(Files.exists(log(data)));
+        assertTrue(Files.exists(data));
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(1, loaded.size());
+        assertEquals("u2", loaded.get(0).getId());
+    }
+
+    @Test
+    public void CompactionRunsOffTheWritePath() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        java.util.Queue<Runnable> queued = new java.util.ArrayDeque<>();
+        UserPersistence persistence = new UserPersistence(data, 2, queued::add);
+
+        persistence.persistUser(user("u1", "anna"));
+        persistence.persistUser(user("u2", "biel"));
+        // l'escriptura que arriba al llindar només programa la compactació
+        assertEquals(1, queued.size());
+        assertFalse(Files.exists(data));
+        persistence.persistUser(user("u3", "carla"));
+        assertEquals("No s'ha de programar dues vegades", 1, queued.size());
+
+        queued.poll().run();
+        assertTrue(Files.exists(data));
+        assertFalse(Files.exists(log(data)));
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(3, loaded.size());
+
+        persistence.persistUser(user("u4", "dani"));
+        assertTrue(queued.isEmpty());
+        persistence.persistUser(user("u5", "eva"));
+        assertEquals("Es torna a programar un cop acabada", 1, queued.size());
+    }
+
+    @Test
+    public void InterruptedCompactionIsReplayed() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        UserPersistence persistence = new UserPersistence(data);
+        persistence.persistAllUsers(Arrays.asList(user("u1", "anna")));
+        persistence.persistUser(user("u2", "biel"));
+        // caiguda just després de renombrar el registre
+        Files.move(log(data), log(data).resolveSibling("userdata.log.compacting"));
+        persistence.persistUser(user("u3", "carla"));
+
+        assertEquals(3, new UserPersistence(data).loadAllUsers().size());
+        persistence.compact();
+        assertFalse(Files.exists(log(data).resolveSibling("userdata.log.compacting")));
+        assertEquals(3, new UserPersistence(data).loadAllUsers().size());
+        persistence.compact();
+        assertFalse(Files.exists(log(data)));
+        assertEquals(3, new UserPersistence(data).loadAllUsers().size());
+    }
+
+    @Test
+    public void TornLastLineIsIgnored() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        UserPersistence persistence = new UserPersistence(data);
+        persistence.persistUser(user("u1", "anna"));
+        Files.writeString(log(data), "{\"op\":\"upsert\",\"id\":\"u2\",\"userna",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(1, loaded.size());
+        assertEquals("u1", loaded.get(0).getId());
+    }
+
+    @Test
+    public void AppendAfterTornLastLineIsKept() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        new UserPersistence(data).persistUser(user("u1", "anna"));
+        Files.writeString(log(data), "{\"op\":\"upsert\",\"id\":\"u2\",\"displayName\":\"B",
+                StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        // una instància nova, com després de reiniciar el procés
+        new UserPersistence(data).persistUser(user("u3", "carla"));
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(2, loaded.size());
+        assertNotNull(findById(loaded, "u1"));
+        assertNotNull(findById(loaded, "u3"));
+        assertNull(findById(loaded, "u2"));
+    }
+
+    @Test
+    public void TearAfterCompleteValueKeepsNextRecord() throws Exception {
+        assertNextRecordSurvivesTear("{\"op\":\"upsert\",\"id\":\"x\"");
+    }
+
+    @Test
+    public void TearAfterColonKeepsNextRecord() throws Exception {
+        assertNextRecordSurvivesTear("{\"op\":\"upsert\",\"id\":");
+    }
+
+    /** Entrada a mitges al final del registre i una alta posterior: només es perd l'entrada trencada. */
+    private void assertNextRecordSurvivesTear(String tornTail) throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        new UserPersistence(data).persistUser(user("a", "anna"));
+        Files.writeString(log(data), tornTail, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        new UserPersistence(data).persistUser(user("b", "biel"));
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(2, loaded.size());
+        assertEquals("a", loaded.get(0).getId());
+        assertEquals("b", loaded.get(1).getId());
+    }
+
+    @Test
+    public void SnapshotWithEscapesAndUnknownFieldsIsParsed() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        Files.writeString(data, "[\n"
+                + "  {\"id\":\"u1\",\"age\":42,\"tags\":[\"a\",{\"b\":null}],"
+                + "\"displayName\":\"Joan \\\"el\\\" Pe\\u00e7\",\"username\":\"joan\",\"passwordHash\":\"h\"},\n"
+                + "  {\"id\":\"u2\",\"active\":true,\"username\":\"l\\\\nia\",\"passwordHash\":\"h2\"}\n"
+                + "]\n", StandardCharsets.UTF_8);
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(2, loaded.size());
+        assertEquals("Joan \"el\" Peç", loaded.get(0).getDisplayName());
+        assertEquals("joan", loaded.get(0).getUsername());
+        assertEquals("l\\nia", loaded.get(1).getUsername());
+        assertEquals("", loaded.get(1).getDisplayName());
+    }
+
+    @Test
+    public void PersistedFieldsRoundTrip() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        UserPersistence persistence = new UserPersistence(data);
+        RegisteredUser tricky = new RegisteredUser("u1", "Línia\n\"cometes\"\t\\", "2024-01-01T00:00:00", "anna", "h");
+        persistence.persistAllUsers(Arrays.asList(tricky));
+        persistence.persistUser(new RegisteredUser("u2", "Biel\r", "2024-01-01T00:00:00", "biel", "h"));
+
+        List<RegisteredUser> loaded = new UserPersistence(data).loadAllUsers();
+        assertEquals(tricky.getDisplayName(), loaded.get(0).getDisplayName());
+        assertEquals("Biel\r", loaded.get(1).getDisplayName());
+    }
+
+    @Test(expected = PersistenceException.class)
+    public void MalformedSnapshotThrows() throws Exception {
+        Path data = tmp.getRoot().toPath().resolve("userdata.json");
+        Files.writeString(data, "{\"id\":\"u1\"}", StandardCharsets.UTF_8);
+        new UserPersistence(data).loadAllUsers();
+    }
+
+    private static Path log(Path data) {
+        return data.resolveSibling("userdata.log");
+    }
+
+    private static RegisteredUser user(String id, String username) {
+        return new RegisteredUser(id, "Nom " + id, "2024-01-01T00:00:00", username, "hash-" + id);
+    }
+
+    private static RegisteredUser findById(List<RegisteredUser> users, String id) {
+        for (RegisteredUser u : users) {
+            if (u.getId().equals(id)) return u;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+package Junit;
+
+import distance.CosineDistance;
+import distance.Distance;
+import distance.Distances;
+import distance.EuclideanDistance;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Comprova que les distàncies de {@link Distances} (SIMD si el mòdul
+ * {@code jdk.incubator.vector} és present, escalars si no) donen el mateix
+ * resultat que les implementacions escalars de referència.
+ */
+public class TestVectorDistance {
+
+    private static final int[] DIMS = {0, 1, 3, 4, 7, 8, 9, 17, 64, 101};
+
+    @Test
+    public void VectorKernelsAreUsedWhenModuleIsPresent() {
+        boolean module = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+        assertEquals(module && Boolean.parseBoolean(System.getProperty(Distances.SIMD_PROPERTY, "true")),
+                Distances.isVectorized());
+    }
+
+    @Test
+    public void EuclideanMatchesScalar() {
+        assertMatches(new EuclideanDistance(), Distances.euclidean());
+    }
+
+    @Test
+    public void CosineMatchesScalar() {
+        assertMatches(new CosineDistance(), Distances.cosine());
+    }
+
+    @Test
+    public void CosineOfZeroVectorIsOne() {
+        Distance cos = Distances.cosine();
+        double[] zero = new double[16];
+        double[] other = new double[16];
+        other[3] = 2.0;
+        assertEquals(1.0, cos.between(zero, other), 0.0);
+        assertEquals(1.0, cos.between(other, zero), 0.0);
+        assertEquals(0.0, cos.between(other, other), 1e-12);
+    }
+
+    @Test
+    public void PrecomputedNormsGiveSameDistance() {
+        Random rnd = new Random(11);
+        for (Distance dist : new Distance[]{new CosineDistance(), Distances.cosine(),
+                new EuclideanDistance(), Distances.euclidean()}) {
+            for (int d : DIMS) {
+                double[] a = new double[d];
+                double[] b = new double[d];
+                for (int j = 0; j < d; j++) {
+                    a[j] = rnd.nextGaussian();
+                    b[j] = rnd.nextGaussian();
+                }
+                double expected = dist.between(a, b);
+                double withNorms = dist.between(a, dist.norm(a), b, dist.norm(b));
+                assertEquals(dist.getClass().getSimpleName() + " d=" + d, expected, withNorms, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void BatchApiMatchesPairwiseCalls() {
+        Random rnd = new Random(13);
+        double[][] A = new double[70][];
+        double[][] B = new double[130][];
+        for (double[][] M : new double[][][]{A, B}) {
+            for (int i = 0; i < M.length; i++) {
+                M[i] = new double[19];
+                for (int j = 0; j < 19; j++) M[i][j] = rnd.nextDouble() < 0.2 ? 0.0 : rnd.nextGaussian();
+            }
+        }
+        A[5] = new double[19]; // vector de norma zero
+        for (Distance dist : new Distance[]{new CosineDistance(), Distances.cosine(),
+                new EuclideanDistance(), Distances.euclidean()}) {
+            double[] aN = new double[A.length];
+            double[] bN = new double[B.length];
+            for (int i = 0; i < A.length; i++) aN[i] = dist.norm(A[i]);
+            for (int j = 0; j < B.length; j++) bN[j] = dist.norm(B[j]);
+
+            double[][] out = new double[A.length][B.length];
+            dist.pairwise(A, aN, B, bN, out);
+            double[] row = new double[B.length];
+            for (int i = 0; i < A.length; i++) {
+                dist.toAll(A[i], aN[i], B, bN, row);
+                for (int j = 0; j < B.length; j++) {
+                    double expected = dist.between(A[i], B[j]);
+                    String msg = dist.getClass().getSimpleName() + " " + i + "," + j;
+                    assertEquals(msg, expected, out[i][j], 1e-9);
+                    assertEquals(msg, expected, row[j], 1e-9);
+                }
+            }
+        }
+    }
+
+    private static void assertMatches(Distance reference, Distance candidate) {
+        Random rnd = new Random(7);
+        for (int d : DIMS) {
+            for (int rep = 0; rep < 20; rep++) {
+                double[] a = new double[d];
+                double[] b = new double[d];
+                for (int j = 0; j < d; j++) {
+                    a[j] = rnd.nextDouble() < 0.3 ? 0.0 : rnd.nextGaussian();
+                    b[j] = rnd.nextDouble() < 0.3 ? 0.0 : rnd.nextGaussian();
+                }
+                double expected = reference.between(a, b);
+                assertEquals("d=" + d, expected, candidate.between(a, b), 1e-9 * Math.max(1.0, expected));
+            }
+        }
+    }
+}
@@ -1,26 +1,154 @@
 package Survey;
 
+import Encoder.GowerEncoder;
+import Encoder.IEncoder;
+import Encoder.OneHotEncoder;
 import distance.Distance;
-import distance.CosineDistance;
-import distance.EuclideanDistance;
+import distance.Distances;
+import distance.InstrumentedDistance;
+import java.nio.file.Path;
 import java.util.LinkedHashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import kmeans.IClusteringAlgorithm;
 import kmeans.KMeans;
+import kmeans.KMeansParallel;
 import kmeans.KMeansPlusPlus;
+import kmeans.KMedoids;
+import kmeans.MultiStartClustering;
+import kselector.ElbowMethod;
+import kselector.GapStatistic;
+import kselector.IKSelector;
+import kselector.SilhouetteMethod;
+import matrix.FeatureMatrixFactory;
 
 /**
  * Encapsula la configuració de l'algorisme de clustering d'una enquesta i
  * ofereix constructors per als components necessaris.
  */
 public class AlgorithmConfiguration {
+    /** Propietat de sistema que activa la instrumentació de la distància per defecte. */
+    public static final String DIAGNOSTICS_PROPERTY = "tribus.diagnostics";
+    /** Propietat amb la freqüència de mostreig de la distància instrumentada (64 per defecte). */
+    public static final String DIAGNOSTICS_SAMPLE_PROPERTY = "tribus.diagnostics.sample";
+    /**
+     * Propietat de sistema amb la precisió per defecte de la matriu de
+     * característiques: {@code double} (per defecte) o {@code float}.
+     */
+    public static final String PRECISION_PROPERTY = "tribus.matrix.precision";
+    /**
+     * Propietat de sistema amb l'emmagatzematge per defecte de la matriu:
+     * {@code heap} (per defecte), {@code offheap} (memòria directa) o
+     * {@code mapped} (fitxer temporal projectat a memòria).
+     */
+    public static final String STORAGE_PROPERTY = "tribus.matrix.storage";
+    /** Directori dels fitxers temporals amb {@code mapped} ({@code java.io.tmpdir} per defecte). */
+    public static final String STORAGE_DIR_PROPERTY = "tribus.matrix.dir";
+    /** Propietat amb el k més gran que prova la selecció automàtica de k (10 per defecte). */
+    public static final String AUTO_K_MAX_PROPERTY = "tribus.k.max";
+    /** Propietat amb el temps màxim, en mil·lisegons, de la selecció automàtica de k (2000 per defecte). */
+    public static final String AUTO_K_BUDGET_PROPERTY = "tribus.k.budgetMs";
+    /**
+     * Propietat amb el criteri per defecte de la selecció automàtica de k:
+     * {@code elbow} (per defecte), {@code silhouette} o {@code gap}.
+     */
+    public static final String K_SELECTOR_PROPERTY = "tribus.k.selector";
+    /**
+     * Propietat amb el nombre d'inicialitzacions de K-Means ({@code n_init},
+     * 1 per defecte); amb més d'una es queda el model amb menys inèrcia.
+     */
+    public static final String N_INIT_PROPERTY = "tribus.kmeans.nInit";
+
     private final String initMethod;
     private final String distance;
+    private final boolean diagnostics;
+    private final String precision;
+    private final String storage;
+    private final String kSelector;
+    private final int nInit;
 
     public AlgorithmConfiguration(String initMethod, String distance) {
+        this(initMethod, distance, Boolean.getBoolean(DIAGNOSTICS_PROPERTY));
+    }
+
+    /**
+     * @param diagnostics si és {@code true}, {@link #buildDistance()} retorna la
+     *                    distància embolcallada en una {@link InstrumentedDistance}.
+     */
+    public AlgorithmConfiguration(String initMethod, String distance, boolean diagnostics) {
+        this(initMethod, distance, diagnostics, System.getProperty(PRECISION_PROPERTY));
+    }
+
+    /**
+     * @param precision {@code "double"} o {@code "float"} (també {@code "float32"},
+     *                  {@code "f32"}): emmagatzematge de la matriu de
+     *                  característiques, vegeu {@link #buildMatrixFactory()}.
+     */
+    public AlgorithmConfiguration(String initMethod, String distance, boolean diagnostics, String precision) {
+        this(initMethod, distance, diagnostics, precision, System.getProperty(STORAGE_PROPERTY),
+                System.getProperty(K_SELECTOR_PROPERTY), Integer.getInteger(N_INIT_PROPERTY, 1));
+    }
+
+    private AlgorithmConfiguration(String initMethod, String distance, boolean diagnostics, String precision,
+                                   String storage, String kSelector, int nInit) {
         this.initMethod = normalizeOrDefault(initMethod, "kmeans++");
         this.distance = normalizeOrDefault(distance, "cosine");
+        this.diagnostics = diagnostics;
+        this.precision = switch (normalizeOrDefault(precision, "double")) {
+            case "float", "float32", "f32" -> "float";
+            default -> "double";
+        };
+        this.storage = switch (normalizeOrDefault(storage, "heap")) {
+            case "offheap", "off-heap", "direct" -> "offheap";
+            case "mapped", "mmap" -> "mapped";
+            default -> "heap";
+        };
+        this.kSelector = switch (normalizeOrDefault(kSelector, "elbow")) {
+            case "silhouette", "sil" -> "silhouette";
+            case "gap", "gap-statistic" -> "gap";
+            default -> "elbow";
+        };
+        this.nInit = Math.max(1, nInit);
+    }
+
+    /**
+     * Retorna una còpia d'aquesta configuració amb la instrumentació activada o no.
+     */
+    public AlgorithmConfiguration withDiagnostics(boolean enabled) {
+        return enabled == diagnostics ? this : new AlgorithmConfiguration(initMethod, distance, enabled, precision, storage, kSelector, nInit);
+    }
+
+    /**
+     * Retorna una còpia d'aquesta configuració amb la precisió de matriu indicada.
+     */
+    public AlgorithmConfiguration withPrecision(String value) {
+        return new AlgorithmConfiguration(initMethod, distance, diagnostics, value, storage, kSelector, nInit);
+    }
+
+    /**
+     * Retorna una còpia d'aquesta configuració amb l'emmagatzematge de matriu
+     * indicat ({@code heap}, {@code offheap} o {@code mapped}).
+     */
+    public AlgorithmConfiguration withStorage(String value) {
+        return new AlgorithmConfiguration(initMethod, distance, diagnostics, precision, value, kSelector, nInit);
+    }
+
+    /**
+     * Retorna una còpia d'aquesta configuració amb el criteri de selecció de k
+     * indicat (vegeu {@link #supportedKSelectors()}).
+     */
+    public AlgorithmConfiguration withKSelector(String value) {
+        return new AlgorithmConfiguration(initMethod, distance, diagnostics, precision, storage, value, nInit);
+    }
+
+    /**
+     * Retorna una còpia d'aquesta configuració amb {@code n} inicialitzacions
+     * de l'algorisme (vegeu {@link #buildAlgorithm()}).
+     */
+    public AlgorithmConfiguration withNInit(int n) {
+        return new AlgorithmConfiguration(initMethod, distance, diagnostics, precision, storage, kSelector, n);
     }
 
     private String normalizeOrDefault(String value, String fallback) {
@@ -41,14 +169,23 @@ public class AlgorithmConfiguration {
     }
 
     /**
-     * Retorna l'algorisme de clustering corresponent a la configuració.
+     * Retorna l'algorisme de clustering corresponent a la configuració. Amb
+     * més d'una inicialització ({@link #N_INIT_PROPERTY}) l'algorisme
+     * s'embolcalla en un {@link MultiStartClustering} que les executa al pool
+     * comú de la JVM.
+     *
+     * <p>Amb la distància de Gower sempre és {@link KMedoids}: la mitjana de
+     * codis d'opció que calcularia K-Means no és cap resposta vàlida.</p>
      */
     public IClusteringAlgorithm buildAlgorithm() {
-        return switch (initMethod) {
+        IClusteringAlgorithm algorithm = isGower() ? new KMedoids() : switch (initMethod) {
             case "kmeans", "k-means" -> new KMeans();
             case "kmeans++", "k-means++", "kpp" -> new KMeansPlusPlus();
+            case "kmeans||", "k-means||", "scalable" -> new KMeansParallel();
+            case "kmedoids", "k-medoids", "pam" -> new KMedoids();
             default -> new KMeans();
         };
+        return nInit > 1 ? new MultiStartClustering(algorithm, nInit, ForkJoinPool.commonPool()) : algorithm;
     }
 
     /**
@@ -59,18 +196,128 @@ public class AlgorithmConfiguration {
         Map<String, String> methods = new LinkedHashMap<>();
         methods.put("kmeans", "K-Means");
         methods.put("kmeans++", "K-Means++");
+        methods.put("kmeans||", "K-Means|| (escalable)");
+        methods.put("kmedoids", "K-Medoids (prototips)");
         return methods;
     }
 
     /**
-     * Retorna la mètrica de distància corresponent a la configuració.
+     * Catàleg de criteris de selecció automàtica de k (id -> etiqueta).
+     */
+    public static Map<String, String> supportedKSelectors() {
+        Map<String, String> selectors = new LinkedHashMap<>();
+        selectors.put("elbow", "Colze (inèrcia)");
+        selectors.put("silhouette", "Silhouette (mostrejada)");
+        selectors.put("gap", "Gap statistic");
+        return selectors;
+    }
+
+    /**
+     * Retorna el selector de k corresponent a la configuració, que executa els
+     * ajustos (i les puntuacions) al pool indicat.
+     *
+     * @param pool Pool compartit ({@code null}: al fil que crida).
+     */
+    public IKSelector buildKSelector(ExecutorService pool) {
+        return switch (kSelector) {
+            case "silhouette" -> new SilhouetteMethod(pool, SilhouetteMethod.DEFAULT_SAMPLE_SIZE);
+            case "gap" -> new GapStatistic(pool, GapStatistic.DEFAULT_REFERENCES, GapStatistic.DEFAULT_REFERENCE_SIZE,
+                    isGower());
+            default -> new ElbowMethod(pool, false);
+        };
+    }
+
+    /**
+     * Indica si la configuració fa servir la distància de Gower, que
+     * necessita el codificador compacte ({@link #buildEncoder()}).
+     */
+    public boolean isGower() {
+        return distance.equals("gower");
+    }
+
+    /**
+     * Retorna el codificador de respostes adequat per a la distància:
+     * {@link GowerEncoder} amb {@code gower} i {@link OneHotEncoder} amb la
+     * resta.
+     */
+    public IEncoder buildEncoder() {
+        return isGower() ? new GowerEncoder() : new OneHotEncoder();
+    }
+
+    /**
+     * Retorna la mètrica de distància corresponent a la configuració (la
+     * versió SIMD si està disponible, vegeu {@link Distances}); amb
+     * diagnòstic activat, embolcallada en una {@link InstrumentedDistance}.
+     *
+     * @throws IllegalStateException amb {@code gower}, que depèn del
+     * codificador entrenat (vegeu {@link #buildDistance(IEncoder)}).
      */
     public Distance buildDistance() {
-        return switch (distance) {
-            case "cosine", "cos" -> new CosineDistance();
-            case "euclidean", "l2" -> new EuclideanDistance();
-            default -> new CosineDistance();
+        return buildDistance(null);
+    }
+
+    /**
+     * Com {@link #buildDistance()}; amb {@code gower} la distància surt de
+     * l'encoder ja entrenat (pesos i amplada de cada pregunta).
+     *
+     * @param encoder Encoder entrenat de {@link #buildEncoder()}.
+     * @throws IllegalStateException amb {@code gower} si l'encoder no és un
+     * {@link GowerEncoder} entrenat.
+     */
+    public Distance buildDistance(IEncoder encoder) {
+        Distance base = switch (distance) {
+            case "cosine", "cos" -> Distances.cosine();
+            case "euclidean", "l2" -> Distances.euclidean();
+            case "gower" -> {
+                if (!(encoder instanceof GowerEncoder gower)) {
+                    throw new IllegalStateException("gower distance needs a fitted GowerEncoder");
+                }
+                yield gower.distance();
+            }
+            default -> Distances.cosine();
         };
+        if (!diagnostics) {
+            return base;
+        }
+        return new InstrumentedDistance(base, Integer.getInteger(DIAGNOSTICS_SAMPLE_PROPERTY, 64));
+    }
+
+    /**
+     * Retorna l'emmagatzematge de la matriu de característiques.
+     *
+     * <p>Amb {@code float} la matriu ocupa la meitat ({@link matrix.FloatFeatureMatrix});
+     * els centroides, les sumes i la inèrcia es continuen acumulant en
+     * {@code double}. Per a les característiques de {@code OneHotEncoder}
+     * (totes a [0, 1]) la inèrcia i les distàncies difereixen del camí
+     * {@code double} en menys de 10<sup>-6</sup> relatiu.</p>
+     *
+     * <p>Amb emmagatzematge {@code offheap} o {@code mapped} la matriu és una
+     * {@link matrix.OffHeapFeatureMatrix} (sempre {@code double}): fora del
+     * heap o en un fitxer temporal de {@value #STORAGE_DIR_PROPERTY}. Qui la
+     * crea l'ha de tancar.</p>
+     */
+    public FeatureMatrixFactory buildMatrixFactory() {
+        return switch (storage) {
+            case "offheap" -> FeatureMatrixFactory.OFF_HEAP;
+            case "mapped" -> FeatureMatrixFactory.mapped(
+                    Path.of(System.getProperty(STORAGE_DIR_PROPERTY, System.getProperty("java.io.tmpdir"))));
+            default -> "float".equals(precision) ? FeatureMatrixFactory.FLOAT : FeatureMatrixFactory.DOUBLE;
+        };
+    }
+
+    /**
+     * k més gran que prova la selecció automàtica ({@link Survey#AUTO_K}).
+     */
+    public int getAutoKMax() {
+        return Math.max(2, Integer.getInteger(AUTO_K_MAX_PROPERTY, 10));
+    }
+
+    /**
+     * Pressupost de temps de la selecció automàtica de k, en mil·lisegons:
+     * passat aquest temps no es comencen ajustos nous.
+     */
+    public long getAutoKBudgetMillis() {
+        return Long.getLong(AUTO_K_BUDGET_PROPERTY, 2000L);
     }
 
     public String getInitMethod() {
@@ -80,4 +327,24 @@ public class AlgorithmConfiguration {
     public String getDistance() {
         return distance;
     }
+
+    public boolean isDiagnostics() {
+        return diagnostics;
+    }
+
+    public String getPrecision() {
+        return precision;
+    }
+
+    public String getStorage() {
+        return storage;
+    }
+
+    public String getKSelector() {
+        return kSelector;
+    }
+
+    public int getNInit() {
+        return nInit;
+    }
 }
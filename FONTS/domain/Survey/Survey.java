@@ -8,6 +8,9 @@ import Exceptions.*;
  * que defineixen una enquesta.
  */
 public class Survey {
+    /** Valor de k que demana triar el nombre de clústers automàticament en analitzar. */
+    public static final int AUTO_K = 0;
+
     private String id; // unique survey_id, formed by
     private String title;
     private String description;
@@ -26,7 +29,7 @@ public class Survey {
      * @param title       títol llegible
      * @param description descripció opcional
      * @param createdBy   autor o propietari
-     * @param k           nombre de clústers sol·licitats
+     * @param k           nombre de clústers sol·licitats ({@link #AUTO_K}: automàtic)
      * @param initMethod  estratègia d'inicialització
      * @param distance    mètrica de distància
      * @param createdAt   data de creació (ISO)
@@ -173,12 +176,21 @@ public class Survey {
     /**
      * Estableix un nou valor de k.
      *
-     * @param k nombre de clústers.
+     * @param k nombre de clústers ({@link #AUTO_K}: automàtic).
      */
     public void setK(int k) {
         this.k = k;
     }
 
+    /**
+     * Indica si el nombre de clústers es tria automàticament en analitzar.
+     *
+     * @return {@code true} si k és {@link #AUTO_K}
+     */
+    public boolean isAutoK() {
+        return k == AUTO_K;
+    }
+
     /**
      * Indica la metodologia d'inicialització actual.
      *
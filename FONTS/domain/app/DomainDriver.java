@@ -5,10 +5,16 @@ import Response.*;
 import Survey.*;
 import app.controller.*;
 import importexport.*;
+import logging.Log;
+import logging.Logger;
+import metrics.MetricsDumper;
+import metrics.MetricsRegistry;
 import persistence.PersistenceDriver;
 import user.*;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
 import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
@@ -18,15 +24,20 @@ import java.util.*;
 /**
  * DomainDriver: driver principal de todo el dominio.
  * Orquesta la comunicación con Electron mediante stdin/stdout usando el protocolo pipe-delimited.
- * Protocol: ACTION|ARG1|ARG2|...
+ * Protocol: [@sessionId|]ACTION|ARG1|ARG2|...
  */
 public class DomainDriver {
-    private final Scanner scanner = new Scanner(System.in);
+    private static final Logger LOG = Log.get(DomainDriver.class);
+
     private final LocalPersistence persistence = new LocalPersistence();
-    private final PersistenceDriver persistenceDriver = new PersistenceDriver();
+    private final PersistenceDriver persistenceDriver;
     private final SurveySerializer surveySerializer = new TxtSurveySerializer();
     private final ResponseSerializer responseSerializer = new TxtResponseSerializer();
-    
+    private final MetricsRegistry metrics = MetricsRegistry.global();
+
+    /** Canal on s'escriuen les respostes JSON (stdout per a Electron, socket o buffer en mode servidor). */
+    private final PrintStream out;
+
     // Controladores
     private final UserController userController;
     private final SurveyController surveyController;
@@ -34,10 +45,7 @@ public class DomainDriver {
     private final AnalyticsController analyticsController;
 
     public DomainDriver() {
-        this.userController = new UserController();
-        this.surveyController = new SurveyController(persistenceDriver, surveySerializer);
-        this.responseController = new ResponseController(persistenceDriver);
-        this.analyticsController = new AnalyticsController();
+        this(new PersistenceDriver(), new UserController(), System.out);
 
         try {
             List<RegisteredUser> users = persistenceDriver.loadAllUsers();
@@ -47,26 +55,91 @@ public class DomainDriver {
         }
     }
 
+    /**
+     * Crea un driver que comparteix persistència i usuaris amb altres drivers
+     * (mode servidor). No carrega usuaris: s'espera que el {@link UserController}
+     * ja estigui connectat a un {@code AuthService} inicialitzat.
+     *
+     * @param persistenceDriver persistència compartida.
+     * @param userController    controlador d'usuari amb la sessió pròpia d'aquest client.
+     * @param out               canal on s'escriuen les respostes.
+     */
+    public DomainDriver(PersistenceDriver persistenceDriver, UserController userController, PrintStream out) {
+        this.persistenceDriver = persistenceDriver;
+        this.out = out;
+        this.userController = userController;
+        this.surveyController = new SurveyController(persistenceDriver, surveySerializer);
+        this.responseController = new ResponseController(persistenceDriver);
+        this.analyticsController = new AnalyticsController();
+    }
+
     public static void main(String[] args) {
+        MetricsDumper.startFromSystemProperties();
         new DomainDriver().start();
     }
 
     public void start() {
+        start(System.in);
+    }
+
+    /**
+     * Processa ordres línia a línia fins que s'esgota l'entrada.
+     *
+     * @param in flux d'entrada (stdin o la connexió d'un client).
+     */
+    public void start(InputStream in) {
+        Scanner scanner = new Scanner(in, StandardCharsets.UTF_8);
         while (scanner.hasNextLine()) {
             String line = scanner.nextLine();
-            System.err.println("JAVA RECIBIDO: " + line);
-            if (line == null) break;
-            line = line.trim();
-            if (line.isEmpty()) continue;
-            processCommand(line);
+            execute(line);
+        }
+    }
+
+    /**
+     * Executa una única línia del protocol i n'escriu la resposta a {@code out}.
+     * Si la línia comença per {@code @token|}, l'ordre s'executa dins la sessió
+     * identificada per aquest token (el {@code sessionId} retornat per LOGIN/REGISTER).
+     *
+     * @param line ordre amb format [@token|]ACTION|ARG1|ARG2|...
+     */
+    public void execute(String line) {
+        if (line == null) return;
+        line = line.trim();
+        if (line.isEmpty()) return;
+        String token = null;
+        if (line.startsWith("@")) {
+            int sep = line.indexOf('|');
+            token = sep < 0 ? line.substring(1) : line.substring(1, sep);
+            line = sep < 0 ? "" : line.substring(sep + 1);
+        }
+        execute(token, line);
+    }
+
+    /**
+     * Executa una ordre dins la sessió indicada pel client.
+     *
+     * @param sessionToken identificador de sessió (pot ser null per usar la sessió actual).
+     * @param line         ordre amb format ACTION|ARG1|ARG2|...
+     */
+    public void execute(String sessionToken, String line) {
+        if (line == null || line.isBlank()) return;
+        if (sessionToken != null && !sessionToken.isBlank()
+                && userController.resumeSession(sessionToken.trim()) == null) {
+            emitError("Sessió caducada o invàlida");
+            return;
         }
+        processCommand(line.trim());
     }
 
     private void processCommand(String commandLine) {
+        long started = System.nanoTime();
         String[] parts = commandLine.split("\\|", -1);
         String action = parts[0].trim().toUpperCase(Locale.ROOT);
+        // Només l'acció: els arguments poden portar contrasenyes.
+        LOG.debug("ordre rebuda", "action", action, "args", parts.length - 1);
         try {
             switch (action) {
+                case "GET_METRICS" -> handleGetMetrics();
                 case "GET_SURVEYS" -> handleGetSurveys();
                 case "GET_SURVEY" -> handleGetSurvey(parts);
                 case "CREATE_SURVEY" -> handleCreateSurvey(parts);
@@ -88,11 +161,22 @@ public class DomainDriver {
                 case "IMPORT_RESPONSES" -> handleImportResponses(parts);
                 case "EXPORT_RESPONSES" -> handleExportResponses(parts);
                 case "PERFORM_ANALYSIS" -> handlePerformAnalysis(parts);
-                default -> emitError("Ordre desconeguda: " + action);
+                default -> {
+                    emitError("Ordre desconeguda: " + action);
+                    action = "UNKNOWN";
+                }
             }
         } catch (Exception e) {
+            LOG.debug("ordre fallida", e, "action", action);
             emitError(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
         }
+        metrics.timer("command." + action).recordSince(started);
+    }
+
+    // ==================== MÈTRIQUES ====================
+
+    private void handleGetMetrics() {
+        out.println("{\"type\":\"metrics\",\"payload\":" + metrics.toJson() + "}");
     }
 
     // ==================== ENQUESTES ====================
@@ -110,13 +194,13 @@ public class DomainDriver {
             sb.append(",\"label\":\"").append(escapeJson(entry.getValue())).append("\"}");
         }
         sb.append("]}");
-        System.out.println(sb);
+        out.println(sb);
     }
 
     private void handleGetSurveys() {
         try {
             Collection<Survey> surveys = surveyController.listSurveys();
-            System.out.println(toJsonSurveys(surveys));
+            out.println(toJsonSurveys(surveys));
         } catch (PersistenceException e) {
             emitError(e.getMessage());
         }
@@ -130,7 +214,7 @@ public class DomainDriver {
         String id = parts[1];
         try {
             Survey survey = surveyController.loadSurvey(id);
-            System.out.println(surveyToJson(survey));
+            out.println(surveyToJson(survey));
         } catch (PersistenceException e) {
             emitError(e.getMessage());
         }
@@ -145,12 +229,12 @@ public class DomainDriver {
             ensureSessionAllowGuest();
             String title = decode(parts[1]);
             String description = decode(parts[2]);
-            int k = Integer.parseInt(parts[3]);
+            int k = parseK(parts[3]);
             String surveyId = UUID.randomUUID().toString();
             User owner = userController.requireActiveUser();
             Survey survey = surveyController.createSurvey(surveyId, title, description, owner, k, "kmeans++", "cosine");
             surveyController.saveSurvey(survey);
-            System.out.println("{\"status\":\"ok\",\"id\":\"" + survey.getId() + "\"}");
+            out.println("{\"status\":\"ok\",\"id\":\"" + survey.getId() + "\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -166,7 +250,7 @@ public class DomainDriver {
             ensureSessionAllowGuest();
             String title = decode(parts[1]);
             String description = decode(parts[2]);
-            int k = Integer.parseInt(parts[3]);
+            int k = parseK(parts[3]);
             String initMethod = decode(parts[4]);
             String questionsPayload = parts[5];
 
@@ -175,7 +259,7 @@ public class DomainDriver {
             Survey survey = surveyController.createSurvey(surveyId, title, description, owner, k, initMethod, "cosine");
             importQuestionsFromPayload(survey, questionsPayload);
             surveyController.saveSurvey(survey);
-            System.out.println("{\"status\":\"ok\",\"id\":\"" + survey.getId() + "\"}");
+            out.println("{\"status\":\"ok\",\"id\":\"" + survey.getId() + "\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -196,7 +280,7 @@ public class DomainDriver {
             String id = parts[1];
             String title = decode(parts[2]);
             String description = decode(parts[3]);
-            int k = Integer.parseInt(parts[4]);
+            int k = parseK(parts[4]);
             String initMethod = decode(parts[5]);
             String questionsPayload = parts[6];
 
@@ -211,7 +295,7 @@ public class DomainDriver {
             importQuestionsFromPayload(survey, questionsPayload);
 
             surveyController.saveSurvey(survey);
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"surveys\"}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"surveys\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -233,7 +317,7 @@ public class DomainDriver {
 
             surveyController.deleteSurvey(id);
             responseController.removeResponsesBySurvey(id);
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"surveys\"}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"surveys\"}");
         } catch (PersistenceException e) {
             emitError(e.getMessage());
         }
@@ -244,7 +328,7 @@ public class DomainDriver {
         String surveyId = parts[1];
         try {
             List<SurveyResponse> responses = responseController.listResponses(surveyId);
-            System.out.println("{\"type\":\"responses\",\"surveyId\":\"" + escapeJson(surveyId) + "\",\"payload\":" + toJsonResponses(responses) + "}");
+            out.println("{\"type\":\"responses\",\"surveyId\":\"" + escapeJson(surveyId) + "\",\"payload\":" + toJsonResponses(responses) + "}");
         } catch (PersistenceException e) {
             emitError(e.getMessage());
         }
@@ -261,7 +345,7 @@ public class DomainDriver {
             emitError("Credencials invàlides");
             return;
         }
-        System.out.println(userToJson(sesion.getUser()));
+        out.println(sessionToJson(sesion));
     }
 
     private void handleLogout() {
@@ -270,7 +354,7 @@ public class DomainDriver {
             return;
         }
         userController.logout();
-        System.out.println("{\"status\":\"ok\"}");
+        out.println("{\"status\":\"ok\"}");
     }
 
     private void handleRegister(String[] parts) {
@@ -291,10 +375,10 @@ public class DomainDriver {
             Sesion sesion = userController.login(username, password);
             if (sesion != null) {
                 try {
-                    persistenceDriver.persistAllUsers(userController.listRegisteredUsers());
+                    persistenceDriver.persistUser((RegisteredUser) user);
                 } catch (Exception ignored) {
                 }
-                System.out.println(userToJson(sesion.getUser()));
+                out.println(sessionToJson(sesion));
             } else {
                 emitError("Error en iniciar sessió automàticament després del registre.");
             }
@@ -311,10 +395,10 @@ public class DomainDriver {
             boolean ok = userController.deleteUser(id);
             if (!ok) { emitError("Usuari no trobat"); return; }
             try {
-                persistenceDriver.persistAllUsers(userController.listRegisteredUsers());
+                persistenceDriver.deleteUser(id);
             } catch (Exception ignored) {
             }
-            System.out.println("{\"status\":\"ok\"}");
+            out.println("{\"status\":\"ok\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -339,10 +423,10 @@ public class DomainDriver {
             }
             if (updated == null) { emitError("No s'ha pogut actualitzar l'usuari"); return; }
             try {
-                persistenceDriver.persistAllUsers(userController.listRegisteredUsers());
+                persistenceDriver.persistUser(updated);
             } catch (Exception ignored) {
             }
-            System.out.println("{\"status\":\"ok\"}");
+            out.println("{\"status\":\"ok\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -365,7 +449,7 @@ public class DomainDriver {
             }
             SurveyResponse response = responseController.buildResponse(survey, respondent, answers);
             responseController.saveResponse(response);
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"responses\",\"surveyId\":\"" + escapeJson(response.getSurveyId()) + "\",\"responseId\":\"" + escapeJson(response.getId()) + "\"}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"responses\",\"surveyId\":\"" + escapeJson(response.getSurveyId()) + "\",\"responseId\":\"" + escapeJson(response.getId()) + "\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -383,7 +467,7 @@ public class DomainDriver {
             Survey survey = surveyController.loadSurvey(original.getSurveyId());
             List<Answer> answers = surveyController.parseAnswers(answersStr, survey);
             responseController.updateResponse(original, answers);
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"responses\",\"surveyId\":\"" + escapeJson(original.getSurveyId()) + "\"}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"responses\",\"surveyId\":\"" + escapeJson(original.getSurveyId()) + "\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -398,7 +482,7 @@ public class DomainDriver {
             User current = userController.requireActiveUser();
             if (!current.getId().equals(resp.getUserId())) { emitError("No estàs autoritzat per esborrar aquesta resposta"); return; }
             responseController.deleteResponse(responseId);
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"responses\",\"surveyId\":\"" + escapeJson(resp.getSurveyId()) + "\"}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"responses\",\"surveyId\":\"" + escapeJson(resp.getSurveyId()) + "\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -411,7 +495,7 @@ public class DomainDriver {
         String path = parts[1];
         try {
             Survey s = surveyController.importSurvey(path);
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"surveys\",\"id\":\"" + escapeJson(s.getId()) + "\"}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"surveys\",\"id\":\"" + escapeJson(s.getId()) + "\"}");
         } catch (IOException | PersistenceException e) {
             emitError(e.getMessage());
         }
@@ -424,7 +508,7 @@ public class DomainDriver {
         try {
             Survey s = surveyController.loadSurvey(id);
             surveySerializer.toFile(s, path);
-            System.out.println("{\"status\":\"ok\"}");
+            out.println("{\"status\":\"ok\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -441,7 +525,7 @@ public class DomainDriver {
                 responseController.saveResponse(r);
                 imported++;
             }
-            System.out.println("{\"status\":\"ok\",\"refresh\":\"surveys\",\"imported\":" + imported + "}");
+            out.println("{\"status\":\"ok\",\"refresh\":\"surveys\",\"imported\":" + imported + "}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -454,7 +538,7 @@ public class DomainDriver {
         try {
             List<SurveyResponse> responses = responseController.listResponses(surveyId);
             responseSerializer.toFile(responses, path);
-            System.out.println("{\"status\":\"ok\"}");
+            out.println("{\"status\":\"ok\"}");
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -465,11 +549,13 @@ public class DomainDriver {
     private void handlePerformAnalysis(String[] parts) {
         if (parts.length < 2) { emitError("PERFORM_ANALYSIS requereix surveyId"); return; }
         String surveyId = parts[1];
+        // PERFORM_ANALYSIS|surveyId|profile afegeix el desglossament de cost a la resposta
+        boolean profile = parts.length > 2 && "profile".equalsIgnoreCase(parts[2].trim());
         try {
             Survey survey = surveyController.loadSurvey(surveyId);
             List<SurveyResponse> responses = responseController.listResponses(surveyId);
-            AnalyticsResult result = analyticsController.analyzeSurvey(survey, responses);
-            System.out.println(analyticsToJson(surveyId, result));
+            AnalyticsResult result = analyticsController.analyzeSurvey(survey, responses, profile);
+            out.println(analyticsToJson(surveyId, result));
         } catch (Exception e) {
             emitError(e.getMessage());
         }
@@ -503,6 +589,11 @@ public class DomainDriver {
         return "{\"id\":\"" + escapeJson(user.getId()) + "\",\"username\":\"" + escapeJson(username) + "\",\"name\":\"" + escapeJson(user.getDisplayName()) + "\"}";
     }
 
+    private String sessionToJson(Sesion sesion) {
+        String user = userToJson(sesion.getUser());
+        return user.substring(0, user.length() - 1) + ",\"sessionId\":\"" + escapeJson(sesion.getSessionId()) + "\"}";
+    }
+
     private String surveyToJson(Survey survey) {
         StringBuilder sb = new StringBuilder();
         sb.append("{");
@@ -672,24 +763,73 @@ public class DomainDriver {
 
         sb.append(",\"centroids\":[");
         double[][] cents = result.getCentroids2d();
+        String[] medoidIds = result.getMedoidIds();
         if (cents != null) {
             for (int i = 0; i < cents.length; i++) {
                 if (i > 0) sb.append(',');
                 sb.append("{\"clusterId\":").append(i);
                 sb.append(",\"x\":").append(cents[i] != null && cents[i].length > 0 ? cents[i][0] : 0.0);
                 sb.append(",\"y\":").append(cents[i] != null && cents[i].length > 1 ? cents[i][1] : 0.0);
+                if (medoidIds != null && i < medoidIds.length) {
+                    sb.append(",\"medoidId\":\"").append(escapeJson(medoidIds[i])).append("\"");
+                }
                 sb.append('}');
             }
         }
         sb.append(']');
 
+        // corba de la selecció automàtica de k (només amb k = auto)
+        if (result.isAutoK()) {
+            sb.append(",\"autoK\":true");
+            sb.append(",\"inertiaCurve\":[");
+            boolean firstK = true;
+            for (var entry : result.getInertiaCurve().entrySet()) {
+                if (!firstK) sb.append(',');
+                sb.append("{\"k\":").append(entry.getKey());
+                sb.append(",\"inertia\":").append(entry.getValue());
+                sb.append('}');
+                firstK = false;
+            }
+            sb.append(']');
+        }
+
+        AnalysisProfile profile = result.getProfile();
+        if (profile != null) {
+            sb.append(",\"profile\":{");
+            sb.append("\"totalMs\":").append(profile.getTotalNanos() / 1e6);
+            sb.append(",\"phasesMs\":{");
+            sb.append("\"encode\":").append(profile.getEncodeNanos() / 1e6);
+            sb.append(",\"cluster\":").append(profile.getClusterNanos() / 1e6);
+            sb.append(",\"silhouette\":").append(profile.getSilhouetteNanos() / 1e6);
+            sb.append(",\"projection\":").append(profile.getProjectionNanos() / 1e6);
+            sb.append('}');
+            sb.append(",\"iterations\":").append(profile.getIterations());
+            sb.append(",\"distanceEvaluations\":{");
+            sb.append("\"cluster\":").append(profile.getClusterDistanceEvaluations());
+            sb.append(",\"silhouette\":").append(profile.getSilhouetteDistanceEvaluations());
+            sb.append('}');
+            var sampling = profile.getClusterDistance();
+            if (sampling != null && sampling.sampledVectors() > 0) {
+                sb.append(",\"distanceSampling\":{");
+                sb.append("\"vectors\":").append(sampling.sampledVectors());
+                sb.append(",\"density\":").append(sampling.density());
+                sb.append(",\"zeroNormFraction\":").append(sampling.zeroNormFraction());
+                sb.append('}');
+            }
+            sb.append(",\"samples\":").append(profile.getSamples());
+            sb.append(",\"features\":").append(profile.getFeatures());
+            sb.append(",\"allocatedBytes\":").append(profile.getAllocatedBytes());
+            sb.append('}');
+        }
+
         sb.append("}}");
         return sb.toString();
     }
 
     private void emitError(String message) {
+        metrics.counter("command.errors").increment();
         String msg = translateError(message);
-        System.out.println("{\"error\":\"" + escapeJson(msg) + "\"}");
+        out.println("{\"error\":\"" + escapeJson(msg) + "\"}");
     }
 
     private String translateError(String message) {
@@ -728,6 +868,12 @@ public class DomainDriver {
 
     // ==================== HELPERS ====================
 
+    /** k d'una enquesta: un enter o {@code auto} ({@link Survey#AUTO_K}). */
+    private int parseK(String value) {
+        String v = decode(value).trim();
+        return "auto".equalsIgnoreCase(v) ? Survey.AUTO_K : Integer.parseInt(v);
+    }
+
     private String decode(String value) {
         try {
             return URLDecoder.decode(value == null ? "" : value, StandardCharsets.UTF_8);
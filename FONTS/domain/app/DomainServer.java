@@ -0,0 +1,297 @@
+package app;
+
+import app.controller.UserController;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import logging.Log;
+import logging.Logger;
+import metrics.MetricsDumper;
+import persistence.PersistenceDriver;
+import user.AuthService;
+import user.RegisteredUser;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DomainServer: punt d'entrada alternatiu a {@link DomainDriver#main} que exposa
+ * el mateix protocol ({@code ACTION|ARG1|ARG2|...}) a diversos clients alhora
+ * des d'una sola JVM.
+ *
+ * <p>Modes disponibles:</p>
+ * <ul>
+ *   <li>{@code --http <port>}: servidor HTTP local (només loopback). Cada
+ *       {@code POST /command} porta una ordre al cos i retorna la resposta JSON.
+ *       La capçalera {@value #CLIENT_HEADER} identifica el client i en conserva
+ *       el context entre peticions; si no s'envia, la petició s'atén amb un
+ *       context d'un sol ús que no es guarda. Opcionalment,
+ *       {@value #SESSION_HEADER} porta el token de sessió de l'usuari.</li>
+ *   <li>{@code --unix <path>}: socket Unix-domain amb el protocol línia a línia
+ *       de stdin/stdout. Cada connexió té la seva pròpia sessió.</li>
+ * </ul>
+ *
+ * <p>La persistència i el servei d'autenticació es comparteixen entre clients;
+ * cada client té el seu {@link UserController} i, per tant, la seva sessió.
+ * Les sessions inactives més de {@code tribus.session.ttl.minutes} (30 per
+ * defecte) es caduquen periòdicament i, a la mateixa passada, s'eliminen els
+ * contextos HTTP sense sessió activa o inactius durant aquest temps.
+ * Cada petició o connexió s'atén en un fil propi (virtual si la JVM ho permet).</p>
+ */
+public final class DomainServer {
+
+    /** Capçalera HTTP que identifica el context d'un client. */
+    public static final String CLIENT_HEADER = "X-Tribus-Client";
+
+    /** Capçalera HTTP opcional amb el token de sessió retornat per LOGIN/REGISTER. */
+    public static final String SESSION_HEADER = "X-Tribus-Session";
+
+    private static final Logger LOG = Log.get(DomainServer.class);
+
+    /** Temps màxim d'inactivitat d'una sessió abans de caducar-la. */
+    private static final Duration SESSION_TTL = Duration.ofMinutes(Long.getLong("tribus.session.ttl.minutes", 30L));
+
+    private final PersistenceDriver persistenceDriver;
+    private final AuthService authService;
+    private final ExecutorService executor;
+
+    /** Contextos HTTP actius, indexats per l'identificador de client. */
+    private final Map<String, ClientContext> clients = new ConcurrentHashMap<>();
+
+    /**
+     * Crea un servidor amb la persistència per defecte i hi carrega els usuaris.
+     */
+    public DomainServer() {
+        this(new PersistenceDriver());
+    }
+
+    /**
+     * Crea un servidor sobre una persistència concreta i hi carrega els usuaris.
+     *
+     * @param persistenceDriver persistència compartida per tots els clients.
+     */
+    public DomainServer(PersistenceDriver persistenceDriver) {
+        this.persistenceDriver = persistenceDriver;
+        this.authService = new AuthService();
+        this.executor = newThreadPerTaskExecutor();
+        try {
+            List<RegisteredUser> users = persistenceDriver.loadAllUsers();
+            authService.loadRegisteredUsers(users);
+        } catch (Exception ignored) {
+            // en cas de que no es pugui carregar, es comença amb la llista buida
+        }
+        authService.startSessionSweeper(SESSION_TTL, () -> evictIdleClients(SESSION_TTL));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Ús: DomainServer --http <port> | --unix <path>");
+            System.exit(1);
+        }
+        MetricsDumper.startFromSystemProperties();
+        DomainServer server = new DomainServer();
+        switch (args[0]) {
+            case "--http" -> server.serveHttp(Integer.parseInt(args[1]));
+            case "--unix" -> server.serveUnix(Path.of(args[1]));
+            default -> {
+                System.err.println("Mode desconegut: " + args[0]);
+                System.exit(1);
+            }
+        }
+    }
+
+    // ==================== HTTP ====================
+
+    /**
+     * Arrenca el servidor HTTP a {@code 127.0.0.1:port}. No bloqueja.
+     *
+     * @param port port local (0 per triar-ne un de lliure).
+     * @return el servidor arrencat.
+     */
+    public HttpServer serveHttp(int port) throws IOException {
+        HttpServer http = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        http.createContext("/command", this::handleHttp);
+        http.setExecutor(executor);
+        http.start();
+        LOG.info("DomainServer escoltant", "url", "http://" + http.getAddress().getHostString() + ":" + http.getAddress().getPort());
+        return http;
+    }
+
+    private void handleHttp(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equalsIgnoreCase(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            String clientId = exchange.getRequestHeaders().getFirst(CLIENT_HEADER);
+            String sessionToken = exchange.getRequestHeaders().getFirst(SESSION_HEADER);
+            boolean stored = clientId != null && !clientId.isBlank();
+            // sense identificador, el context és d'un sol ús i no ocupa el mapa
+            ClientContext ctx = stored
+                    ? clients.compute(clientId, (id, c) -> (c == null ? new ClientContext() : c).acquire())
+                    : new ClientContext();
+
+            byte[] payload;
+            try (InputStream in = exchange.getRequestBody()) {
+                String body = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+                payload = ctx.execute(sessionToken, body).getBytes(StandardCharsets.UTF_8);
+            } finally {
+                if (stored) ctx.release();
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            if (stored) exchange.getResponseHeaders().set(CLIENT_HEADER, clientId);
+            exchange.sendResponseHeaders(200, payload.length == 0 ? -1 : payload.length);
+            if (payload.length > 0) {
+                try (OutputStream os = exchange.getResponseBody()) {
+                    os.write(payload);
+                }
+            }
+        }
+    }
+
+    /**
+     * Elimina els contextos HTTP que no tenen cap petició en curs i que, o bé
+     * no tenen sessió activa (logout, sessió caducada o mai iniciada), o bé
+     * fa més de {@code ttl} que no s'usen.
+     *
+     * @param ttl temps màxim d'inactivitat d'un context.
+     * @return nombre de contextos eliminats.
+     */
+    int evictIdleClients(Duration ttl) {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int evicted = 0;
+        for (String id : clients.keySet()) {
+            // compute i computeIfPresent són atòmics per clau: no es pot treure
+            // un context entre que una petició l'obté i el marca com a en ús
+            boolean[] removed = {false};
+            clients.computeIfPresent(id, (k, ctx) -> {
+                removed[0] = ctx.isEvictable(cutoff);
+                return removed[0] ? null : ctx;
+            });
+            if (removed[0]) evicted++;
+        }
+        if (evicted > 0) {
+            LOG.debug("contextos de client eliminats", "evicted", evicted, "remaining", clients.size());
+        }
+        return evicted;
+    }
+
+    /** Nombre de contextos HTTP guardats. */
+    int clientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Context d'un client HTTP: un {@link DomainDriver} propi que escriu a un buffer.
+     * Les ordres d'un mateix client s'executen en sèrie.
+     */
+    private final class ClientContext {
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        private final UserController userController = new UserController(authService);
+        private final DomainDriver driver = new DomainDriver(
+                persistenceDriver,
+                userController,
+                new PrintStream(buffer, true, StandardCharsets.UTF_8));
+
+        /** Peticions en curs; s'incrementa dins de {@code clients.compute}. */
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        ClientContext acquire() {
+            inFlight.incrementAndGet();
+            lastUsedMillis = System.currentTimeMillis();
+            return this;
+        }
+
+        void release() {
+            lastUsedMillis = System.currentTimeMillis();
+            inFlight.decrementAndGet();
+        }
+
+        synchronized boolean isEvictable(long cutoffMillis) {
+            return inFlight.get() == 0
+                    && (!userController.hasActiveSession() || lastUsedMillis < cutoffMillis);
+        }
+
+        synchronized String execute(String sessionToken, String body) {
+            buffer.reset();
+            for (String line : body.split("\\r?\\n")) {
+                if (sessionToken == null) {
+                    driver.execute(line);
+                } else {
+                    driver.execute(sessionToken, line);
+                }
+            }
+            return buffer.toString(StandardCharsets.UTF_8);
+        }
+    }
+
+    // ==================== UNIX SOCKET ====================
+
+    /**
+     * Escolta connexions al socket Unix indicat. Bloqueja el fil que el crida.
+     *
+     * @param socketPath camí del fitxer de socket (se substitueix si ja existeix).
+     */
+    public void serveUnix(Path socketPath) throws IOException {
+        Files.deleteIfExists(socketPath);
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(socketPath));
+            LOG.info("DomainServer escoltant", "socket", socketPath);
+            while (server.isOpen()) {
+                SocketChannel channel = server.accept();
+                executor.submit(() -> handleConnection(channel));
+            }
+        } finally {
+            Files.deleteIfExists(socketPath);
+        }
+    }
+
+    private void handleConnection(SocketChannel channel) {
+        try (channel) {
+            PrintStream out = new PrintStream(Channels.newOutputStream(channel), true, StandardCharsets.UTF_8);
+            DomainDriver driver = new DomainDriver(persistenceDriver, new UserController(authService), out);
+            driver.start(Channels.newInputStream(channel));
+        } catch (IOException e) {
+            LOG.warn("connexió tancada amb error", "error", e.getMessage());
+        }
+    }
+
+    // ==================== EXECUTOR ====================
+
+    /**
+     * Retorna un executor amb un fil virtual per tasca quan la JVM ho suporta
+     * (Java 21+) i, altrament, un pool de fils de plataforma que creix sota demanda.
+     */
+    private static ExecutorService newThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "domain-server");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package app.controller;
+
+import distance.InstrumentedDistance;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Desglossament del cost d'una anàlisi: temps de paret per fase, iteracions
+ * del clustering, avaluacions de distància, mida de la matriu de features i
+ * bytes reservats pel fil que l'ha executat.
+ *
+ * <p>Només es construeix si es demana ({@code PERFORM_ANALYSIS|id|profile});
+ * els temps són en nanosegons i {@code allocatedBytes} és {@code -1} si la
+ * JVM no ho pot mesurar.</p>
+ */
+public final class AnalysisProfile {
+
+    private final long encodeNanos;
+    private final long clusterNanos;
+    private final long silhouetteNanos;
+    private final long projectionNanos;
+    private final long totalNanos;
+    private final int iterations;
+    private final InstrumentedDistance.Stats clusterDistance;
+    private final InstrumentedDistance.Stats silhouetteDistance;
+    private final int samples;
+    private final int features;
+    private final long allocatedBytes;
+
+    public AnalysisProfile(long encodeNanos, long clusterNanos, long silhouetteNanos, long projectionNanos,
+                           long totalNanos, int iterations, InstrumentedDistance.Stats clusterDistance,
+                           InstrumentedDistance.Stats silhouetteDistance, int samples, int features,
+                           long allocatedBytes) {
+        this.encodeNanos = encodeNanos;
+        this.clusterNanos = clusterNanos;
+        this.silhouetteNanos = silhouetteNanos;
+        this.projectionNanos = projectionNanos;
+        this.totalNanos = totalNanos;
+        this.iterations = iterations;
+        this.clusterDistance = clusterDistance;
+        this.silhouetteDistance = silhouetteDistance;
+        this.samples = samples;
+        this.features = features;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public long getEncodeNanos() {
+        return encodeNanos;
+    }
+
+    public long getClusterNanos() {
+        return clusterNanos;
+    }
+
+    public long getSilhouetteNanos() {
+        return silhouetteNanos;
+    }
+
+    public long getProjectionNanos() {
+        return projectionNanos;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public int getIterations() {
+        return iterations;
+    }
+
+    public long getClusterDistanceEvaluations() {
+        return clusterDistance == null ? 0L : clusterDistance.evaluations();
+    }
+
+    public long getSilhouetteDistanceEvaluations() {
+        return silhouetteDistance == null ? 0L : silhouetteDistance.evaluations();
+    }
+
+    /** Comptadors de la distància durant el clustering (pot ser {@code null}). */
+    public InstrumentedDistance.Stats getClusterDistance() {
+        return clusterDistance;
+    }
+
+    /** Comptadors de la distància durant la silhouette (pot ser {@code null}). */
+    public InstrumentedDistance.Stats getSilhouetteDistance() {
+        return silhouetteDistance;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public int getFeatures() {
+        return features;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Bytes reservats fins ara pel fil actual, o {@code -1} si la JVM no
+     * exposa {@code com.sun.management.ThreadMXBean} o la mesura està desactivada.
+     */
+    static long currentThreadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean sun
+                && sun.isThreadAllocatedMemorySupported() && sun.isThreadAllocatedMemoryEnabled()) {
+            return sun.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1L;
+    }
+}
@@ -1,26 +1,36 @@
 package app.controller;
 
-import Encoder.OneHotEncoder;
+import Encoder.GowerEncoder;
+import Encoder.IEncoder;
 import Response.SurveyResponse;
 import Survey.AlgorithmConfiguration;
 import Survey.Survey;
 import distance.Distance;
 import distance.CosineDistance;
+import distance.InstrumentedDistance;
 import kmeans.ClusterModel;
 import kmeans.IClusteringAlgorithm;
 import kmeans.KMeans;
+import kselector.IKSelector;
+import kselector.KSearchResult;
+import matrix.FeatureMatrix;
+import metrics.MetricsRegistry;
 import validation.Silhouette;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 public class AnalyticsController {
     private final IClusteringAlgorithm defaultAlgorithm;
     private final Silhouette silhouette;
+    private final MetricsRegistry metrics = MetricsRegistry.global();
 
     public AnalyticsController() {
         this(new KMeans(), new Silhouette());
@@ -32,6 +42,22 @@ public class AnalyticsController {
     }
 
     public AnalyticsResult analyzeSurvey(Survey survey, List<SurveyResponse> responses) {
+        return analyzeSurvey(survey, responses, false);
+    }
+
+    /**
+     * Analitza les respostes d'una enquesta.
+     *
+     * <p>Si l'enquesta té {@link Survey#AUTO_K}, es prova cada k de 2 a
+     * {@link AlgorithmConfiguration#getAutoKMax()} (dins del pressupost de
+     * temps) amb el selector de la configuració (colze per defecte) i es
+     * retorna el model ja ajustat per al k escollit, juntament amb la corba
+     * d'inèrcia.</p>
+     *
+     * @param profile si és {@code true}, el resultat porta un {@link AnalysisProfile}
+     *                amb el desglossament de temps, avaluacions de distància i memòria.
+     */
+    public AnalyticsResult analyzeSurvey(Survey survey, List<SurveyResponse> responses, boolean profile) {
         if (survey == null) {
             throw new IllegalArgumentException("Survey cannot be null");
         } // no se dispara mai des d'interfície
@@ -40,63 +66,149 @@ public class AnalyticsController {
             throw new IllegalArgumentException("Calen com a mínim dues respostes per analitzar");
         }
 
-        OneHotEncoder encoder = new OneHotEncoder();
-        double[][] featureMatrix = encoder.fitTransform(survey, responses);
-        int k = sanitizeClusterCount(survey.getK(), responses.size());
+        long started = System.nanoTime();
+        long allocatedBefore = profile ? AnalysisProfile.currentThreadAllocatedBytes() : -1L;
 
         AlgorithmConfiguration config = AlgorithmConfiguration.fromSurvey(survey);
-        IClusteringAlgorithm algorithm = config.buildAlgorithm();
-        Distance distance = config.buildDistance();
-        if (algorithm == null) {
-            algorithm = defaultAlgorithm;
-        }
-        if (distance == null) {
-            distance = new CosineDistance();
+        if (profile) {
+            config = config.withDiagnostics(true);
         }
 
-        long seed = Objects.hash(
-            survey.getId() == null ? "" : survey.getId(),
-            survey.getInitMethod() == null ? "" : survey.getInitMethod(),
-            responses.size()
-        );
+        IEncoder encoder = config.buildEncoder();
+        long phase = started;
+        encoder.fit(survey, responses);
+        metrics.timer("encoder.fit").recordSince(phase);
+        long transformStarted = System.nanoTime();
+        FeatureMatrix featureMatrix = encoder.transformToMatrix(responses, config.buildMatrixFactory());
+        metrics.timer("encoder.transform").recordSince(transformStarted);
+        long encodeNanos = System.nanoTime() - phase;
 
-        ClusterModel model = algorithm.fit(featureMatrix, k, distance, seed, 300, 1e-4);
-        double[] scores = silhouette.scorePerPoint(featureMatrix, model, distance);
-        double avgSilhouette = Arrays.stream(scores).average().orElse(Double.NaN);
+        try {
+            IClusteringAlgorithm algorithm = config.buildAlgorithm();
+            Distance distance = config.buildDistance(encoder);
+            if (algorithm == null) {
+                algorithm = defaultAlgorithm;
+            }
+            if (distance == null) {
+                distance = new CosineDistance();
+            }
+            InstrumentedDistance instrumented = distance instanceof InstrumentedDistance d ? d : null;
 
-        Map<Integer, Long> counts = new LinkedHashMap<>();
-        for (int label : model.getLabels()) {
-            counts.merge(label, 1L, Long::sum);
-        }
+            long seed = Objects.hash(
+                survey.getId() == null ? "" : survey.getId(),
+                survey.getInitMethod() == null ? "" : survey.getInitMethod(),
+                responses.size()
+            );
 
-        // representació 2D per a visualització (interfície)
-        int n = featureMatrix.length;
-        int dims = (n > 0 && featureMatrix[0] != null) ? featureMatrix[0].length : 0;
-        double[][] points2d;
-        double[][] centroids2d;
-        if (dims <= 0) {
-            points2d = new double[n][2];
-            for (int i = 0; i < n; i++) {
-                points2d[i][0] = (double) i;
-                points2d[i][1] = 0.0;
+            phase = System.nanoTime();
+            int k;
+            ClusterModel model;
+            Map<Integer, Double> inertiaCurve = Collections.emptyMap();
+            if (survey.isAutoK()) {
+                int kMax = Math.min(config.getAutoKMax(), responses.size());
+                IKSelector selector = config.buildKSelector(ForkJoinPool.commonPool());
+                KSearchResult search = selector.search(featureMatrix, 2, kMax, algorithm, distance, seed,
+                        TimeUnit.MILLISECONDS.toNanos(config.getAutoKBudgetMillis()));
+                k = search.getBestK();
+                model = search.getBestModel();
+                inertiaCurve = search.inertiaCurve();
+                metrics.counter("kselection.candidates").add(inertiaCurve.size());
+            } else {
+                k = sanitizeClusterCount(survey.getK(), responses.size());
+                model = algorithm.fit(featureMatrix, k, distance, seed, 300, 1e-4);
+            }
+            long clusterNanos = metrics.timer("clustering.fit").recordSince(phase);
+            metrics.counter("clustering.iterations").add(model.getIterations());
+            InstrumentedDistance.Stats clusterDistance = collectDistanceStats(instrumented, "clustering");
+
+            phase = System.nanoTime();
+            double[] scores = silhouette.scorePerPoint(featureMatrix, model, distance);
+            long silhouetteNanos = metrics.timer("validation.silhouette").recordSince(phase);
+            InstrumentedDistance.Stats silhouetteDistance = collectDistanceStats(instrumented, "silhouette");
+            double avgSilhouette = Arrays.stream(scores).average().orElse(Double.NaN);
+
+            Map<Integer, Long> counts = new LinkedHashMap<>();
+            for (int label : model.getLabels()) {
+                counts.merge(label, 1L, Long::sum);
             }
-            centroids2d = null;
-        } else {
-            Projection2D proj = projectTo2D(featureMatrix, seed);
-            points2d = proj.points;
 
-            double[][] centroids = model.getCentroids();
-            centroids2d = projectCentroidsTo2D(centroids, proj);
+            // representació 2D per a visualització (interfície)
+            phase = System.nanoTime();
+            int n = featureMatrix.rows();
+            int dims = featureMatrix.cols();
+            double[][] points2d;
+            double[][] centroids2d;
+            if (dims <= 0) {
+                points2d = new double[n][2];
+                for (int i = 0; i < n; i++) {
+                    points2d[i][0] = (double) i;
+                    points2d[i][1] = 0.0;
+                }
+                centroids2d = null;
+            } else if (encoder instanceof GowerEncoder && model.getMedoids() != null) {
+                // la codificació de Gower no és un espai vectorial: només es fan servir distàncies
+                points2d = fastMap2D(featureMatrix, distance, seed);
+                centroids2d = new double[model.getMedoids().length][];
+                for (int c = 0; c < centroids2d.length; c++) centroids2d[c] = points2d[model.getMedoids()[c]].clone();
+            } else {
+                Projection2D proj = projectTo2D(featureMatrix, seed);
+                points2d = proj.points;
+
+                double[][] centroids = model.getCentroids();
+                centroids2d = projectCentroidsTo2D(centroids, proj);
+            }
+            long projectionNanos = System.nanoTime() - phase;
+
+            String[] responseIds = new String[responses.size()];
+            for (int i = 0; i < responses.size(); i++) {
+                SurveyResponse r = responses.get(i);
+                responseIds[i] = r == null ? "" : r.getId();
+            }
+
+            String[] medoidIds = null;
+            if (model.getMedoids() != null) {
+                medoidIds = new String[model.getMedoids().length];
+                for (int c = 0; c < medoidIds.length; c++) medoidIds[c] = responseIds[model.getMedoids()[c]];
+            }
+
+            AnalysisProfile analysisProfile = null;
+            if (profile) {
+                long allocatedAfter = AnalysisProfile.currentThreadAllocatedBytes();
+                long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1L : allocatedAfter - allocatedBefore;
+                analysisProfile = new AnalysisProfile(encodeNanos, clusterNanos, silhouetteNanos, projectionNanos,
+                        System.nanoTime() - started, model.getIterations(), clusterDistance, silhouetteDistance,
+                        n, dims, allocated);
+            }
+
+            return new AnalyticsResult(k, model.getInertia(), avgSilhouette, counts,
+                    responseIds, model.getLabels(), points2d, centroids2d, analysisProfile, inertiaCurve, medoidIds);
+        } finally {
+            // les matrius fora del heap (o en fitxer temporal) s'alliberen aquí
+            if (featureMatrix instanceof AutoCloseable closeable) {
+                closeQuietly(closeable);
+            }
         }
+    }
 
-        String[] responseIds = new String[responses.size()];
-        for (int i = 0; i < responses.size(); i++) {
-            SurveyResponse r = responses.get(i);
-            responseIds[i] = r == null ? "" : r.getId();
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // no afecta el resultat de l'anàlisi
         }
+    }
 
-        return new AnalyticsResult(k, model.getInertia(), avgSilhouette, counts,
-                responseIds, model.getLabels(), points2d, centroids2d);
+    /**
+     * Recull i reinicia els comptadors de la distància instrumentada i els
+     * acumula a les mètriques {@code distance.evaluations.<fase>} i
+     * {@code distance.zeroNorm.<fase>}.
+     */
+    private InstrumentedDistance.Stats collectDistanceStats(InstrumentedDistance instrumented, String phase) {
+        if (instrumented == null) return null;
+        InstrumentedDistance.Stats stats = instrumented.reset();
+        metrics.counter("distance.evaluations." + phase).add(stats.evaluations());
+        metrics.counter("distance.zeroNorm." + phase).add(stats.zeroNormVectors());
+        return stats;
     }
 
     private static class Projection2D {
@@ -115,18 +227,13 @@ public class AnalyticsController {
         }
     }
 
-    private Projection2D projectTo2D(double[][] X, long seed) {
-        int n = X.length;
-        int dims = (n > 0 && X[0] != null) ? X[0].length : 0;
+    private Projection2D projectTo2D(FeatureMatrix X, long seed) {
+        int n = X.rows();
+        int dims = X.cols();
         double[] mean = new double[dims];
-        int usedRows = 0;
-        for (double[] row : X) {
-            if (row == null || row.length != dims) continue;
-            for (int j = 0; j < dims; j++) mean[j] += row[j];
-            usedRows++;
-        }
-        if (usedRows > 0) {
-            for (int j = 0; j < dims; j++) mean[j] /= usedRows;
+        for (int i = 0; i < n; i++) X.addRowTo(i, mean);
+        if (n > 0) {
+            for (int j = 0; j < dims; j++) mean[j] /= n;
         }
 
         Random rng = new Random(seed);
@@ -137,29 +244,78 @@ public class AnalyticsController {
             r2[j] = rng.nextGaussian();
         }
 
+        // (x - mean)·r = x·r - mean·r: dos productes escalars per fila
+        double meanR1 = 0.0;
+        double meanR2 = 0.0;
+        for (int j = 0; j < dims; j++) {
+            meanR1 += mean[j] * r1[j];
+            meanR2 += mean[j] * r2[j];
+        }
         double scale = 1.0 / Math.sqrt(Math.max(1, dims));
         double[][] pts = new double[n][2];
         for (int i = 0; i < n; i++) {
-            double[] row = X[i];
-            if (row == null || row.length != dims) {
-                pts[i][0] = (double) i;
-                pts[i][1] = 0.0;
-                continue;
-            }
-            double x = 0.0;
-            double y = 0.0;
-            for (int j = 0; j < dims; j++) {
-                double v = row[j] - mean[j];
-                x += v * r1[j];
-                y += v * r2[j];
-            }
-            pts[i][0] = x * scale;
-            pts[i][1] = y * scale;
+            pts[i][0] = (X.dot(i, r1) - meanR1) * scale;
+            pts[i][1] = (X.dot(i, r2) - meanR2) * scale;
         }
 
         return new Projection2D(mean, r1, r2, scale, pts);
     }
 
+    /**
+     * Projecció 2D a partir només de distàncies (FastMap): cada eix és la
+     * projecció sobre la recta entre dos pivots allunyats, i el segon eix fa
+     * servir les distàncies que queden després de treure el primer.
+     */
+    private static double[][] fastMap2D(FeatureMatrix X, Distance dist, long seed) {
+        int n = X.rows();
+        double[][] pts = new double[n][2];
+        double[] ra = new double[X.cols()];
+        double[] rb = new double[X.cols()];
+        double[] ri = new double[X.cols()];
+        for (int axis = 0; axis < 2; axis++) {
+            int a = farthest(X, dist, pts, axis, new Random(seed + axis).nextInt(n), ra, ri);
+            int b = farthest(X, dist, pts, axis, a, ra, ri);
+            X.copyRow(a, ra);
+            X.copyRow(b, rb);
+            double dab = residual(dist.between(ra, rb), pts, axis, a, b);
+            if (dab <= 0) continue;
+            for (int i = 0; i < n; i++) {
+                X.copyRow(i, ri);
+                double dai = residual(dist.between(ra, ri), pts, axis, a, i);
+                double dbi = residual(dist.between(rb, ri), pts, axis, b, i);
+                pts[i][axis] = (dai * dai + dab * dab - dbi * dbi) / (2 * dab);
+            }
+        }
+        return pts;
+    }
+
+    /** Distància {@code d} entre i i j sense la part que ja expliquen els primers {@code axes} eixos. */
+    private static double residual(double d, double[][] pts, int axes, int i, int j) {
+        double r = d * d;
+        for (int t = 0; t < axes; t++) {
+            double diff = pts[i][t] - pts[j][t];
+            r -= diff * diff;
+        }
+        return Math.sqrt(Math.max(0.0, r));
+    }
+
+    /** Fila més allunyada de {@code from}; {@code fromRow} i {@code buf} són buffers de treball. */
+    private static int farthest(FeatureMatrix X, Distance dist, double[][] pts, int axes, int from,
+                                double[] fromRow, double[] buf) {
+        X.copyRow(from, fromRow);
+        int best = from;
+        double bestDist = -1;
+        for (int i = 0; i < X.rows(); i++) {
+            X.copyRow(i, buf);
+            double d = residual(dist.between(fromRow, buf), pts, axes, from, i);
+            if (d > bestDist) {
+                bestDist = d;
+                best = i;
+            }
+        }
+        return best;
+    }
+
     private double[][] projectCentroidsTo2D(double[][] centroids, Projection2D proj) {
         if (centroids == null) return null;
         int k = centroids.length;
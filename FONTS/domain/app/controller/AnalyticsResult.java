@@ -17,8 +17,37 @@ public class AnalyticsResult {
     private final double[][] points2d;
     private final double[][] centroids2d;
 
+    // desglossament de cost; null si no s'ha demanat
+    private final AnalysisProfile profile;
+
+    // k -> inèrcia de la selecció automàtica de k; buit si k era fix
+    private final Map<Integer, Double> inertiaCurve;
+
+    // id de la resposta que fa de medoide de cada clúster; null si els centres són mitjanes
+    private final String[] medoidIds;
+
     public AnalyticsResult(int clusters, double inertia, double averageSilhouette, Map<Integer, Long> clusterCounts,
                            String[] responseIds, int[] labels, double[][] points2d, double[][] centroids2d) {
+        this(clusters, inertia, averageSilhouette, clusterCounts, responseIds, labels, points2d, centroids2d, null);
+    }
+
+    public AnalyticsResult(int clusters, double inertia, double averageSilhouette, Map<Integer, Long> clusterCounts,
+                           String[] responseIds, int[] labels, double[][] points2d, double[][] centroids2d,
+                           AnalysisProfile profile) {
+        this(clusters, inertia, averageSilhouette, clusterCounts, responseIds, labels, points2d, centroids2d, profile,
+                Collections.emptyMap());
+    }
+
+    public AnalyticsResult(int clusters, double inertia, double averageSilhouette, Map<Integer, Long> clusterCounts,
+                           String[] responseIds, int[] labels, double[][] points2d, double[][] centroids2d,
+                           AnalysisProfile profile, Map<Integer, Double> inertiaCurve) {
+        this(clusters, inertia, averageSilhouette, clusterCounts, responseIds, labels, points2d, centroids2d, profile,
+                inertiaCurve, null);
+    }
+
+    public AnalyticsResult(int clusters, double inertia, double averageSilhouette, Map<Integer, Long> clusterCounts,
+                           String[] responseIds, int[] labels, double[][] points2d, double[][] centroids2d,
+                           AnalysisProfile profile, Map<Integer, Double> inertiaCurve, String[] medoidIds) {
         this.clusters = clusters;
         this.inertia = inertia;
         this.averageSilhouette = averageSilhouette;
@@ -27,6 +56,9 @@ public class AnalyticsResult {
         this.labels = labels;
         this.points2d = points2d;
         this.centroids2d = centroids2d;
+        this.profile = profile;
+        this.inertiaCurve = Collections.unmodifiableMap(inertiaCurve);
+        this.medoidIds = medoidIds;
     }
 
     public AnalyticsResult(int clusters, double inertia, double averageSilhouette, Map<Integer, Long> clusterCounts) {
@@ -64,4 +96,22 @@ public class AnalyticsResult {
     public double[][] getCentroids2d() {
         return centroids2d;
     }
+
+    public AnalysisProfile getProfile() {
+        return profile;
+    }
+
+    public Map<Integer, Double> getInertiaCurve() {
+        return inertiaCurve;
+    }
+
+    /** Resposta prototip de cada clúster (algorismes de medoides), o {@code null}. */
+    public String[] getMedoidIds() {
+        return medoidIds;
+    }
+
+    /** Indica si {@link #getClusters()} l'ha triat la selecció automàtica de k. */
+    public boolean isAutoK() {
+        return !inertiaCurve.isEmpty();
+    }
 }
@@ -66,8 +66,8 @@ public class SurveyController {
             throw new PersistenceException("L'enquesta ha de tenir com a mínim una pregunta obligatòria");
         }
 
-        if (survey.getK() < 2) {
-            throw new PersistenceException("El nombre de clústers (k) ha de ser com a mínim 2");
+        if (!survey.isAutoK() && survey.getK() < 2) {
+            throw new PersistenceException("El nombre de clústers (k) ha de ser com a mínim 2 (o 0 per triar-lo automàticament)");
         }
 
         String title = survey.getTitle() == null ? "" : survey.getTitle();
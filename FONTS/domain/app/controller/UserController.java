@@ -11,7 +11,15 @@ public class UserController {
     private Sesion currentSession;
 
     public UserController() {
-        this.authService = new AuthService();
+        this(new AuthService());
+    }
+
+    /**
+     * Crea un controlador amb sessió pròpia sobre un servei d'autenticació
+     * compartit (un per client en mode servidor).
+     */
+    public UserController(AuthService authService) {
+        this.authService = authService;
     }
 
     /**
@@ -22,10 +30,24 @@ public class UserController {
         String id = "guest-" + Long.toHexString(System.nanoTime());
         String display = "Convidat-" + id.substring(Math.max(0, id.length() - 6));
         user.GuestUser guest = new user.GuestUser(id, display);
-        currentSession = new Sesion(guest);
+        currentSession = authService.openGuestSession(guest);
         return currentSession;
     }
 
+    /**
+     * Estableix com a sessió actual la sessió identificada pel token que envia el client.
+     *
+     * @param sessionId identificador de sessió retornat en fer login.
+     * @return la sessió recuperada, o {@code null} si no existeix o ha caducat.
+     */
+    public Sesion resumeSession(String sessionId) {
+        Sesion sesion = authService.findSession(sessionId);
+        if (sesion != null) {
+            currentSession = sesion;
+        }
+        return sesion;
+    }
+
     public User register(String id, String displayName, String username, String password) {
         return authService.register(id, displayName, username, password);
     }
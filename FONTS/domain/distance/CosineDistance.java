@@ -5,7 +5,7 @@ package distance;
  * És ideal per a dades de text (Bag of Words) o dades disperses on la magnitud
  * del vector no és tan important com la seva orientació (perfil).
  */
-public class CosineDistance implements Distance {
+public class CosineDistance implements DotProductDistance {
 
     public CosineDistance() {
     }
@@ -43,4 +43,57 @@ public class CosineDistance implements Distance {
         // Distància = 1 - Similitud
         return 1.0 - similarity;
     }
-}
\ No newline at end of file
+
+    /**
+     * Distància del cosinus amb les normes ja calculades: només cal el
+     * producte escalar, un terç de la feina de {@link #between(double[], double[])}.
+     */
+    @Override
+    public double between(double[] a, double normA, double[] b, double normB) {
+        return fromDot(normA, normB, dot(a, b));
+    }
+
+    @Override
+    public void toAll(double[] x, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        for (int j = 0; j < M.length; j++) {
+            out[j] = fromDot(xNorm, mNorms[j], dot(x, M[j]));
+        }
+    }
+
+    /** Com {@link #toAll}, per blocs de {@link Distance#TILE} files. */
+    @Override
+    public void pairwise(double[][] A, double[] aNorms, double[][] B, double[] bNorms, double[][] out) {
+        for (int i0 = 0; i0 < A.length; i0 += TILE) {
+            int i1 = Math.min(A.length, i0 + TILE);
+            for (int j0 = 0; j0 < B.length; j0 += TILE) {
+                int j1 = Math.min(B.length, j0 + TILE);
+                for (int i = i0; i < i1; i++) {
+                    double[] a = A[i];
+                    double[] row = out[i];
+                    for (int j = j0; j < j1; j++) {
+                        row[j] = fromDot(aNorms[i], bNorms[j], dot(a, B[j]));
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public double distanceFromDot(double normA, double normB, double dot) {
+        return fromDot(normA, normB, dot);
+    }
+
+    /** 1 − cos a partir del producte escalar i les normes; 1.0 si alguna norma és zero. */
+    static double fromDot(double normA, double normB, double dot) {
+        if (normA == 0.0 || normB == 0.0) {
+            return 1.0;
+        }
+        return 1.0 - Math.max(-1.0, Math.min(1.0, dot / (normA * normB)));
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0.0;
+        for (int i = 0; i < a.length; i++) s += a[i] * b[i];
+        return s;
+    }
+}
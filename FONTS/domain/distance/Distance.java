@@ -1,5 +1,7 @@
 package distance;
 
+import matrix.FeatureMatrix;
+
 /**
  * Defineix la interfície per a una estratègia de càlcul de distància.
  * Permet calcular la distància entre dos punts (vectors) en un espai n-dimensional.
@@ -13,4 +15,157 @@ public interface Distance {
      * @return La distància calculada entre el vector a i b.
      */
     double between(double[] a, double[] b);
+
+    /**
+     * Norma euclidiana d'un vector. Els algorismes que comparen molts cops els
+     * mateixos vectors (files de la matriu, centroides) la calculen un sol cop
+     * i fan servir {@link #between(double[], double, double[], double)}.
+     *
+     * @param v El vector.
+     * @return La norma L2 de {@code v}.
+     */
+    default double norm(double[] v) {
+        double s = 0.0;
+        for (double x : v) s += x * x;
+        return Math.sqrt(s);
+    }
+
+    /**
+     * Calcula la distància entre dos vectors de normes conegudes (obtingudes
+     * amb {@link #norm(double[])}). Les mètriques que no en treuen profit
+     * ignoren les normes.
+     *
+     * @param a     El primer vector.
+     * @param normA La norma de {@code a}.
+     * @param b     El segon vector.
+     * @param normB La norma de {@code b}.
+     * @return La distància entre a i b.
+     */
+    default double between(double[] a, double normA, double[] b, double normB) {
+        return between(a, b);
+    }
+
+    /**
+     * Distàncies d'un punt a totes les files d'una matriu:
+     * {@code out[j] = between(x, xNorm, M[j], mNorms[j])}.
+     *
+     * <p>Les implementacions el sobreescriuen amb un bucle propi (una sola
+     * crida virtual per punt en lloc d'una per parell).</p>
+     *
+     * @param x      El punt.
+     * @param xNorm  La norma de {@code x}.
+     * @param M      Matriu (p. ex. centroides), una fila per vector.
+     * @param mNorms Normes de les files de {@code M}.
+     * @param out    Array de sortida de mida {@code >= M.length}.
+     */
+    default void toAll(double[] x, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        for (int j = 0; j < M.length; j++) {
+            out[j] = between(x, xNorm, M[j], mNorms[j]);
+        }
+    }
+
+    /**
+     * Matriu de distàncies entre les files de {@code A} i les de {@code B}:
+     * {@code out[i][j] = between(A[i], aNorms[i], B[j], bNorms[j])}. Es
+     * recorre per blocs de {@value #TILE} x {@value #TILE} files perquè cada
+     * bloc de {@code B} es reutilitzi des de la memòria cau.
+     *
+     * @param A      Primera matriu.
+     * @param aNorms Normes de les files de {@code A}.
+     * @param B      Segona matriu.
+     * @param bNorms Normes de les files de {@code B}.
+     * @param out    Matriu de sortida de mida {@code A.length x B.length} (com a mínim).
+     */
+    default void pairwise(double[][] A, double[] aNorms, double[][] B, double[] bNorms, double[][] out) {
+        for (int i0 = 0; i0 < A.length; i0 += TILE) {
+            int i1 = Math.min(A.length, i0 + TILE);
+            for (int j0 = 0; j0 < B.length; j0 += TILE) {
+                int j1 = Math.min(B.length, j0 + TILE);
+                for (int i = i0; i < i1; i++) {
+                    double[] row = out[i];
+                    for (int j = j0; j < j1; j++) {
+                        row[j] = between(A[i], aNorms[i], B[j], bNorms[j]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Normes ({@link #norm(double[])}) de totes les files d'una matriu de
+     * característiques.
+     *
+     * @param X La matriu.
+     * @return Array amb la norma de cada fila.
+     */
+    default double[] norms(FeatureMatrix X) {
+        double[] out = new double[X.rows()];
+        double[] row = new double[X.cols()];
+        for (int i = 0; i < out.length; i++) {
+            X.copyRow(i, row);
+            out[i] = norm(row);
+        }
+        return out;
+    }
+
+    /**
+     * Com {@link #toAll(double[], double, double[][], double[], double[])}
+     * amb el punt donat com a fila {@code i} d'una {@link FeatureMatrix}
+     * (assignació de punts a centroides).
+     *
+     * @param X      Matriu de dades.
+     * @param i      Fila de {@code X} que fa de punt.
+     * @param xNorm  La norma de la fila.
+     * @param M      Matriu (p. ex. centroides), una fila per vector.
+     * @param mNorms Normes de les files de {@code M}.
+     * @param out    Array de sortida de mida {@code >= M.length}.
+     */
+    default void toAll(FeatureMatrix X, int i, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        toAll(X.row(i), xNorm, M, mNorms, out);
+    }
+
+    /**
+     * Distàncies d'un punt a totes les files d'una {@link FeatureMatrix}:
+     * {@code out[j] = between(x, xNorm, M[j], mNorms[j])}.
+     *
+     * @param x      El punt.
+     * @param xNorm  La norma de {@code x}.
+     * @param M      Matriu de dades.
+     * @param mNorms Normes de les files de {@code M}.
+     * @param out    Array de sortida de mida {@code >= M.rows()}.
+     */
+    default void toAll(double[] x, double xNorm, FeatureMatrix M, double[] mNorms, double[] out) {
+        double[] row = new double[M.cols()];
+        for (int j = 0; j < M.rows(); j++) {
+            M.copyRow(j, row);
+            out[j] = between(x, xNorm, row, mNorms[j]);
+        }
+    }
+
+    /**
+     * Distàncies de les files {@code [i0, i1)} d'una matriu a totes les seves
+     * files: {@code out[i - i0][j]} és la distància entre les files i i j.
+     *
+     * @param X     Matriu de dades.
+     * @param i0    Primera fila del bloc (inclosa).
+     * @param i1    Última fila del bloc (exclosa).
+     * @param norms Normes de totes les files de {@code X}.
+     * @param out   Matriu de sortida de mida {@code (i1 - i0) x X.rows()} (com a mínim).
+     */
+    default void pairwise(FeatureMatrix X, int i0, int i1, double[] norms, double[][] out) {
+        int n = X.rows();
+        double[] a = new double[X.cols()];
+        double[] b = new double[X.cols()];
+        for (int i = i0; i < i1; i++) {
+            X.copyRow(i, a);
+            double[] row = out[i - i0];
+            for (int j = 0; j < n; j++) {
+                X.copyRow(j, b);
+                row[j] = between(a, norms[i], b, norms[j]);
+            }
+        }
+    }
+
+    /** Files per bloc a {@link #pairwise}. */
+    int TILE = 64;
 }
@@ -0,0 +1,62 @@
+package distance;
+
+/**
+ * Fàbrica de les mètriques de distància que tria la implementació més ràpida
+ * disponible.
+ *
+ * <p>Si la JVM té carregat el mòdul {@code jdk.incubator.vector} (arrencada
+ * amb {@code --add-modules jdk.incubator.vector}) es fan servir els nuclis
+ * SIMD ({@link VectorEuclideanDistance}, {@link VectorCosineDistance});
+ * altrament, o amb {@code -Dtribus.simd=false}, els bucles escalars. Les
+ * classes vectorials es carreguen per reflexió perquè la resta del codi no
+ * en depengui quan el mòdul no hi és.</p>
+ */
+public final class Distances {
+
+    /** Propietat de sistema per desactivar els nuclis SIMD. */
+    public static final String SIMD_PROPERTY = "tribus.simd";
+
+    private static final boolean VECTOR_AVAILABLE = detectVectorSupport();
+
+    private Distances() {
+    }
+
+    /** Indica si s'estan fent servir els nuclis de la Vector API. */
+    public static boolean isVectorized() {
+        return VECTOR_AVAILABLE;
+    }
+
+    public static Distance euclidean() {
+        if (VECTOR_AVAILABLE) {
+            Distance d = instantiate("distance.VectorEuclideanDistance");
+            if (d != null) return d;
+        }
+        return new EuclideanDistance();
+    }
+
+    public static Distance cosine() {
+        if (VECTOR_AVAILABLE) {
+            Distance d = instantiate("distance.VectorCosineDistance");
+            if (d != null) return d;
+        }
+        return new CosineDistance();
+    }
+
+    private static boolean detectVectorSupport() {
+        if (!Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        return instantiate("distance.VectorEuclideanDistance") != null;
+    }
+
+    private static Distance instantiate(String className) {
+        try {
+            return (Distance) Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package distance;
+
+import matrix.FeatureMatrix;
+
+/**
+ * Mètrica que es pot calcular a partir del producte escalar i de les normes
+ * dels dos vectors (euclidiana, cosinus).
+ *
+ * <p>Sobre una {@link FeatureMatrix} les operacions per lots només demanen
+ * productes escalars a la matriu ({@link FeatureMatrix#dot(int, double[])},
+ * {@link FeatureMatrix#dot(int, int)}), que els recorre directament sobre el
+ * seu emmagatzematge sense copiar files.</p>
+ */
+public interface DotProductDistance extends Distance {
+
+    /**
+     * Distància a partir del producte escalar i les normes.
+     *
+     * @param normA La norma del primer vector.
+     * @param normB La norma del segon vector.
+     * @param dot   El producte escalar dels dos vectors.
+     * @return La distància entre els vectors.
+     */
+    double distanceFromDot(double normA, double normB, double dot);
+
+    @Override
+    default double[] norms(FeatureMatrix X) {
+        double[] out = new double[X.rows()];
+        for (int i = 0; i < out.length; i++) out[i] = X.norm(i);
+        return out;
+    }
+
+    @Override
+    default void toAll(FeatureMatrix X, int i, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        for (int j = 0; j < M.length; j++) {
+            out[j] = distanceFromDot(xNorm, mNorms[j], X.dot(i, M[j]));
+        }
+    }
+
+    @Override
+    default void toAll(double[] x, double xNorm, FeatureMatrix M, double[] mNorms, double[] out) {
+        int n = M.rows();
+        for (int j = 0; j < n; j++) {
+            out[j] = distanceFromDot(xNorm, mNorms[j], M.dot(j, x));
+        }
+    }
+
+    /** Per blocs de {@link Distance#TILE} x {@link Distance#TILE} files. */
+    @Override
+    default void pairwise(FeatureMatrix X, int i0, int i1, double[] norms, double[][] out) {
+        int n = X.rows();
+        for (int b0 = i0; b0 < i1; b0 += TILE) {
+            int b1 = Math.min(i1, b0 + TILE);
+            for (int j0 = 0; j0 < n; j0 += TILE) {
+                int j1 = Math.min(n, j0 + TILE);
+                for (int i = b0; i < b1; i++) {
+                    double[] row = out[i - i0];
+                    double normI = norms[i];
+                    for (int j = j0; j < j1; j++) {
+                        row[j] = distanceFromDot(normI, norms[j], X.dot(i, j));
+                    }
+                }
+            }
+        }
+    }
+}
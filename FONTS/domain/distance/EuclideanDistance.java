@@ -6,7 +6,7 @@ package distance;
  *
  * @see Distance
  */
-public final class EuclideanDistance implements Distance {
+public final class EuclideanDistance implements DotProductDistance {
 
     /**
      * Crea una instància sense estat de la mètrica euclidiana.
@@ -29,4 +29,54 @@ public final class EuclideanDistance implements Distance {
         }
         return Math.sqrt(s);
     }
+
+    /**
+     * Distàncies d'un punt a totes les files de {@code M} amb
+     * ‖a − b‖² = ‖a‖² + ‖b‖² − 2·a·b: només cal el producte escalar.
+     * Pot diferir de {@link #between(double[], double[])} en l'ordre de
+     * l'error d'arrodoniment (i per tant no és exactament 0 per a punts iguals).
+     */
+    @Override
+    public void toAll(double[] x, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        double xx = xNorm * xNorm;
+        for (int j = 0; j < M.length; j++) {
+            out[j] = fromDot(xx, mNorms[j], dot(x, M[j]));
+        }
+    }
+
+    /** Com {@link #toAll}, per blocs de {@link Distance#TILE} files. */
+    @Override
+    public void pairwise(double[][] A, double[] aNorms, double[][] B, double[] bNorms, double[][] out) {
+        for (int i0 = 0; i0 < A.length; i0 += TILE) {
+            int i1 = Math.min(A.length, i0 + TILE);
+            for (int j0 = 0; j0 < B.length; j0 += TILE) {
+                int j1 = Math.min(B.length, j0 + TILE);
+                for (int i = i0; i < i1; i++) {
+                    double[] a = A[i];
+                    double aa = aNorms[i] * aNorms[i];
+                    double[] row = out[i];
+                    for (int j = j0; j < j1; j++) {
+                        row[j] = fromDot(aa, bNorms[j], dot(a, B[j]));
+                    }
+                }
+            }
+        }
+    }
+
+    /** ‖a − b‖ = √(‖a‖² + ‖b‖² − 2·a·b). */
+    @Override
+    public double distanceFromDot(double normA, double normB, double dot) {
+        return fromDot(normA * normA, normB, dot);
+    }
+
+    static double fromDot(double aa, double normB, double dot) {
+        double s = aa + normB * normB - 2.0 * dot;
+        return s > 0.0 ? Math.sqrt(s) : 0.0;
+    }
+
+    private static double dot(double[] a, double[] b) {
+        double s = 0.0;
+        for (int i = 0; i < a.length; i++) s += a[i] * b[i];
+        return s;
+    }
 }
@@ -0,0 +1,126 @@
+package distance;
+
+import matrix.FeatureMatrix;
+
+import java.util.Arrays;
+
+/**
+ * Distància de Gower sobre files amb una codificació compacta per pregunta
+ * (la de {@code Encoder.GowerEncoder}) en lloc del vector one-hot.
+ *
+ * <p>Cada pregunta ocupa una o més columnes consecutives i aporta una
+ * dissimilitud {@code d_q} a [0, 1]:</p>
+ * <ul>
+ *   <li>{@link #CATEGORICAL}: una columna amb el codi de l'opció; 0 si els
+ *       codis coincideixen i 1 si no.</li>
+ *   <li>{@link #NUMERIC}: una columna normalitzada a [0, 1] amb el rang
+ *       observat; {@code |a - b|}.</li>
+ *   <li>{@link #SET}: un conjunt de bits repartit en paraules de
+ *       {@value #BITS_PER_WORD} bits (una per columna, enters exactes també
+ *       en {@code float}); distància de Jaccard, 0 si tots dos són buits.</li>
+ * </ul>
+ *
+ * <p>Una resposta que falta es codifica amb {@code NaN} a la primera columna
+ * de la pregunta, i aquella pregunta no compta. La distància és
+ * {@code Σ w_q·d_q / Σ w_q} sobre les preguntes contestades per totes dues
+ * files (0 si no n'hi ha cap), on {@code w_q} és el pes de la pregunta. El
+ * cost és proporcional al nombre de preguntes (més les paraules dels
+ * conjunts), no al nombre d'opcions.</p>
+ */
+public final class GowerDistance implements Distance {
+
+    /** Pregunta d'opció única: codi de l'opció. */
+    public static final int CATEGORICAL = 0;
+
+    /** Pregunta numèrica: valor normalitzat a [0, 1]. */
+    public static final int NUMERIC = 1;
+
+    /** Conjunt (opció múltiple, paraules): bits en paraules de {@value #BITS_PER_WORD}. */
+    public static final int SET = 2;
+
+    /** Bits de cada columna d'un conjunt (exactes en {@code float}). */
+    public static final int BITS_PER_WORD = 24;
+
+    private final int[] kinds;
+    private final int[] offsets;
+    private final int[] widths;
+    private final double[] weights;
+
+    /**
+     * @param kinds Tipus de cada pregunta ({@link #CATEGORICAL}, {@link #NUMERIC}, {@link #SET}).
+     * @param offsets Primera columna de cada pregunta.
+     * @param widths Columnes de cada pregunta (1 tret dels conjunts).
+     * @param weights Pes de cada pregunta (&gt;= 0).
+     * @throws IllegalArgumentException si les mides no coincideixen o algun valor no és vàlid.
+     */
+    public GowerDistance(int[] kinds, int[] offsets, int[] widths, double[] weights) {
+        int q = kinds.length;
+        if (offsets.length != q || widths.length != q || weights.length != q) {
+            throw new IllegalArgumentException("kinds, offsets, widths and weights must have the same length");
+        }
+        for (int i = 0; i < q; i++) {
+            if (kinds[i] < CATEGORICAL || kinds[i] > SET) {
+                throw new IllegalArgumentException("unknown kind " + kinds[i]);
+            }
+            if (widths[i] < 1 || (kinds[i] != SET && widths[i] != 1)) {
+                throw new IllegalArgumentException("invalid width " + widths[i] + " for question " + i);
+            }
+            if (!(weights[i] >= 0)) {
+                throw new IllegalArgumentException("weights must be >= 0");
+            }
+        }
+        this.kinds = kinds.clone();
+        this.offsets = offsets.clone();
+        this.widths = widths.clone();
+        this.weights = weights.clone();
+    }
+
+    /** Nombre de preguntes. */
+    public int questions() {
+        return kinds.length;
+    }
+
+    /** Pesos de les preguntes (còpia). */
+    public double[] getWeights() {
+        return Arrays.copyOf(weights, weights.length);
+    }
+
+    @Override
+    public double between(double[] a, double[] b) {
+        double sum = 0.0, total = 0.0;
+        for (int q = 0; q < kinds.length; q++) {
+            int o = offsets[q];
+            double x = a[o], y = b[o];
+            if (Double.isNaN(x) || Double.isNaN(y)) continue;
+            double w = weights[q];
+            total += w;
+            switch (kinds[q]) {
+                case CATEGORICAL -> {
+                    if (x != y) sum += w;
+                }
+                case NUMERIC -> sum += w * Math.abs(x - y);
+                default -> {
+                    int inter = 0, union = 0;
+                    for (int t = o, end = o + widths[q]; t < end; t++) {
+                        long p = (long) a[t], r = (long) b[t];
+                        inter += Long.bitCount(p & r);
+                        union += Long.bitCount(p | r);
+                    }
+                    if (union > 0) sum += w * (1.0 - (double) inter / union);
+                }
+            }
+        }
+        return total > 0 ? sum / total : 0.0;
+    }
+
+    /** Gower no fa servir normes: retorna 0 sense recórrer el vector. */
+    @Override
+    public double norm(double[] v) {
+        return 0.0;
+    }
+
+    @Override
+    public double[] norms(FeatureMatrix X) {
+        return new double[X.rows()];
+    }
+}
@@ -0,0 +1,205 @@
+package distance;
+
+import matrix.FeatureMatrix;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decorador que compta les avaluacions d'una {@link Distance}.
+ *
+ * <p>Serveix per comparar variants d'algorisme pel treball que fan (nombre de
+ * distàncies calculades) i no només pel temps de paret. Els comptadors són
+ * {@link LongAdder} (repartits en franges), de manera que es pot compartir
+ * entre fils sense contenció.</p>
+ *
+ * <p>Opcionalment mostreja una de cada {@code sampleEvery} avaluacions
+ * (aproximadament) i, per a aquestes, registra quantes components no nul·les
+ * tenen els vectors i quants tenen norma zero; amb {@link CosineDistance}
+ * aquests casos retornen sempre 1.0 i no aporten informació.</p>
+ */
+public final class InstrumentedDistance implements Distance {
+
+    private final Distance delegate;
+    private final int sampleEvery;
+
+    private final LongAdder evaluations = new LongAdder();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder sampledNonZero = new LongAdder();
+    private final LongAdder sampledDims = new LongAdder();
+    private final LongAdder zeroNorm = new LongAdder();
+
+    /**
+     * @param delegate    distància real.
+     * @param sampleEvery freqüència de mostreig (1 = totes, 0 = cap).
+     */
+    public InstrumentedDistance(Distance delegate, int sampleEvery) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+        this.delegate = delegate;
+        this.sampleEvery = Math.max(0, sampleEvery);
+    }
+
+    /** Només compta, sense mostreig. */
+    public InstrumentedDistance(Distance delegate) {
+        this(delegate, 0);
+    }
+
+    public Distance getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public double between(double[] a, double[] b) {
+        evaluations.increment();
+        if (shouldSample()) {
+            sample(a);
+            sample(b);
+        }
+        return delegate.between(a, b);
+    }
+
+    @Override
+    public double norm(double[] v) {
+        return delegate.norm(v);
+    }
+
+    @Override
+    public double between(double[] a, double normA, double[] b, double normB) {
+        evaluations.increment();
+        if (shouldSample()) {
+            sample(a);
+            sample(b);
+        }
+        return delegate.between(a, normA, b, normB);
+    }
+
+    @Override
+    public void toAll(double[] x, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        evaluations.add(M.length);
+        if (M.length > 0 && shouldSample()) {
+            sample(x);
+            sample(M[ThreadLocalRandom.current().nextInt(M.length)]);
+        }
+        delegate.toAll(x, xNorm, M, mNorms, out);
+    }
+
+    @Override
+    public void pairwise(double[][] A, double[] aNorms, double[][] B, double[] bNorms, double[][] out) {
+        evaluations.add((long) A.length * B.length);
+        if (A.length > 0 && B.length > 0 && shouldSample()) {
+            sample(A[ThreadLocalRandom.current().nextInt(A.length)]);
+            sample(B[ThreadLocalRandom.current().nextInt(B.length)]);
+        }
+        delegate.pairwise(A, aNorms, B, bNorms, out);
+    }
+
+    @Override
+    public double[] norms(FeatureMatrix X) {
+        return delegate.norms(X);
+    }
+
+    @Override
+    public void toAll(FeatureMatrix X, int i, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        evaluations.add(M.length);
+        if (M.length > 0 && shouldSample()) {
+            sample(X.row(i));
+            sample(M[ThreadLocalRandom.current().nextInt(M.length)]);
+        }
+        delegate.toAll(X, i, xNorm, M, mNorms, out);
+    }
+
+    @Override
+    public void toAll(double[] x, double xNorm, FeatureMatrix M, double[] mNorms, double[] out) {
+        evaluations.add(M.rows());
+        if (M.rows() > 0 && shouldSample()) {
+            sample(x);
+            sample(M.row(ThreadLocalRandom.current().nextInt(M.rows())));
+        }
+        delegate.toAll(x, xNorm, M, mNorms, out);
+    }
+
+    @Override
+    public void pairwise(FeatureMatrix X, int i0, int i1, double[] norms, double[][] out) {
+        evaluations.add((long) (i1 - i0) * X.rows());
+        if (i1 > i0 && shouldSample()) {
+            sample(X.row(ThreadLocalRandom.current().nextInt(i0, i1)));
+            sample(X.row(ThreadLocalRandom.current().nextInt(X.rows())));
+        }
+        delegate.pairwise(X, i0, i1, norms, out);
+    }
+
+    private boolean shouldSample() {
+        return sampleEvery > 0 && (sampleEvery == 1 || ThreadLocalRandom.current().nextInt(sampleEvery) == 0);
+    }
+
+    private void sample(double[] v) {
+        int nonZero = 0;
+        for (double x : v) {
+            if (x != 0.0) nonZero++;
+        }
+        sampled.increment();
+        sampledDims.add(v.length);
+        sampledNonZero.add(nonZero);
+        if (nonZero == 0) zeroNorm.increment();
+    }
+
+    /** Estat actual dels comptadors. */
+    public Stats snapshot() {
+        return new Stats(evaluations.sum(), sampled.sum(), sampledDims.sum(), sampledNonZero.sum(), zeroNorm.sum());
+    }
+
+    /** Posa els comptadors a zero i retorna el que hi havia. */
+    public Stats reset() {
+        return new Stats(evaluations.sumThenReset(), sampled.sumThenReset(), sampledDims.sumThenReset(),
+                sampledNonZero.sumThenReset(), zeroNorm.sumThenReset());
+    }
+
+    /**
+     * Valors dels comptadors. Els camps {@code sampled*} i {@code zeroNorm}
+     * compten vectors (dos per avaluació mostrejada).
+     */
+    public static final class Stats {
+        private final long evaluations;
+        private final long sampledVectors;
+        private final long sampledDims;
+        private final long sampledNonZero;
+        private final long zeroNormVectors;
+
+        Stats(long evaluations, long sampledVectors, long sampledDims, long sampledNonZero, long zeroNormVectors) {
+            this.evaluations = evaluations;
+            this.sampledVectors = sampledVectors;
+            this.sampledDims = sampledDims;
+            this.sampledNonZero = sampledNonZero;
+            this.zeroNormVectors = zeroNormVectors;
+        }
+
+        public long evaluations() {
+            return evaluations;
+        }
+
+        public long sampledVectors() {
+            return sampledVectors;
+        }
+
+        public long zeroNormVectors() {
+            return zeroNormVectors;
+        }
+
+        /** Mitjana de components no nul·les dels vectors mostrejats (0 si no n'hi ha). */
+        public double meanNonZero() {
+            return sampledVectors == 0 ? 0.0 : (double) sampledNonZero / sampledVectors;
+        }
+
+        /** Fracció de components no nul·les dels vectors mostrejats. */
+        public double density() {
+            return sampledDims == 0 ? 0.0 : (double) sampledNonZero / sampledDims;
+        }
+
+        /** Fracció dels vectors mostrejats amb norma zero. */
+        public double zeroNormFraction() {
+            return sampledVectors == 0 ? 0.0 : (double) zeroNormVectors / sampledVectors;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package distance;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Distància euclidiana amb la Vector API ({@code jdk.incubator.vector}).
+ *
+ * <p>Fa servir l'amplada preferida de la plataforma (4 doubles amb AVX2, 8 amb
+ * AVX-512) i acumula amb FMA; la cua que no omple un vector es fa en escalar.
+ * Només es pot carregar si la JVM s'ha arrencat amb
+ * {@code --add-modules jdk.incubator.vector}: s'ha d'obtenir amb
+ * {@link Distances#euclidean()}, que recorre a {@link EuclideanDistance} si no.</p>
+ */
+public final class VectorEuclideanDistance implements DotProductDistance {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    public VectorEuclideanDistance() {
+    }
+
+    @Override
+    public double between(double[] a, double[] b) {
+        return Math.sqrt(squared(a, b));
+    }
+
+    /** Suma de diferències al quadrat entre {@code a} i {@code b}. */
+    static double squared(double[] a, double[] b) {
+        int n = a.length;
+        int i = 0;
+        double s = 0.0;
+        int bound = SPECIES.loopBound(n);
+        if (bound > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector d = DoubleVector.fromArray(SPECIES, a, i).sub(DoubleVector.fromArray(SPECIES, b, i));
+                acc = d.fma(d, acc);
+            }
+            s = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; i < n; i++) {
+            double d = a[i] - b[i];
+            s += d * d;
+        }
+        return s;
+    }
+
+    @Override
+    public double norm(double[] v) {
+        return Math.sqrt(VectorCosineDistance.dot(v, v));
+    }
+
+    /** Vegeu {@link EuclideanDistance#toAll}: ‖a‖² + ‖b‖² − 2·a·b. */
+    @Override
+    public void toAll(double[] x, double xNorm, double[][] M, double[] mNorms, double[] out) {
+        double xx = xNorm * xNorm;
+        for (int j = 0; j < M.length; j++) {
+            out[j] = EuclideanDistance.fromDot(xx, mNorms[j], VectorCosineDistance.dot(x, M[j]));
+        }
+    }
+
+    @Override
+    public void pairwise(double[][] A, double[] aNorms, double[][] B, double[] bNorms, double[][] out) {
+        for (int i0 = 0; i0 < A.length; i0 += TILE) {
+            int i1 = Math.min(A.length, i0 + TILE);
+            for (int j0 = 0; j0 < B.length; j0 += TILE) {
+                int j1 = Math.min(B.length, j0 + TILE);
+                for (int i = i0; i < i1; i++) {
+                    double[] a = A[i];
+                    double aa = aNorms[i] * aNorms[i];
+                    double[] row = out[i];
+                    for (int j = j0; j < j1; j++) {
+                        row[j] = EuclideanDistance.fromDot(aa, bNorms[j], VectorCosineDistance.dot(a, B[j]));
+                    }
+                }
+            }
+        }
+    }
+
+    /** ‖a − b‖ = √(‖a‖² + ‖b‖² − 2·a·b). */
+    @Override
+    public double distanceFromDot(double normA, double normB, double dot) {
+        return EuclideanDistance.fromDot(normA * normA, normB, dot);
+    }
+}
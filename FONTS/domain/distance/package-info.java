@@ -4,5 +4,22 @@
  *
  * <p>Inclou la interfície {@link distance.Distance} i la implemen-
  * tació euclidiana {@link distance.EuclideanDistance}.</p>
+ *
+ * <p>{@link distance.InstrumentedDistance} embolcalla qualsevol mètrica per
+ * comptar-ne les avaluacions; {@code AlgorithmConfiguration.buildDistance}
+ * l'aplica quan el diagnòstic està activat.</p>
+ *
+ * <p>{@link distance.Distances} retorna les versions SIMD
+ * ({@link distance.VectorEuclideanDistance}, {@link distance.VectorCosineDistance})
+ * quan la JVM té el mòdul {@code jdk.incubator.vector}, i les escalars si no.</p>
+ *
+ * <p>Les mètriques euclidiana i del cosinus implementen
+ * {@link distance.DotProductDistance}: sobre una {@code matrix.FeatureMatrix}
+ * es calculen amb els productes escalars de la pròpia matriu, sense copiar
+ * files.</p>
+ *
+ * <p>{@link distance.GowerDistance} treballa sobre una codificació compacta
+ * per pregunta (no one-hot) i combina dissimilituds per tipus de pregunta
+ * amb el pes de cadascuna.</p>
  */
 package distance;
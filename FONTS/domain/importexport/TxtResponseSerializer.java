@@ -59,22 +59,34 @@ public class TxtResponseSerializer implements ResponseSerializer {
         }
         try (PrintWriter writer = new PrintWriter(new FileWriter(path))) {
             for (SurveyResponse response : responses) {
-                writer.println(String.join(",",
-                    RESPONSE_PREFIX,
-                    response.getId(),
-                    response.getSurveyId(),
-                    response.getUserId(),
-                    safe(response.getSubmittedAt())
-                ));
-                writeAnswers(writer, response);
-                writer.println(END_PREFIX);
-                writer.println();
+                writeResponse(writer, response);
             }
         } catch (IOException e) {
             throw new RuntimeException("Error escrivint les respostes: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Escriu un únic bloc de resposta ({@code resp ... end}) al writer indicat.
+     * Permet generar fitxers grans en streaming, resposta a resposta, sense
+     * tenir-les totes en memòria.
+     *
+     * @param writer   Destí on s'escriu el bloc.
+     * @param response Resposta a serialitzar.
+     */
+    public void writeResponse(PrintWriter writer, SurveyResponse response) {
+        writer.println(String.join(",",
+            RESPONSE_PREFIX,
+            response.getId(),
+            response.getSurveyId(),
+            response.getUserId(),
+            safe(response.getSubmittedAt())
+        ));
+        writeAnswers(writer, response);
+        writer.println(END_PREFIX);
+        writer.println();
+    }
+
     /**
      * Llegeix totes les {@link SurveyResponse} presents al fitxer.
      *
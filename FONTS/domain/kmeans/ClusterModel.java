@@ -4,6 +4,8 @@ package kmeans;
  * Representa el resultat d'un algorisme de clustering.
  * Conté els centroides resultants, les etiquetes assignades a cada punt,
  * la inèrcia (suma de distàncies quadrades als centroides) i el nombre d'iteracions realitzades.
+ * Els algorismes de medoides ({@link KMedoids}) hi guarden també l'índex de
+ * la fila que fa de centre de cada clúster.
  */
 public final class ClusterModel {
 
@@ -27,6 +29,12 @@ public final class ClusterModel {
      */
     private final int iterations;
 
+    /**
+     * Fila de les dades que fa de centre de cada clúster, o {@code null} si
+     * els centres són mitjanes.
+     */
+    private final int[] medoids;
+
     /**
      * Crea un nou model de clustering amb els resultats especificats.
      *
@@ -36,10 +44,24 @@ public final class ClusterModel {
      * @param iterations El nombre d'iteracions realitzades.
      */
     public ClusterModel(double[][] centroids, int[] labels, double inertia, int iterations) {
+        this(centroids, labels, inertia, iterations, null);
+    }
+
+    /**
+     * Crea un model on cada centre és una fila de les dades.
+     *
+     * @param centroids Matriu amb els centres (còpies de les files {@code medoids}).
+     * @param labels Array amb les etiquetes de clúster per a cada punt.
+     * @param inertia La inèrcia del model.
+     * @param iterations El nombre d'iteracions realitzades.
+     * @param medoids Índex de fila del centre de cada clúster, o {@code null}.
+     */
+    public ClusterModel(double[][] centroids, int[] labels, double inertia, int iterations, int[] medoids) {
         this.centroids = centroids;
         this.labels = labels;
         this.inertia = inertia;
         this.iterations = iterations;
+        this.medoids = medoids;
     }
     
     /**
@@ -77,4 +99,14 @@ public final class ClusterModel {
     public int getIterations() {
         return iterations;
     }
+
+    /**
+     * Obté els medoides del model.
+     *
+     * @return L'índex de fila del centre de cada clúster, o {@code null} si el
+     * model no és de medoides.
+     */
+    public int[] getMedoids() {
+        return medoids;
+    }
 }
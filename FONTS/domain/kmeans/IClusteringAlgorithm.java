@@ -1,11 +1,16 @@
 package kmeans;
 
 import distance.Distance;
+import matrix.FeatureMatrix;
 
 /**
  * Interfície per a un algorisme de clustering.
  * Defineix el contracte per a algorismes que poden agrupar dades
  * en k clústers.
+ *
+ * <p>Les implementacions treballen sobre {@link FeatureMatrix}; l'entrada
+ * sobre {@code double[][]} només embolcalla les files amb
+ * {@link FeatureMatrix#of(double[][])} i delega.</p>
  */
 public interface IClusteringAlgorithm {
 
@@ -24,7 +29,23 @@ public interface IClusteringAlgorithm {
      * @return Un objecte ClusterModel que conté els centroides,
      * les etiquetes (assignacions) i la inèrcia.
      */
-    ClusterModel fit(double[][] data, int k, Distance distance, long seed, int maxIter, double tol);
+    default ClusterModel fit(double[][] data, int k, Distance distance, long seed, int maxIter, double tol) {
+        return fit(FeatureMatrix.of(data), k, distance, seed, maxIter, tol);
+    }
+
+    /**
+     * Executa l'algorisme de clustering sobre una matriu de característiques.
+     * Mateixos paràmetres que {@link #fit(double[][], int, Distance, long, int, double)}.
+     *
+     * @param data      La matriu de dades a agrupar.
+     * @param k         El nombre de clústers a trobar.
+     * @param distance  La mètrica de distància a utilitzar.
+     * @param seed      La llavor per al generador de números aleatoris.
+     * @param maxIter   El nombre màxim d'iteracions a executar.
+     * @param tol       La tolerància per declarar convergència.
+     * @return Un objecte ClusterModel amb el resultat.
+     */
+    ClusterModel fit(FeatureMatrix data, int k, Distance distance, long seed, int maxIter, double tol);
     
     /**
      * Mètode de conveniència per executar l'algorisme amb paràmetres per defecte.
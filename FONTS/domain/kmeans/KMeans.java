@@ -2,6 +2,7 @@ package kmeans;
 
 import distance.Distance;
 import distance.CosineDistance;
+import matrix.FeatureMatrix;
 import java.util.*;
 
 /**
@@ -31,94 +32,134 @@ public class KMeans implements IClusteringAlgorithm {
      * @return Un objecte ClusterModel amb els centroides, etiquetes i inèrcia resultants.
      */
     @Override
-    public ClusterModel fit(double[][] X, int k, Distance dist, long seed, int maxIter, double tol) {
+    public ClusterModel fit(FeatureMatrix X, int k, Distance dist, long seed, int maxIter, double tol) {
         Objects.requireNonNull(X);
-        if (k <= 0) throw new IllegalArgumentException("k must be > 0");
         if (dist == null) dist = new CosineDistance();
+        return fit(X, dist.norms(X), k, dist, seed, maxIter, tol);
+    }
+
+    /**
+     * Com {@link #fit(FeatureMatrix, int, Distance, long, int, double)} amb
+     * les normes de les files ja calculades, per compartir-les entre diversos
+     * ajustos sobre la mateixa matriu (p. ex. un per cada k candidat).
+     *
+     * @param X Matriu de dades a agrupar.
+     * @param xNorm Normes de les files de X ({@code dist.norms(X)}).
+     * @param k El nombre de clústers a trobar.
+     * @param dist La mètrica de distància a utilitzar (no nul·la).
+     * @param seed La seed per al generador de números aleatoris.
+     * @param maxIter El nombre màxim d'iteracions a executar.
+     * @param tol La tolerància per declarar convergència.
+     * @return Un objecte ClusterModel amb els resultats.
+     */
+    public ClusterModel fit(FeatureMatrix X, double[] xNorm, int k, Distance dist, long seed, int maxIter, double tol) {
+        if (k <= 0) throw new IllegalArgumentException("k must be > 0");
         final Random rnd = new Random(seed);
-        final int n = X.length, d = X[0].length;
+        final int n = X.rows();
 
-        double[][] C = new double[k][d];
+        double[][] C = new double[k][];
         List<Integer> idx = new ArrayList<>();
         for (int i = 0; i < n; i++) idx.add(i);
         Collections.shuffle(idx, rnd);
-        for (int j = 0; j < k; j++) C[j] = Arrays.copyOf(X[idx.get(j)], d);
-        
-        int[] labels = new int[n];
-        double prevInertia = Double.POSITIVE_INFINITY;
-        int it = 0;
+        for (int j = 0; j < k; j++) C[j] = X.row(idx.get(j));
 
-        while (it < maxIter) {
-            double inertia = 0.0;
-            for (int i = 0; i < n; i++) {
-                int best = 0; double bestDist = Double.POSITIVE_INFINITY;
-                for (int j = 0; j < k; j++) {
-                    double dj = dist.between(X[i], C[j]);
-                    if (dj < bestDist) {
-                        bestDist = dj;
-                        best = j;
-                    }
-                    labels[i] = best;
-                    inertia += bestDist*bestDist;
-                }
-            }
+        return fitWithCustomInit(X, xNorm, C, dist, maxIter, tol);
+    }
 
-            if (Math.abs(prevInertia - inertia) <= tol*Math.max(1.0, prevInertia)) {
-                return new ClusterModel(C, labels, inertia, it+1);
-            }
-            prevInertia = inertia;
+    /**
+     * Ajusta k+1 clústers partint d'una solució amb k (warm start): conserva
+     * els centroides de {@code previous} i n'afegeix un de triat com a
+     * K-Means++, amb probabilitat proporcional a la distància al quadrat de
+     * cada punt al seu centroide més proper. Sol convergir en menys
+     * iteracions que començar de zero.
+     *
+     * @param X Matriu de dades a agrupar.
+     * @param xNorm Normes de les files de X ({@code dist.norms(X)}).
+     * @param previous Model amb k clústers sobre la mateixa matriu.
+     * @param dist La mètrica de distància a utilitzar (no nul·la).
+     * @param seed La seed per triar el centroide nou.
+     * @param maxIter El nombre màxim d'iteracions a executar.
+     * @param tol La tolerància per declarar convergència.
+     * @return Un ClusterModel amb {@code previous.getCentroids().length + 1} clústers.
+     */
+    public ClusterModel fitWarmStart(FeatureMatrix X, double[] xNorm, ClusterModel previous, Distance dist,
+                                     long seed, int maxIter, double tol) {
+        double[][] prevC = previous.getCentroids();
+        int k = prevC.length;
+        double[] d2 = new double[X.rows()];
+        assign(X, xNorm, prevC, norms(prevC, dist), dist, new int[X.rows()], d2);
+        for (int i = 0; i < d2.length; i++) d2[i] *= d2[i];
 
-            double[][] newC = new double[k][d];
-            int[] counts = new int[k];
-            for (int i = 0; i < n; i++) {
-                int c = labels[i];
-                counts[c]++;
-                for (int t = 0; t < d; t++) newC[c][t] += X[i][t];
-            }
+        double[][] C = Arrays.copyOf(prevC, k + 1);
+        C[k] = X.row(sampleD2(d2, new Random(seed)));
+        return fitWithCustomInit(X, xNorm, C, dist, maxIter, tol);
+    }
 
-            for (int c = 0; c < k; c++) {
-                if (counts[c] == 0) {
-                    int far = -1;
-                    double farD = -1;
-                    for (int i = 0; i < n; i++) {
-                        double dj = dist.between(X[i], C[nearest(X[i], C, dist)]);
-                        if (dj > farD) {
-                            farD = dj;
-                            far = i;
-                        }
-                    }
-                    newC[c] = Arrays.copyOf(X[far], d);
-                    counts[c] = 1;
-                }
-                else {
-                    for (int t = 0; t < d; t++) newC[c][t] /= counts[c];
-                }
-            }
-            C = newC;
-            it++;
+    /**
+     * Tria un índex amb probabilitat proporcional a {@code d2[i]} (pas de
+     * selecció de K-Means++).
+     *
+     * @param d2 Pesos no negatius (distàncies al quadrat).
+     * @param rnd Generador aleatori.
+     * @return L'índex escollit.
+     */
+    protected static int sampleD2(double[] d2, Random rnd) {
+        double sum = 0;
+        for (double v : d2) sum += v;
+        double r = rnd.nextDouble()*sum, acc = 0;
+        for (int i = 0; i < d2.length; i++) {
+            acc += d2[i];
+            if (acc >= r) return i;
         }
-        return new ClusterModel(C, labels, prevInertia, it);
+        return 0;
     }
 
     /**
-     * Troba l'índex del centroide més proper a un punt donat.
+     * Calcula un cop les normes de les files d'una matriu perquè la distància
+     * no les hagi de recalcular a cada comparació.
      *
-     * @param x El punt per al qual cercar el centroide més proper.
+     * @param M Matriu (files de dades o centroides).
+     * @param dist La mètrica de distància.
+     * @return Array amb {@code dist.norm(M[i])} per a cada fila.
+     */
+    protected static double[] norms(double[][] M, Distance dist) {
+        double[] out = new double[M.length];
+        for (int i = 0; i < M.length; i++) out[i] = dist.norm(M[i]);
+        return out;
+    }
+
+    /**
+     * Assigna cada punt al centroide més proper amb una crida
+     * {@link Distance#toAll(FeatureMatrix, int, double, double[][], double[], double[])} per punt.
+     *
+     * @param X Matriu de dades.
+     * @param xNorm Normes de les files de X.
      * @param C Matriu de centroides.
+     * @param cNorm Normes dels centroides.
      * @param dist La mètrica de distància a utilitzar.
-     * @return L'índex del centroide més proper.
+     * @param labels Sortida: índex del centroide més proper de cada punt.
+     * @param nearestDist Sortida: distància de cada punt al seu centroide.
+     * @return La inèrcia (suma de distàncies al quadrat).
      */
-    private int nearest(double[] x, double[][] C, Distance dist) {
-        int best = 0;
-        double bestD = Double.POSITIVE_INFINITY;
-        for (int j = 0; j < C.length; j++) {
-            double d = dist.between(x, C[j]);
-            if (d < bestD) {
-                bestD = d;
-                best = j;
+    protected static double assign(FeatureMatrix X, double[] xNorm, double[][] C, double[] cNorm, Distance dist,
+                                   int[] labels, double[] nearestDist) {
+        double[] row = new double[C.length];
+        double inertia = 0.0;
+        for (int i = 0; i < X.rows(); i++) {
+            dist.toAll(X, i, xNorm[i], C, cNorm, row);
+            int best = 0;
+            double bestDist = row[0];
+            for (int j = 1; j < row.length; j++) {
+                if (row[j] < bestDist) {
+                    bestDist = row[j];
+                    best = j;
+                }
             }
+            labels[i] = best;
+            nearestDist[i] = bestDist;
+            inertia += bestDist*bestDist;
         }
-        return best;
+        return inertia;
     }
 
     /**
@@ -134,32 +175,31 @@ public class KMeans implements IClusteringAlgorithm {
      * @param tol La tolerància per a la convergència.
      * @return Un objecte ClusterModel amb els resultats.
      */
-    protected ClusterModel fitWithCustomInit(double[][] X, double[][] initC, Distance dist, long seed, int maxIter, double tol) {
+    protected ClusterModel fitWithCustomInit(FeatureMatrix X, double[][] initC, Distance dist, long seed, int maxIter, double tol) {
         if (dist == null) dist = new CosineDistance();
-        final int n = X.length, d = X[0].length, k = initC.length;
+        return fitWithCustomInit(X, dist.norms(X), initC, dist, maxIter, tol);
+    }
+
+    /**
+     * Com {@link #fitWithCustomInit(FeatureMatrix, double[][], Distance, long, int, double)},
+     * amb les normes de les files ja calculades.
+     */
+    public ClusterModel fitWithCustomInit(FeatureMatrix X, double[] xNorm, double[][] initC, Distance dist, int maxIter, double tol) {
+        if (dist == null) dist = new CosineDistance();
+        final int n = X.rows(), d = X.cols(), k = initC.length;
         double[][] C = new double[k][d];
         for (int j = 0; j < k; j++) C[j] = Arrays.copyOf(initC[j], d);
+        double[] cNorm = norms(C, dist);
 
         int[] labels = new int[n];
+        double[] nearestDist = new double[n];
         double prevInertia = Double.POSITIVE_INFINITY;
         int it = 0;
 
         while (it < maxIter) {
-            double inertia = 0.0;
-            for (int i = 0; i < n; i++) {
-                int best = 0;
-                double bestDist = Double.POSITIVE_INFINITY;
-                for (int j = 0; j < k; j++) {
-                    double dj = dist.between(X[i], C[j]);
-                    if (dj < bestDist) {
-                        bestDist= dj;
-                        best = j;
-                    }
-                }
-                labels[i] = best;
-                inertia += bestDist*bestDist;
-            }
-            if (Math.abs(prevInertia - inertia) <= tol*Math.max(1.0, prevInertia))
+            double inertia = assign(X, xNorm, C, cNorm, dist, labels, nearestDist);
+            // a la primera iteració prevInertia és infinit i no hi ha res a comparar
+            if (it > 0 && Math.abs(prevInertia - inertia) <= tol*Math.max(1.0, prevInertia))
                 return new ClusterModel(C, labels, inertia, it+1);
             prevInertia = inertia;
 
@@ -167,41 +207,22 @@ public class KMeans implements IClusteringAlgorithm {
             for (int i = 0; i < n; i++) {
                 int c = labels[i];
                 counts[c]++;
-                for (int t = 0; t < d; t++) newC[c][t] += X[i][t];
+                X.addRowTo(i, newC[c]);
             }
             for (int c = 0; c < k; c++) {
                 if (counts[c] == 0) {
-                    int far = iFarthest(X, C, dist);
-                    newC[c] = Arrays.copyOf(X[far], d);
+                    // clúster buit: el punt més llunyà del seu centroide més proper
+                    int far = 0;
+                    for (int i = 1; i < n; i++) if (nearestDist[i] > nearestDist[far]) far = i;
+                    X.copyRow(far, newC[c]);
                     counts[c] = 1;
                 }
                 else for (int t = 0; t < d; t++) newC[c][t] /= counts[c];
             }
             C = newC;
+            cNorm = norms(C, dist);
             it++;
         }
         return new ClusterModel(C, labels, prevInertia, it);
     }
-
-    /**
-     * Troba l'índex del punt més llunyà del seu centroide més proper.
-     * Utilitzat per reassignar clústers buits.
-     *
-     * @param X Matriu de dades.
-     * @param C Matriu de centroides.
-     * @param dist La mètrica de distància a utilitzar.
-     * @return L'índex del punt més llunyà.
-     */
-    private int iFarthest(double[][]X, double[][] C, Distance dist) {
-        int far = 0;
-        double best = -1;
-        for (int i = 0; i < X.length; i++) {
-            double dj = dist.between(X[i], C[nearest(X[i], C, dist)]);
-            if (dj > best) {
-                best = dj;
-                far = i;
-            }
-        }
-        return far;
-    }
 }
@@ -0,0 +1,279 @@
+package kmeans;
+
+import distance.Distance;
+import matrix.FeatureMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * K-Means amb la inicialització K-Means|| (K-Means++ escalable, Bahmani et
+ * al.).
+ *
+ * <p>K-Means++ tria els k centroides d'un en un i cada tria necessita una
+ * passada sencera per les dades. K-Means|| en fa poques ({@code rounds},
+ * 3 per defecte): a cada ronda cada punt entra com a candidat de manera
+ * independent amb probabilitat {@code min(1, ℓ·d²(x)/ψ)}, on {@code ℓ} és
+ * {@code oversampling·k} i {@code ψ} la suma de les distàncies al quadrat al
+ * candidat més proper. Al final cada candidat pesa tants punts com té més a
+ * prop i els ~{@code ℓ·rounds} candidats es redueixen a k amb K-Means++
+ * ponderat i unes quantes iteracions de Lloyd ponderades, que ja no depenen
+ * de n.</p>
+ *
+ * <p>Dins de cada ronda les files es processen per trossos fixos de
+ * {@value #CHUNK_ROWS} al pool; cada tros fa servir un generador derivat de
+ * la llavor i del seu índex, de manera que el resultat no depèn del nombre
+ * de fils.</p>
+ */
+public class KMeansParallel extends KMeans {
+
+    /** Factor de sobremostreig per defecte ({@code ℓ = k}). */
+    public static final double DEFAULT_OVERSAMPLING = 1.0;
+
+    /** Nombre de rondes de mostreig per defecte. */
+    public static final int DEFAULT_ROUNDS = 3;
+
+    /** Files per tasca dins d'una ronda. */
+    static final int CHUNK_ROWS = 16_384;
+
+    /** Màxim d'iteracions de Lloyd sobre els candidats ponderats. */
+    private static final int REDUCE_ITER = 30;
+
+    private final double oversampling;
+    private final int rounds;
+    private final ExecutorService pool;
+
+    /**
+     * K-Means|| amb {@code ℓ = k}, 3 rondes i el pool comú de la JVM.
+     */
+    public KMeansParallel() {
+        this(DEFAULT_OVERSAMPLING, DEFAULT_ROUNDS, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param oversampling Candidats esperats per ronda, en múltiples de k (&gt; 0).
+     * @param rounds Rondes de mostreig (&gt;= 1).
+     * @param pool Pool on repartir cada ronda; {@code null} per fer-ho al fil actual.
+     */
+    public KMeansParallel(double oversampling, int rounds, ExecutorService pool) {
+        if (!(oversampling > 0)) throw new IllegalArgumentException("oversampling must be > 0");
+        if (rounds < 1) throw new IllegalArgumentException("rounds must be >= 1");
+        this.oversampling = oversampling;
+        this.rounds = rounds;
+        this.pool = pool;
+    }
+
+    public double getOversampling() {
+        return oversampling;
+    }
+
+    public int getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Executa K-Means partint dels centroides de {@link #initialCentroids}.
+     *
+     * @param X Matriu de dades a agrupar (n_mostres x n_features).
+     * @param xNorm Normes de les files de X ({@code dist.norms(X)}).
+     * @param k El nombre de clústers a trobar.
+     * @param dist La mètrica de distància a utilitzar (no nul·la).
+     * @param seed La llavor per al generador de números aleatoris.
+     * @param maxIter El nombre màxim d'iteracions a executar.
+     * @param tol La tolerància per declarar convergència (canvi en la inèrcia).
+     * @return Un objecte ClusterModel amb els centroides, etiquetes i inèrcia resultants.
+     */
+    @Override
+    public ClusterModel fit(FeatureMatrix X, double[] xNorm, int k, Distance dist, long seed, int maxIter, double tol) {
+        return fitWithCustomInit(X, xNorm, initialCentroids(X, xNorm, k, dist, seed), dist, maxIter, tol);
+    }
+
+    /**
+     * Tria els k centroides inicials amb K-Means||.
+     *
+     * @param X Matriu de dades.
+     * @param xNorm Normes de les files de X ({@code dist.norms(X)}).
+     * @param k El nombre de centroides.
+     * @param dist La mètrica de distància (no nul·la).
+     * @param seed La llavor per al mostreig.
+     * @return k centroides (còpies de files de X o mitjanes de candidats).
+     */
+    public double[][] initialCentroids(FeatureMatrix X, double[] xNorm, int k, Distance dist, long seed) {
+        if (k <= 0) throw new IllegalArgumentException("k must be > 0");
+        final int n = X.rows();
+        final Random rnd = new Random(seed);
+        final int chunks = (n + CHUNK_ROWS - 1) / CHUNK_ROWS;
+
+        List<double[]> cand = new ArrayList<>();
+        List<Double> candNorm = new ArrayList<>();
+        int first = rnd.nextInt(n);
+        cand.add(X.row(first));
+        candNorm.add(xNorm[first]);
+
+        double[] d2 = new double[n]; // distància al quadrat al candidat més proper
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        int[] nearest = new int[n];
+        double[] chunkCost = new double[chunks];
+        update(X, xNorm, dist, cand, candNorm, 0, d2, nearest, chunkCost);
+
+        final double ell = oversampling * k;
+        for (int r = 0; r < rounds; r++) {
+            double psi = 0.0;
+            for (double c : chunkCost) psi += c;
+            if (!(psi > 0.0)) break; // tots els punts coincideixen amb un candidat
+
+            final double scale = ell / psi;
+            final long roundSeed = rnd.nextLong();
+            final int[][] picked = new int[chunks][];
+            List<Callable<Void>> tasks = new ArrayList<>(chunks);
+            for (int c = 0; c < chunks; c++) {
+                final int chunk = c;
+                tasks.add(() -> {
+                    Random local = new Random(roundSeed + chunk * 0x9E3779B97F4A7C15L);
+                    int lo = chunk * CHUNK_ROWS, hi = Math.min(n, lo + CHUNK_ROWS);
+                    int[] out = new int[16];
+                    int m = 0;
+                    for (int i = lo; i < hi; i++) {
+                        if (local.nextDouble() < scale * d2[i]) {
+                            if (m == out.length) out = Arrays.copyOf(out, 2 * m);
+                            out[m++] = i;
+                        }
+                    }
+                    picked[chunk] = Arrays.copyOf(out, m);
+                    return null;
+                });
+            }
+            Tasks.run(pool, tasks);
+
+            int offset = cand.size();
+            for (int[] p : picked) {
+                for (int i : p) {
+                    cand.add(X.row(i));
+                    candNorm.add(xNorm[i]);
+                }
+            }
+            if (cand.size() > offset) update(X, xNorm, dist, cand, candNorm, offset, d2, nearest, chunkCost);
+        }
+
+        double[] weight = new double[cand.size()];
+        for (int i = 0; i < n; i++) weight[nearest[i]]++;
+        double[] norms = new double[cand.size()];
+        for (int j = 0; j < norms.length; j++) norms[j] = candNorm.get(j);
+        return reduce(cand.toArray(new double[0][]), norms, weight, k, dist, rnd, X);
+    }
+
+    /**
+     * Actualitza {@code d2}, {@code nearest} i el cost de cada tros amb els
+     * candidats a partir de {@code offset}.
+     */
+    private void update(FeatureMatrix X, double[] xNorm, Distance dist, List<double[]> cand, List<Double> candNorm,
+                        int offset, double[] d2, int[] nearest, double[] chunkCost) {
+        final int n = X.rows();
+        final double[][] C = cand.subList(offset, cand.size()).toArray(new double[0][]);
+        final double[] cNorm = new double[C.length];
+        for (int j = 0; j < C.length; j++) cNorm[j] = candNorm.get(offset + j);
+
+        List<Callable<Void>> tasks = new ArrayList<>(chunkCost.length);
+        for (int c = 0; c < chunkCost.length; c++) {
+            final int chunk = c;
+            tasks.add(() -> {
+                double[] row = new double[C.length];
+                double cost = 0.0;
+                int lo = chunk * CHUNK_ROWS, hi = Math.min(n, lo + CHUNK_ROWS);
+                for (int i = lo; i < hi; i++) {
+                    dist.toAll(X, i, xNorm[i], C, cNorm, row);
+                    for (int j = 0; j < row.length; j++) {
+                        double dd = row[j] * row[j];
+                        if (dd < d2[i]) {
+                            d2[i] = dd;
+                            nearest[i] = offset + j;
+                        }
+                    }
+                    cost += d2[i];
+                }
+                chunkCost[chunk] = cost;
+                return null;
+            });
+        }
+        Tasks.run(pool, tasks);
+    }
+
+    /**
+     * Redueix els candidats ponderats a k centroides: K-Means++ ponderat i
+     * iteracions de Lloyd ponderades. Si hi ha menys candidats que k, es
+     * completen amb files de X a l'atzar.
+     */
+    private static double[][] reduce(double[][] cand, double[] cNorm, double[] weight, int k, Distance dist,
+                                     Random rnd, FeatureMatrix X) {
+        final int m = cand.length;
+        if (m <= k) {
+            double[][] C = Arrays.copyOf(cand, k);
+            for (int j = m; j < k; j++) C[j] = X.row(rnd.nextInt(X.rows()));
+            return C;
+        }
+
+        // K-Means++ ponderat sobre els candidats
+        double[][] C = new double[k][];
+        double[] centerNorm = new double[k];
+        int first = sampleD2(weight, rnd);
+        C[0] = cand[first].clone();
+        centerNorm[0] = cNorm[first];
+        double[] d2 = new double[m];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        double[] p = new double[m];
+        for (int c = 1; c < k; c++) {
+            for (int i = 0; i < m; i++) {
+                double d = dist.between(cand[i], cNorm[i], C[c - 1], centerNorm[c - 1]);
+                d2[i] = Math.min(d2[i], d * d);
+                p[i] = weight[i] * d2[i];
+            }
+            int chosen = sampleD2(p, rnd);
+            C[c] = cand[chosen].clone();
+            centerNorm[c] = cNorm[chosen];
+        }
+
+        // Lloyd ponderat
+        final int d = C[0].length;
+        int[] labels = new int[m];
+        Arrays.fill(labels, -1);
+        for (int it = 0; it < REDUCE_ITER; it++) {
+            boolean changed = false;
+            for (int i = 0; i < m; i++) {
+                int best = 0;
+                double bestDist = Double.POSITIVE_INFINITY;
+                for (int c = 0; c < k; c++) {
+                    double dd = dist.between(cand[i], cNorm[i], C[c], centerNorm[c]);
+                    if (dd < bestDist) {
+                        bestDist = dd;
+                        best = c;
+                    }
+                }
+                if (labels[i] != best) {
+                    labels[i] = best;
+                    changed = true;
+                }
+            }
+            if (!changed) break;
+
+            double[][] sum = new double[k][d];
+            double[] w = new double[k];
+            for (int i = 0; i < m; i++) {
+                int c = labels[i];
+                w[c] += weight[i];
+                for (int t = 0; t < d; t++) sum[c][t] += weight[i] * cand[i][t];
+            }
+            for (int c = 0; c < k; c++) {
+                if (w[c] == 0) continue; // sense pes: es manté el centroide
+                for (int t = 0; t < d; t++) sum[c][t] /= w[c];
+                C[c] = sum[c];
+                centerNorm[c] = dist.norm(C[c]);
+            }
+        }
+        return C;
+    }
+}
@@ -2,7 +2,7 @@ package kmeans;
 
 import java.util.*;
 import distance.Distance;
-import distance.CosineDistance;
+import matrix.FeatureMatrix;
 
 /**
  * Implementació de l'algorisme K-Means++ per a clustering.
@@ -28,46 +28,54 @@ public class KMeansPlusPlus extends KMeans {
      * que estan lluny dels centroides ja seleccionats.
      *
      * @param X Matriu de dades a agrupar (n_mostres x n_features).
+     * @param xNorm Normes de les files de X ({@code dist.norms(X)}).
      * @param k El nombre de clústers a trobar.
-    * @param dist La mètrica de distància a utilitzar. Si és null, s'usarà CosineDistance.
+     * @param dist La mètrica de distància a utilitzar (no nul·la).
      * @param seed La llavor per al generador de números aleatoris.
      * @param maxIter El nombre màxim d'iteracions a executar.
      * @param tol La tolerància per declarar convergència (canvi en la inèrcia).
      * @return Un objecte ClusterModel amb els centroides, etiquetes i inèrcia resultants.
      */
     @Override
-    public ClusterModel fit(double[][] X, int k, Distance dist, long seed, int maxIter, double tol) {
-        if (dist == null) dist = new CosineDistance();
+    public ClusterModel fit(FeatureMatrix X, double[] xNorm, int k, Distance dist, long seed, int maxIter, double tol) {
+        return super.fitWithCustomInit(X, xNorm, initialCentroids(X, xNorm, k, dist, seed), dist, maxIter, tol);
+    }
+
+    /**
+     * Tria els k centroides inicials amb la inicialització K++.
+     *
+     * @param X Matriu de dades.
+     * @param xNorm Normes de les files de X ({@code dist.norms(X)}).
+     * @param k El nombre de centroides.
+     * @param dist La mètrica de distància (no nul·la).
+     * @param seed La llavor per al generador de números aleatoris.
+     * @return k files de X.
+     */
+    public double[][] initialCentroids(FeatureMatrix X, double[] xNorm, int k, Distance dist, long seed) {
+        if (k <= 0) throw new IllegalArgumentException("k must be > 0");
         final Random rnd = new Random(seed);
-        final int n = X.length, d = X[0].length;
+        final int n = X.rows();
 
         //K++ initialization
-        double[][] C = new double[k][d];
+        double[][] C = new double[k][];
         int first = rnd.nextInt(n);
-        C[0] = Arrays.copyOf(X[first], d);
+        C[0] = X.row(first);
 
         double[] d2 = new double[n]; //squared distance to nearest centroid
         Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        double[] cNorm = new double[k];
+        cNorm[0] = xNorm[first];
+        double[] col = new double[n];
 
         for (int c = 1; c < k; c++) {
-            for (int i = 0; i < n; i++) {
-                double di = dist.between(X[i], C[0]);
-                for (int j = 1; j < c; j++) di = Math.min(di, dist.between(X[i], C[j]));
-                d2[i] = di*di;
-            }
-            double sum = 0;
-            for (double v : d2) sum += v;
-            double r = rnd.nextDouble()*sum, acc = 0;
-            int chosen = 0;
-            for (int i = 0; i < n; i++) {
-                acc += d2[i];
-                if (acc >= r) {
-                    chosen = i;
-                    break;
-                }
-            }
-            C[c] = Arrays.copyOf(X[chosen], d);
+            // només cal comparar amb l'últim centroide escollit: per als
+            // anteriors d2 ja guarda el mínim
+            dist.toAll(C[c - 1], cNorm[c - 1], X, xNorm, col);
+            for (int i = 0; i < n; i++) d2[i] = Math.min(d2[i], col[i]*col[i]);
+            int chosen = sampleD2(d2, rnd);
+            C[c] = X.row(chosen);
+            cNorm[c] = xNorm[chosen];
         }
-        return super.fitWithCustomInit(X, C, dist, seed, maxIter, tol);
+        return C;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,293 @@
+package kmeans;
+
+import distance.CosineDistance;
+import distance.Distance;
+import matrix.DenseFeatureMatrix;
+import matrix.FeatureMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * K-Medoids: cada clúster té com a centre una resposta real (el medoide) i
+ * es minimitza la suma de distàncies de cada punt al seu medoide. A
+ * diferència de la mitjana de K-Means, el medoide té sentit amb qualsevol
+ * {@link Distance} (p. ex. la del cosinus) i és un "enquestat prototip" de la
+ * tribu.
+ *
+ * <p>L'optimització és la de FasterPAM (Schubert i Rousseeuw): sobre una
+ * matriu de distàncies precalculada, per a cada candidat s'avaluen alhora
+ * els k intercanvis possibles en O(m) guardant per a cada punt la distància
+ * al medoide més proper i al segon, i s'aplica el millor intercanvi tan bon
+ * punt millora el cost. La solució inicial es tria com a K-Means++ sobre la
+ * mateixa matriu. Amb k = 1 el medoide és directament la fila de suma de
+ * distàncies mínima.</p>
+ *
+ * <p>La matriu ocupa m² {@code double}, així que amb més de
+ * {@code sampleSize} files (o {@code 40 + 2k}, si és més gran) es fa servir
+ * CLARA: s'ajusten {@code samples} mostres d'aquesta mida (en paral·lel al
+ * pool), s'avalua cada conjunt de medoides sobre totes les dades i es queda
+ * el de menys cost.</p>
+ *
+ * <p>La inèrcia del model és, com a K-Means, la suma de distàncies al
+ * quadrat de cada punt al seu centre, perquè els selectors de k i
+ * {@link MultiStartClustering} puguin comparar models de tots dos tipus.</p>
+ */
+public class KMedoids implements IClusteringAlgorithm {
+
+    /** Files de cada mostra de CLARA per defecte (matriu de 32 MB). */
+    public static final int DEFAULT_SAMPLE_SIZE = 2000;
+
+    /** Mostres de CLARA per defecte. */
+    public static final int DEFAULT_SAMPLES = 5;
+
+    private final int sampleSize;
+    private final int samples;
+    private final ExecutorService pool;
+
+    /**
+     * K-Medoids amb mostres de {@value #DEFAULT_SAMPLE_SIZE} files,
+     * {@value #DEFAULT_SAMPLES} mostres i el pool comú de la JVM.
+     */
+    public KMedoids() {
+        this(DEFAULT_SAMPLE_SIZE, DEFAULT_SAMPLES, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param sampleSize Màxim de files sobre les quals es calcula la matriu de distàncies (&gt;= 2).
+     * @param samples Mostres de CLARA quan hi ha més files que {@code sampleSize} (&gt;= 1).
+     * @param pool Pool on ajustar les mostres; {@code null} per fer-ho al fil actual.
+     */
+    public KMedoids(int sampleSize, int samples, ExecutorService pool) {
+        if (sampleSize < 2) throw new IllegalArgumentException("sampleSize must be >= 2");
+        if (samples < 1) throw new IllegalArgumentException("samples must be >= 1");
+        this.sampleSize = sampleSize;
+        this.samples = samples;
+        this.pool = pool;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    /**
+     * Executa K-Medoids sobre un conjunt de dades.
+     *
+     * @param X Matriu de dades a agrupar (n_mostres x n_features).
+     * @param k El nombre de clústers a trobar.
+     * @param dist La mètrica de distància a utilitzar. Si és null, s'usarà CosineDistance.
+     * @param seed La llavor per a la inicialització i el mostreig.
+     * @param maxIter El nombre màxim de passades d'intercanvis per mostra.
+     * @param tol Millora relativa mínima del cost en una passada per continuar.
+     * @return Un ClusterModel amb els medoides ({@link ClusterModel#getMedoids()}),
+     * les etiquetes i la inèrcia.
+     */
+    @Override
+    public ClusterModel fit(FeatureMatrix X, int k, Distance dist, long seed, int maxIter, double tol) {
+        Objects.requireNonNull(X);
+        if (dist == null) dist = new CosineDistance();
+        final int n = X.rows();
+        if (k <= 0 || k > n) throw new IllegalArgumentException("k must be in [1, " + n + "]");
+        final Distance d = dist;
+        final double[] xNorm = d.norms(X);
+        // com a CLARA, cada mostra té com a mínim 40 + 2k files
+        final int m = Math.max(sampleSize, 40 + 2 * k);
+        final int draws = n <= m ? 1 : samples;
+
+        final ClusterModel[] models = new ClusterModel[draws];
+        final double[] cost = new double[draws];
+        List<Callable<Void>> tasks = new ArrayList<>(draws);
+        for (int s = 0; s < draws; s++) {
+            final int draw = s;
+            tasks.add(() -> {
+                Random rnd = new Random(MultiStartClustering.seedFor(seed, draw));
+                int[] rows = n <= m ? identity(n) : sample(n, m, rnd);
+                int[] local = new int[k];
+                int passes = fasterPam(distanceMatrix(X, rows, d), k, rnd, maxIter, tol, local);
+                int[] medoids = new int[k];
+                for (int c = 0; c < k; c++) medoids[c] = rows[local[c]];
+                Arrays.sort(medoids);
+
+                double[][] C = new double[k][];
+                for (int c = 0; c < k; c++) C[c] = X.row(medoids[c]);
+                int[] labels = new int[n];
+                double[] nearest = new double[n];
+                double inertia = KMeans.assign(X, xNorm, C, KMeans.norms(C, d), d, labels, nearest);
+                double total = 0.0;
+                for (double v : nearest) total += v;
+                models[draw] = new ClusterModel(C, labels, inertia, passes, medoids);
+                cost[draw] = total;
+                return null;
+            });
+        }
+        Tasks.run(pool, tasks);
+
+        int best = 0;
+        for (int s = 1; s < draws; s++) {
+            if (cost[s] < cost[best]) best = s;
+        }
+        return models[best];
+    }
+
+    private static int[] identity(int n) {
+        int[] rows = new int[n];
+        for (int i = 0; i < n; i++) rows[i] = i;
+        return rows;
+    }
+
+    /** Fisher-Yates parcial: m índexs diferents de [0, n), ordenats. */
+    private static int[] sample(int n, int m, Random rnd) {
+        int[] idx = identity(n);
+        for (int t = 0; t < m; t++) {
+            int r = t + rnd.nextInt(n - t);
+            int tmp = idx[r];
+            idx[r] = idx[t];
+            idx[t] = tmp;
+        }
+        int[] rows = Arrays.copyOf(idx, m);
+        Arrays.sort(rows);
+        return rows;
+    }
+
+    private static double[][] distanceMatrix(FeatureMatrix X, int[] rows, Distance dist) {
+        final int m = rows.length;
+        DenseFeatureMatrix S = new DenseFeatureMatrix(m, X.cols());
+        double[] row = new double[X.cols()];
+        for (int t = 0; t < m; t++) {
+            X.copyRow(rows[t], row);
+            S.setRow(t, row);
+        }
+        double[][] D = new double[m][m];
+        dist.pairwise(S, 0, m, dist.norms(S), D);
+        return D;
+    }
+
+    /**
+     * FasterPAM sobre la matriu de distàncies {@code D}.
+     *
+     * @param D Distàncies entre els m punts.
+     * @param k Nombre de medoides.
+     * @param rnd Generador per a la inicialització.
+     * @param maxIter Màxim de passades sobre tots els candidats.
+     * @param tol Millora relativa mínima en una passada.
+     * @param med Sortida: índexs (dins de D) dels medoides.
+     * @return Nombre de passades fetes.
+     */
+    static int fasterPam(double[][] D, int k, Random rnd, int maxIter, double tol, int[] med) {
+        final int m = D.length;
+        if (k == 1) {
+            // sense segon medoide els intercanvis no es poden avaluar amb
+            // dn/ds: l'òptim és directament el punt de suma de distàncies mínima
+            double best = Double.POSITIVE_INFINITY;
+            for (int o = 0; o < m; o++) {
+                double sum = 0.0;
+                for (double v : D[o]) sum += v;
+                if (sum < best) {
+                    best = sum;
+                    med[0] = o;
+                }
+            }
+            return 1;
+        }
+        boolean[] isMedoid = new boolean[m];
+
+        // inicialització K-Means++ sobre D
+        double[] d2 = new double[m];
+        Arrays.fill(d2, Double.POSITIVE_INFINITY);
+        med[0] = rnd.nextInt(m);
+        isMedoid[med[0]] = true;
+        for (int c = 1; c < k; c++) {
+            double[] last = D[med[c - 1]];
+            for (int o = 0; o < m; o++) d2[o] = Math.min(d2[o], last[o] * last[o]);
+            int chosen = KMeans.sampleD2(d2, rnd);
+            if (isMedoid[chosen]) {
+                // tots els punts restants coincideixen amb un medoide
+                chosen = 0;
+                while (isMedoid[chosen]) chosen++;
+            }
+            med[c] = chosen;
+            isMedoid[chosen] = true;
+        }
+
+        int[] nearest = new int[m];
+        double[] dn = new double[m];
+        double[] ds = new double[m];
+        double[] loss = new double[k];
+        double cost = nearestTwo(D, med, nearest, dn, ds, loss);
+
+        double[] delta = new double[k];
+        int pass = 0;
+        while (pass < maxIter) {
+            pass++;
+            double before = cost;
+            for (int xc = 0; xc < m; xc++) {
+                if (isMedoid[xc]) continue;
+                System.arraycopy(loss, 0, delta, 0, k);
+                double acc = 0.0;
+                double[] dx = D[xc];
+                for (int o = 0; o < m; o++) {
+                    double doj = dx[o];
+                    if (doj < dn[o]) {
+                        acc += doj - dn[o];
+                        delta[nearest[o]] += dn[o] - ds[o];
+                    } else if (doj < ds[o]) {
+                        delta[nearest[o]] += doj - ds[o];
+                    }
+                }
+                int bi = 0;
+                for (int i = 1; i < k; i++) {
+                    if (delta[i] < delta[bi]) bi = i;
+                }
+                if (delta[bi] + acc < -1e-12 * Math.max(1.0, cost)) {
+                    isMedoid[med[bi]] = false;
+                    med[bi] = xc;
+                    isMedoid[xc] = true;
+                    cost = nearestTwo(D, med, nearest, dn, ds, loss);
+                }
+            }
+            if (before - cost <= tol * Math.max(1.0, before)) break;
+        }
+        return pass;
+    }
+
+    /**
+     * Medoide més proper, distància a ell i al segon més proper de cada punt,
+     * i el cost de treure cada medoide. Requereix almenys dos medoides.
+     *
+     * @return La suma de distàncies al medoide més proper.
+     */
+    private static double nearestTwo(double[][] D, int[] med, int[] nearest, double[] dn, double[] ds, double[] loss) {
+        Arrays.fill(loss, 0.0);
+        double cost = 0.0;
+        for (int o = 0; o < D.length; o++) {
+            double first = Double.POSITIVE_INFINITY, second = Double.POSITIVE_INFINITY;
+            int fi = 0;
+            for (int i = 0; i < med.length; i++) {
+                double v = D[med[i]][o];
+                if (v < first) {
+                    second = first;
+                    first = v;
+                    fi = i;
+                } else if (v < second) {
+                    second = v;
+                }
+            }
+            nearest[o] = fi;
+            dn[o] = first;
+            ds[o] = second;
+            loss[fi] += second - first;
+            cost += first;
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,129 @@
+package kmeans;
+
+import distance.Distance;
+import matrix.FeatureMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Executa un algorisme de clustering amb diverses inicialitzacions
+ * ({@code n_init}) i es queda el model amb menys inèrcia.
+ *
+ * <p>La primera inicialització fa servir la llavor rebuda tal qual (amb
+ * {@code restarts = 1} el resultat és el mateix que el de l'algorisme) i la
+ * resta en deriven de forma determinista. Les inicialitzacions s'executen en
+ * tandes de tantes com fils té el pool, però els models es recorren en ordre
+ * de llavor: tan aviat com dues inicialitzacions han arribat a la mateixa
+ * partició que la millor (amb les etiquetes permutades o no), es considera
+ * que ja s'ha trobat, es descarten els models posteriors de la tanda i no
+ * s'executen les restants. En cas d'empat en inèrcia guanya la
+ * inicialització de número més baix. Així el resultat és el mateix que en
+ * seqüència, sigui quina sigui la mida del pool i l'ordre en què acaben els
+ * fils.</p>
+ */
+public final class MultiStartClustering implements IClusteringAlgorithm {
+
+    /** Increment entre llavors consecutives (proporció àuria en 64 bits). */
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final IClusteringAlgorithm delegate;
+    private final int restarts;
+    private final ExecutorService pool;
+
+    /**
+     * @param delegate Algorisme que s'executa a cada inicialització.
+     * @param restarts Nombre màxim d'inicialitzacions ({@code >= 1}).
+     * @param pool Pool on s'executen ({@code null}: en seqüència al fil que crida).
+     */
+    public MultiStartClustering(IClusteringAlgorithm delegate, int restarts, ExecutorService pool) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate cannot be null");
+        }
+        if (restarts < 1) {
+            throw new IllegalArgumentException("restarts must be >= 1");
+        }
+        this.delegate = delegate;
+        this.restarts = restarts;
+        this.pool = pool;
+    }
+
+    public IClusteringAlgorithm getDelegate() {
+        return delegate;
+    }
+
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Llavor de la inicialització {@code r} (la 0 és la llavor original).
+     */
+    public static long seedFor(long seed, int r) {
+        return seed + r * SEED_STEP;
+    }
+
+    @Override
+    public ClusterModel fit(FeatureMatrix X, int k, Distance dist, long seed, int maxIter, double tol) {
+        int batch = Tasks.parallelism(pool);
+
+        ClusterModel best = null;
+        int agreeing = 0;
+        for (int r0 = 0; r0 < restarts; r0 += batch) {
+            int r1 = Math.min(restarts, r0 + batch);
+            ClusterModel[] models = new ClusterModel[r1 - r0];
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int r = r0; r < r1; r++) {
+                final int idx = r - r0;
+                final long s = seedFor(seed, r);
+                tasks.add(() -> {
+                    models[idx] = delegate.fit(X, k, dist, s, maxIter, tol);
+                    return null;
+                });
+            }
+            Tasks.run(pool, tasks);
+
+            for (ClusterModel m : models) {
+                if (agreeing >= 2) break;
+                if (best == null || m.getInertia() < best.getInertia()) {
+                    if (best != null && samePartition(best.getLabels(), m.getLabels(), k)) {
+                        agreeing++;
+                    } else {
+                        agreeing = 1;
+                    }
+                    best = m;
+                } else if (samePartition(best.getLabels(), m.getLabels(), k)) {
+                    agreeing++;
+                }
+            }
+            if (agreeing >= 2) break;
+        }
+        return best;
+    }
+
+    /**
+     * Indica si dues assignacions defineixen la mateixa partició, és a dir,
+     * si són iguals llevat d'una permutació de les etiquetes.
+     */
+    static boolean samePartition(int[] a, int[] b, int k) {
+        if (a.length != b.length) return false;
+        int kk = k;
+        for (int l : a) kk = Math.max(kk, l + 1);
+        for (int l : b) kk = Math.max(kk, l + 1);
+        int[] aToB = new int[kk], bToA = new int[kk];
+        Arrays.fill(aToB, -1);
+        Arrays.fill(bToA, -1);
+        for (int i = 0; i < a.length; i++) {
+            if (aToB[a[i]] == -1 && bToA[b[i]] == -1) {
+                aToB[a[i]] = b[i];
+                bToA[b[i]] = a[i];
+            } else if (aToB[a[i]] != b[i] || bToA[b[i]] != a[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,54 @@
+package kmeans;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Execució de tasques en un pool opcional, compartida pels algorismes del
+ * paquet que es poden paral·lelitzar.
+ */
+final class Tasks {
+
+    private Tasks() {
+    }
+
+    /** Fils que poden treballar alhora al pool (1 si és {@code null}). */
+    static int parallelism(ExecutorService pool) {
+        if (pool == null) return 1;
+        if (pool instanceof ForkJoinPool fj) return Math.max(1, fj.getParallelism());
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Executa les tasques al pool (o en ordre al fil actual si és
+     * {@code null}) i espera que acabin totes; les excepcions es propaguen.
+     */
+    static void run(ExecutorService pool, List<? extends Callable<?>> tasks) {
+        try {
+            if (pool == null) {
+                for (Callable<?> t : tasks) t.call();
+                return;
+            }
+            List<Callable<Object>> all = new ArrayList<>(tasks.size());
+            for (Callable<?> t : tasks) all.add(t::call);
+            for (Future<Object> f : pool.invokeAll(all)) f.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("clustering interrupted", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
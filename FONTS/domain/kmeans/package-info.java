@@ -4,6 +4,10 @@
  *
  * <p>Inclou el model {@link kmeans.ClusterModel}, la interfície
  * {@link kmeans.IClusteringAlgorithm} i les implementacions
- * {@link kmeans.KMeans} i {@link kmeans.KMeansPlusPlus}.</p>
+ * {@link kmeans.KMeans}, {@link kmeans.KMeansPlusPlus} i
+ * {@link kmeans.KMeansParallel} (K-Means||), a més de
+ * {@link kmeans.KMedoids}, que fa servir respostes reals com a centres.
+ * {@link kmeans.MultiStartClustering} executa qualsevol algorisme amb
+ * diverses inicialitzacions i es queda la millor.</p>
  */
 package kmeans;
@@ -2,20 +2,50 @@ package kselector;
 
 import kmeans.*;
 import distance.Distance;
-import java.util.*;
+import matrix.FeatureMatrix;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * Implementació del mètode del colze (Elbow Method) per seleccionar el nombre òptim de clústers.
  * Executa l'algorisme de clustering per a diferents valors de k i calcula la inèrcia per a cadascun.
  * El valor òptim de k es determina trobant el punt de màxima curvatura (el "colze") en la corba
  * d'inèrcia versus k, calculat com la màxima distància perpendicular a la recta que uneix els extrems.
+ *
+ * <p>Amb un pool de fils, els ajustos dels diferents k s'executen alhora i
+ * comparteixen la matriu i les normes de les files; opcionalment, cada k+1
+ * parteix de la solució de k (warm start). {@link #search} limita la cerca a
+ * un pressupost de temps. Vegeu {@link KRangeFitter}.</p>
  */
 public class ElbowMethod implements IKSelector {
 
+    private final KRangeFitter fitter;
+
     /**
-     * Crea un selector del mètode del colze sense dependències addicionals.
+     * Crea un selector del mètode del colze que ajusta els k en seqüència al
+     * fil que el crida.
      */
     public ElbowMethod() {
+        this(null, false);
+    }
+
+    /**
+     * Crea un selector que ajusta els k candidats concurrentment.
+     *
+     * @param pool Pool on s'executen els ajustos ({@code null}: al fil que crida).
+     * @param warmStart Si cada k+1 parteix de la solució de k (només amb {@link KMeans}).
+     */
+    public ElbowMethod(ExecutorService pool, boolean warmStart) {
+        this.fitter = new KRangeFitter(pool, warmStart);
+    }
+
+    /**
+     * Selector sobre el pool comú de la JVM, sense warm start.
+     *
+     * @return Un ElbowMethod concurrent.
+     */
+    public static ElbowMethod parallel() {
+        return new ElbowMethod(ForkJoinPool.commonPool(), false);
     }
 
     /**
@@ -32,19 +62,54 @@ public class ElbowMethod implements IKSelector {
      * @return El nombre k suggerit com a òptim.
      */
     @Override
-    public int suggestK(double[][] X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed) {
-        List<Double> inertia = new ArrayList<>();
-        for (int k = kMin; k <= kMax; k++) {
-            ClusterModel m = algo.fit(X, k, dist, seed, 200, 1e-4);
-            inertia.add(m.getInertia());
-        }
+    public int suggestK(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed) {
+        return search(X, kMin, kMax, algo, dist, seed, 0L).getBestK();
+    }
 
-        double x1 = kMin, y1 = inertia.get(0);
-        double x2 = kMax, y2 = inertia.get(inertia.size()-1);
+    /**
+     * Ajusta cada k del rang (dins del pressupost) i tria el colze de la
+     * corba d'inèrcia.
+     */
+    @Override
+    public KSearchResult search(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist,
+                                long seed, long budgetNanos) {
+        ClusterModel[] models = fitter.fitRange(X, kMin, kMax, algo, dist, seed, budgetNanos);
+        double[] inertia = new double[models.length];
+        for (int idx = 0; idx < models.length; idx++) inertia[idx] = models[idx].getInertia();
+        return new KSearchResult(kMin, models, elbow(inertia, kMin));
+    }
+
+    /**
+     * Ajusta l'algorisme per a cada k de {@code [kMin, kMax]}.
+     *
+     * @param X Matriu de dades.
+     * @param kMin El nombre mínim de clústers.
+     * @param kMax El nombre màxim de clústers.
+     * @param algo L'algoritme de clustering.
+     * @param dist La mètrica de distància.
+     * @param seed La seed aleatòria (la mateixa per a tots els k).
+     * @return Els models, on la posició {@code k - kMin} és el de k clústers.
+     */
+    public ClusterModel[] fitRange(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo,
+                                   Distance dist, long seed) {
+        return fitter.fitRange(X, kMin, kMax, algo, dist, seed, 0L);
+    }
+
+    /**
+     * Punt de la corba d'inèrcia més allunyat de la recta que uneix els extrems.
+     *
+     * @param inertia Inèrcia per a cada k, des de {@code kMin}.
+     * @param kMin El k del primer valor.
+     * @return El k del colze.
+     */
+    static int elbow(double[] inertia, int kMin) {
+        int kMax = kMin + inertia.length - 1;
+        double x1 = kMin, y1 = inertia[0];
+        double x2 = kMax, y2 = inertia[inertia.length-1];
         double bestD = -1;
         int bestK = kMin;
-        for (int idx = 0; idx < inertia.size(); idx++) {
-            double x0 = kMin + idx, y0 = inertia.get(idx);
+        for (int idx = 0; idx < inertia.length; idx++) {
+            double x0 = kMin + idx, y0 = inertia[idx];
             double d = Math.abs((y2 - y1)*x0 - (x2 - x1)*y0 + x2*y1 - y2*x1)/
                        Math.hypot(y2 - y1, x2 - x1);
             if (d > bestD) {
@@ -0,0 +1,186 @@
+package kselector;
+
+import distance.Distance;
+import kmeans.ClusterModel;
+import kmeans.IClusteringAlgorithm;
+import matrix.DenseFeatureMatrix;
+import matrix.FeatureMatrix;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Selecció de k amb la gap statistic (Tibshirani, Walther i Hastie, 2001).
+ *
+ * <p>Per a cada k compara log(W<sub>k</sub>), on W<sub>k</sub> és la inèrcia
+ * de les dades, amb el valor esperat sobre conjunts de referència uniformes
+ * dins de la caixa que envolta les dades:
+ * {@code Gap(k) = mitjana_b log(W*_kb) - log(W_k)}. Tria el k més petit amb
+ * {@code Gap(k) >= Gap(k+1) - s(k+1)}, on {@code s} és la desviació estàndard
+ * de les referències per {@code sqrt(1 + 1/B)}.</p>
+ *
+ * <p>Per no multiplicar el cost per {@code B}, cada referència té com a molt
+ * {@code referenceSize} files i la seva inèrcia s'escala per {@code n/m} (la
+ * inèrcia creix linealment amb el nombre de punts). Les referències
+ * s'ajusten una rere l'altra i, dins de cadascuna, els k en paral·lel al pool
+ * ({@link KRangeFitter}); el pressupost de temps val per a tota la cerca.</p>
+ *
+ * <p>La caixa uniforme només té sentit si les columnes són coordenades. Amb
+ * codificacions on una columna és un codi d'opció o una paraula de bits (la
+ * de Gower), un valor intermedi no és cap resposta; en aquest cas cada
+ * referència es construeix permutant cada columna de les dades per separat,
+ * que conserva els valors de cada columna i trenca la relació entre elles.</p>
+ */
+public class GapStatistic implements IKSelector {
+
+    /** Conjunts de referència per defecte. */
+    public static final int DEFAULT_REFERENCES = 5;
+    /** Files per conjunt de referència per defecte. */
+    public static final int DEFAULT_REFERENCE_SIZE = 2000;
+
+    private final KRangeFitter fitter;
+    private final int references;
+    private final int referenceSize;
+    private final boolean permuteColumns;
+
+    /**
+     * Selector seqüencial amb els paràmetres per defecte.
+     */
+    public GapStatistic() {
+        this(null, DEFAULT_REFERENCES, DEFAULT_REFERENCE_SIZE);
+    }
+
+    /**
+     * @param pool Pool on s'executen els ajustos ({@code null}: al fil que crida).
+     * @param references Nombre de conjunts de referència (B).
+     * @param referenceSize Files màximes de cada conjunt de referència.
+     */
+    public GapStatistic(ExecutorService pool, int references, int referenceSize) {
+        this(pool, references, referenceSize, false);
+    }
+
+    /**
+     * @param pool Pool on s'executen els ajustos ({@code null}: al fil que crida).
+     * @param references Nombre de conjunts de referència (B).
+     * @param referenceSize Files màximes de cada conjunt de referència.
+     * @param permuteColumns Si és cert, les referències permuten les columnes
+     * de les dades en lloc de mostrejar la caixa uniforme.
+     */
+    public GapStatistic(ExecutorService pool, int references, int referenceSize, boolean permuteColumns) {
+        if (references <= 0 || referenceSize <= 0) {
+            throw new IllegalArgumentException("references and referenceSize must be > 0");
+        }
+        this.fitter = new KRangeFitter(pool, false);
+        this.references = references;
+        this.referenceSize = referenceSize;
+        this.permuteColumns = permuteColumns;
+    }
+
+    @Override
+    public int suggestK(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed) {
+        return search(X, kMin, kMax, algo, dist, seed, 0L).getBestK();
+    }
+
+    @Override
+    public KSearchResult search(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist,
+                                long seed, long budgetNanos) {
+        long started = System.nanoTime();
+        ClusterModel[] models = fitter.fitRange(X, kMin, kMax, algo, dist, seed, budgetNanos);
+        int count = models.length;
+        int n = X.rows(), d = X.cols();
+        int m = Math.min(n, referenceSize);
+
+        double[] lo = new double[d], hi = new double[d];
+        if (!permuteColumns) {
+            Arrays.fill(lo, Double.POSITIVE_INFINITY);
+            Arrays.fill(hi, Double.NEGATIVE_INFINITY);
+            double[] row = new double[d];
+            for (int i = 0; i < n; i++) {
+                X.copyRow(i, row);
+                for (int j = 0; j < d; j++) {
+                    if (row[j] < lo[j]) lo[j] = row[j];
+                    if (row[j] > hi[j]) hi[j] = row[j];
+                }
+            }
+        }
+
+        double[][] logRef = new double[references][];
+        for (int b = 0; b < references; b++) {
+            FeatureMatrix ref = permuteColumns
+                    ? permutedReference(X, m, seed + 1 + b)
+                    : uniformReference(lo, hi, m, seed + 1 + b);
+            long left = budgetNanos <= 0 ? 0L : Math.max(1L, budgetNanos - (System.nanoTime() - started));
+            ClusterModel[] refModels = fitter.fitRange(ref, kMin, kMin + count - 1, algo, dist, seed, left);
+            count = Math.min(count, refModels.length);
+            logRef[b] = new double[refModels.length];
+            for (int idx = 0; idx < refModels.length; idx++) {
+                logRef[b][idx] = log(refModels[idx].getInertia() * n / m);
+            }
+        }
+
+        double[] gap = new double[count], s = new double[count];
+        for (int idx = 0; idx < count; idx++) {
+            double mean = 0.0;
+            for (double[] l : logRef) mean += l[idx];
+            mean /= references;
+            double var = 0.0;
+            for (double[] l : logRef) var += (l[idx] - mean) * (l[idx] - mean);
+            s[idx] = Math.sqrt(var / references) * Math.sqrt(1.0 + 1.0 / references);
+            gap[idx] = mean - log(models[idx].getInertia());
+        }
+        return new KSearchResult(kMin, Arrays.copyOf(models, count), kMin + choose(gap, s));
+    }
+
+    /**
+     * Primer índex amb {@code gap[i] >= gap[i+1] - s[i+1]}; si no n'hi ha
+     * cap, el de gap màxim.
+     */
+    static int choose(double[] gap, double[] s) {
+        for (int idx = 0; idx + 1 < gap.length; idx++) {
+            if (gap[idx] >= gap[idx + 1] - s[idx + 1]) return idx;
+        }
+        int best = 0;
+        for (int idx = 1; idx < gap.length; idx++) {
+            if (gap[idx] > gap[best]) best = idx;
+        }
+        return best;
+    }
+
+    private static double log(double inertia) {
+        return Math.log(Math.max(inertia, Double.MIN_NORMAL));
+    }
+
+    /** Matriu {@code m x d} uniforme dins de la caixa {@code [lo, hi]}. */
+    private static FeatureMatrix uniformReference(double[] lo, double[] hi, int m, long seed) {
+        Random rnd = new Random(seed);
+        DenseFeatureMatrix ref = new DenseFeatureMatrix(m, lo.length);
+        for (int i = 0; i < m; i++) {
+            for (int j = 0; j < lo.length; j++) ref.set(i, j, lo[j] + rnd.nextDouble() * (hi[j] - lo[j]));
+        }
+        return ref;
+    }
+
+    /**
+     * Matriu {@code m x d} on cada columna és una mostra sense repetició de
+     * la mateixa columna de {@code X}, triada independentment per a cada
+     * columna.
+     */
+    private static FeatureMatrix permutedReference(FeatureMatrix X, int m, long seed) {
+        Random rnd = new Random(seed);
+        int n = X.rows(), d = X.cols();
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) order[i] = i;
+        DenseFeatureMatrix ref = new DenseFeatureMatrix(m, d);
+        for (int j = 0; j < d; j++) {
+            for (int i = 0; i < m; i++) {
+                int r = i + rnd.nextInt(n - i);
+                int t = order[i];
+                order[i] = order[r];
+                order[r] = t;
+                ref.set(i, j, X.get(order[i], j));
+            }
+        }
+        return ref;
+    }
+}
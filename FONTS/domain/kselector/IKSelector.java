@@ -1,7 +1,9 @@
 package kselector;
 
+import kmeans.ClusterModel;
 import kmeans.IClusteringAlgorithm;
 import distance.Distance;
+import matrix.FeatureMatrix;
 
 /**
  * Interfície per a una estratègia de selecció del nombre òptim de clústers (k).
@@ -19,5 +21,39 @@ public interface IKSelector {
      * @param seed  La seed aleatòria per a consistència.
      * @return El nombre k suggerit com a òptim.
      */
-    int suggestK(double[][] data, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed);
-}
\ No newline at end of file
+    default int suggestK(double[][] data, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed) {
+        return suggestK(FeatureMatrix.of(data), kMin, kMax, algo, dist, seed);
+    }
+
+    /**
+     * Com {@link #suggestK(double[][], int, int, IClusteringAlgorithm, Distance, long)}
+     * sobre una matriu de característiques. És l'entrada que implementen els
+     * selectors; la de {@code double[][]} hi delega.
+     */
+    int suggestK(FeatureMatrix data, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed);
+
+    /**
+     * Com {@link #suggestK(FeatureMatrix, int, int, IClusteringAlgorithm, Distance, long)},
+     * però retorna també els models ajustats (perquè no calgui tornar a
+     * ajustar el k escollit) i limita el temps de la cerca.
+     *
+     * <p>Per defecte no hi ha límit de temps i el resultat només conté el
+     * model del k suggerit; les implementacions que ja ajusten cada k el
+     * sobreescriuen.</p>
+     *
+     * @param data        La matriu de dades.
+     * @param kMin        El nombre mínim de clústers (sempre s'ajusta).
+     * @param kMax        El nombre màxim de clústers.
+     * @param algo        L'algoritme de clustering.
+     * @param dist        La mètrica de distància.
+     * @param seed        La seed aleatòria.
+     * @param budgetNanos Temps màxim per començar ajustos nous ({@code <= 0}: sense límit).
+     * @return Els models ajustats i el k escollit.
+     */
+    default KSearchResult search(FeatureMatrix data, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist,
+                                 long seed, long budgetNanos) {
+        int k = suggestK(data, kMin, kMax, algo, dist, seed);
+        ClusterModel model = algo.fit(data, k, dist, seed, 200, 1e-4);
+        return new KSearchResult(k, new ClusterModel[]{model}, k);
+    }
+}
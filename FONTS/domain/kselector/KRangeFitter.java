@@ -0,0 +1,140 @@
+package kselector;
+
+import distance.CosineDistance;
+import distance.Distance;
+import kmeans.ClusterModel;
+import kmeans.IClusteringAlgorithm;
+import kmeans.KMeans;
+import matrix.FeatureMatrix;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Ajusta un algorisme per a cada k d'un rang, en comú per a tots els
+ * selectors de k.
+ *
+ * <p>Amb un pool de fils, els ajustos dels diferents k s'executen alhora
+ * (començant pels k més grans, que són els més lents) i tots comparteixen la
+ * mateixa matriu i, si l'algorisme és un {@link KMeans}, les normes de les
+ * files calculades un sol cop. Opcionalment, cada k+1 parteix de la solució
+ * de k més un centroide triat com a K-Means++ ({@link KMeans#fitWarmStart});
+ * aleshores el rang es reparteix en tants trams consecutius com fils té el
+ * pool i cada tram s'ajusta en cadena.</p>
+ *
+ * <p>Amb pressupost de temps, un cop esgotat no es comença cap ajust nou
+ * (els que ja s'executen acaben) i el rang es talla al primer k que no s'ha
+ * pogut ajustar; kMin s'ajusta sempre.</p>
+ */
+final class KRangeFitter {
+
+    private final ExecutorService pool;
+    private final boolean warmStart;
+
+    /**
+     * @param pool Pool on s'executen els ajustos ({@code null}: al fil que crida).
+     * @param warmStart Si cada k+1 parteix de la solució de k (només amb {@link KMeans}).
+     */
+    KRangeFitter(ExecutorService pool, boolean warmStart) {
+        this.pool = pool;
+        this.warmStart = warmStart;
+    }
+
+    /**
+     * Ajusta l'algorisme per a cada k de {@code [kMin, kMax]}.
+     *
+     * @param budgetNanos Temps màxim per començar ajustos nous ({@code <= 0}: sense límit).
+     * @return Els models, on la posició {@code k - kMin} és el de k clústers;
+     *         amb pressupost pot ser més curt que el rang.
+     */
+    ClusterModel[] fitRange(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo,
+                            Distance dist, long seed, long budgetNanos) {
+        if (kMin > kMax) throw new IllegalArgumentException("kMin must be <= kMax");
+        int count = kMax - kMin + 1;
+        ClusterModel[] models = new ClusterModel[count];
+        final long started = System.nanoTime();
+        final boolean bounded = budgetNanos > 0;
+
+        // amb KMeans les normes es calculen un sol cop per a tots els k
+        final KMeans kmeans = algo instanceof KMeans ? (KMeans) algo : null;
+        final Distance d = kmeans != null && dist == null ? new CosineDistance() : dist;
+        final double[] xNorm = kmeans != null ? d.norms(X) : null;
+
+        List<Callable<Void>> tasks = new ArrayList<>();
+        if (warmStart && kmeans != null) {
+            int chains = Math.min(count, parallelism());
+            for (int c = chains - 1; c >= 0; c--) {
+                final int from = c * count / chains, to = (c + 1) * count / chains;
+                tasks.add(() -> {
+                    if (from > 0 && bounded && System.nanoTime() - started > budgetNanos) return null;
+                    ClusterModel m = kmeans.fit(X, xNorm, kMin + from, d, seed, 200, 1e-4);
+                    models[from] = m;
+                    for (int idx = from + 1; idx < to; idx++) {
+                        if (bounded && System.nanoTime() - started > budgetNanos) break;
+                        m = kmeans.fitWarmStart(X, xNorm, m, d, seed + idx, 200, 1e-4);
+                        models[idx] = m;
+                    }
+                    return null;
+                });
+            }
+        } else {
+            // amb pool i sense límit de temps, els k grans primer: són els més
+            // lents; amb límit, els petits primer perquè la corba quedi sencera
+            for (int i = 0; i < count; i++) {
+                final int idx = pool != null && !bounded ? count - 1 - i : i;
+                tasks.add(() -> {
+                    if (idx > 0 && bounded && System.nanoTime() - started > budgetNanos) return null;
+                    models[idx] = kmeans != null
+                            ? kmeans.fit(X, xNorm, kMin + idx, d, seed, 200, 1e-4)
+                            : algo.fit(X, kMin + idx, d, seed, 200, 1e-4);
+                    return null;
+                });
+            }
+        }
+        run(tasks);
+        int done = 0;
+        while (done < count && models[done] != null) done++;
+        return done == count ? models : Arrays.copyOf(models, done);
+    }
+
+    /** Fils que poden treballar alhora. */
+    int parallelism() {
+        if (pool == null) return 1;
+        if (pool instanceof ForkJoinPool) return ((ForkJoinPool) pool).getParallelism();
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Executa les tasques al pool (o en ordre al fil actual) i espera que
+     * acabin totes; les excepcions de les tasques es propaguen.
+     */
+    void run(List<? extends Callable<?>> tasks) {
+        try {
+            if (pool == null) {
+                for (Callable<?> t : tasks) t.call();
+                return;
+            }
+            List<Callable<Object>> all = new ArrayList<>();
+            for (Callable<?> t : tasks) all.add(t::call);
+            for (Future<Object> f : pool.invokeAll(all)) f.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException(cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("k search interrupted", e);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
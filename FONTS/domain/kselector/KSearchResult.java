@@ -0,0 +1,69 @@
+package kselector;
+
+import kmeans.ClusterModel;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resultat d'una cerca de k: els models ajustats per a cada k provat (des de
+ * {@code kMin}, consecutius) i el k escollit. El model escollit és un dels
+ * ajustats, de manera que no cal tornar-lo a calcular.
+ */
+public final class KSearchResult {
+
+    private final int kMin;
+    private final ClusterModel[] models;
+    private final int bestK;
+
+    /**
+     * @param kMin   El k del primer model.
+     * @param models Models per a k = kMin, kMin+1, ...
+     * @param bestK  El k escollit (dins del rang provat).
+     */
+    public KSearchResult(int kMin, ClusterModel[] models, int bestK) {
+        if (bestK < kMin || bestK >= kMin + models.length) {
+            throw new IllegalArgumentException("bestK outside the searched range");
+        }
+        this.kMin = kMin;
+        this.models = models;
+        this.bestK = bestK;
+    }
+
+    /** El k escollit. */
+    public int getBestK() {
+        return bestK;
+    }
+
+    /** El model ajustat amb el k escollit. */
+    public ClusterModel getBestModel() {
+        return models[bestK - kMin];
+    }
+
+    /** El primer k provat. */
+    public int getKMin() {
+        return kMin;
+    }
+
+    /** L'últim k provat (pot ser menor que el demanat si s'ha esgotat el temps). */
+    public int getKMax() {
+        return kMin + models.length - 1;
+    }
+
+    /** Models ajustats; la posició {@code k - kMin} és el de k clústers. */
+    public ClusterModel[] getModels() {
+        return models;
+    }
+
+    /**
+     * Corba d'inèrcia de la cerca.
+     *
+     * @return Mapa ordenat k -> inèrcia.
+     */
+    public Map<Integer, Double> inertiaCurve() {
+        Map<Integer, Double> curve = new LinkedHashMap<>();
+        for (int idx = 0; idx < models.length; idx++) curve.put(kMin + idx, models[idx].getInertia());
+        return Collections.unmodifiableMap(curve);
+    }
+}
@@ -0,0 +1,84 @@
+package kselector;
+
+import distance.Distance;
+import kmeans.ClusterModel;
+import kmeans.IClusteringAlgorithm;
+import matrix.FeatureMatrix;
+import validation.Silhouette;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Selecció de k pel coeficient de Silhouette: tria el k amb la silueta mitjana
+ * més alta.
+ *
+ * <p>La silueta exacta costa O(n²) per cada k; aquí s'estima amb
+ * {@link Silhouette#averageSampled} sobre una mostra de {@code sampleSize}
+ * punts (la mateixa per a tots els k), de manera que cada k costa
+ * O(sampleSize²) a més de l'ajust. Els ajustos i les puntuacions s'executen
+ * al pool (vegeu {@link KRangeFitter}).</p>
+ */
+public class SilhouetteMethod implements IKSelector {
+
+    /** Mida de la mostra per defecte. */
+    public static final int DEFAULT_SAMPLE_SIZE = 1000;
+
+    private final KRangeFitter fitter;
+    private final int sampleSize;
+    private final Silhouette silhouette = new Silhouette();
+
+    /**
+     * Selector seqüencial amb la mostra per defecte.
+     */
+    public SilhouetteMethod() {
+        this(null, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param pool Pool on s'executen els ajustos i les puntuacions ({@code null}: al fil que crida).
+     * @param sampleSize Punts de la mostra per estimar la silueta.
+     */
+    public SilhouetteMethod(ExecutorService pool, int sampleSize) {
+        if (sampleSize <= 0) throw new IllegalArgumentException("sampleSize must be > 0");
+        this.fitter = new KRangeFitter(pool, false);
+        this.sampleSize = sampleSize;
+    }
+
+    @Override
+    public int suggestK(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist, long seed) {
+        return search(X, kMin, kMax, algo, dist, seed, 0L).getBestK();
+    }
+
+    /**
+     * Ajusta cada k del rang (com a mínim 2: amb un sol clúster la silueta no
+     * està definida) i tria el de silueta mitjana més alta.
+     */
+    @Override
+    public KSearchResult search(FeatureMatrix X, int kMin, int kMax, IClusteringAlgorithm algo, Distance dist,
+                                long seed, long budgetNanos) {
+        int from = Math.max(2, kMin);
+        if (from > kMax) {
+            return new KSearchResult(kMin, fitter.fitRange(X, kMin, kMax, algo, dist, seed, budgetNanos), kMin);
+        }
+        ClusterModel[] models = fitter.fitRange(X, from, kMax, algo, dist, seed, budgetNanos);
+        double[] score = new double[models.length];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int i = 0; i < models.length; i++) {
+            final int idx = i;
+            tasks.add(() -> {
+                score[idx] = silhouette.averageSampled(X, models[idx], dist, sampleSize, seed);
+                return null;
+            });
+        }
+        fitter.run(tasks);
+
+        int best = 0;
+        for (int idx = 1; idx < score.length; idx++) {
+            if (score[idx] > score[best] || Double.isNaN(score[best])) best = idx;
+        }
+        return new KSearchResult(from, models, from + best);
+    }
+}
@@ -5,5 +5,11 @@
  * <p>La interfície {@link kselector.IKSelector} i l'implementació
  * {@link kselector.ElbowMethod} encapsulen càlculs per escollir k abans
  * d'executar K-Means.</p>
+ *
+ * <p>{@link kselector.ElbowMethod} pot ajustar els k candidats en paral·lel
+ * sobre un pool compartit i, opcionalment, encadenar-los amb warm start.
+ * {@link kselector.SilhouetteMethod} i {@link kselector.GapStatistic} són
+ * criteris alternatius; {@code AlgorithmConfiguration.buildKSelector} tria
+ * el que fa servir l'anàlisi ({@code -Dtribus.k.selector}).</p>
  */
 package kselector;
@@ -0,0 +1,217 @@
+package logging;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Escriptor de log asíncron: els fils que registren només encuen l'esdeveniment
+ * en un {@link RingBuffer} acotat i un fil dimoni el formata i l'escriu.
+ *
+ * <p>Registrar mai bloqueja: si la cua és plena l'esdeveniment es descarta i
+ * es compta, i l'escriptor n'informa amb una línia {@code WARN} quan torna a
+ * tenir espai. La sortida és una línia per esdeveniment en format
+ * {@code clau=valor} (logfmt):</p>
+ *
+ * <pre>ts=2024-05-01T10:00:00.123Z level=INFO logger=app.DomainServer thread=main msg="servidor escoltant" port=5000</pre>
+ */
+public final class AsyncLogWriter implements AutoCloseable {
+
+    /** Capacitat per defecte de la cua (esdeveniments). */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final RingBuffer<LogEvent> ring;
+    private final Writer out;
+    private final Thread consumer;
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final StringBuilder line = new StringBuilder(256);
+
+    private volatile Level level;
+    private volatile boolean running = true;
+    /** Esdeveniments escrits i buidats a {@link #out}; només l'actualitza el consumidor. */
+    private volatile long flushed;
+    private long reportedDropped;
+
+    /**
+     * @param out      destinació (s'hi escriu només des del fil consumidor).
+     * @param level    nivell mínim que s'encua.
+     * @param capacity mida de la cua; s'arrodoneix a potència de dos.
+     */
+    public AsyncLogWriter(Writer out, Level level, int capacity) {
+        this.out = out;
+        this.level = level;
+        this.ring = new RingBuffer<>(capacity);
+        this.consumer = new Thread(this::drainLoop, "log-writer");
+        this.consumer.setDaemon(true);
+        this.consumer.start();
+    }
+
+    /** Logger amb nom associat a aquest escriptor. */
+    public Logger logger(String name) {
+        return new Logger(name, this);
+    }
+
+    public Level getLevel() {
+        return level;
+    }
+
+    public void setLevel(Level level) {
+        this.level = level;
+    }
+
+    boolean isEnabled(Level l) {
+        return l != Level.OFF && l.ordinal() >= level.ordinal();
+    }
+
+    /** Esdeveniments descartats per cua plena des de la creació. */
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    void publish(LogEvent event) {
+        if (!running || !ring.offer(event)) {
+            dropped.incrementAndGet();
+            return;
+        }
+        published.incrementAndGet();
+    }
+
+    /**
+     * Espera (com a molt {@code timeoutMillis}) que tot el que s'ha encuat fins
+     * ara estigui escrit a la destinació.
+     *
+     * @return {@code true} si s'ha buidat a temps.
+     */
+    public boolean flush(long timeoutMillis) {
+        long target = published.get();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (flushed < target) {
+            if (!consumer.isAlive() || System.nanoTime() > deadline) return false;
+            LockSupport.unpark(consumer);
+            LockSupport.parkNanos(100_000L);
+        }
+        return true;
+    }
+
+    /** Buida la cua, atura el fil escriptor i tanca la destinació. */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drainLoop() {
+        long written = 0;
+        while (true) {
+            LogEvent event = ring.poll();
+            if (event != null) {
+                write(event);
+                written++;
+                continue;
+            }
+            reportDropped();
+            flushOut();
+            flushed = written;
+            if (!running) break;
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        try {
+            out.close();
+        } catch (IOException ignored) {
+            // la destinació ja no és usable; no hi ha on informar-ne
+        }
+    }
+
+    private void reportDropped() {
+        long d = dropped.get();
+        if (d != reportedDropped) {
+            write(new LogEvent(Level.WARN, AsyncLogWriter.class.getName(), "cua de log plena, esdeveniments descartats",
+                    new Object[]{"dropped", d - reportedDropped}, null));
+            reportedDropped = d;
+        }
+    }
+
+    private void flushOut() {
+        try {
+            out.flush();
+        } catch (IOException ignored) {
+            // ídem
+        }
+    }
+
+    private void write(LogEvent e) {
+        StringBuilder sb = line;
+        sb.setLength(0);
+        sb.append("ts=");
+        DateTimeFormatter.ISO_INSTANT.formatTo(Instant.ofEpochMilli(e.timestampMillis), sb);
+        sb.append(" level=").append(e.level.name());
+        sb.append(" logger=").append(e.logger);
+        sb.append(" thread=");
+        appendValue(sb, e.thread);
+        sb.append(" msg=");
+        appendValue(sb, e.message);
+        Object[] f = e.fields;
+        if (f != null) {
+            for (int i = 0; i + 1 < f.length; i += 2) {
+                sb.append(' ').append(f[i]).append('=');
+                appendValue(sb, f[i + 1]);
+            }
+        }
+        if (e.error != null) {
+            sb.append(" error=");
+            appendValue(sb, e.error.toString());
+        }
+        sb.append('\n');
+        if (e.error != null && e.level.ordinal() >= Level.ERROR.ordinal()) {
+            StringWriter trace = new StringWriter();
+            e.error.printStackTrace(new PrintWriter(trace));
+            sb.append(trace);
+        }
+        try {
+            out.append(sb);
+        } catch (IOException ignored) {
+            // ídem
+        }
+    }
+
+    /** Escriu el valor tal qual si és un sol mot; si no, entre cometes i escapat. */
+    private static void appendValue(StringBuilder sb, Object value) {
+        String s = String.valueOf(value);
+        boolean plain = !s.isEmpty();
+        for (int i = 0; i < s.length() && plain; i++) {
+            char c = s.charAt(i);
+            plain = c > ' ' && c != '"' && c != '=' && c != '\\';
+        }
+        if (plain) {
+            sb.append(s);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default: sb.append(c);
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,23 @@
+package logging;
+
+/**
+ * Nivells de log, de menys a més greu.
+ */
+public enum Level {
+    TRACE, DEBUG, INFO, WARN, ERROR, OFF;
+
+    /**
+     * Interpreta un nom de nivell (sense distingir majúscules).
+     *
+     * @param name     nom del nivell (p.ex. {@code "debug"}).
+     * @param fallback nivell si el nom és nul o desconegut.
+     */
+    public static Level parse(String name, Level fallback) {
+        if (name == null || name.isBlank()) return fallback;
+        try {
+            return Level.valueOf(name.trim().toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return fallback;
+        }
+    }
+}
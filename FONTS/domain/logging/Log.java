@@ -0,0 +1,69 @@
+package logging;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Punt d'accés al log del backend.
+ *
+ * <p>L'escriptor global es crea en el primer ús a partir de les propietats de
+ * sistema {@value #LEVEL_PROPERTY} ({@code INFO} per defecte),
+ * {@value #FILE_PROPERTY} (fitxer on afegir les línies; si no s'indica,
+ * {@code stderr}) i {@value #BUFFER_PROPERTY} (capacitat de la cua). Mai
+ * s'escriu a {@code stdout}, que és el canal del protocol.</p>
+ */
+public final class Log {
+
+    /** Propietat amb el nivell mínim ({@code TRACE..ERROR}, {@code OFF}). */
+    public static final String LEVEL_PROPERTY = "tribus.log.level";
+    /** Propietat amb el fitxer de log. */
+    public static final String FILE_PROPERTY = "tribus.log.file";
+    /** Propietat amb la capacitat de la cua d'esdeveniments. */
+    public static final String BUFFER_PROPERTY = "tribus.log.buffer";
+
+    private Log() {
+    }
+
+    private static final class Holder {
+        static final AsyncLogWriter WRITER = createFromSystemProperties();
+    }
+
+    /** Logger amb el nom complet de la classe. */
+    public static Logger get(Class<?> type) {
+        return Holder.WRITER.logger(type.getName());
+    }
+
+    /** Escriptor global (per canviar-ne el nivell o buidar-lo). */
+    public static AsyncLogWriter writer() {
+        return Holder.WRITER;
+    }
+
+    private static AsyncLogWriter createFromSystemProperties() {
+        Level level = Level.parse(System.getProperty(LEVEL_PROPERTY), Level.INFO);
+        int capacity = Math.max(16, Integer.getInteger(BUFFER_PROPERTY, AsyncLogWriter.DEFAULT_CAPACITY));
+        AsyncLogWriter writer = new AsyncLogWriter(openTarget(System.getProperty(FILE_PROPERTY)), level, capacity);
+        Runtime.getRuntime().addShutdownHook(new Thread(writer::close, "log-shutdown"));
+        return writer;
+    }
+
+    private static Writer openTarget(String file) {
+        if (file != null && !file.isBlank()) {
+            try {
+                Path path = Path.of(file);
+                Path parent = path.toAbsolutePath().getParent();
+                if (parent != null) Files.createDirectories(parent);
+                return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("No s'ha pogut obrir el fitxer de log " + file + ": " + e.getMessage());
+            }
+        }
+        return new BufferedWriter(new OutputStreamWriter(System.err, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,25 @@
+package logging;
+
+/**
+ * Esdeveniment de log tal com el captura el fil que el genera. El format de
+ * text es fa al fil escriptor, fora del camí de l'ordre.
+ */
+final class LogEvent {
+    final long timestampMillis;
+    final Level level;
+    final String logger;
+    final String thread;
+    final String message;
+    final Object[] fields;
+    final Throwable error;
+
+    LogEvent(Level level, String logger, String message, Object[] fields, Throwable error) {
+        this.timestampMillis = System.currentTimeMillis();
+        this.level = level;
+        this.logger = logger;
+        this.thread = Thread.currentThread().getName();
+        this.message = message;
+        this.fields = fields;
+        this.error = error;
+    }
+}
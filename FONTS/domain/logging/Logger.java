@@ -0,0 +1,67 @@
+package logging;
+
+/**
+ * Logger amb nom. Els missatges porten camps estructurats com a parells
+ * clau/valor alternats:
+ *
+ * <pre>log.warn("login fallit", "user", username, "motiu", "credencials");</pre>
+ *
+ * <p>Si el nivell no està actiu la crida no fa res més que comparar el nivell;
+ * si ho està, només s'encua l'esdeveniment (vegeu {@link AsyncLogWriter}).</p>
+ */
+public final class Logger {
+
+    private final String name;
+    private final AsyncLogWriter writer;
+
+    Logger(String name, AsyncLogWriter writer) {
+        this.name = name;
+        this.writer = writer;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public boolean isEnabled(Level level) {
+        return writer.isEnabled(level);
+    }
+
+    public void trace(String msg, Object... fields) {
+        log(Level.TRACE, msg, null, fields);
+    }
+
+    public void debug(String msg, Object... fields) {
+        log(Level.DEBUG, msg, null, fields);
+    }
+
+    public void debug(String msg, Throwable error, Object... fields) {
+        log(Level.DEBUG, msg, error, fields);
+    }
+
+    public void info(String msg, Object... fields) {
+        log(Level.INFO, msg, null, fields);
+    }
+
+    public void warn(String msg, Object... fields) {
+        log(Level.WARN, msg, null, fields);
+    }
+
+    public void warn(String msg, Throwable error, Object... fields) {
+        log(Level.WARN, msg, error, fields);
+    }
+
+    public void error(String msg, Object... fields) {
+        log(Level.ERROR, msg, null, fields);
+    }
+
+    /** Com {@link #error(String, Object...)}; la traça de {@code error} s'escriu a continuació. */
+    public void error(String msg, Throwable error, Object... fields) {
+        log(Level.ERROR, msg, error, fields);
+    }
+
+    private void log(Level level, String msg, Throwable error, Object[] fields) {
+        if (!writer.isEnabled(level)) return;
+        writer.publish(new LogEvent(level, name, msg, fields, error));
+    }
+}
@@ -0,0 +1,60 @@
+package logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Cua circular acotada, sense bloquejos, per a molts productors i un sol
+ * consumidor (esquema de D. Vyukov). {@link #offer} mai espera: si la cua
+ * és plena retorna {@code false} i l'esdeveniment es descarta.
+ */
+final class RingBuffer<T> {
+
+    private final Object[] slots;
+    private final AtomicLongArray sequence;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Només el llegeix i escriu el consumidor. */
+    private long head;
+
+    RingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1) << 1);
+        this.slots = new Object[capacity];
+        this.sequence = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) sequence.set(i, i);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+
+    boolean offer(T item) {
+        long pos;
+        int idx;
+        while (true) {
+            pos = tail.get();
+            idx = (int) pos & mask;
+            long diff = sequence.get(idx) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+            } else if (diff < 0) {
+                return false; // plena
+            }
+        }
+        slots[idx] = item;
+        sequence.set(idx, pos + 1); // publica l'element al consumidor
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    T poll() {
+        int idx = (int) head & mask;
+        if (sequence.get(idx) != head + 1) return null;
+        T item = (T) slots[idx];
+        slots[idx] = null;
+        sequence.set(idx, head + slots.length);
+        head++;
+        return item;
+    }
+}
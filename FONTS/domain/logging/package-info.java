@@ -0,0 +1,15 @@
+/**
+ * <p>El package {@code logging} ofereix un log estructurat i asíncron per al
+ * backend.</p>
+ *
+ * <p>Inclou:</p>
+ * <ul>
+ *   <li>{@link logging.Log Log}: accés als loggers i configuració per propietats de sistema.</li>
+ *   <li>{@link logging.Logger Logger}: logger amb nom i camps clau/valor.</li>
+ *   <li>{@link logging.Level Level}: nivells de log.</li>
+ *   <li>{@link logging.AsyncLogWriter AsyncLogWriter}: cua acotada i fil escriptor.</li>
+ * </ul>
+ *
+ * <p>Registrar no bloqueja mai el fil de l'ordre i no escriu a {@code stdout}.</p>
+ */
+package logging;
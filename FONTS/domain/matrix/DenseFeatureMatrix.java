@@ -0,0 +1,151 @@
+package matrix;
+
+import java.util.Arrays;
+
+/**
+ * {@link FeatureMatrix} en memòria amb totes les files en un sol
+ * {@code double[]} per files: la cel·la (i, j) és a {@code data[i*cols + j]}.
+ *
+ * <p>Respecte d'un {@code double[][]} s'estalvia la capçalera i la referència
+ * de cada fila, i recórrer la matriu sencera és un únic escombrat seqüencial
+ * de memòria. Els productes escalars es fan amb {@link Kernels#DOT} (SIMD si la
+ * JVM té el mòdul {@code jdk.incubator.vector}).</p>
+ *
+ * <p>Com que l'índex és un {@code int}, la matriu pot tenir com a molt
+ * {@code Integer.MAX_VALUE - 8} cel·les.</p>
+ */
+public final class DenseFeatureMatrix implements WritableFeatureMatrix {
+
+    private final int rows;
+    private final int cols;
+    private final double[] data;
+
+    /**
+     * Crea una matriu plena de zeros.
+     *
+     * @param rows Nombre de files.
+     * @param cols Nombre de columnes.
+     * @throws IllegalArgumentException si les mides són negatives o massa grans.
+     */
+    public DenseFeatureMatrix(int rows, int cols) {
+        this(rows, cols, new double[checkedSize(rows, cols)]);
+    }
+
+    /**
+     * Embolcalla un array existent (sense copiar-lo).
+     *
+     * @param rows Nombre de files.
+     * @param cols Nombre de columnes.
+     * @param data Dades per files, de longitud {@code rows * cols}.
+     * @throws IllegalArgumentException si la longitud no quadra amb les mides.
+     */
+    public DenseFeatureMatrix(int rows, int cols, double[] data) {
+        if (data == null || data.length != checkedSize(rows, cols)) {
+            throw new IllegalArgumentException("data length must be rows * cols");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.data = data;
+    }
+
+    /**
+     * Copia una matriu {@code double[][]} a un array contigu.
+     *
+     * @param X Files de la matriu; totes de la mateixa longitud.
+     * @return La matriu densa equivalent.
+     * @throws IllegalArgumentException si les files no tenen la mateixa longitud.
+     */
+    public static DenseFeatureMatrix fromRows(double[][] X) {
+        if (X == null) {
+            throw new IllegalArgumentException("matrix cannot be null");
+        }
+        int n = X.length;
+        int d = n == 0 ? 0 : X[0].length;
+        double[] data = new double[checkedSize(n, d)];
+        for (int i = 0; i < n; i++) {
+            if (X[i] == null || X[i].length != d) {
+                throw new IllegalArgumentException("row " + i + " has a different length");
+            }
+            System.arraycopy(X[i], 0, data, i * d, d);
+        }
+        return new DenseFeatureMatrix(n, d, data);
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return data[i * cols + j];
+    }
+
+    /**
+     * Escriu el valor de la cel·la (i, j).
+     *
+     * @param i Índex de fila.
+     * @param j Índex de columna.
+     * @param v Valor.
+     */
+    public void set(int i, int j, double v) {
+        data[i * cols + j] = v;
+    }
+
+    @Override
+    public void setRow(int i, double[] src) {
+        System.arraycopy(src, 0, data, i * cols, cols);
+    }
+
+    /**
+     * Array intern (sense copiar): la fila {@code i} comença a
+     * {@code i * cols()}.
+     *
+     * @return Les dades per files.
+     */
+    public double[] data() {
+        return data;
+    }
+
+    @Override
+    public void copyRow(int i, double[] dst) {
+        System.arraycopy(data, i * cols, dst, 0, cols);
+    }
+
+    @Override
+    public double dot(int i, double[] v) {
+        return Kernels.DOT.dot(data, i * cols, v, 0, cols);
+    }
+
+    @Override
+    public double dot(int i, int j) {
+        return Kernels.DOT.dot(data, i * cols, data, j * cols, cols);
+    }
+
+    @Override
+    public void addRowTo(int i, double[] acc) {
+        int off = i * cols;
+        for (int t = 0; t < cols; t++) acc[t] += data[off + t];
+    }
+
+    @Override
+    public double[] row(int i) {
+        return Arrays.copyOfRange(data, i * cols, (i + 1) * cols);
+    }
+
+    static int checkedSize(int rows, int cols) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("dimensions must be >= 0");
+        }
+        long size = (long) rows * cols;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("matrix too large for a single array: " + rows + "x" + cols);
+        }
+        return (int) size;
+    }
+}
@@ -0,0 +1,39 @@
+package matrix;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Producte escalar sobre trams d'arrays. Les matrius el criden a través de
+ * {@link Kernels#DOT}, un camp {@code static final}: el JIT el tracta com a
+ * constant i la crida queda monomòrfica.
+ */
+interface DotKernel {
+
+    /**
+     * @return {@code Σ_t a[aOff + t] · b[bOff + t]} per a {@code t < len}.
+     */
+    double dot(double[] a, int aOff, double[] b, int bOff, int len);
+
+    /**
+     * Com l'anterior amb {@code a} en precisió simple; acumula en {@code double}.
+     */
+    double dot(float[] a, int aOff, double[] b, int bOff, int len);
+
+    /**
+     * Com l'anterior amb tots dos operands en precisió simple; acumula en
+     * {@code double}.
+     */
+    double dot(float[] a, int aOff, float[] b, int bOff, int len);
+
+    /**
+     * Com {@link #dot(double[], int, double[], int, int)} amb {@code a} en un
+     * {@link ByteBuffer} d'ordre natiu; {@code aOff} és en bytes.
+     */
+    double dot(ByteBuffer a, int aOff, double[] b, int bOff, int len);
+
+    /**
+     * Com l'anterior amb tots dos operands en {@link ByteBuffer};
+     * {@code aOff} i {@code bOff} són en bytes.
+     */
+    double dot(ByteBuffer a, int aOff, ByteBuffer b, int bOff, int len);
+}
@@ -0,0 +1,111 @@
+package matrix;
+
+/**
+ * Matriu de característiques (n_mostres x n_features) sobre la qual treballen
+ * els algorismes de clustering, validació i selecció de k.
+ *
+ * <p>A diferència d'un {@code double[][]}, la representació queda amagada: la
+ * implementació habitual ({@link DenseFeatureMatrix}) guarda totes les files
+ * en un sol {@code double[]} contigu per files. Els bucles interiors dels
+ * algorismes no accedeixen mai a les dades directament sinó amb les operacions
+ * per fila d'aquesta interfície ({@link #dot(int, double[])},
+ * {@link #dot(int, int)}, {@link #addRowTo(int, double[])}), que cada
+ * implementació resol amb un recorregut seqüencial de la seva memòria.</p>
+ */
+public interface FeatureMatrix {
+
+    /** Nombre de files (mostres). */
+    int rows();
+
+    /** Nombre de columnes (característiques). */
+    int cols();
+
+    /**
+     * Valor de la cel·la (i, j).
+     *
+     * @param i Índex de fila.
+     * @param j Índex de columna.
+     * @return El valor emmagatzemat.
+     */
+    double get(int i, int j);
+
+    /**
+     * Copia la fila {@code i} a {@code dst}.
+     *
+     * @param i   Índex de fila.
+     * @param dst Array de sortida de mida {@code >= cols()}.
+     */
+    void copyRow(int i, double[] dst);
+
+    /**
+     * Producte escalar de la fila {@code i} amb un vector extern (p. ex. un
+     * centroide).
+     *
+     * @param i Índex de fila.
+     * @param v Vector de mida {@code cols()}.
+     * @return {@code Σ_j get(i, j) · v[j]}.
+     */
+    double dot(int i, double[] v);
+
+    /**
+     * Producte escalar entre dues files de la matriu.
+     *
+     * @param i Primera fila.
+     * @param j Segona fila.
+     * @return {@code Σ_t get(i, t) · get(j, t)}.
+     */
+    double dot(int i, int j);
+
+    /**
+     * Suma la fila {@code i} a un acumulador (actualització de centroides).
+     *
+     * @param i   Índex de fila.
+     * @param acc Acumulador de mida {@code cols()}.
+     */
+    void addRowTo(int i, double[] acc);
+
+    /**
+     * Norma euclidiana de la fila {@code i}.
+     *
+     * @param i Índex de fila.
+     * @return La norma L2 de la fila.
+     */
+    default double norm(int i) {
+        return Math.sqrt(dot(i, i));
+    }
+
+    /**
+     * Còpia de la fila {@code i} en un array nou.
+     *
+     * @param i Índex de fila.
+     * @return La fila com a {@code double[]}.
+     */
+    default double[] row(int i) {
+        double[] out = new double[cols()];
+        copyRow(i, out);
+        return out;
+    }
+
+    /**
+     * Còpia completa en format {@code double[][]}, per als punts d'entrada
+     * que encara treballen amb arrays de files.
+     *
+     * @return Una matriu nova de {@code rows() x cols()}.
+     */
+    default double[][] toArray() {
+        double[][] out = new double[rows()][];
+        for (int i = 0; i < out.length; i++) out[i] = row(i);
+        return out;
+    }
+
+    /**
+     * Adapta una matriu {@code double[][]} (copiant-la a un únic array contigu).
+     *
+     * @param rows Files de la matriu; totes han de tenir la mateixa longitud.
+     * @return Una {@link DenseFeatureMatrix} amb el mateix contingut.
+     * @throws IllegalArgumentException si les files no tenen la mateixa longitud.
+     */
+    static FeatureMatrix of(double[][] rows) {
+        return DenseFeatureMatrix.fromRows(rows);
+    }
+}
@@ -0,0 +1,39 @@
+package matrix;
+
+import java.nio.file.Path;
+
+/**
+ * Crea matrius buides amb un emmagatzematge concret. La configuració de
+ * l'algorisme en tria una i el codificador la fa servir per escriure-hi
+ * les files.
+ */
+@FunctionalInterface
+public interface FeatureMatrixFactory {
+
+    /** Files en un {@code double[]} contigu ({@link DenseFeatureMatrix}). */
+    FeatureMatrixFactory DOUBLE = DenseFeatureMatrix::new;
+
+    /** Files en un {@code float[]} contigu ({@link FloatFeatureMatrix}). */
+    FeatureMatrixFactory FLOAT = FloatFeatureMatrix::new;
+
+    /** Files en memòria directa, fora del heap ({@link OffHeapFeatureMatrix}). */
+    FeatureMatrixFactory OFF_HEAP = OffHeapFeatureMatrix::allocateDirect;
+
+    /**
+     * Files en un fitxer temporal de {@code dir} projectat a memòria
+     * ({@link OffHeapFeatureMatrix#mapTemp(int, int, Path)}).
+     *
+     * @param dir Directori per als fitxers temporals.
+     * @return La fàbrica.
+     */
+    static FeatureMatrixFactory mapped(Path dir) {
+        return (rows, cols) -> OffHeapFeatureMatrix.mapTemp(rows, cols, dir);
+    }
+
+    /**
+     * @param rows Nombre de files.
+     * @param cols Nombre de columnes.
+     * @return Una matriu plena de zeros de {@code rows x cols}.
+     */
+    WritableFeatureMatrix create(int rows, int cols);
+}
@@ -0,0 +1,95 @@
+package matrix;
+
+/**
+ * {@link FeatureMatrix} amb les files en un sol {@code float[]} contigu: la
+ * meitat de memòria i d'amplada de banda que {@link DenseFeatureMatrix}.
+ *
+ * <p>Les característiques que genera {@code OneHotEncoder} són a [0, 1]
+ * (indicadors 0/1, min-max i freqüències), on un {@code float} té un error
+ * relatiu de com a molt 2<sup>-24</sup> (~6·10<sup>-8</sup>) i els 0/1 són
+ * exactes. Totes les operacions acumulen en {@code double} (el producte de
+ * dos {@code float} és exacte en {@code double}), i els centroides i la
+ * inèrcia dels algorismes continuen sent {@code double}; per tant l'única
+ * diferència amb el camí {@code double} és l'arrodoniment de les dades
+ * d'entrada. A la pràctica les distàncies i la inèrcia coincideixen amb un
+ * error relatiu per sota de 10<sup>-6</sup> i les etiquetes només poden
+ * canviar per a punts pràcticament equidistants de dos centroides.</p>
+ */
+public final class FloatFeatureMatrix implements WritableFeatureMatrix {
+
+    private final int rows;
+    private final int cols;
+    private final float[] data;
+
+    /**
+     * Crea una matriu plena de zeros.
+     *
+     * @param rows Nombre de files.
+     * @param cols Nombre de columnes.
+     * @throws IllegalArgumentException si les mides són negatives o massa grans.
+     */
+    public FloatFeatureMatrix(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        this.data = new float[DenseFeatureMatrix.checkedSize(rows, cols)];
+    }
+
+    /**
+     * Copia una matriu qualsevol arrodonint cada valor a {@code float}.
+     *
+     * @param X La matriu d'origen.
+     * @return La còpia en precisió simple.
+     */
+    public static FloatFeatureMatrix copyOf(FeatureMatrix X) {
+        FloatFeatureMatrix out = new FloatFeatureMatrix(X.rows(), X.cols());
+        double[] row = new double[X.cols()];
+        for (int i = 0; i < X.rows(); i++) {
+            X.copyRow(i, row);
+            out.setRow(i, row);
+        }
+        return out;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return data[i * cols + j];
+    }
+
+    @Override
+    public void setRow(int i, double[] src) {
+        int off = i * cols;
+        for (int t = 0; t < cols; t++) data[off + t] = (float) src[t];
+    }
+
+    @Override
+    public void copyRow(int i, double[] dst) {
+        int off = i * cols;
+        for (int t = 0; t < cols; t++) dst[t] = data[off + t];
+    }
+
+    @Override
+    public double dot(int i, double[] v) {
+        return Kernels.DOT.dot(data, i * cols, v, 0, cols);
+    }
+
+    @Override
+    public double dot(int i, int j) {
+        return Kernels.DOT.dot(data, i * cols, data, j * cols, cols);
+    }
+
+    @Override
+    public void addRowTo(int i, double[] acc) {
+        int off = i * cols;
+        for (int t = 0; t < cols; t++) acc[t] += data[off + t];
+    }
+}
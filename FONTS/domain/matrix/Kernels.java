@@ -0,0 +1,73 @@
+package matrix;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tria el {@link DotKernel} que fan servir les matrius de característiques.
+ *
+ * <p>Segueix el mateix criteri que {@code distance.Distances}: si la JVM té
+ * el mòdul {@code jdk.incubator.vector} i no s'ha desactivat amb
+ * {@code -Dtribus.simd=false}, es carrega {@link VectorDotKernel} per
+ * reflexió; altrament, el bucle escalar.</p>
+ */
+final class Kernels {
+
+    /** Mateixa propietat que {@code distance.Distances.SIMD_PROPERTY}. */
+    private static final String SIMD_PROPERTY = "tribus.simd";
+
+    static final DotKernel DOT = select();
+
+    private Kernels() {
+    }
+
+    private static DotKernel select() {
+        if (Boolean.parseBoolean(System.getProperty(SIMD_PROPERTY, "true"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                return (DotKernel) Class.forName("matrix.VectorDotKernel").getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // sense Vector API: bucle escalar
+            }
+        }
+        return new Scalar();
+    }
+
+    static final class Scalar implements DotKernel {
+        @Override
+        public double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+            double s = 0.0;
+            for (int t = 0; t < len; t++) s += a[aOff + t] * b[bOff + t];
+            return s;
+        }
+
+        @Override
+        public double dot(float[] a, int aOff, double[] b, int bOff, int len) {
+            double s = 0.0;
+            for (int t = 0; t < len; t++) s += a[aOff + t] * b[bOff + t];
+            return s;
+        }
+
+        @Override
+        public double dot(float[] a, int aOff, float[] b, int bOff, int len) {
+            double s = 0.0;
+            for (int t = 0; t < len; t++) s += (double) a[aOff + t] * b[bOff + t];
+            return s;
+        }
+
+        @Override
+        public double dot(ByteBuffer a, int aOff, double[] b, int bOff, int len) {
+            double s = 0.0;
+            for (int t = 0; t < len; t++) s += a.getDouble(aOff + t * Double.BYTES) * b[bOff + t];
+            return s;
+        }
+
+        @Override
+        public double dot(ByteBuffer a, int aOff, ByteBuffer b, int bOff, int len) {
+            double s = 0.0;
+            for (int t = 0; t < len; t++) {
+                s += a.getDouble(aOff + t * Double.BYTES) * b.getDouble(bOff + t * Double.BYTES);
+            }
+            return s;
+        }
+    }
+}
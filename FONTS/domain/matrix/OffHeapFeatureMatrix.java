@@ -0,0 +1,205 @@
+package matrix;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * {@link FeatureMatrix} fora del heap: les files (en {@code double}, per
+ * files) viuen en {@link ByteBuffer} directes o en un fitxer temporal
+ * projectat a memòria ({@code mmap}).
+ *
+ * <p>Al heap només hi queden uns quants objectes {@link ByteBuffer}, de manera
+ * que una matriu de diversos GB no allarga les pauses del recol·lector; amb
+ * {@link #mapTemp} el sistema operatiu pot descarregar pàgines al fitxer i la
+ * matriu pot superar la RAM disponible. Un {@link ByteBuffer} s'indexa amb
+ * {@code int}, així que les dades es reparteixen en trossos de com a molt
+ * {@value #MAX_CHUNK_BYTES} bytes que sempre contenen files senceres.</p>
+ *
+ * <p>La memòria la retorna el recol·lector quan deixen d'haver-hi referències
+ * als buffers (Java 17 no permet alliberar-los explícitament); {@link #close()}
+ * deixa anar les referències i esborra el fitxer temporal, si n'hi ha. La
+ * matriu no es pot fer servir després de tancar-la.</p>
+ *
+ * <p>La memòria directa està limitada per {@code -XX:MaxDirectMemorySize}
+ * (per defecte, la mida màxima del heap); la projectada a fitxer no.</p>
+ */
+public final class OffHeapFeatureMatrix implements WritableFeatureMatrix, AutoCloseable {
+
+    /** Mida màxima d'un tros (el múltiple de 8 més gran que cap en un {@code int}). */
+    public static final int MAX_CHUNK_BYTES = Integer.MAX_VALUE - 7;
+
+    private final int rows;
+    private final int cols;
+    private final int rowBytes;
+    private final int rowsPerChunk;
+    private final Path file;
+    private ByteBuffer[] chunks;
+
+    private OffHeapFeatureMatrix(int rows, int cols, int maxChunkBytes, Path file) {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("dimensions must be >= 0");
+        }
+        long bytes = (long) cols * Double.BYTES;
+        if (bytes > maxChunkBytes) {
+            throw new IllegalArgumentException("row too large: " + cols + " columns");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.rowBytes = (int) bytes;
+        this.rowsPerChunk = rowBytes == 0 ? Math.max(1, rows) : Math.max(1, maxChunkBytes / rowBytes);
+        this.file = file;
+        this.chunks = new ByteBuffer[Math.max(1, (rows + rowsPerChunk - 1) / rowsPerChunk)];
+    }
+
+    /**
+     * Reserva la matriu en memòria directa (fora del heap), plena de zeros.
+     *
+     * @param rows Nombre de files.
+     * @param cols Nombre de columnes.
+     * @return La matriu.
+     */
+    public static OffHeapFeatureMatrix allocateDirect(int rows, int cols) {
+        return allocateDirect(rows, cols, MAX_CHUNK_BYTES);
+    }
+
+    /**
+     * Com {@link #allocateDirect(int, int)} amb trossos més petits (per a proves).
+     *
+     * @param maxChunkBytes Mida màxima de cada tros; n'hi ha de cabre com a mínim una fila.
+     */
+    public static OffHeapFeatureMatrix allocateDirect(int rows, int cols, int maxChunkBytes) {
+        OffHeapFeatureMatrix m = new OffHeapFeatureMatrix(rows, cols, maxChunkBytes, null);
+        for (int c = 0; c < m.chunks.length; c++) {
+            m.chunks[c] = ByteBuffer.allocateDirect(m.chunkBytes(c)).order(ByteOrder.nativeOrder());
+        }
+        return m;
+    }
+
+    /**
+     * Crea la matriu en un fitxer temporal de {@code dir} projectat a memòria.
+     * El fitxer s'esborra amb {@link #close()} (o en sortir de la JVM).
+     *
+     * @param rows Nombre de files.
+     * @param cols Nombre de columnes.
+     * @param dir  Directori on crear el fitxer temporal.
+     * @return La matriu, plena de zeros.
+     * @throws UncheckedIOException si no es pot crear o projectar el fitxer.
+     */
+    public static OffHeapFeatureMatrix mapTemp(int rows, int cols, Path dir) {
+        return mapTemp(rows, cols, dir, MAX_CHUNK_BYTES);
+    }
+
+    /**
+     * Com {@link #mapTemp(int, int, Path)} amb trossos més petits (per a proves).
+     *
+     * @param maxChunkBytes Mida màxima de cada tros; n'hi ha de cabre com a mínim una fila.
+     */
+    public static OffHeapFeatureMatrix mapTemp(int rows, int cols, Path dir, int maxChunkBytes) {
+        Path file = null;
+        try {
+            file = Files.createTempFile(dir, "tribus-matrix-", ".bin");
+            file.toFile().deleteOnExit();
+            OffHeapFeatureMatrix m = new OffHeapFeatureMatrix(rows, cols, maxChunkBytes, file);
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long position = 0;
+                for (int c = 0; c < m.chunks.length; c++) {
+                    int size = m.chunkBytes(c);
+                    m.chunks[c] = ch.map(FileChannel.MapMode.READ_WRITE, position, size).order(ByteOrder.nativeOrder());
+                    position += size;
+                }
+            }
+            return m;
+        } catch (IOException e) {
+            if (file != null) {
+                file.toFile().delete();
+            }
+            throw new UncheckedIOException("cannot map feature matrix in " + dir, e);
+        }
+    }
+
+    private int chunkBytes(int c) {
+        int first = c * rowsPerChunk;
+        int n = Math.min(rowsPerChunk, rows - first);
+        return Math.max(0, n) * rowBytes;
+    }
+
+    /** Fitxer que dona suport a la matriu, o {@code null} si és en memòria directa. */
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public int rows() {
+        return rows;
+    }
+
+    @Override
+    public int cols() {
+        return cols;
+    }
+
+    private ByteBuffer chunk(int i) {
+        return chunks[i / rowsPerChunk];
+    }
+
+    private int offset(int i) {
+        return (i % rowsPerChunk) * rowBytes;
+    }
+
+    @Override
+    public double get(int i, int j) {
+        return chunk(i).getDouble(offset(i) + j * Double.BYTES);
+    }
+
+    @Override
+    public void setRow(int i, double[] src) {
+        ByteBuffer b = chunk(i);
+        int off = offset(i);
+        for (int t = 0; t < cols; t++) b.putDouble(off + t * Double.BYTES, src[t]);
+    }
+
+    @Override
+    public void copyRow(int i, double[] dst) {
+        ByteBuffer b = chunk(i);
+        int off = offset(i);
+        for (int t = 0; t < cols; t++) dst[t] = b.getDouble(off + t * Double.BYTES);
+    }
+
+    @Override
+    public double dot(int i, double[] v) {
+        return Kernels.DOT.dot(chunk(i), offset(i), v, 0, cols);
+    }
+
+    @Override
+    public double dot(int i, int j) {
+        return Kernels.DOT.dot(chunk(i), offset(i), chunk(j), offset(j), cols);
+    }
+
+    @Override
+    public void addRowTo(int i, double[] acc) {
+        ByteBuffer b = chunk(i);
+        int off = offset(i);
+        for (int t = 0; t < cols; t++) acc[t] += b.getDouble(off + t * Double.BYTES);
+    }
+
+    /**
+     * Deixa anar els buffers i esborra el fitxer temporal (si n'hi ha).
+     */
+    @Override
+    public void close() {
+        chunks = null;
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                // queda marcat amb deleteOnExit
+            }
+        }
+    }
+}
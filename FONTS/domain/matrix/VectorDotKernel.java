@@ -0,0 +1,127 @@
+package matrix;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * {@link DotKernel} amb la Vector API i FMA, com
+ * {@code distance.VectorCosineDistance.dot} però amb desplaçaments, per
+ * recórrer les files d'un array pla. Només es carrega per reflexió des de
+ * {@link Kernels}.
+ *
+ * <p>Les variants {@code float} carreguen mig vector de {@code float} (el
+ * mateix nombre de carrils que {@link #SPECIES}) i l'eixamplen a
+ * {@code double} abans de l'FMA.</p>
+ */
+final class VectorDotKernel implements DotKernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Float> HALF_FLOAT =
+            VectorSpecies.of(float.class, VectorShape.forBitSize(SPECIES.vectorBitSize() / 2));
+
+    VectorDotKernel() {
+    }
+
+    @Override
+    public double dot(double[] a, int aOff, double[] b, int bOff, int len) {
+        int t = 0;
+        double s = 0.0;
+        int bound = SPECIES.loopBound(len);
+        if (bound > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; t < bound; t += SPECIES.length()) {
+                acc = DoubleVector.fromArray(SPECIES, a, aOff + t).fma(DoubleVector.fromArray(SPECIES, b, bOff + t), acc);
+            }
+            s = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; t < len; t++) {
+            s += a[aOff + t] * b[bOff + t];
+        }
+        return s;
+    }
+
+    @Override
+    public double dot(float[] a, int aOff, double[] b, int bOff, int len) {
+        int t = 0;
+        double s = 0.0;
+        int bound = SPECIES.loopBound(len);
+        if (bound > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; t < bound; t += SPECIES.length()) {
+                acc = widen(a, aOff + t).fma(DoubleVector.fromArray(SPECIES, b, bOff + t), acc);
+            }
+            s = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; t < len; t++) {
+            s += a[aOff + t] * b[bOff + t];
+        }
+        return s;
+    }
+
+    @Override
+    public double dot(float[] a, int aOff, float[] b, int bOff, int len) {
+        int t = 0;
+        double s = 0.0;
+        int bound = SPECIES.loopBound(len);
+        if (bound > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; t < bound; t += SPECIES.length()) {
+                acc = widen(a, aOff + t).fma(widen(b, bOff + t), acc);
+            }
+            s = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; t < len; t++) {
+            s += (double) a[aOff + t] * b[bOff + t];
+        }
+        return s;
+    }
+
+    @Override
+    public double dot(ByteBuffer a, int aOff, double[] b, int bOff, int len) {
+        int t = 0;
+        double s = 0.0;
+        int bound = SPECIES.loopBound(len);
+        if (bound > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; t < bound; t += SPECIES.length()) {
+                DoubleVector va = DoubleVector.fromByteBuffer(SPECIES, a, aOff + t * Double.BYTES, ByteOrder.nativeOrder());
+                acc = va.fma(DoubleVector.fromArray(SPECIES, b, bOff + t), acc);
+            }
+            s = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; t < len; t++) {
+            s += a.getDouble(aOff + t * Double.BYTES) * b[bOff + t];
+        }
+        return s;
+    }
+
+    @Override
+    public double dot(ByteBuffer a, int aOff, ByteBuffer b, int bOff, int len) {
+        int t = 0;
+        double s = 0.0;
+        int bound = SPECIES.loopBound(len);
+        if (bound > 0) {
+            DoubleVector acc = DoubleVector.zero(SPECIES);
+            for (; t < bound; t += SPECIES.length()) {
+                DoubleVector va = DoubleVector.fromByteBuffer(SPECIES, a, aOff + t * Double.BYTES, ByteOrder.nativeOrder());
+                DoubleVector vb = DoubleVector.fromByteBuffer(SPECIES, b, bOff + t * Double.BYTES, ByteOrder.nativeOrder());
+                acc = va.fma(vb, acc);
+            }
+            s = acc.reduceLanes(VectorOperators.ADD);
+        }
+        for (; t < len; t++) {
+            s += a.getDouble(aOff + t * Double.BYTES) * b.getDouble(bOff + t * Double.BYTES);
+        }
+        return s;
+    }
+
+    private static DoubleVector widen(float[] a, int off) {
+        return (DoubleVector) FloatVector.fromArray(HALF_FLOAT, a, off).convertShape(VectorOperators.F2D, SPECIES, 0);
+    }
+}
@@ -0,0 +1,17 @@
+package matrix;
+
+/**
+ * {@link FeatureMatrix} que es pot omplir fila a fila; és el que rep el
+ * codificador per escriure-hi les respostes codificades.
+ */
+public interface WritableFeatureMatrix extends FeatureMatrix {
+
+    /**
+     * Escriu la fila {@code i} a partir d'un vector de doubles (convertint-lo
+     * si l'emmagatzematge és d'una altra precisió).
+     *
+     * @param i   Índex de fila.
+     * @param src Valors de la fila, de mida {@code >= cols()}.
+     */
+    void setRow(int i, double[] src);
+}
@@ -0,0 +1,24 @@
+/**
+ * <p>El package {@code matrix} conté la representació de les dades
+ * codificades sobre la qual treballen els algorismes.</p>
+ *
+ * <p>{@link matrix.FeatureMatrix} amaga l'emmagatzematge i ofereix
+ * operacions per fila (producte escalar amb un vector o amb una altra fila,
+ * acumulació per a centroides). {@link matrix.DenseFeatureMatrix} guarda les
+ * files en un únic {@code double[]} contigu; el codificador
+ * {@code Encoder.OneHotEncoder} la genera directament amb
+ * {@code transformToMatrix}.</p>
+ *
+ * <p>{@link matrix.FloatFeatureMatrix} guarda les files en {@code float}
+ * (meitat de memòria i d'amplada de banda) i acumula en {@code double};
+ * {@code AlgorithmConfiguration.buildMatrixFactory} tria la
+ * {@link matrix.FeatureMatrixFactory} corresponent.</p>
+ *
+ * <p>{@link matrix.OffHeapFeatureMatrix} guarda les files fora del heap, en
+ * memòria directa o en un fitxer temporal projectat a memòria, perquè les
+ * matrius grans no afectin les pauses del recol·lector.</p>
+ *
+ * <p>Les entrades dels algorismes amb {@code double[][]} es mantenen com a
+ * adaptadors ({@link matrix.FeatureMatrix#of(double[][])}).</p>
+ */
+package matrix;
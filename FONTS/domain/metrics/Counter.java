@@ -0,0 +1,34 @@
+package metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Comptador monòton sense bloquejos (sobre {@link LongAdder}), pensat per
+ * a camins calents amb molts fils escrivint alhora.
+ */
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    Counter() {
+    }
+
+    /** Incrementa el comptador en 1. */
+    public void increment() {
+        value.increment();
+    }
+
+    /** Incrementa el comptador en {@code delta}. */
+    public void add(long delta) {
+        value.add(delta);
+    }
+
+    /** Valor actual (suma de totes les franges). */
+    public long get() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
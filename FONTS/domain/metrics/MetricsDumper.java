@@ -0,0 +1,88 @@
+package metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bolcat periòdic d'un {@link MetricsRegistry} a fitxer, una línia JSON per
+ * bolcat ({@code {"ts":"...","metrics":{...}}}).
+ *
+ * <p>S'activa amb les propietats de sistema {@code tribus.metrics.file}
+ * (camí del fitxer) i {@code tribus.metrics.interval.seconds} (60 per
+ * defecte); vegeu {@link #startFromSystemProperties()}.</p>
+ */
+public final class MetricsDumper {
+
+    /** Propietat amb el camí del fitxer de bolcat. */
+    public static final String FILE_PROPERTY = "tribus.metrics.file";
+    /** Propietat amb l'interval entre bolcats, en segons. */
+    public static final String INTERVAL_PROPERTY = "tribus.metrics.interval.seconds";
+
+    private final MetricsRegistry registry;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    private MetricsDumper(MetricsRegistry registry, Path file, long intervalSeconds) {
+        this.registry = registry;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-dumper");
+            t.setDaemon(true);
+            return t;
+        });
+        scheduler.scheduleAtFixedRate(this::dumpQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Arrenca un bolcat periòdic del registre global si s'ha definit
+     * {@value #FILE_PROPERTY}.
+     *
+     * @return el bolcador arrencat, o {@code null} si no està configurat.
+     */
+    public static MetricsDumper startFromSystemProperties() {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (path == null || path.isBlank()) return null;
+        long interval = Math.max(1L, Long.getLong(INTERVAL_PROPERTY, 60L));
+        return start(MetricsRegistry.global(), Path.of(path), interval);
+    }
+
+    /**
+     * Arrenca un bolcat periòdic del registre indicat.
+     *
+     * @param registry        registre a bolcar.
+     * @param file            fitxer on s'afegeixen els bolcats.
+     * @param intervalSeconds segons entre bolcats.
+     */
+    public static MetricsDumper start(MetricsRegistry registry, Path file, long intervalSeconds) {
+        return new MetricsDumper(registry, file, intervalSeconds);
+    }
+
+    /** Escriu un bolcat immediatament. */
+    public void dump() throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        String line = "{\"ts\":\"" + Instant.now() + "\",\"metrics\":" + registry.toJson() + "}\n";
+        Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /** Atura els bolcats periòdics i n'escriu un darrer. */
+    public void stop() {
+        scheduler.shutdownNow();
+        dumpQuietly();
+    }
+
+    private void dumpQuietly() {
+        try {
+            dump();
+        } catch (IOException | RuntimeException ignored) {
+            // les mètriques no han de fer caure el backend
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre de mètriques del backend: comptadors i temporitzadors indexats per nom.
+ *
+ * <p>Els noms segueixen el format {@code capa.operacio} (p.ex.
+ * {@code command.LOGIN}, {@code persistence.loadAllResponses},
+ * {@code encoder.fit}). Obtenir una mètrica ja creada és una lectura d'un
+ * {@link ConcurrentHashMap}; els components que la fan servir sovint en
+ * poden guardar la referència.</p>
+ *
+ * <p>Hi ha un registre global compartit per tota la JVM ({@link #global()}),
+ * que és el que consulta l'ordre {@code GET_METRICS}.</p>
+ */
+public final class MetricsRegistry {
+
+    private static final MetricsRegistry GLOBAL = new MetricsRegistry();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final long startedAtMillis = System.currentTimeMillis();
+
+    public MetricsRegistry() {
+    }
+
+    /** Registre compartit per tota la JVM. */
+    public static MetricsRegistry global() {
+        return GLOBAL;
+    }
+
+    /** Retorna (i crea si cal) el comptador amb aquest nom. */
+    public Counter counter(String name) {
+        Counter c = counters.get(name);
+        return c != null ? c : counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /** Retorna (i crea si cal) el temporitzador amb aquest nom. */
+    public Timer timer(String name) {
+        Timer t = timers.get(name);
+        return t != null ? t : timers.computeIfAbsent(name, k -> new Timer());
+    }
+
+    /** Posa a zero totes les mètriques (es mantenen les referències existents). */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        timers.values().forEach(Timer::reset);
+    }
+
+    /**
+     * Serialitza totes les mètriques a JSON, ordenades per nom. Els temps
+     * dels temporitzadors s'expressen en microsegons.
+     *
+     * <pre>
+     * {"uptimeMs":..,"counters":{"nom":n,..},
+     *  "timers":{"nom":{"count":n,"totalUs":..,"meanUs":..,"p50Us":..,"p99Us":..,"p999Us":..,"maxUs":..},..}}
+     * </pre>
+     */
+    public String toJson() {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"uptimeMs\":").append(System.currentTimeMillis() - startedAtMillis);
+        sb.append(",\"counters\":{");
+        boolean first = true;
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(escape(e.getKey())).append("\":").append(e.getValue().get());
+        }
+        sb.append("},\"timers\":{");
+        first = true;
+        for (Map.Entry<String, Timer> e : new TreeMap<>(timers).entrySet()) {
+            Timer.Snapshot s = e.getValue().snapshot();
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(escape(e.getKey())).append("\":{");
+            sb.append("\"count\":").append(s.count());
+            sb.append(",\"totalUs\":").append(s.totalNanos() / 1_000L);
+            sb.append(",\"meanUs\":").append(round(s.mean() / 1_000.0));
+            sb.append(",\"p50Us\":").append(round(s.percentile(50) / 1_000.0));
+            sb.append(",\"p99Us\":").append(round(s.percentile(99) / 1_000.0));
+            sb.append(",\"p999Us\":").append(round(s.percentile(99.9) / 1_000.0));
+            sb.append(",\"maxUs\":").append(round(s.max() / 1_000.0));
+            sb.append('}');
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 10.0) / 10.0;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
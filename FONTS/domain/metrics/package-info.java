@@ -0,0 +1,15 @@
+/**
+ * <p>El package {@code metrics} ofereix un sistema de mètriques lleuger per
+ * als camins calents del backend.</p>
+ *
+ * <p>Inclou:</p>
+ * <ul>
+ *   <li>{@link metrics.MetricsRegistry MetricsRegistry}: registre de mètriques per nom i serialització a JSON.</li>
+ *   <li>{@link metrics.Counter Counter}: comptador sense bloquejos.</li>
+ *   <li>{@link metrics.Timer Timer}: histograma de latències repartit en franges.</li>
+ *   <li>{@link metrics.MetricsDumper MetricsDumper}: bolcat periòdic opcional a fitxer.</li>
+ * </ul>
+ *
+ * <p>Les mètriques es consulten amb l'ordre {@code GET_METRICS} del protocol.</p>
+ */
+package metrics;
@@ -1,10 +1,16 @@
 package user;
 
 import Survey.LocalPersistence;
+import logging.Log;
+import logging.Logger;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Servicio encargado de gestionar el registro, autenticación y sesiones activas
@@ -13,9 +19,19 @@ import java.util.Map;
  * <p>Proporciona operaciones para registrar nuevos usuarios, iniciar sesión,
  * cerrar sesión y realizar validaciones básicas de credenciales. Utiliza
  * {@code LocalPersistence} como cache en memoria.</p>
+ *
+ * <p>Es segura para uso concurrente (modo servidor): los registros y sesiones
+ * viven en mapas concurrentes y la unicidad del nombre de usuario se garantiza
+ * reservándolo atómicamente en el índice {@code usersByUsername}. Las
+ * operaciones que modifican a la vez {@code registeredUsers} y
+ * {@code usersByUsername} (alta, modificación, baja y carga) se serializan
+ * con {@code accountsLock}, de modo que una baja concurrente con un cambio de
+ * nombre no deja entradas huérfanas en el índice; el login solo lee.</p>
  */
 public class AuthService {
 
+    private static final Logger LOG = Log.get(AuthService.class);
+
     /**
      * Crea un servei d'autenticació amb cache en memòria.
      */
@@ -31,10 +47,19 @@ public class AuthService {
     }
 
     /** Mapa de usuarios registrados, indexados por su ID. */
-    private Map<String, RegisteredUser> registeredUsers = new HashMap<>(); 
+    private final Map<String, RegisteredUser> registeredUsers = new ConcurrentHashMap<>();
+
+    /** Índice de usuarios registrados por nombre de usuario. */
+    private final Map<String, RegisteredUser> usersByUsername = new ConcurrentHashMap<>();
+
+    /** Serializa las modificaciones conjuntas de {@code registeredUsers} y {@code usersByUsername}. */
+    private final Object accountsLock = new Object();
 
     /** Mapa de sesiones activas, indexadas por su ID de sesión. */
-    private Map<String, Sesion> activeSessions = new HashMap<>(); 
+    private final Map<String, Sesion> activeSessions = new ConcurrentHashMap<>();
+
+    /** Planificador que caduca sesiones inactivas (null si no se ha iniciado). */
+    private ScheduledExecutorService sessionSweeper;
 
     /** Cache (LocalPersistence) para almacenamiento en memoria. */
     @SuppressWarnings("unused")
@@ -51,10 +76,6 @@ public class AuthService {
      *         nombre de usuario ya está en uso.
      */
     public RegisteredUser register(String id, String displayName, String username, String password) {
-        if (registeredUsers.values().stream().anyMatch(u -> u.getUsername().equals(username))) {
-            System.err.println("El nom d'usuari ja existeix");
-            return null;
-        }
         String passwordHash = hashPassword(password);
         RegisteredUser newUser = new RegisteredUser(
                 id,
@@ -63,7 +84,16 @@ public class AuthService {
                 username,
                 passwordHash
         );
-        registeredUsers.put(id, newUser);
+        synchronized (accountsLock) {
+            if (usersByUsername.putIfAbsent(username, newUser) != null) {
+                LOG.info("registre rebutjat: el nom d'usuari ja existeix", "username", username);
+                return null;
+            }
+            RegisteredUser previous = registeredUsers.put(id, newUser);
+            if (previous != null) {
+                usersByUsername.remove(previous.getUsername(), previous);
+            }
+        }
         return newUser;
     }
 
@@ -76,17 +106,44 @@ public class AuthService {
      *         {@code null} si la autenticación falla.
      */
     public Sesion login(String username, String password) {
-        for (RegisteredUser usr : registeredUsers.values()) {
-            if (usr.getUsername().equals(username) && verifyPassword(password, usr.getPasswordHash())) {
-                Sesion sess = new Sesion(usr);
-                activeSessions.put(sess.getSessionId(), sess);
-                return sess;
-            }
+        RegisteredUser usr = username == null ? null : usersByUsername.get(username);
+        if (usr != null && verifyPassword(password, usr.getPasswordHash())) {
+            Sesion sess = new Sesion(usr);
+            activeSessions.put(sess.getSessionId(), sess);
+            return sess;
         }
-        System.err.println("Credencials invàlides");
+        LOG.info("login fallit: credencials invàlides", "username", username);
         return null;
     }
 
+    /**
+     * Registra una sesión de invitado para que pueda recuperarse por su ID.
+     *
+     * @param guest Usuario invitado.
+     * @return La nueva {@link Sesion} activa.
+     */
+    public Sesion openGuestSession(GuestUser guest) {
+        Sesion sess = new Sesion(guest);
+        activeSessions.put(sess.getSessionId(), sess);
+        return sess;
+    }
+
+    /**
+     * Recupera una sesión activa por su ID y actualiza su último acceso.
+     *
+     * @param sessionId ID de sesión enviado por el cliente.
+     * @return La sesión, o {@code null} si no existe o ya no está activa.
+     */
+    public Sesion findSession(String sessionId) {
+        if (sessionId == null) return null;
+        Sesion sess = activeSessions.get(sessionId);
+        if (sess == null || !sess.isActive()) {
+            return null;
+        }
+        sess.updateLastAccessTime();
+        return sess;
+    }
+
     /**
      * Cierra una sesión activa y la elimina del registro de sesiones.
      *
@@ -97,6 +154,82 @@ public class AuthService {
         activeSessions.remove(sess.getSessionId());
     }
 
+    /**
+     * Cierra y elimina las sesiones cuyo último acceso es anterior a {@code ttl}.
+     *
+     * @param ttl Tiempo máximo de inactividad.
+     * @return Número de sesiones caducadas.
+     */
+    public int expireIdleSessions(Duration ttl) {
+        long cutoff = System.currentTimeMillis() - ttl.toMillis();
+        int[] expired = {0};
+        activeSessions.values().removeIf(sess -> {
+            if (!sess.isActive() || sess.getLastAccessMillis() < cutoff) {
+                sess.close();
+                expired[0]++;
+                return true;
+            }
+            return false;
+        });
+        return expired[0];
+    }
+
+    /**
+     * Inicia la caducidad periódica de sesiones inactivas en un hilo de fondo.
+     * Las llamadas sucesivas no tienen efecto mientras el planificador esté activo.
+     *
+     * @param ttl Tiempo máximo de inactividad de una sesión.
+     */
+    public synchronized void startSessionSweeper(Duration ttl) {
+        startSessionSweeper(ttl, null);
+    }
+
+    /**
+     * Inicia la caducidad periódica de sesiones y, tras cada pasada, ejecuta
+     * {@code afterSweep} en el mismo hilo (p. ej. para liberar el estado de
+     * los clientes cuyas sesiones han caducado).
+     *
+     * @param ttl        Tiempo máximo de inactividad de una sesión.
+     * @param afterSweep Tarea a ejecutar después de cada pasada, o {@code null}.
+     */
+    public synchronized void startSessionSweeper(Duration ttl, Runnable afterSweep) {
+        if (sessionSweeper != null) return;
+        sessionSweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000L, ttl.toMillis() / 4);
+        sessionSweeper.scheduleAtFixedRate(() -> {
+            try {
+                expireIdleSessions(ttl);
+                if (afterSweep != null) afterSweep.run();
+            } catch (RuntimeException e) {
+                // una excepció cancel·laria les execucions següents
+                LOG.warn("error caducant sessions", "error", e.getMessage());
+            }
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene la caducidad periódica de sesiones, si estaba iniciada.
+     */
+    public synchronized void stopSessionSweeper() {
+        if (sessionSweeper != null) {
+            sessionSweeper.shutdownNow();
+            sessionSweeper = null;
+        }
+    }
+
+    /**
+     * Número de sesiones actualmente registradas.
+     *
+     * @return cantidad de sesiones activas.
+     */
+    public int activeSessionCount() {
+        return activeSessions.size();
+    }
+
     /**
      * Retorna una vista inmutable de los usuarios registrados.
      *
@@ -111,11 +244,20 @@ public class AuthService {
      * Si existen duplicados, el último por ID prevalece.
      */
     public void loadRegisteredUsers(Collection<RegisteredUser> users) {
-        registeredUsers = new HashMap<>();
-        if (users == null) return;
-        for (RegisteredUser u : users) {
-            if (u == null || u.getId() == null) continue;
-            registeredUsers.put(u.getId(), u);
+        synchronized (accountsLock) {
+            registeredUsers.clear();
+            usersByUsername.clear();
+            if (users == null) return;
+            for (RegisteredUser u : users) {
+                if (u == null || u.getId() == null) continue;
+                RegisteredUser previous = registeredUsers.put(u.getId(), u);
+                if (previous != null) {
+                    usersByUsername.remove(previous.getUsername(), previous);
+                }
+                if (u.getUsername() != null) {
+                    usersByUsername.put(u.getUsername(), u);
+                }
+            }
         }
     }
 
@@ -126,28 +268,33 @@ public class AuthService {
      */
     public RegisteredUser updateUser(String id, String displayName, String username, String password) {
         if (id == null || displayName == null || username == null || password == null) {
-            System.err.println("Paràmetres invàlids per actualitzar l'usuari");
+            LOG.debug("actualització rebutjada: paràmetres invàlids", "id", id);
             return null;
         }
 
-        RegisteredUser existing = registeredUsers.get(id);
-        if (existing == null) {
-            System.err.println("Usuari no trobat");
-            return null;
-        }
-
-        boolean usernameTaken = registeredUsers.values().stream()
-                .anyMatch(u -> !u.getId().equals(id) && u.getUsername().equals(username));
-        if (usernameTaken) {
-            System.err.println("El nom d'usuari ja existeix");
-            return null;
-        }
+        String passwordHash = hashPassword(password);
+        synchronized (accountsLock) {
+            RegisteredUser existing = registeredUsers.get(id);
+            if (existing == null) {
+                LOG.debug("actualització rebutjada: usuari no trobat", "id", id);
+                return null;
+            }
 
-        existing.changeDisplayName(displayName);
-        existing.changeUsername(username);
-        existing.changePassword(hashPassword(password));
+            RegisteredUser holder = usersByUsername.putIfAbsent(username, existing);
+            if (holder != null && holder != existing) {
+                LOG.info("actualització rebutjada: el nom d'usuari ja existeix", "id", id, "username", username);
+                return null;
+            }
 
-        return existing;
+            String oldUsername = existing.getUsername();
+            existing.changeDisplayName(displayName);
+            existing.changeUsername(username);
+            existing.changePassword(passwordHash);
+            if (!username.equals(oldUsername)) {
+                usersByUsername.remove(oldUsername, existing);
+            }
+            return existing;
+        }
     }
 
     /**
@@ -156,14 +303,17 @@ public class AuthService {
      */
     public boolean deleteUser(String id) {
         if (id == null) {
-            System.err.println("ID invàlid per eliminar l'usuari");
+            LOG.debug("eliminació rebutjada: ID invàlid");
             return false;
         }
 
-        RegisteredUser removed = registeredUsers.remove(id);
-        if (removed == null) {
-            System.err.println("Usuari no trobat");
-            return false;
+        synchronized (accountsLock) {
+            RegisteredUser removed = registeredUsers.remove(id);
+            if (removed == null) {
+                LOG.debug("eliminació rebutjada: usuari no trobat", "id", id);
+                return false;
+            }
+            usersByUsername.remove(removed.getUsername(), removed);
         }
 
         // Tanca i elimina sessions actives d'aquest usuari
@@ -1,7 +1,12 @@
 package user;
 
+import java.security.SecureRandom;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.random.RandomGenerator;
+import java.time.ZoneId;
+import java.util.Base64;
+import logging.Log;
+import logging.Logger;
 
 /**
  * Representa una sesión activa asociada a un usuario.
@@ -11,17 +16,25 @@ import java.util.random.RandomGenerator;
  */
 public class Sesion {
 
+    private static final Logger LOG = Log.get(Sesion.class);
+
+    /** Bytes aleatorios del ID de sesión (128 bits). */
+    private static final int SESSION_ID_BYTES = 16;
+
+    /** Generador criptográfico: el ID de sesión actúa como credencial del cliente. */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
     /** Identificador único de la sesión. */
     private String sessionId;
 
     /** Usuario al que pertenece la sesión. */
     private User user;
 
-    /** Fecha y hora del último acceso. */
-    private String lastAccessTime;
+    /** Instante del último acceso, en milisegundos desde epoch. */
+    private volatile long lastAccessMillis;
 
     /** Indica si la sesión está activa. */
-    private boolean active;
+    private volatile boolean active;
     
     /**
      * Crea una nueva sesión para un usuario dado.
@@ -32,23 +45,27 @@ public class Sesion {
         this.user = user;
         this.sessionId = generateSessionId();
         this.active = true;
-        this.lastAccessTime = LocalDateTime.now().toString();
+        this.lastAccessMillis = System.currentTimeMillis();
     }
 
     /**
      * Actualiza la marca temporal del último acceso a la sesión.
      */
     public void updateLastAccessTime() {
-        this.lastAccessTime = LocalDateTime.now().toString();
+        this.lastAccessMillis = System.currentTimeMillis();
     }
 
     /**
-     * Genera un identificador aleatorio único para la sesión.
+     * Genera un identificador aleatorio único para la sesión. Los clientes lo
+     * reenvían como token ({@code @token|ACTION}), así que se obtiene de un
+     * {@link SecureRandom} con {@value #SESSION_ID_BYTES} bytes.
      *
-     * @return ID de sesión en formato hexadecimal.
+     * @return ID de sesión en base64url sin relleno (22 caracteres).
      */
     private String generateSessionId() {
-        return Long.toHexString(RandomGenerator.getDefault().nextLong());
+        byte[] bytes = new byte[SESSION_ID_BYTES];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
     }
 
     /**
@@ -75,8 +92,17 @@ public class Sesion {
      * @return Cadena ISO-8601 con fecha y hora.
      */
     public String getLastAccessTime() {
-        return lastAccessTime;
-    }   
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(lastAccessMillis), ZoneId.systemDefault()).toString();
+    }
+
+    /**
+     * Obtiene el instante del último acceso (usado para caducar sesiones inactivas).
+     *
+     * @return Milisegundos desde epoch.
+     */
+    public long getLastAccessMillis() {
+        return lastAccessMillis;
+    }
 
     /**
      * Indica si la sesión sigue activa.
@@ -91,7 +117,7 @@ public class Sesion {
      * Cierra la sesión y la marca como inactiva.
      */
     public void close() {
-        System.out.println("Session " + sessionId + " closed.");
+        LOG.debug("sessió tancada", "sessionId", sessionId, "userId", user == null ? null : user.getId());
         this.active = false;
     }
 }
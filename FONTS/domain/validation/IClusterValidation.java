@@ -2,10 +2,15 @@ package validation;
 
 import kmeans.ClusterModel;
 import distance.Distance;
+import matrix.FeatureMatrix;
 
 /**
  * Interfície per a una estratègia de validació de la qualitat d'un clustering.
  * Permet avaluar com de bones són les agrupacions resultants.
+ *
+ * <p>Com a {@code kmeans.IClusteringAlgorithm}, les implementacions treballen
+ * sobre {@link FeatureMatrix} i les entrades sobre {@code double[][]} només
+ * hi deleguen.</p>
  */
 public interface IClusterValidation {
 
@@ -18,7 +23,20 @@ public interface IClusterValidation {
      * @return Un array de double (double[]) on cada índex i conté
      * la puntuació del punt i en la matriu de dades.
      */
-    double[] scorePerPoint(double[][] data, ClusterModel model, Distance dist);
+    default double[] scorePerPoint(double[][] data, ClusterModel model, Distance dist) {
+        return scorePerPoint(FeatureMatrix.of(data), model, dist);
+    }
+
+    /**
+     * Calcula la puntuació de validació per a cada fila d'una matriu de
+     * característiques.
+     *
+     * @param data  La matriu de dades original.
+     * @param model El model de clustering a avaluar.
+     * @param dist  La mètrica de distància utilitzada per al clustering.
+     * @return La puntuació de cada fila.
+     */
+    double[] scorePerPoint(FeatureMatrix data, ClusterModel model, Distance dist);
 
     /**
      * Calcula la puntuació de validació mitjana per a tot el clustering.
@@ -29,6 +47,14 @@ public interface IClusterValidation {
      * @return La puntuació mitjana (Coeficient de Silhouette promig).
      */
     default double average(double[][] data, ClusterModel model, Distance dist) {
+        return average(FeatureMatrix.of(data), model, dist);
+    }
+
+    /**
+     * Com {@link #average(double[][], ClusterModel, Distance)} sobre una
+     * matriu de característiques.
+     */
+    default double average(FeatureMatrix data, ClusterModel model, Distance dist) {
         double[] s = scorePerPoint(data, model, dist);
         double m = 0;
         for (double v : s) m += v;
@@ -3,6 +3,10 @@ package validation;
 import kmeans.ClusterModel;
 import distance.Distance;
 import distance.CosineDistance;
+import matrix.DenseFeatureMatrix;
+import matrix.FeatureMatrix;
+import java.util.Arrays;
+import java.util.Random;
 
 /**
  * Implementació del coeficient de Silhouette per validar la qualitat d'un clustering.
@@ -14,6 +18,9 @@ import distance.CosineDistance;
  */
 public class Silhouette implements IClusterValidation {
 
+    /** Mida màxima (en valors) del bloc de distàncies que es calcula de cop. */
+    private static final int MAX_BUFFER = 1 << 20;
+
     /**
      * Crea un calculador del coeficient de Silhouette sense estat compartit.
      */
@@ -32,42 +39,93 @@ public class Silhouette implements IClusterValidation {
      * @return Un array de double on cada índex i conté el coeficient de Silhouette del punt i.
      */
     @Override
-    public double[] scorePerPoint(double[][] X, ClusterModel model, Distance dist) {
+    public double[] scorePerPoint(FeatureMatrix X, ClusterModel model, Distance dist) {
         if (dist == null) dist = new CosineDistance();
-        int n = X.length, k = model.getCentroids().length;
+        int n = X.rows(), k = model.getCentroids().length;
         int[] lab = model.getLabels();
         double[] s = new double[n];
 
         int[] counts = new int[k];
         for (int l : lab) counts[l]++;
 
-        for (int i = 0; i < n; i++) {
-            int ci = lab[i];
-
-            double a = 0;
-            int ca = 0;
-            for (int j = 0; j < n; j++)
-                if (lab[j] == ci && i != j) {
-                    a += dist.between(X[i], X[j]);
-                    ca++;
-                }
-            a = (ca == 0) ? 0 : a/ca;
+        // normes precalculades: cada fila es compara amb les n restants
+        double[] norm = dist.norms(X);
 
-            double b = Double.POSITIVE_INFINITY;
-            for (int c = 0; c < k; c++)
-                if (c != ci && counts[c] > 0) {
-                    double sum = 0;
-                    int cb = 0;
-                    for (int j = 0; j < n; j++)
-                        if (lab[j] == c) {
-                            sum += dist.between(X[i], X[j]);
-                            cb++;
-                        }
-                    double mean = sum/cb;
-                    if (mean < b) b = mean;
+        // Les distàncies es calculen per blocs de files amb Distance.pairwise
+        // (buffer de com a molt MAX_BUFFER valors) i s'acumulen per clúster.
+        int block = Math.max(1, Math.min(Distance.TILE, MAX_BUFFER / Math.max(1, n)));
+        double[][] D = new double[block][n];
+        double[] sums = new double[k];
+        for (int i0 = 0; i0 < n; i0 += block) {
+            int i1 = Math.min(n, i0 + block);
+            double[][] rows = i1 - i0 == block ? D : Arrays.copyOf(D, i1 - i0);
+            dist.pairwise(X, i0, i1, norm, rows);
+            for (int i = i0; i < i1; i++) {
+                double[] row = rows[i - i0];
+                Arrays.fill(sums, 0.0);
+                for (int j = 0; j < n; j++) {
+                    if (j != i) sums[lab[j]] += row[j];
                 }
-            s[i] = (b == 0 && a == 0) ? 0 : (b-a)/Math.max(a, b);
+                s[i] = score(sums, counts, lab[i]);
+            }
         }
         return s;
     }
+
+    /**
+     * Estimació del coeficient de Silhouette mitjà a partir d'una mostra
+     * aleatòria de {@code sampleSize} punts: la silueta de la mostra (amb les
+     * etiquetes del model), en què a(i) i b(i) són mitjanes sobre els punts
+     * mostrejats de cada clúster. Cost O(sampleSize²) en lloc d'O(n²),
+     * independent de n. Si la mostra cobreix totes les files, dona el mateix
+     * que {@link #average(FeatureMatrix, ClusterModel, Distance)}.
+     *
+     * @param X Matriu de dades original.
+     * @param model El model de clustering a avaluar.
+     * @param dist La mètrica de distància utilitzada per al clustering.
+     * @param sampleSize Nombre de punts de la mostra.
+     * @param seed Llavor per triar la mostra.
+     * @return La silueta mitjana de la mostra.
+     */
+    public double averageSampled(FeatureMatrix X, ClusterModel model, Distance dist, int sampleSize, long seed) {
+        int n = X.rows();
+        if (sampleSize >= n) return average(X, model, dist);
+        int[] lab = model.getLabels();
+
+        // Fisher-Yates parcial: els primers sampleSize índexs són la mostra
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) idx[i] = i;
+        Random rnd = new Random(seed);
+        DenseFeatureMatrix S = new DenseFeatureMatrix(sampleSize, X.cols());
+        int[] sLab = new int[sampleSize];
+        double[] row = new double[X.cols()];
+        for (int t = 0; t < sampleSize; t++) {
+            int r = t + rnd.nextInt(n - t);
+            int i = idx[r];
+            idx[r] = idx[t];
+            idx[t] = i;
+            X.copyRow(i, row);
+            S.setRow(t, row);
+            sLab[t] = lab[i];
+        }
+        ClusterModel sModel = new ClusterModel(model.getCentroids(), sLab, model.getInertia(), model.getIterations());
+        return average(S, sModel, dist);
+    }
+
+    /**
+     * s(i) a partir de les sumes de distàncies del punt a cada clúster.
+     */
+    private static double score(double[] sums, int[] counts, int ci) {
+        int ca = counts[ci] - 1;
+        double a = (ca == 0) ? 0 : sums[ci]/ca;
+
+        double b = Double.POSITIVE_INFINITY;
+        for (int c = 0; c < counts.length; c++) {
+            if (c != ci && counts[c] > 0) {
+                double mean = sums[c]/counts[c];
+                if (mean < b) b = mean;
+            }
+        }
+        return (b == 0 && a == 0) ? 0 : (b-a)/Math.max(a, b);
+    }
 }
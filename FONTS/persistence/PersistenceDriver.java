@@ -4,6 +4,7 @@ import Exceptions.NullArgumentException;
 import Exceptions.PersistenceException;
 import Response.SurveyResponse;
 import Survey.Survey;
+import metrics.MetricsRegistry;
 import user.RegisteredUser;
 import java.util.Collection;
 import java.util.List;
@@ -17,6 +18,9 @@ public class PersistenceDriver {
     private final UserPersistence userPersistence;
     private final SurveyPersistence surveyPersistence;
     private final ResponsePersistance responsePersistance;
+
+    /** Temps de cada operació de persistència ({@code persistence.<mètode>}). */
+    private final MetricsRegistry metrics = MetricsRegistry.global();
     
     /**
      * Constructor per defecte amb configuració estàndard.
@@ -44,10 +48,27 @@ public class PersistenceDriver {
     // ==================== USER PERSISTENCE ====================
     
     /**
-     * Desa un usuari registrat.
+     * Desa (alta o modificació) un usuari registrat de forma incremental.
      */
     public void persistUser(RegisteredUser user) throws NullArgumentException, PersistenceException {
-        userPersistence.persistUser(user);
+        long started = System.nanoTime();
+        try {
+            userPersistence.persistUser(user);
+        } finally {
+            metrics.timer("persistence.persistUser").recordSince(started);
+        }
+    }
+
+    /**
+     * Elimina un usuari registrat de forma incremental.
+     */
+    public void deleteUser(String id) throws NullArgumentException, PersistenceException {
+        long started = System.nanoTime();
+        try {
+            userPersistence.deleteUser(id);
+        } finally {
+            metrics.timer("persistence.deleteUser").recordSince(started);
+        }
     }
     
     /**
@@ -55,14 +76,24 @@ public class PersistenceDriver {
      */
     public void persistAllUsers(Collection<RegisteredUser> users) 
             throws NullArgumentException, PersistenceException {
-        userPersistence.persistAllUsers(users);
+        long started = System.nanoTime();
+        try {
+            userPersistence.persistAllUsers(users);
+        } finally {
+            metrics.timer("persistence.persistAllUsers").recordSince(started);
+        }
     }
 
     /**
      * Carrega tots els usuaris registrats des de persistència.
      */
     public List<RegisteredUser> loadAllUsers() throws PersistenceException {
-        return userPersistence.loadAllUsers();
+        long started = System.nanoTime();
+        try {
+            return userPersistence.loadAllUsers();
+        } finally {
+            metrics.timer("persistence.loadAllUsers").recordSince(started);
+        }
     }
     
     // ==================== SURVEY PERSISTENCE ====================
@@ -71,21 +102,36 @@ public class PersistenceDriver {
      * Desa una enquesta.
      */
     public void saveSurvey(Survey survey) throws NullArgumentException, PersistenceException {
-        surveyPersistence.save(survey);
+        long started = System.nanoTime();
+        try {
+            surveyPersistence.save(survey);
+        } finally {
+            metrics.timer("persistence.saveSurvey").recordSince(started);
+        }
     }
     
     /**
      * Carrega una enquesta pel seu ID.
      */
     public Survey loadSurvey(String surveyId) throws NullArgumentException, PersistenceException {
-        return surveyPersistence.load(surveyId);
+        long started = System.nanoTime();
+        try {
+            return surveyPersistence.load(surveyId);
+        } finally {
+            metrics.timer("persistence.loadSurvey").recordSince(started);
+        }
     }
     
     /**
      * Carrega totes les enquestes disponibles.
      */
     public List<Survey> loadAllSurveys() throws PersistenceException {
-        return surveyPersistence.loadAll();
+        long started = System.nanoTime();
+        try {
+            return surveyPersistence.loadAll();
+        } finally {
+            metrics.timer("persistence.loadAllSurveys").recordSince(started);
+        }
     }
     
     /**
@@ -93,7 +139,12 @@ public class PersistenceDriver {
      * @return true si s'ha eliminat, false si no existia.
      */
     public boolean deleteSurvey(String surveyId) throws NullArgumentException, PersistenceException {
-        return surveyPersistence.delete(surveyId);
+        long started = System.nanoTime();
+        try {
+            return surveyPersistence.delete(surveyId);
+        } finally {
+            metrics.timer("persistence.deleteSurvey").recordSince(started);
+        }
     }
     
     // ==================== RESPONSE PERSISTENCE ====================
@@ -103,7 +154,12 @@ public class PersistenceDriver {
      */
     public void saveAllResponses(String surveyId, List<SurveyResponse> responses) 
             throws NullArgumentException, PersistenceException {
-        responsePersistance.saveAll(surveyId, responses);
+        long started = System.nanoTime();
+        try {
+            responsePersistance.saveAll(surveyId, responses);
+        } finally {
+            metrics.timer("persistence.saveAllResponses").recordSince(started);
+        }
     }
     
     /**
@@ -111,7 +167,12 @@ public class PersistenceDriver {
      */
     public void appendResponse(String surveyId, SurveyResponse response) 
             throws NullArgumentException, PersistenceException {
-        responsePersistance.append(surveyId, response);
+        long started = System.nanoTime();
+        try {
+            responsePersistance.append(surveyId, response);
+        } finally {
+            metrics.timer("persistence.appendResponse").recordSince(started);
+        }
     }
     
     /**
@@ -119,7 +180,12 @@ public class PersistenceDriver {
      */
     public List<SurveyResponse> loadAllResponses(String surveyId) 
             throws NullArgumentException, PersistenceException {
-        return responsePersistance.loadAll(surveyId);
+        long started = System.nanoTime();
+        try {
+            return responsePersistance.loadAll(surveyId);
+        } finally {
+            metrics.timer("persistence.loadAllResponses").recordSince(started);
+        }
     }
     
     /**
@@ -127,7 +193,12 @@ public class PersistenceDriver {
      * @return true si s'ha eliminat, false si no existia.
      */
     public boolean deleteResponses(String surveyId) throws NullArgumentException, PersistenceException {
-        return responsePersistance.delete(surveyId);
+        long started = System.nanoTime();
+        try {
+            return responsePersistance.delete(surveyId);
+        } finally {
+            metrics.timer("persistence.deleteResponses").recordSince(started);
+        }
     }
     
     // ==================== BATCH OPERATIONS ====================
@@ -0,0 +1,339 @@
+package persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import user.RegisteredUser;
+
+/**
+ * Lector en streaming dels fitxers d'usuaris ({@code userdata.json} i
+ * {@code userdata.log}).
+ *
+ * <p>Fa una sola passada sobre els bytes UTF-8 de l'{@link InputStream}
+ * amb un buffer propi i omple directament un {@link Record} per cada
+ * objecte, sense construir el contingut sencer en memòria ni subcadenes
+ * per objecte. Els caràcters estructurals són ASCII, de manera que només
+ * es descodifiquen els valors de cadena. Només es guarden els camps
+ * coneguts; la resta de valors (números, literals, objectes o llistes
+ * niades) es salten.</p>
+ *
+ * <p>El registre de canvis es llegeix amb {@link #nextLogRecord}, que tracta
+ * cada línia per separat: un salt de línia fora d'una cadena sempre acaba
+ * l'entrada, de manera que una entrada a mitges no pot consumir la
+ * següent.</p>
+ */
+final class UserJsonReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/** Claus conegudes, en l'ordre de {@link #assign}. */
+	private static final byte[][] FIELDS = {
+			"op".getBytes(StandardCharsets.US_ASCII),
+			"id".getBytes(StandardCharsets.US_ASCII),
+			"displayName".getBytes(StandardCharsets.US_ASCII),
+			"username".getBytes(StandardCharsets.US_ASCII),
+			"passwordHash".getBytes(StandardCharsets.US_ASCII)
+	};
+
+	private final InputStream in;
+	private final byte[] buf = new byte[BUFFER_SIZE];
+	private int pos;
+	private int limit;
+	/** Si és cert, {@link #peek} i {@link #read} tracten el {@code '\n'} com el final del contingut. */
+	private boolean stopAtNewline;
+
+	/** Bytes UTF-8 de la cadena que s'està llegint. */
+	private byte[] str = new byte[128];
+	private int strLen;
+
+	UserJsonReader(InputStream in) {
+		this.in = in;
+	}
+
+	/**
+	 * Camps d'un objecte d'usuari o d'una entrada del registre.
+	 */
+	static final class Record {
+		String op;
+		String id;
+		String displayName;
+		String username;
+		String passwordHash;
+
+		void clear() {
+			op = id = displayName = username = passwordHash = null;
+		}
+
+		boolean isDelete() {
+			return "delete".equals(op);
+		}
+
+		RegisteredUser toUser(String createdAt) {
+			if (id == null || id.isBlank()) return null;
+			return new RegisteredUser(
+					id,
+					displayName == null ? "" : displayName,
+					createdAt,
+					username == null ? "" : username,
+					passwordHash == null ? "" : passwordHash
+			);
+		}
+	}
+
+	/**
+	 * Error de format en el contingut llegit.
+	 */
+	static final class MalformedJsonException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		MalformedJsonException(String message) {
+			super(message);
+		}
+	}
+
+	/**
+	 * Consumeix el {@code [} inicial d'una llista.
+	 *
+	 * @return {@code false} si el contingut és buit.
+	 */
+	boolean beginArray() throws IOException {
+		int c = skipWhitespace();
+		if (c < 0) return false;
+		if (c != '[') throw new MalformedJsonException("S'esperava '['");
+		read();
+		return true;
+	}
+
+	/**
+	 * Llegeix el següent objecte (saltant separadors {@code ,}) i n'omple els camps.
+	 *
+	 * @return {@code false} si s'ha arribat a {@code ]} o al final del contingut.
+	 */
+	boolean nextObject(Record record) throws IOException {
+		int c = skipWhitespace();
+		while (c == ',') {
+			read();
+			c = skipWhitespace();
+		}
+		if (c < 0) return false;
+		if (c == ']') {
+			read();
+			return false;
+		}
+		if (c != '{') throw new MalformedJsonException("S'esperava '{'");
+		read();
+		record.clear();
+
+		c = skipWhitespace();
+		if (c == '}') {
+			read();
+			return true;
+		}
+		while (true) {
+			if (skipWhitespace() != '"') throw new MalformedJsonException("S'esperava una clau");
+			read();
+			int field = readKey();
+			if (skipWhitespace() != ':') throw new MalformedJsonException("S'esperava ':'");
+			read();
+			if (skipWhitespace() == '"') {
+				read();
+				assign(record, field, readStringBody());
+			} else {
+				skipValue();
+			}
+			c = skipWhitespace();
+			read();
+			if (c == '}') return true;
+			if (c != ',') throw new MalformedJsonException("S'esperava ',' o '}'");
+		}
+	}
+
+	/**
+	 * Llegeix la següent línia no buida del registre com un objecte. La línia
+	 * es consumeix sencera (salt de línia inclòs) tant si és vàlida com si no.
+	 *
+	 * @return {@code false} al final del contingut.
+	 * @throws MalformedJsonException si la línia no és exactament un objecte.
+	 */
+	boolean nextLogRecord(Record record) throws IOException {
+		if (skipWhitespace() < 0) return false;
+		stopAtNewline = true;
+		try {
+			if (peek() != '{' || !nextObject(record)) {
+				throw new MalformedJsonException("S'esperava '{'");
+			}
+			if (skipWhitespace() >= 0) {
+				throw new MalformedJsonException("Contingut després de l'objecte");
+			}
+			return true;
+		} finally {
+			stopAtNewline = false;
+			int c;
+			do {
+				c = read();
+			} while (c >= 0 && c != '\n');
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	private static void assign(Record record, int field, String value) {
+		switch (field) {
+			case 0: record.op = value; break;
+			case 1: record.id = value; break;
+			case 2: record.displayName = value; break;
+			case 3: record.username = value; break;
+			case 4: record.passwordHash = value; break;
+			default: break;
+		}
+	}
+
+	/**
+	 * Llegeix una clau i retorna la posició del camp a {@link #FIELDS}
+	 * (o -1 si no és coneguda) sense crear cap {@code String}.
+	 */
+	private int readKey() throws IOException {
+		readStringBytes();
+		for (int i = 0; i < FIELDS.length; i++) {
+			if (Arrays.equals(str, 0, strLen, FIELDS[i], 0, FIELDS[i].length)) return i;
+		}
+		return -1;
+	}
+
+	/** Llegeix el contingut d'una cadena un cop consumida la cometa inicial. */
+	private String readStringBody() throws IOException {
+		readStringBytes();
+		return new String(str, 0, strLen, StandardCharsets.UTF_8);
+	}
+
+	/** Omple {@link #str} amb els bytes UTF-8 de la cadena, fins a la cometa final (consumida). */
+	private void readStringBytes() throws IOException {
+		strLen = 0;
+		while (true) {
+			// camí ràpid: copia trams sense escapes directament del buffer
+			int start = pos;
+			while (pos < limit) {
+				byte b = buf[pos];
+				if (b == '"' || b == '\\' || b == '\n') break;
+				pos++;
+			}
+			appendBytes(buf, start, pos - start);
+			int c = read();
+			if (c < 0) throw new MalformedJsonException("Cadena sense tancar");
+			if (c == '"') return;
+			if (c == '\n') throw new MalformedJsonException("Salt de línia dins una cadena");
+			if (c == '\\') {
+				int e = read();
+				switch (e) {
+					case '"': appendChar('"'); break;
+					case '\\': appendChar('\\'); break;
+					case '/': appendChar('/'); break;
+					case 'b': appendChar('\b'); break;
+					case 'f': appendChar('\f'); break;
+					case 'n': appendChar('\n'); break;
+					case 'r': appendChar('\r'); break;
+					case 't': appendChar('\t'); break;
+					case 'u': appendChar(readHexChar()); break;
+					default: throw new MalformedJsonException("Escapament no vàlid");
+				}
+			} else {
+				// el camí ràpid s'ha aturat al final del buffer
+				appendByte((byte) c);
+			}
+		}
+	}
+
+	/** Afegeix un caràcter escapat codificat en UTF-8 (els {@code \\u} amb parells subrogats es combinen). */
+	private void appendChar(char ch) throws IOException {
+		int cp = ch;
+		if (Character.isHighSurrogate(ch) && peek() == '\\') {
+			read();
+			if (read() != 'u') throw new MalformedJsonException("Escapament unicode no vàlid");
+			char low = readHexChar();
+			cp = Character.isLowSurrogate(low) ? Character.toCodePoint(ch, low) : '?';
+		} else if (Character.isSurrogate(ch)) {
+			cp = '?';
+		}
+		byte[] encoded = new String(Character.toChars(cp)).getBytes(StandardCharsets.UTF_8);
+		appendBytes(encoded, 0, encoded.length);
+	}
+
+	private void appendByte(byte b) {
+		if (strLen == str.length) str = Arrays.copyOf(str, strLen * 2);
+		str[strLen++] = b;
+	}
+
+	private void appendBytes(byte[] src, int off, int len) {
+		if (strLen + len > str.length) str = Arrays.copyOf(str, Math.max(str.length * 2, strLen + len));
+		System.arraycopy(src, off, str, strLen, len);
+		strLen += len;
+	}
+
+	private char readHexChar() throws IOException {
+		int value = 0;
+		for (int i = 0; i < 4; i++) {
+			int digit = Character.digit(read(), 16);
+			if (digit < 0) throw new MalformedJsonException("Escapament unicode no vàlid");
+			value = (value << 4) | digit;
+		}
+		return (char) value;
+	}
+
+	/** Salta un valor que no és cadena (número, literal, objecte o llista). */
+	private void skipValue() throws IOException {
+		int depth = 0;
+		while (true) {
+			int c = peek();
+			if (c < 0) throw new MalformedJsonException("Valor sense acabar");
+			if (c == '"') {
+				read();
+				readStringBytes();
+				continue;
+			}
+			if (c == '{' || c == '[') {
+				depth++;
+			} else if (c == '}' || c == ']') {
+				if (depth == 0) return;
+				depth--;
+			} else if (c == ',' && depth == 0) {
+				return;
+			} else if (c == '\n' && depth == 0) {
+				return;
+			}
+			read();
+		}
+	}
+
+	private int skipWhitespace() throws IOException {
+		while (true) {
+			int c = peek();
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+			read();
+		}
+	}
+
+	private int peek() throws IOException {
+		if (pos == limit && !fill()) return -1;
+		if (stopAtNewline && buf[pos] == '\n') return -1;
+		return buf[pos] & 0xFF;
+	}
+
+	private int read() throws IOException {
+		if (pos == limit && !fill()) return -1;
+		if (stopAtNewline && buf[pos] == '\n') return -1;
+		return buf[pos++] & 0xFF;
+	}
+
+	private boolean fill() throws IOException {
+		int n = in.read(buf, 0, buf.length);
+		if (n <= 0) return false;
+		pos = 0;
+		limit = n;
+		return true;
+	}
+}
@@ -3,17 +3,76 @@ package persistence;
 import Exceptions.NullArgumentException;
 import Exceptions.PersistenceException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import logging.Log;
+import logging.Logger;
 import user.RegisteredUser;
 
+/**
+ * Persistència d'usuaris registrats.
+ *
+ * <p>L'estat es guarda en dos fitxers: una instantània completa
+ * ({@code userdata.json}) i un registre de canvis només d'afegir
+ * ({@code userdata.log}) amb una línia JSON per operació
+ * ({@code upsert} o {@code delete}). Cada alta, modificació o baixa
+ * escriu només la seva línia. En carregar, es llegeix la instantània i es
+ * reprodueix el registre.</p>
+ *
+ * <p>Compactació: quan el registre arriba a {@code compactThreshold} entrades
+ * ({@value #DEFAULT_COMPACT_THRESHOLD} per defecte) l'escriptura que el fa
+ * arribar-hi programa una compactació a l'executor de fons i torna de
+ * seguida. La compactació renombra el registre a {@code userdata.log.compacting}
+ * (les escriptures següents van a un registre nou), fusiona la instantània
+ * amb aquest fitxer sense retenir el monitor i, finalment, substitueix la
+ * instantània i esborra el fitxer fusionat. Si el procés cau a mig camí, el
+ * fitxer {@code .compacting} es reprodueix en carregar i la compactació
+ * següent el completa.</p>
+ */
 public class UserPersistence {
 
+	private static final Logger LOG = Log.get(UserPersistence.class);
+
+	/** Nombre d'entrades del registre a partir del qual es compacta per defecte. */
+	public static final int DEFAULT_COMPACT_THRESHOLD = 1000;
+
+	/** Executor de fons compartit per les compactacions (un sol fil dimoni). */
+	private static final Executor BACKGROUND = Executors.newSingleThreadExecutor(r -> {
+		Thread t = new Thread(r, "user-log-compactor");
+		t.setDaemon(true);
+		return t;
+	});
+
 	private final Path userDataPath;
+	private final Path changeLogPath;
+	/** Registre en procés de compactació (el {@code changeLogPath} renombrat). */
+	private final Path compactingLogPath;
+	private final int compactThreshold;
+	private final Executor compactor;
+
+	/** Serialitza les compactacions sense bloquejar les escriptures. */
+	private final Object compactionLock = new Object();
+
+	/** Si hi ha una compactació programada que encara no ha acabat. */
+	private boolean compactionScheduled;
+
+	/** S'incrementa cada cop que {@link #persistAllUsers} reescriu la instantània. */
+	private long snapshotGeneration;
+
+	/** Entrades escrites al registre des de la darrera compactació. */
+	private int pendingLogRecords = -1;
+
+	/** Si ja s'ha comprovat que el registre acaba en salt de línia. */
+	private boolean logTailChecked;
 
 	public UserPersistence() {
 		this(resolveDefaultUserDataPath());
@@ -35,54 +94,217 @@ public class UserPersistence {
 	}
 
 	public UserPersistence(Path userDataPath) {   // verificacion simple, eliminable
+		this(userDataPath, DEFAULT_COMPACT_THRESHOLD);
+	}
+
+	/**
+	 * @param userDataPath     camí de la instantània (el registre es crea al costat, amb extensió .log).
+	 * @param compactThreshold entrades del registre que disparen la compactació
+	 *                         (a l'executor de fons compartit).
+	 */
+	public UserPersistence(Path userDataPath, int compactThreshold) {
+		this(userDataPath, compactThreshold, BACKGROUND);
+	}
+
+	/**
+	 * @param userDataPath     camí de la instantània (el registre es crea al costat, amb extensió .log).
+	 * @param compactThreshold entrades del registre que disparen la compactació.
+	 * @param compactor        executor on s'executen les compactacions automàtiques.
+	 */
+	public UserPersistence(Path userDataPath, int compactThreshold, Executor compactor) {
 		if (userDataPath == null) {
 			throw new IllegalArgumentException("userDataPath cannot be null");
 		}
+		if (compactThreshold < 1) {
+			throw new IllegalArgumentException("compactThreshold must be >= 1");
+		}
+		if (compactor == null) {
+			throw new IllegalArgumentException("compactor cannot be null");
+		}
 		this.userDataPath = userDataPath;
+		this.changeLogPath = userDataPath.resolveSibling(stripJsonExt(userDataPath.getFileName().toString()) + ".log");
+		this.compactingLogPath = changeLogPath.resolveSibling(changeLogPath.getFileName() + ".compacting");
+		this.compactThreshold = compactThreshold;
+		this.compactor = compactor;
 	}
 
-	public synchronized void persistUser(RegisteredUser user) throws NullArgumentException, PersistenceException {
+	private static String stripJsonExt(String fileName) {
+		return fileName.endsWith(".json") ? fileName.substring(0, fileName.length() - 5) : fileName;
+	}
+
+	/**
+	 * Desa (alta o modificació) un usuari afegint una entrada {@code upsert} al registre.
+	 */
+	public void persistUser(RegisteredUser user) throws NullArgumentException, PersistenceException {
 		if (user == null) {
 			throw new NullArgumentException("registeredUser");
 		}
+		String body = serialize(user).trim();
+		if (appendLogRecord("{\"op\":\"upsert\"," + body.substring(1))) {
+			scheduleCompaction();
+		}
+	}
 
-		try {
-			Path parent = userDataPath.getParent();
-			if (parent != null) {
-				Files.createDirectories(parent);
+	/**
+	 * Elimina un usuari afegint una entrada {@code delete} al registre.
+	 */
+	public void deleteUser(String id) throws NullArgumentException, PersistenceException {
+		if (id == null) {
+			throw new NullArgumentException("id");
+		}
+		if (appendLogRecord("{\"op\":\"delete\",\"id\":\"" + escape(id) + "\"}")) {
+			scheduleCompaction();
+		}
+	}
+
+	/**
+	 * Bolca les entrades del registre a {@code userdata.json}. El monitor
+	 * d'aquesta instància només es reté per renombrar el registre i per
+	 * instal·lar la nova instantània; la lectura i l'escriptura es fan fora,
+	 * i les altes i baixes concurrents van al registre nou.
+	 */
+	public void compact() throws PersistenceException {
+		synchronized (compactionLock) {
+			long started = System.nanoTime();
+			long generation;
+			synchronized (this) {
+				generation = snapshotGeneration;
+				try {
+					// Un .compacting d'una compactació interrompuda es fusiona primer;
+					// el registre actual ja es compactarà a la següent.
+					if (!Files.exists(compactingLogPath) && Files.exists(changeLogPath)) {
+						Files.move(changeLogPath, compactingLogPath, StandardCopyOption.ATOMIC_MOVE);
+						pendingLogRecords = 0;
+					}
+				} catch (IOException io) {
+					throw new PersistenceException("userdata.log", io.getMessage());
+				}
 			}
+			if (!Files.exists(compactingLogPath)) return;
 
-			String userJson = serialize(user);
-			String newContent;
+			java.util.List<RegisteredUser> users = readState(false);
+			Path tmp = writeSnapshotTmp(users);
+			synchronized (this) {
+				try {
+					if (generation != snapshotGeneration) {
+						// persistAllUsers ja ha escrit una instantània més nova
+						Files.deleteIfExists(tmp);
+						return;
+					}
+					installSnapshot(tmp);
+					Files.deleteIfExists(compactingLogPath);
+				} catch (IOException io) {
+					throw new PersistenceException("userdata.json", io.getMessage());
+				}
+			}
+			LOG.info("registre d'usuaris compactat", "users", users.size(),
+					"ms", (System.nanoTime() - started) / 1_000_000);
+		}
+	}
 
-			if (!Files.exists(userDataPath) || Files.size(userDataPath) == 0) {
-				newContent = wrapAsArray(userJson);
-			} else {
-				String current = Files.readString(userDataPath, StandardCharsets.UTF_8);
-				newContent = appendUser(current, userJson);
+	/**
+	 * Programa una compactació a l'executor de fons. Es crida sense retenir
+	 * el monitor, un cop {@link #appendLogRecord} ha marcat
+	 * {@code compactionScheduled}.
+	 */
+	private void scheduleCompaction() {
+		compactor.execute(() -> {
+			try {
+				compact();
+			} catch (PersistenceException e) {
+				LOG.warn("no s'ha pogut compactar el registre d'usuaris", "error", e.getMessage());
+			} finally {
+				synchronized (this) {
+					compactionScheduled = false;
+				}
 			}
+		});
+	}
 
+	/**
+	 * Afegeix una entrada al registre.
+	 *
+	 * @return {@code true} si el registre ha arribat al llindar i el cridador
+	 *         ha de programar la compactació.
+	 */
+	private synchronized boolean appendLogRecord(String record) throws PersistenceException {
+		try {
+			Path parent = changeLogPath.getParent();
+			if (parent != null) {
+				Files.createDirectories(parent);
+			}
+			if (pendingLogRecords < 0) {
+				pendingLogRecords = countLogRecords();
+			}
+			// Després d'una caiguda el registre pot acabar en una entrada a mitges:
+			// es tanca la línia perquè la nova entrada no s'hi enganxi.
+			String prefix = "";
+			if (!logTailChecked) {
+				if (!endsWithNewline(changeLogPath)) prefix = "\n";
+				logTailChecked = true;
+			}
 			Files.writeString(
-					userDataPath,
-					newContent,
+					changeLogPath,
+					prefix + record + "\n",
 					StandardCharsets.UTF_8,
 					StandardOpenOption.CREATE,
-					StandardOpenOption.TRUNCATE_EXISTING
+					StandardOpenOption.APPEND
 			);
+			pendingLogRecords++;
 		} catch (IOException io) {
-			throw new PersistenceException("userdata.json", io.getMessage());
+			throw new PersistenceException("userdata.log", io.getMessage());
+		}
+		if (pendingLogRecords >= compactThreshold && !compactionScheduled) {
+			compactionScheduled = true;
+			return true;
+		}
+		return false;
+	}
+
+	/** Cert si el fitxer no existeix, és buit o el seu darrer byte és {@code '\n'}. */
+	private static boolean endsWithNewline(Path path) throws IOException {
+		if (!Files.exists(path)) return true;
+		try (SeekableByteChannel ch = Files.newByteChannel(path, StandardOpenOption.READ)) {
+			long size = ch.size();
+			if (size == 0) return true;
+			ByteBuffer last = ByteBuffer.allocate(1);
+			ch.position(size - 1);
+			while (last.hasRemaining() && ch.read(last) >= 0) {
+				// llegeix l'últim byte
+			}
+			return last.get(0) == '\n';
+		}
+	}
+
+	private int countLogRecords() throws IOException {
+		if (!Files.exists(changeLogPath)) return 0;
+		try (java.util.stream.Stream<String> lines = Files.lines(changeLogPath, StandardCharsets.UTF_8)) {
+			return (int) lines.filter(l -> !l.isBlank()).count();
 		}
 	}
 
 	/**
-	 * Sobrescriu el fitxer amb tots els usuaris registrats actuals.
+	 * Sobrescriu el fitxer amb tots els usuaris registrats actuals i buida el registre de canvis.
 	 */
 	public synchronized void persistAllUsers(Collection<RegisteredUser> users)
 			throws NullArgumentException, PersistenceException {
 		if (users == null) {
 			throw new NullArgumentException("users");
 		}
+		Path tmp = writeSnapshotTmp(users);
+		try {
+			installSnapshot(tmp);
+			Files.deleteIfExists(compactingLogPath);
+			Files.deleteIfExists(changeLogPath);
+		} catch (IOException io) {
+			throw new PersistenceException("userdata.json", io.getMessage());
+		}
+		snapshotGeneration++;
+		pendingLogRecords = 0;
+	}
 
+	/** Escriu la instantània en un fitxer temporal al costat de {@code userdata.json}. */
+	private Path writeSnapshotTmp(Collection<RegisteredUser> users) throws PersistenceException {
 		try {
 			Path parent = userDataPath.getParent();
 			if (parent != null) {
@@ -100,160 +322,111 @@ public class UserPersistence {
 			}
 			sb.append("\n]\n");
 
-			    Files.writeString(
-				    userDataPath,
-					sb.toString(),
-					StandardCharsets.UTF_8,
-					StandardOpenOption.CREATE,
-					StandardOpenOption.TRUNCATE_EXISTING
-			);
+			Path tmp = Files.createTempFile(parent == null ? Path.of(".") : parent,
+					userDataPath.getFileName().toString(), ".tmp");
+			Files.writeString(tmp, sb.toString(), StandardCharsets.UTF_8, StandardOpenOption.TRUNCATE_EXISTING);
+			return tmp;
 		} catch (IOException io) {
 			throw new PersistenceException("userdata.json", io.getMessage());
 		}
 	}
 
+	/** Mou atòmicament la instantània temporal sobre {@code userdata.json}. */
+	private void installSnapshot(Path tmp) throws IOException {
+		try {
+			Files.move(tmp, userDataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (java.nio.file.AtomicMoveNotSupportedException e) {
+			Files.move(tmp, userDataPath, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
 	/**
-	 * Carrega tots els usuaris registrats des del fitxer JSON.
-	 * Si el fitxer no existeix, retorna una llista buida.
+	 * Carrega tots els usuaris registrats: llegeix la instantània i hi aplica
+	 * en ordre el registre en compactació (si n'hi ha) i el registre de
+	 * canvis. Si cap fitxer existeix, retorna una llista buida.
+	 *
+	 * <p>Els fitxers es llegeixen en una sola passada amb
+	 * {@link UserJsonReader}, sense carregar-los sencers en memòria.</p>
 	 */
 	public synchronized java.util.List<RegisteredUser> loadAllUsers() throws PersistenceException {
-		try {
-			if (!Files.exists(userDataPath)) {
-				return new java.util.ArrayList<>();
-			}
-			String content = Files.readString(userDataPath, StandardCharsets.UTF_8);
-			if (content == null || content.trim().isEmpty()) {
-				return new java.util.ArrayList<>();
-			}
-			String trimmed = content.trim();
-			if (!trimmed.startsWith("[") || !trimmed.endsWith("]")) {
-				throw new PersistenceException("userdata.json", "Formato JSON no válido");
-			}
-
-			java.util.List<String> objects = extractJsonObjects(trimmed);
-			java.util.LinkedHashMap<String, RegisteredUser> byId = new java.util.LinkedHashMap<>();
-			String now = java.time.LocalDateTime.now().toString();
-			for (String obj : objects) {
-				String id = readStringField(obj, "id");
-				if (id == null || id.isBlank()) continue;
-				String displayName = readStringField(obj, "displayName");
-				String username = readStringField(obj, "username");
-				String passwordHash = readStringField(obj, "passwordHash");
-				RegisteredUser user = new RegisteredUser(
-						id,
-						displayName == null ? "" : displayName,
-						now,
-						username == null ? "" : username,
-						passwordHash == null ? "" : passwordHash
-				);
-				// If duplicates exist, last one wins.
-				byId.put(id, user);
-			}
-			return new java.util.ArrayList<>(byId.values());
-		} catch (IOException io) {
-			throw new PersistenceException("userdata.json", io.getMessage());
-		}
+		return readState(true);
 	}
 
-	private java.util.List<String> extractJsonObjects(String jsonArray) {
-		java.util.List<String> objs = new java.util.ArrayList<>();
-		int start = -1;
-		int depth = 0;
-		boolean inString = false;
-		boolean escape = false;
-		for (int i = 0; i < jsonArray.length(); i++) {
-			char c = jsonArray.charAt(i);
-			if (escape) { escape = false; continue; }
-			if (inString) {
-				if (c == '\\') { escape = true; continue; }
-				if (c == '"') { inString = false; }
-				continue;
-			}
-			if (c == '"') { inString = true; continue; }
-			if (c == '{') {
-				if (depth == 0) start = i;
-				depth++;
-			} else if (c == '}') {
-				depth--;
-				if (depth == 0 && start != -1) {
-					objs.add(jsonArray.substring(start, i + 1));
-					start = -1;
+	/**
+	 * Instantània més el registre en compactació i, si {@code includeLog},
+	 * el registre de canvis actual (i n'actualitza el comptador d'entrades).
+	 */
+	private java.util.List<RegisteredUser> readState(boolean includeLog) throws PersistenceException {
+		java.util.LinkedHashMap<String, RegisteredUser> byId = new java.util.LinkedHashMap<>();
+		String now = java.time.LocalDateTime.now().toString();
+		UserJsonReader.Record record = new UserJsonReader.Record();
+
+		if (Files.exists(userDataPath)) {
+			try (UserJsonReader reader = open(userDataPath)) {
+				if (reader.beginArray()) {
+					while (reader.nextObject(record)) {
+						RegisteredUser user = record.toUser(now);
+						// If duplicates exist, last one wins.
+						if (user != null) byId.put(user.getId(), user);
+					}
 				}
+			} catch (UserJsonReader.MalformedJsonException e) {
+				throw new PersistenceException("userdata.json", "Formato JSON no válido");
+			} catch (IOException io) {
+				throw new PersistenceException("userdata.json", io.getMessage());
 			}
 		}
-		return objs;
+
+		replay(compactingLogPath, byId, record, now);
+		if (includeLog) {
+			pendingLogRecords = replay(changeLogPath, byId, record, now);
+		}
+		return new java.util.ArrayList<>(byId.values());
 	}
 
-	private String readStringField(String objJson, String key) {
-		if (objJson == null || key == null) return null;
-		String needle = "\"" + key + "\"";
-		int k = objJson.indexOf(needle);
-		if (k < 0) return null;
-		int colon = objJson.indexOf(':', k + needle.length());
-		if (colon < 0) return null;
-		int i = colon + 1;
-		while (i < objJson.length() && Character.isWhitespace(objJson.charAt(i))) i++;
-		if (i >= objJson.length() || objJson.charAt(i) != '"') return null;
-		i++;
-		StringBuilder sb = new StringBuilder();
-		boolean esc = false;
-		for (; i < objJson.length(); i++) {
-			char c = objJson.charAt(i);
-			if (esc) {
-				switch (c) {
-					case '"' -> sb.append('"');
-					case '\\' -> sb.append('\\');
-					case '/' -> sb.append('/');
-					case 'b' -> sb.append('\b');
-					case 'f' -> sb.append('\f');
-					case 'n' -> sb.append('\n');
-					case 'r' -> sb.append('\r');
-					case 't' -> sb.append('\t');
-					case 'u' -> {
-						if (i + 4 < objJson.length()) {
-							String hex = objJson.substring(i + 1, i + 5);
-							try { sb.append((char) Integer.parseInt(hex, 16)); } catch (Exception ignored) {}
-							i += 4;
+	/**
+	 * Aplica sobre {@code byId} les entrades d'un registre de canvis.
+	 *
+	 * @return nombre d'entrades vàlides.
+	 */
+	private static int replay(Path logPath, java.util.Map<String, RegisteredUser> byId,
+			UserJsonReader.Record record, String now) throws PersistenceException {
+		int records = 0;
+		int skipped = 0;
+		if (Files.exists(logPath)) {
+			try (UserJsonReader reader = open(logPath)) {
+				while (true) {
+					try {
+						if (!reader.nextLogRecord(record)) break;
+					} catch (UserJsonReader.MalformedJsonException e) {
+						// Una línia incompleta (escriptura interrompuda) s'ignora;
+						// la lectura continua a la línia següent.
+						skipped++;
+						continue;
+					}
+					records++;
+					if (record.isDelete()) {
+						if (record.id != null) byId.remove(record.id);
+					} else {
+						RegisteredUser user = record.toUser(now);
+						if (user != null) {
+							byId.remove(user.getId());
+							byId.put(user.getId(), user);
 						}
 					}
-					default -> sb.append(c);
 				}
-				esc = false;
-				continue;
+			} catch (IOException io) {
+				throw new PersistenceException("userdata.log", io.getMessage());
 			}
-			if (c == '\\') { esc = true; continue; }
-			if (c == '"') break;
-			sb.append(c);
 		}
-		return sb.toString();
-	}
-
-	private String wrapAsArray(String userJson) {
-		return "[\n" + userJson + "\n]\n";
-	}
-
-	private String appendUser(String currentContent, String userJson) throws PersistenceException {
-		String trimmed = currentContent == null ? "" : currentContent.trim();
-		if (trimmed.isEmpty() || "[]".equals(trimmed)) {
-			return wrapAsArray(userJson);
-		}
-		if (!trimmed.startsWith("[") || !trimmed.endsWith("]")) {
-			throw new PersistenceException("userdata.json", "Formato JSON no válido");
+		if (skipped > 0) {
+			LOG.warn("entrades malmeses ignorades al registre d'usuaris", "file", logPath, "skipped", skipped);
 		}
+		return records;
+	}
 
-		String body = trimmed.substring(1, trimmed.length() - 1).trim();
-		StringBuilder sb = new StringBuilder();
-		sb.append("[\n");
-		if (!body.isEmpty()) {
-			sb.append(body);
-			if (!body.trim().endsWith(",")) {
-				sb.append(",\n");
-			} else {
-				sb.append("\n");
-			}
-		}
-		sb.append(userJson).append("\n]");
-		return sb.toString();
+	private static UserJsonReader open(Path path) throws IOException {
+		return new UserJsonReader(Files.newInputStream(path));
 	}
 
 	private String serialize(RegisteredUser user) {
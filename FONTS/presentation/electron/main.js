@@ -72,7 +72,7 @@ app.whenReady().then(() => {
 
   let jarPath = path.join(__dirname, '../../../EXE/app.jar');
   try {
-    javaProcess = spawn('java', ['-cp', jarPath, 'app.DomainDriver'], { cwd: path.join(__dirname, '..') });
+    javaProcess = spawn('java', ['--add-modules', 'jdk.incubator.vector', '-cp', jarPath, 'app.DomainDriver'], { cwd: path.join(__dirname, '..') });
 
     javaProcess.stdout.on('data', (data) => {
       if (!win || win.isDestroyed()) return;